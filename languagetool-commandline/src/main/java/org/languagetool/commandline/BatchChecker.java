@@ -0,0 +1,191 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.commandline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.languagetool.DetectedLanguage;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tools.RuleMatchesAsJsonSerializer;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.languagetool.tools.StringTools.filterXML;
+import static org.languagetool.tools.StringTools.readerToString;
+
+/**
+ * Checks many files in parallel for the {@code --batch} option. The files are distributed over
+ * a fixed number of threads, which share a pool of {@link JLanguageTool} instances. The result
+ * of each file is printed as soon as it's available - with {@code --json} as one line with a JSON
+ * object that contains the file name and the usual JSON result. A summary with the throughput is
+ * printed to STDERR at the end.
+ * @since 6.4
+ */
+class BatchChecker {
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final BlockingQueue<JLanguageTool> languageTools;
+  private final CommandLineOptions options;
+  private final PrintStream out;
+  private final AtomicInteger checkedFiles = new AtomicInteger();
+  private final AtomicInteger failedFiles = new AtomicInteger();
+  private final AtomicLong checkedChars = new AtomicLong();
+  private final AtomicLong matchCount = new AtomicLong();
+
+  BatchChecker(List<JLanguageTool> languageTools, CommandLineOptions options) throws UnsupportedEncodingException {
+    this.languageTools = new ArrayBlockingQueue<>(languageTools.size(), false, languageTools);
+    this.options = options;
+    this.out = new PrintStream(System.out, true, "UTF-8");
+  }
+
+  /**
+   * Resolve files, directories (recursively), and glob patterns like {@code docs/**}{@code /*.md}
+   * to a sorted list of files.
+   */
+  static List<File> collectFiles(List<String> paths) throws IOException {
+    SortedSet<File> files = new TreeSet<>();
+    for (String path : paths) {
+      int globStart = indexOfGlobChar(path);
+      if (globStart == -1) {
+        File file = new File(path);
+        if (file.isDirectory()) {
+          files.addAll(listFiles(file.toPath(), p -> true));
+        } else if (file.exists()) {
+          files.add(file);
+        } else {
+          throw new FileNotFoundException("File or directory not found: " + path);
+        }
+      } else {
+        int baseDirEnd = path.lastIndexOf('/', globStart);
+        Path baseDir = Paths.get(baseDirEnd == -1 ? "." : path.substring(0, Math.max(1, baseDirEnd)));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + path);
+        // paths found below "." start with "./", which the pattern doesn't:
+        files.addAll(listFiles(baseDir, p -> matcher.matches(baseDirEnd == -1 ? baseDir.relativize(p) : p)));
+      }
+    }
+    return new ArrayList<>(files);
+  }
+
+  private static int indexOfGlobChar(String path) {
+    for (int i = 0; i < path.length(); i++) {
+      if ("*?[{".indexOf(path.charAt(i)) != -1) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static List<File> listFiles(Path dir, java.util.function.Predicate<Path> filter) throws IOException {
+    if (!Files.isDirectory(dir)) {
+      return Collections.emptyList();
+    }
+    try (Stream<Path> stream = Files.walk(dir)) {
+      return stream.filter(Files::isRegularFile).filter(filter).map(Path::toFile).collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * @return the number of files that could not be checked
+   */
+  int run(List<File> files) {
+    long startTime = System.currentTimeMillis();
+    ExecutorService executor = Executors.newFixedThreadPool(languageTools.size());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (File file : files) {
+        futures.add(executor.submit(() -> checkFile(file)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    long millis = Math.max(1, System.currentTimeMillis() - startTime);
+    System.err.printf(Locale.ENGLISH, "Checked %d files (%d failed), %d characters, %d matches in %dms: %.1f files/sec, %.0f characters/sec\n",
+      checkedFiles.get(), failedFiles.get(), checkedChars.get(), matchCount.get(), millis,
+      checkedFiles.get() * 1000.0 / millis, checkedChars.get() * 1000.0 / millis);
+    return failedFiles.get();
+  }
+
+  private void checkFile(File file) {
+    try {
+      String text;
+      try (InputStreamReader reader = Main.getInputStreamReader(file.getPath(), options.getEncoding())) {
+        text = readerToString(reader);
+      }
+      if (options.isXmlFiltering()) {
+        text = filterXML(text);
+      }
+      JLanguageTool lt = languageTools.take();
+      List<RuleMatch> ruleMatches;
+      try {
+        ruleMatches = lt.check(new AnnotatedTextBuilder().addText(text).build(), true, JLanguageTool.ParagraphHandling.NORMAL,
+          null, JLanguageTool.Mode.ALL, options.getLevel());
+        // suggestions are computed lazily, make sure that happens on this thread:
+        ruleMatches.forEach(RuleMatch::getSuggestedReplacementObjects);
+      } finally {
+        languageTools.put(lt);
+      }
+      print(file, text, ruleMatches, lt.getLanguage());
+      checkedFiles.incrementAndGet();
+      checkedChars.addAndGet(text.length());
+      matchCount.addAndGet(ruleMatches.size());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      failedFiles.incrementAndGet();
+      System.err.println("Could not check file " + file + ": " + e);
+    }
+  }
+
+  private void print(File file, String text, List<RuleMatch> ruleMatches, Language lang) throws IOException {
+    if (options.isJsonFormat()) {
+      String json = new RuleMatchesAsJsonSerializer().ruleMatchesToJson(ruleMatches, text,
+        CommandLineTools.DEFAULT_CONTEXT_SIZE, new DetectedLanguage(lang, lang));
+      String line = "{\"file\":" + mapper.writeValueAsString(file.getPath()) + ",\"result\":" + json + "}";
+      synchronized (out) {
+        out.println(line);
+      }
+    } else {
+      // printMatches() writes to System.out line by line, so keep the output of other files out:
+      synchronized (out) {
+        System.out.println("File: " + file.getPath());
+        CommandLineTools.printMatches(ruleMatches, 0, text, CommandLineTools.DEFAULT_CONTEXT_SIZE, lang, options.isVerbose());
+        System.out.flush();
+      }
+    }
+  }
+
+}
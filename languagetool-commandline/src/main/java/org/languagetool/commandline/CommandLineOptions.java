@@ -61,6 +61,9 @@ public class CommandLineOptions {
   private boolean lineByLine = false;
   private boolean enableTempOff = false;
   private boolean cleanOverlapping = false;
+  private boolean batch = false;
+  private int threads = 0;
+  private final List<String> batchPaths = new ArrayList<>();
   private JLanguageTool.Level level = JLanguageTool.Level.DEFAULT;
   @Nullable
   private Language language = null;
@@ -444,5 +447,41 @@ public class CommandLineOptions {
     return this.level;
   }
 
+  /** @since 6.4 */
+  public boolean isBatch() {
+    return batch;
+  }
+
+  /** @since 6.4 */
+  public void setBatch(boolean batch) {
+    this.batch = batch;
+  }
+
+  /**
+   * @return the number of files to check in parallel in batch mode, 0 for the number of processors
+   * @since 6.4
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /** @since 6.4 */
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * @return files, directories, and glob patterns to be checked in batch mode
+   * @since 6.4
+   */
+  public List<String> getBatchPaths() {
+    return batchPaths;
+  }
+
+  /** @since 6.4 */
+  public void addBatchPath(String path) {
+    batchPaths.add(path);
+  }
+
 }
 
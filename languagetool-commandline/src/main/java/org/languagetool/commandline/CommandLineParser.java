@@ -32,7 +32,8 @@ import java.util.Arrays;
 class CommandLineParser {
 
   CommandLineOptions parseOptions(String[] args) {
-    if (args.length < 1 || args.length > 14) {
+    // in batch mode, the shell may expand patterns to any number of files:
+    if (args.length < 1 || (args.length > 14 && !Arrays.asList(args).contains("--batch"))) {
       throw new WrongParameterNumberException();
     }
     CommandLineOptions options = new CommandLineOptions();
@@ -168,12 +169,29 @@ class CommandLineParser {
         }
       } else if (args[i].equals("--xmlfilter")) {
         options.setXmlFiltering(true);
+      } else if (args[i].equals("--batch")) {
+        options.setBatch(true);
+      } else if (args[i].equals("--threads")) {
+        checkArguments("--threads", i, args);
+        options.setThreads(Integer.parseInt(args[++i]));
+      } else if (options.isBatch() && !args[i].startsWith("-")) {
+        options.addBatchPath(args[i]);
       } else if (i == args.length - 1) {
         options.setFilename(args[i]);
       } else {
         throw new UnknownParameterException("Unknown parameter: " + args[i]);
       }
     }
+    if (options.isBatch()) {
+      if (options.getBatchPaths().isEmpty()) {
+        throw new IllegalArgumentException("Batch mode needs at least one file, directory, or pattern");
+      }
+      if (options.isBitext() || options.isLineByLine() || options.isApplySuggestions() || options.isProfile() ||
+          options.isTaggerOnly() || options.isAutoDetect() || options.isListUnknown()) {
+        throw new IllegalArgumentException("Batch mode cannot be combined with bitext, line-by-line, apply, profile, " +
+          "taggeronly, autoDetect, or list-unknown mode");
+      }
+    }
     return options;
   }
 
@@ -186,6 +204,10 @@ class CommandLineParser {
             + " FILE                      plain text file to be checked\n"
             + " Available options:\n"
             + "  -r, --recursive          work recursively on directory, not on a single file\n"
+            + "  --batch                  check all following FILE arguments, which can also be directories (checked\n"
+            + "                           recursively) or patterns like 'docs/**/*.md', in parallel; prints a summary\n"
+            + "                           to STDERR and, with --json, one JSON object per line and file\n"
+            + "  --threads N              number of files to check in parallel in batch mode (default: number of processors)\n"
             + "  -c, --encoding ENC       character set of the input text, e.g. utf-8 or latin1\n"
             + "  -b                       assume that a single line break marks the end of a paragraph\n"
             + "  -l, --language LANG      the language code of the text, e.g. en for English, en-GB for British English\n"
@@ -204,7 +226,8 @@ class CommandLineParser {
             + "  -b2, --bitext            check bilingual texts with a tab-separated input file,\n"
             + "                           see http://languagetool.wikidot.com/checking-translations-bilingual-texts\n"
             + "  --json                   print results as JSON (see https://languagetool.org/http-api/#!/default/post_check)\n"
-            + "  -p, --profile            print performance measurements\n"
+            + "  -p, --profile            check the input once and print the time each rule took, slowest first\n"
+            + "                           (as JSON with --json)\n"
             + "  -v, --verbose            print text analysis (sentences, part-of-speech tags) to STDERR\n"
             + "  --version                print LanguageTool version number and exit\n"
             + "  -a, --apply              automatically apply suggestions if available, printing result to STDOUT\n"
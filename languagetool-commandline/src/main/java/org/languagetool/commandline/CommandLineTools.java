@@ -18,28 +18,29 @@
  */
 package org.languagetool.commandline;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.languagetool.*;
 import org.languagetool.bitext.BitextReader;
 import org.languagetool.bitext.StringPair;
 import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
-import org.languagetool.rules.TextLevelRule;
 import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.tokenizers.SentenceTokenizer;
 import org.languagetool.tools.ContextTools;
 import org.languagetool.tools.RuleMatchesAsJsonSerializer;
+import org.languagetool.tools.RuleProfiler;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.Tools;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import static java.util.Collections.emptyList;
 import static org.languagetool.JLanguageTool.Level.*;
@@ -49,7 +50,7 @@ import static org.languagetool.JLanguageTool.Level.*;
  */
 public final class CommandLineTools {
 
-  private static final int DEFAULT_CONTEXT_SIZE = 45;
+  static final int DEFAULT_CONTEXT_SIZE = 45;
 
   private CommandLineTools() {
   }
@@ -263,87 +264,62 @@ public final class CommandLineTools {
    */
   public static void profileRulesOnText(String contents,
                                         JLanguageTool lt) throws IOException {
-    int iterationCount = 3;
-    long[] workTime = new long[iterationCount];
-    List<Rule> rules = lt.getAllActiveRules();
-    int ruleCount = rules.size();
-
-    List<String> sentences = lt.sentenceTokenize(contents);
-
-    long analyzeStartTime = System.currentTimeMillis();
-    List<AnalyzedSentence> rawAnalyzedSentences = new ArrayList<>();
-    for(String sentence: sentences) {
-      rawAnalyzedSentences.add(lt.getRawAnalyzedSentence(sentence));
-    }
-
-    long tagEndTime = System.currentTimeMillis();
-
-    long analyzeEndTime = tagEndTime;
-    long analyzeTime = analyzeEndTime-analyzeStartTime;
-    System.out.printf("Analyze time: %d ms, %.1f sent/sec\n\n", analyzeTime, (float)sentences.size()/analyzeTime);
+    profileRulesOnText(contents, lt, false);
+  }
 
-    Language language = lt.getLanguage();
-    
-    //TODO: it would be nice to have timing for each disambiguation rule too
-    List<AnalyzedSentence> analyzedSentences = rawAnalyzedSentences.stream().map( s -> 
-    {
-      try {
-        AnalyzedSentence disambig = language.getDisambiguator().disambiguate(s);
-        AnalyzedSentence analyzedSentence = new AnalyzedSentence(disambig.getTokens(), s.getTokens());
-        if (language.getPostDisambiguationChunker() != null) {
-          language.getPostDisambiguationChunker().addChunkTags(Arrays.asList(analyzedSentence.getTokens()));
-        }
-        return analyzedSentence;
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
+  /**
+   * Rule profiler that checks the text only once and measures the time of each rule
+   * during that check. Prints the rules sorted by total time to System.out.
+   *
+   * @param contents text to check
+   * @param lt instance of LanguageTool
+   * @param isJsonFormat whether to print the result in JSON format
+   * @since 6.4
+   */
+  public static void profileRulesOnText(String contents,
+                                        JLanguageTool lt, boolean isJsonFormat) throws IOException {
+    RuleProfiler profiler = new RuleProfiler();
+    lt.setRuleProfiler(profiler);
+    long startTime = System.currentTimeMillis();
+    try {
+      lt.check(contents);
+    } finally {
+      lt.setRuleProfiler(null);
     }
-    ).collect(Collectors.toList());
-
-    long disambigEndTime = System.currentTimeMillis();
-    long disambigTime = disambigEndTime-tagEndTime;
-    System.out.printf("Disambig time: %d ms, %f sent/sec\n\n", disambigTime, (float)sentences.size()/disambigTime);
+    long checkTime = System.currentTimeMillis() - startTime;
+    printRuleProfile(profiler, lt.sentenceTokenize(contents).size(), checkTime, isJsonFormat);
+  }
 
-    System.out.printf("Testing %d rules%n", ruleCount);
-    System.out.printf("%-40s%10s%10s%10s%15s\n", "Rule ID", "Time", "Sentences", "Matches", "Sentences per sec.");
-    
-    
-    for (Rule rule : rules) {
-      if (rule instanceof TextLevelRule) {
-        continue; // profile rules for sentences only
+  static void printRuleProfile(RuleProfiler profiler, int sentenceCount, long checkTimeMillis, boolean isJsonFormat) throws IOException {
+    List<RuleProfiler.RuleStats> stats = profiler.getStats();
+    long ruleNanos = stats.stream().mapToLong(RuleProfiler.RuleStats::getTotalNanos).sum();
+    if (isJsonFormat) {
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("sentences", sentenceCount);
+      result.put("checkTimeMillis", checkTimeMillis);
+      result.put("ruleTimeMillis", ruleNanos / 1_000_000);
+      List<Map<String, Object>> rules = new ArrayList<>();
+      for (RuleProfiler.RuleStats ruleStats : stats) {
+        Map<String, Object> rule = new LinkedHashMap<>();
+        rule.put("id", ruleStats.getRuleId());
+        rule.put("totalMillis", ruleStats.getTotalNanos() / 1_000_000.0);
+        rule.put("calls", ruleStats.getCalls());
+        rule.put("meanMicros", ruleStats.getMeanNanos() / 1000.0);
+        rule.put("matches", ruleStats.getMatches());
+        rules.add(rule);
       }
-
-      int matchCount = 0;
-      for (int k = 0; k < iterationCount; k++) {
-        long startTime = System.currentTimeMillis();
-        for (AnalyzedSentence sentence : analyzedSentences) {
-          matchCount += rule.match
-                  (sentence).length;
-        }
-        long endTime =  System.currentTimeMillis();
-        workTime[k] = endTime - startTime;
+      result.put("rules", rules);
+      PrintStream out = new PrintStream(System.out, true, "UTF-8");
+      out.println(new ObjectMapper().writeValueAsString(result));
+    } else {
+      System.out.printf(Locale.ENGLISH, "Checked %d sentences with %d rules in %d ms (%d ms in rules)%n%n",
+        sentenceCount, stats.size(), checkTimeMillis, ruleNanos / 1_000_000);
+      System.out.printf("%-50s%12s%10s%14s%10s%n", "Rule ID", "Time (ms)", "Calls", "Mean (µs)", "Matches");
+      for (RuleProfiler.RuleStats ruleStats : stats) {
+        System.out.printf(Locale.ENGLISH, "%-50s%12.1f%10d%14.1f%10d%n", ruleStats.getRuleId(),
+          ruleStats.getTotalNanos() / 1_000_000.0, ruleStats.getCalls(), ruleStats.getMeanNanos() / 1000.0, ruleStats.getMatches());
       }
-
-      long time = median(workTime);
-      float timeInSeconds = time / 1000.0f;
-      float sentencesPerSecond = sentences.size() / timeInSeconds;
-      System.out.printf(Locale.ENGLISH,
-              "%-40s%10d%10d%10d%15.1f\n", rule.getFullId(),
-              time, sentences.size(), matchCount, sentencesPerSecond);
-    }
-    
-    long ruleEndTime =  System.currentTimeMillis();
-    System.out.printf("\nTotal rule time: %d ms\n", (ruleEndTime - disambigEndTime)/iterationCount);
-  }
-
-  private static long median(long[] m) {
-    Arrays.sort(m);
-    int middle = m.length / 2;  // subscript of middle element
-    if (m.length % 2 == 1) {
-      // Odd number of elements -- return the middle one.
-      return m[middle];
     }
-    return (m[middle-1] + m[middle]) / 2;
   }
 
   /**
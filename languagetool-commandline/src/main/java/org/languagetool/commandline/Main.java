@@ -30,6 +30,7 @@ import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.rules.patterns.PatternRuleLoader;
 import org.languagetool.tools.JnaTools;
+import org.languagetool.tools.RuleProfiler;
 import org.languagetool.tools.StringTools.ApiPrintMode;
 import org.languagetool.tools.Tools;
 import org.xml.sax.SAXException;
@@ -58,7 +59,7 @@ class Main {
   private boolean bitextMode;
   private MultiThreadedJLanguageTool srcLt;
   private List<BitextRule> bRules;
-  private Rule currentRule;
+  private int profiledSentences;
 
   Main(CommandLineOptions options) throws IOException {
     this.options = options;
@@ -66,10 +67,16 @@ class Main {
     bitextMode = false;
     srcLt = null;
     bRules = null;
-    lt = new MultiThreadedJLanguageTool(options.getLanguage(), options.getMotherTongue());
+    if (!options.isBatch()) {  // batch mode creates its own instances
+      lt = new MultiThreadedJLanguageTool(options.getLanguage(), options.getMotherTongue());
+      configure(lt);
+    }
+  }
+
+  private void configure(JLanguageTool lt) throws IOException {
     lt.setCleanOverlappingMatches(options.isCleanOverlapping());
     if (options.getRuleFile() != null) {
-      addExternalRules(options.getRuleFile(), options.getLanguage());
+      addExternalRules(lt, options.getRuleFile(), options.getLanguage());
     }
     if (options.getLanguageModel() != null) {
       lt.activateLanguageModelRules(options.getLanguageModel());
@@ -79,7 +86,7 @@ class Main {
             new HashSet<>(options.getDisabledRules()), new HashSet<>(options.getEnabledRules()), options.isUseEnabledOnly(), options.isEnableTempOff());
   }
 
-  private void addExternalRules(String filename, Language lang) throws IOException {
+  private static void addExternalRules(JLanguageTool lt, String filename, Language lang) throws IOException {
     PatternRuleLoader ruleLoader = new PatternRuleLoader();
     try (InputStream is = new FileInputStream(filename)) {
       List<AbstractPatternRule> externalRules = ruleLoader.getRules(is, filename, lang);
@@ -89,7 +96,16 @@ class Main {
     }
   }
 
-  boolean isSpellCheckingActive() {
+  private void addFalseFriendRules(JLanguageTool lt) throws IOException, ParserConfigurationException, SAXException {
+    if (options.getFalseFriendFile() != null) {
+      List<AbstractPatternRule> ffRules = lt.loadFalseFriendRules(options.getFalseFriendFile());
+      for (AbstractPatternRule ffRule : ffRules) {
+        lt.addRule(ffRule);
+      }
+    }
+  }
+
+  static boolean isSpellCheckingActive(JLanguageTool lt) {
     List<Rule> rules = lt.getAllActiveRules();
     for (Rule rule : rules) {
       if (rule.isDictionaryBasedSpellingRule()) {
@@ -181,7 +197,7 @@ class Main {
       if (options.isApplySuggestions()) {
         System.out.print(Tools.correctText(text, lt));
       } else if (profileRules) {
-        CommandLineTools.profileRulesOnText(text, lt);
+        CommandLineTools.profileRulesOnText(text, lt, options.isJsonFormat());
       } else if (!options.isTaggerOnly()) {
         CommandLineTools.checkText(text, lt, options.isJsonFormat(), 0, options.getLevel(), options.isListUnknown(), options.isVerbose());
       } else {
@@ -205,63 +221,55 @@ class Main {
         System.err.println("Working on " + filename + "...");
       }
     }
-    if (profileRules && isStdIn(filename)) {
-      throw new IllegalArgumentException("Profiling mode cannot be used with input from STDIN");
-    }
-    int runCount = 1;
-    List<Rule> rules = lt.getAllActiveRules();
+    RuleProfiler profiler = null;
     if (profileRules) {
-      System.out.printf("Testing %d rules\n", rules.size());
-      System.out.println("Rule ID\tTime\tSentences\tMatches\tSentences per sec.");
-      runCount = rules.size();
+      profiler = new RuleProfiler();
+      lt.setRuleProfiler(profiler);
     }
+    long startTime = System.currentTimeMillis();
     int lineOffset = 0;
     int tmpLineOffset = 0;
     handleLine(ApiPrintMode.START_API, 0, new StringBuilder(), level);
     StringBuilder sb = new StringBuilder();
-    for (int ruleIndex = 0; !rules.isEmpty() && ruleIndex < runCount; ruleIndex++) {
-      currentRule = rules.get(ruleIndex);
-      try (
-          InputStreamReader isr = getInputStreamReader(filename, encoding);
-          BufferedReader br = new BufferedReader(isr)
-      ) {
-        String line;
-        int lineCount = 0;
-        while ((line = br.readLine()) != null) {
-          sb.append(line);
-          lineCount++;
-          // to detect language from the first input line
-          if (lineCount == 1 && options.isAutoDetect()) {
-            Language language = detectLanguageOfString(line);
-            if (language == null) {
-              System.err.println("Could not detect language well enough, using American English");
-              language = new AmericanEnglish();
-            }
-            System.err.println("Language used is: " + language.getName());
-            language.getSentenceTokenizer().setSingleLineBreaksMarksParagraph(
-                    options.isSingleLineBreakMarksParagraph());
-            changeLanguage(language, options.getMotherTongue(), options.getDisabledRules(), options.getEnabledRules());
+    try (
+        InputStreamReader isr = getInputStreamReader(filename, encoding);
+        BufferedReader br = new BufferedReader(isr)
+    ) {
+      String line;
+      int lineCount = 0;
+      while ((line = br.readLine()) != null) {
+        sb.append(line);
+        lineCount++;
+        // to detect language from the first input line
+        if (lineCount == 1 && options.isAutoDetect()) {
+          Language language = detectLanguageOfString(line);
+          if (language == null) {
+            System.err.println("Could not detect language well enough, using American English");
+            language = new AmericanEnglish();
           }
-          sb.append('\n');
-          tmpLineOffset++;
-
-          if (isBreakPoint(line)) {
-            handleLine(ApiPrintMode.CONTINUE_API, lineOffset, sb, level);
-            if (profileRules) {
-              lt.sentenceTokenize(sb.toString()).size();
-            }
-            sb = new StringBuilder();
-            lineOffset = tmpLineOffset;
+          System.err.println("Language used is: " + language.getName());
+          language.getSentenceTokenizer().setSingleLineBreaksMarksParagraph(
+                  options.isSingleLineBreakMarksParagraph());
+          changeLanguage(language, options.getMotherTongue(), options.getDisabledRules(), options.getEnabledRules());
+          if (profiler != null) {
+            lt.setRuleProfiler(profiler);
           }
         }
-      } finally {
-        if (sb.length() > 0) {
-          if (profileRules) {
-            lt.sentenceTokenize(sb.toString()).size();
-          }
+        sb.append('\n');
+        tmpLineOffset++;
+
+        if (isBreakPoint(line)) {
+          handleLine(ApiPrintMode.CONTINUE_API, lineOffset, sb, level);
+          sb = new StringBuilder();
+          lineOffset = tmpLineOffset;
         }
-        handleLine(ApiPrintMode.END_API, tmpLineOffset - 1, sb, level);
       }
+    } finally {
+      handleLine(ApiPrintMode.END_API, tmpLineOffset - 1, sb, level);
+    }
+    if (profiler != null) {
+      lt.setRuleProfiler(null);
+      CommandLineTools.printRuleProfile(profiler, profiledSentences, System.currentTimeMillis() - startTime, options.isJsonFormat());
     }
   }
 
@@ -271,7 +279,8 @@ class Main {
     if (options.isApplySuggestions()) {
       System.out.print(Tools.correctText(s, lt));
     } else if (profileRules) {
-      Tools.profileRulesOnLine(s, lt, currentRule);
+      profiledSentences += lt.sentenceTokenize(s).size();
+      lt.check(s);
     } else if (!options.isTaggerOnly()) {
       CommandLineTools.checkText(s, lt, options.isJsonFormat(), -1,
           lineOffset, matches, mode, options.isListUnknown(), level, Collections.emptyList(), options.isVerbose());
@@ -284,7 +293,7 @@ class Main {
     return lt.getLanguage().getSentenceTokenizer().singleLineBreaksMarksPara() || "".equals(line);
   }
 
-  private InputStreamReader getInputStreamReader(String filename, String encoding) throws IOException {
+  static InputStreamReader getInputStreamReader(String filename, String encoding) throws IOException {
     String charsetName = encoding != null ? encoding : Charset.defaultCharset().name();
     InputStream is = System.in;
     if (!isStdIn(filename)) {
@@ -300,7 +309,7 @@ class Main {
     return new InputStreamReader(new BufferedInputStream(is), charsetName);
   }
 
-  private boolean isStdIn(String filename) {
+  private static boolean isStdIn(String filename) {
     return "-".equals(filename);
   }
 
@@ -327,6 +336,28 @@ class Main {
     }    
   }
 
+  /**
+   * Check the files given in batch mode in parallel, each thread with its own LanguageTool instance.
+   * @return the number of files that could not be checked
+   */
+  private int runBatch(String languageHint) throws IOException, ParserConfigurationException, SAXException {
+    List<File> files = BatchChecker.collectFiles(options.getBatchPaths());
+    int threads = options.getThreads() > 0 ? options.getThreads() : Runtime.getRuntime().availableProcessors();
+    threads = Math.max(1, Math.min(threads, files.size()));
+    System.err.println("Checking " + files.size() + " files using " + threads + " threads...");
+    List<JLanguageTool> languageTools = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      JLanguageTool batchLt = new JLanguageTool(options.getLanguage(), options.getMotherTongue());
+      configure(batchLt);
+      addFalseFriendRules(batchLt);
+      if (i == 0) {
+        checkActiveRules(batchLt, options, languageHint);
+      }
+      languageTools.add(batchLt);
+    }
+    return new BatchChecker(languageTools, options).run(files);
+  }
+
   /**
    * Loads filename and filters out XML. Note that the XML
    * filtering can lead to incorrect positions in the list of matching rules.
@@ -411,29 +442,15 @@ class Main {
     options.getLanguage().getSentenceTokenizer().setSingleLineBreaksMarksParagraph(
             options.isSingleLineBreakMarksParagraph());
     Main prg = new Main(options);
-    if (options.getFalseFriendFile() != null) {
-      List<AbstractPatternRule> ffRules = prg.lt.loadFalseFriendRules(options.getFalseFriendFile());
-      for (AbstractPatternRule ffRule : ffRules) {
-        prg.lt.addRule(ffRule);
+    if (options.isBatch()) {
+      int failed = prg.runBatch(languageHint);
+      if (failed > 0) {
+        System.exit(1);
       }
+      return;
     }
-    if (prg.lt.getAllActiveRules().isEmpty()) {
-      List<String> catIds = options.getEnabledCategories().stream().map(i -> i.toString()).collect(Collectors.toList());
-      throw new RuntimeException("No rules are active. Please make sure your rule ids " +
-              "(" + options.getEnabledRules() + ") and " +
-              "category ids (" + catIds + ") are correct");
-    }
-    if (languageHint != null) {
-      String spellHint = "";
-      if (!prg.isSpellCheckingActive()) {
-        if (prg.lt.getLanguage().isVariant()) {
-          spellHint = " (no spell checking active)";
-        } else {
-          spellHint = " (no spell checking active, specify a language variant like 'en-GB' if available)";
-        }
-      }
-      System.err.println(languageHint + spellHint);
-    }
+    prg.addFalseFriendRules(prg.lt);
+    checkActiveRules(prg.lt, options, languageHint);
     prg.setListUnknownWords(options.isListUnknown());
     if (options.isProfile()) {
       prg.setProfilingMode();
@@ -457,6 +474,26 @@ class Main {
     prg.cleanUp();
   }
 
+  private static void checkActiveRules(JLanguageTool lt, CommandLineOptions options, String languageHint) {
+    if (lt.getAllActiveRules().isEmpty()) {
+      List<String> catIds = options.getEnabledCategories().stream().map(i -> i.toString()).collect(Collectors.toList());
+      throw new RuntimeException("No rules are active. Please make sure your rule ids " +
+              "(" + options.getEnabledRules() + ") and " +
+              "category ids (" + catIds + ") are correct");
+    }
+    if (languageHint != null) {
+      String spellHint = "";
+      if (!isSpellCheckingActive(lt)) {
+        if (lt.getLanguage().isVariant()) {
+          spellHint = " (no spell checking active)";
+        } else {
+          spellHint = " (no spell checking active, specify a language variant like 'en-GB' if available)";
+        }
+      }
+      System.err.println(languageHint + spellHint);
+    }
+  }
+
   private static void printLanguages() {
     List<String> languages = new ArrayList<>();
     for (Language language : Languages.get()) {
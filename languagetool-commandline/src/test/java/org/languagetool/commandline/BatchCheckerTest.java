@@ -0,0 +1,108 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.commandline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BatchCheckerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+  private PrintStream stdout;
+  private PrintStream stderr;
+
+  @Before
+  public void setUp() {
+    stdout = System.out;
+    stderr = System.err;
+    System.setOut(new PrintStream(out));
+    System.setErr(new PrintStream(err));
+  }
+
+  @After
+  public void tearDown() {
+    System.setOut(stdout);
+    System.setErr(stderr);
+  }
+
+  @Test
+  public void testCollectFiles() throws IOException {
+    File a = write("a.txt", "A test.");
+    File b = write("sub/b.txt", "A test.");
+    File c = write("sub/deeper/c.md", "A test.");
+    String root = folder.getRoot().getPath();
+    assertEquals(Arrays.asList(a, b, c), BatchChecker.collectFiles(Collections.singletonList(root)));
+    assertEquals(Arrays.asList(a, b), BatchChecker.collectFiles(Arrays.asList(b.getPath(), a.getPath(), b.getPath())));
+    assertEquals(Arrays.asList(a, b), BatchChecker.collectFiles(Collections.singletonList(root + "/**.txt")));
+    assertEquals(Collections.singletonList(c), BatchChecker.collectFiles(Collections.singletonList(root + "/sub/**/*.md")));
+    try {
+      BatchChecker.collectFiles(Collections.singletonList(root + "/no-such-file.txt"));
+      fail();
+    } catch (IOException expected) {}
+  }
+
+  @Test
+  public void testRun() throws IOException {
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      files.add(write("file" + i + ".txt", "This is foo bar number " + i + ". And fuu bah."));
+    }
+    CommandLineOptions options = new CommandLineOptions();
+    options.setJsonFormat();
+    int failed = new BatchChecker(Arrays.asList(new JLanguageTool(new Demo()), new JLanguageTool(new Demo())), options).run(files);
+    assertEquals(0, failed);
+    String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+    assertEquals(10, lines.length);
+    Set<String> checkedFiles = new HashSet<>();
+    for (String line : lines) {
+      assertTrue(line, line.startsWith("{\"file\":\""));
+      assertTrue(line, line.contains("\"matches\":[{"));
+      checkedFiles.add(line.substring(9, line.indexOf('"', 9)));
+    }
+    assertEquals(10, checkedFiles.size());
+    assertTrue(err.toString(), err.toString().startsWith("Checked 10 files (0 failed)"));
+  }
+
+  private File write(String path, String content) throws IOException {
+    File file = new File(folder.getRoot(), path);
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+}
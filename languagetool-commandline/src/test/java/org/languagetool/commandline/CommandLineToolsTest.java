@@ -73,4 +73,20 @@ public class CommandLineToolsTest {
     assertEquals(1, matches);
   }
 
+  @Test
+  public void testProfileRules() throws IOException {
+    JLanguageTool tool = new JLanguageTool(TestTools.getDemoLanguage());
+    tool.addRule(new WordRepeatRule(TestTools.getEnglishMessages(), TestTools.getDemoLanguage()));
+    CommandLineTools.profileRulesOnText("To jest problem problem. And another sentence.", tool);
+    String output = new String(this.out.toByteArray());
+    assertTrue(output, output.startsWith("Checked 2 sentences with "));
+    assertTrue(output, output.matches("(?s).*\\nWORD_REPEAT_RULE +[0-9.]+ +2 +[0-9.]+ +1\\n.*"));
+
+    this.out.reset();
+    CommandLineTools.profileRulesOnText("To jest problem problem.", tool, true);
+    output = new String(this.out.toByteArray());
+    assertTrue(output, output.startsWith("{\"sentences\":1,"));
+    assertTrue(output, output.contains("{\"id\":\"WORD_REPEAT_RULE\",\"totalMillis\":"));
+  }
+
 }
@@ -38,8 +38,9 @@ public final class AnalyzedSentence {
   private final AnalyzedTokenReadings[] nonBlankTokens;
   private final AnalyzedTokenReadings[] nonBlankPreDisambigTokens;
   private final int[] whPositions;  // maps positions without whitespace to positions that include whitespaces
-  private final Map<String, List<Integer>> tokenOffsets;
-  private final Map<String, List<Integer>> lemmaOffsets;
+  // built lazily, as many cached sentences are never asked for them:
+  private volatile Map<String, List<Integer>> tokenOffsets;
+  private volatile Map<String, List<Integer>> lemmaOffsets;
 
   /**
    * Creates an AnalyzedSentence from the given {@link AnalyzedTokenReadings}. Whitespace is also a token.
@@ -56,9 +57,27 @@ public final class AnalyzedSentence {
     int[] mapping = new int[tokens.length + 1];
     this.whPositions = mapping;
     this.nonBlankTokens = getNonBlankReadings(tokens, whCounter, nonWhCounter, mapping).toArray(new AnalyzedTokenReadings[0]);
-    this.nonBlankPreDisambigTokens = getNonBlankReadings(preDisambigTokens, whCounter, nonWhCounter, mapping).toArray(new AnalyzedTokenReadings[0]);
-    tokenOffsets = indexTokens(nonBlankTokens);
-    lemmaOffsets = indexLemmas(nonBlankTokens);
+    if (sameReadings(tokens, preDisambigTokens)) {
+      // no disambiguation changes, so share the array instead of keeping an identical copy
+      this.nonBlankPreDisambigTokens = nonBlankTokens;
+    } else {
+      this.nonBlankPreDisambigTokens = getNonBlankReadings(preDisambigTokens, whCounter, nonWhCounter, mapping).toArray(new AnalyzedTokenReadings[0]);
+    }
+  }
+
+  private static boolean sameReadings(AnalyzedTokenReadings[] tokens1, AnalyzedTokenReadings[] tokens2) {
+    if (tokens1 == tokens2) {
+      return true;
+    }
+    if (tokens1.length != tokens2.length) {
+      return false;
+    }
+    for (int i = 0; i < tokens1.length; i++) {
+      if (tokens1[i] != tokens2[i]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @NotNull
@@ -81,8 +100,22 @@ public final class AnalyzedSentence {
     this.whPositions = mapping;
     this.nonBlankTokens = nonBlankTokens;
     this.nonBlankPreDisambigTokens = nonBlankPreDisambigTokens;
-    tokenOffsets = indexTokens(nonBlankTokens);
-    lemmaOffsets = indexLemmas(nonBlankTokens);
+  }
+
+  private Map<String, List<Integer>> getTokenOffsetMap() {
+    Map<String, List<Integer>> result = tokenOffsets;
+    if (result == null) {
+      tokenOffsets = result = indexTokens(nonBlankTokens);
+    }
+    return result;
+  }
+
+  private Map<String, List<Integer>> getLemmaOffsetMap() {
+    Map<String, List<Integer>> result = lemmaOffsets;
+    if (result == null) {
+      lemmaOffsets = result = indexLemmas(nonBlankTokens);
+    }
+    return result;
   }
 
   private static Map<String, List<Integer>> indexTokens(AnalyzedTokenReadings[] tokens) {
@@ -314,7 +347,7 @@ public final class AnalyzedSentence {
    * @since 2.4
    */
   public Set<String> getTokenSet() {
-    return tokenOffsets.keySet();
+    return getTokenOffsetMap().keySet();
   }
 
   /**
@@ -323,7 +356,7 @@ public final class AnalyzedSentence {
    * @since 2.5
    */
   public Set<String> getLemmaSet() {
-    return lemmaOffsets.keySet();
+    return getLemmaOffsetMap().keySet();
   }
 
   /**
@@ -334,7 +367,7 @@ public final class AnalyzedSentence {
   @Nullable
   @ApiStatus.Internal
   public List<Integer> getTokenOffsets(String token) {
-    return tokenOffsets.get(token);
+    return getTokenOffsetMap().get(token);
   }
 
   /**
@@ -345,7 +378,7 @@ public final class AnalyzedSentence {
   @Nullable
   @ApiStatus.Internal
   public List<Integer> getLemmaOffsets(String token) {
-    return lemmaOffsets.get(token);
+    return getLemmaOffsetMap().get(token);
   }
 
   @SuppressWarnings("ControlFlowStatementWithoutBraces")
@@ -33,7 +33,6 @@ public final class AnalyzedToken {
   private final String token;
   private final String posTag;
   private final String lemma;
-  private final String lemmaOrToken;  // used only for matching with Elements
 
   private boolean isWhitespaceBefore;
   private boolean hasNoPOSTag;
@@ -41,12 +40,8 @@ public final class AnalyzedToken {
   public AnalyzedToken(String token, String posTag, String lemma) {
     this.token = Objects.requireNonNull(token, "token cannot be null");
     this.posTag = posTag != null ? posTag.trim() : null;
-    this.lemma = lemma;    
-    if (lemma == null) {
-      lemmaOrToken = token;
-    } else {
-      lemmaOrToken = lemma;
-    }
+    // a lemma that equals the token doesn't need its own string:
+    this.lemma = lemma != null && lemma.equals(token) ? token : lemma;
     hasNoPOSTag = (posTag == null 
         || JLanguageTool.SENTENCE_END_TAGNAME.equals(posTag)
         || JLanguageTool.PARAGRAPH_END_TAGNAME.equals(posTag));
@@ -129,7 +124,7 @@ public final class AnalyzedToken {
   
   @Override
   public String toString() {
-    return lemmaOrToken + '/' + posTag;
+    return (lemma != null ? lemma : token) + '/' + posTag;
   }
 
   @Override
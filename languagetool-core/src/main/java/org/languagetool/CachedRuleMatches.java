@@ -0,0 +1,164 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The results of the local rules that have been run on a sentence, as stored in
+ * {@link ResultCache#getRuleMatchesCache()}. Which rules have run is stored as a bit set
+ * over rule indexes (see {@link Indexes}), matches are only stored for rules that matched.
+ * Instances are immutable, use a {@link Builder} to add results.
+ * @since 6.4
+ */
+public final class CachedRuleMatches {
+
+  private static final RuleMatch[] NO_MATCHES = new RuleMatch[0];
+
+  private final BitSet ranRules;
+  private final Map<String, RuleMatch[]> matches;
+  private final int matchCount;
+
+  private CachedRuleMatches(BitSet ranRules, Map<String, RuleMatch[]> matches) {
+    this.ranRules = ranRules;
+    this.matches = matches;
+    this.matchCount = matches.values().stream().mapToInt(m -> m.length).sum();
+  }
+
+  boolean hasRun(int ruleIndex) {
+    return ranRules.get(ruleIndex);
+  }
+
+  /**
+   * The matches of a rule, only meaningful if {@link #hasRun(int)} is {@code true} for the rule.
+   */
+  RuleMatch[] getMatches(String fullRuleId) {
+    return matches.getOrDefault(fullRuleId, NO_MATCHES);
+  }
+
+  /**
+   * @return the number of rules that have run on the sentence
+   */
+  public int getRuleCount() {
+    return ranRules.cardinality();
+  }
+
+  /**
+   * @return the number of matches of all rules
+   */
+  public int getMatchCount() {
+    return matchCount;
+  }
+
+  /**
+   * @return the size of the bit set of rules that have run, in bits
+   */
+  int getRuleBits() {
+    return ranRules.size();
+  }
+
+  /**
+   * Assigns small numbers to rule ids, so the rules that have run on a sentence can be stored as a bit set.
+   * Rule indexes are kept per language, so the bit sets stay about as small as the language's rule set.
+   */
+  static final class Indexes {
+
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    int indexOf(String fullRuleId) {
+      Integer index = indexes.get(fullRuleId);
+      if (index == null) {
+        index = indexes.computeIfAbsent(fullRuleId, k -> nextIndex.getAndIncrement());
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Collects the results of the rules run on a sentence on top of the results that were already cached.
+   */
+  static final class Builder {
+
+    private final CachedRuleMatches previous;
+    private final Indexes indexes;
+    private BitSet newRules;
+    private Map<String, RuleMatch[]> newMatches;
+
+    Builder(@Nullable CachedRuleMatches previous, Indexes indexes) {
+      this.previous = previous;
+      this.indexes = Objects.requireNonNull(indexes);
+    }
+
+    int indexOf(Rule rule) {
+      return indexes.indexOf(rule.getFullId());
+    }
+
+    /**
+     * @return the cached matches of the rule or {@code null} if the rule hasn't run on this sentence yet
+     */
+    @Nullable
+    RuleMatch[] getIfRun(int ruleIndex, Rule rule) {
+      if (previous != null && previous.hasRun(ruleIndex)) {
+        return previous.getMatches(rule.getFullId());
+      }
+      return null;
+    }
+
+    void add(int ruleIndex, Rule rule, RuleMatch[] ruleMatches) {
+      if (newRules == null) {
+        newRules = new BitSet();
+      }
+      newRules.set(ruleIndex);
+      if (ruleMatches.length > 0) {
+        if (newMatches == null) {
+          newMatches = new HashMap<>();
+        }
+        newMatches.put(rule.getFullId(), ruleMatches);
+      }
+    }
+
+    boolean hasNewResults() {
+      return newRules != null;
+    }
+
+    CachedRuleMatches build() {
+      BitSet ranRules = new BitSet();
+      Map<String, RuleMatch[]> matches = new HashMap<>();
+      if (previous != null) {
+        ranRules.or(previous.ranRules);
+        matches.putAll(previous.matches);
+      }
+      if (newRules != null) {
+        ranRules.or(newRules);
+      }
+      if (newMatches != null) {
+        matches.putAll(newMatches);
+      }
+      return new CachedRuleMatches(ranRules, matches.isEmpty() ? Collections.emptyMap() : matches);
+    }
+  }
+
+}
@@ -44,6 +44,7 @@ class InputSentence {
   private final JLanguageTool.Level level;
   private final Long textSessionID;
   private final Set<ToneTag> toneTags;
+  private final long ruleConfigFingerprint;
 
   InputSentence(String text, Language lang, Language motherTongue,
                 Set<String> disabledRules, Set<CategoryId> disabledRuleCategories,
@@ -62,6 +63,31 @@ class InputSentence {
     this.mode = Objects.requireNonNull(mode);
     this.level = Objects.requireNonNull(level);
     this.toneTags = toneTags != null ? toneTags : Collections.emptySet();
+    this.ruleConfigFingerprint = 0;
+  }
+
+  /**
+   * A key that describes the rule configuration only by its fingerprint (see
+   * {@code JLanguageTool.getRuleConfigFingerprint()}), or not at all if {@code ruleConfigFingerprint}
+   * is {@code 0}, for results that don't depend on the rule configuration.
+   * @since 6.4
+   */
+  InputSentence(String text, Language lang, Language motherTongue, UserConfig userConfig,
+                List<Language> altLanguages, long ruleConfigFingerprint) {
+    this.text = Objects.requireNonNull(text);
+    this.lang = Objects.requireNonNull(lang);
+    this.motherTongue = motherTongue;
+    this.disabledRules = null;
+    this.disabledRuleCategories = null;
+    this.enabledRules = null;
+    this.enabledRuleCategories = null;
+    this.userConfig = userConfig;
+    this.textSessionID = null;
+    this.altLanguages = altLanguages;
+    this.mode = null;
+    this.level = null;
+    this.toneTags = Collections.emptySet();
+    this.ruleConfigFingerprint = ruleConfigFingerprint;
   }
 
   InputSentence(String text, Language lang, Language motherTongue,
@@ -105,13 +131,14 @@ class InputSentence {
            Objects.equals(altLanguages, other.altLanguages) &&
            mode == other.mode &&
            level == other.level &&
+           ruleConfigFingerprint == other.ruleConfigFingerprint &&
            Objects.equals(toneTags, other.toneTags);
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(text, lang, motherTongue, disabledRules, disabledRuleCategories,
-            enabledRules, enabledRuleCategories, userConfig, textSessionID, altLanguages, mode, level, toneTags);
+            enabledRules, enabledRuleCategories, userConfig, textSessionID, altLanguages, mode, level, toneTags, ruleConfigFingerprint);
   }
 
   @Override
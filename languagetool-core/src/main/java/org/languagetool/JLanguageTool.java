@@ -18,6 +18,8 @@
  */
 package org.languagetool;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.opentelemetry.api.common.Attributes;
 import org.apache.commons.lang3.StringUtils;
@@ -36,6 +38,8 @@ import org.languagetool.rules.patterns.*;
 import org.languagetool.rules.spelling.SpellingCheckRule;
 import org.languagetool.tools.LoggingTools;
 import org.languagetool.tools.LtThreadPoolFactory;
+import org.languagetool.tools.CheckStageMetrics;
+import org.languagetool.tools.RuleProfiler;
 import org.languagetool.tools.TelemetryProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +52,7 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -166,6 +171,12 @@ public class JLanguageTool {
   private final List<RuleMatchFilter> matchFilters = new LinkedList<>();
 
   private CheckCancelledCallback checkCancelledCallback;
+  // runs text-level rules in parallel to sentence-level rules, null = run them sequentially:
+  private ExecutorService textLevelRuleExecutor;
+  // collects the stage times of the check that's currently running:
+  private volatile CheckStageMetrics.Timer stageTimer = CheckStageMetrics.Timer.NONE;
+  // collects the time of each rule, null = no profiling:
+  private volatile RuleProfiler ruleProfiler;
 
   private PrintStream printStream;
   private boolean listUnknownWords;
@@ -456,6 +467,29 @@ public class JLanguageTool {
     this.checkCancelledCallback = callback;
   }
 
+  /**
+   * Run each text-level rule as a task of the given executor, in parallel to the sentence-level
+   * rules, which still run on the thread that calls {@code check()}. The result and the calls of a
+   * {@link RuleMatchListener} are the same as without an executor, but the listener only gets the
+   * matches of the sentence-level rules once the text-level rules are done, as it gets those first.
+   * Tasks the executor rejects run on the calling thread.
+   * @param executor the executor to use, or {@code null} to run text-level rules sequentially (default)
+   * @since 6.4
+   */
+  public void setTextLevelRuleExecutor(@Nullable ExecutorService executor) {
+    this.textLevelRuleExecutor = executor;
+  }
+
+  /**
+   * Measure the time each rule takes during {@code check()}. This adds some overhead
+   * for every rule call, so only use it for profiling.
+   * @param profiler the profiler to collect the rule times, or {@code null} to stop profiling (default)
+   * @since 6.4
+   */
+  public void setRuleProfiler(@Nullable RuleProfiler profiler) {
+    this.ruleProfiler = profiler;
+  }
+
   /**
    * Gets the ResourceBundle (i18n strings) for the default language of the user's system.
    */
@@ -555,7 +589,7 @@ public class JLanguageTool {
     } catch (Exception e) {
       throw new RuntimeException("Could not load language model capable rules.", e);
     }
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -613,7 +647,7 @@ public class JLanguageTool {
     Function<Rule, Rule> enhanced = language.getRemoteEnhancedRules(getMessageBundle(language), remoteRuleConfigs, userConfig, motherTongue, altLanguages, inputLogging);
     transformRules(enhanced, builtinRules);
     transformRules(enhanced, userRules);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -660,7 +694,7 @@ public class JLanguageTool {
     throws ParserConfigurationException, SAXException, IOException {
     String falseFriendRulesFilename = JLanguageTool.getDataBroker().getRulesDir() + "/" + FALSE_FRIEND_FILE;
     userRules.addAll(loadFalseFriendRules(falseFriendRulesFilename));
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -679,7 +713,7 @@ public class JLanguageTool {
    */
   public void addRule(Rule rule) {
     userRules.add(rule);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -691,7 +725,7 @@ public class JLanguageTool {
   public void disableRule(String ruleId) {
     disabledRules.add(ruleId);
     enabledRules.remove(ruleId);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -703,7 +737,7 @@ public class JLanguageTool {
   public void disableRules(List<String> ruleIds) {
     disabledRules.addAll(ruleIds);
     enabledRules.removeAll(ruleIds);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -716,7 +750,7 @@ public class JLanguageTool {
   public void disableCategory(CategoryId id) {
     disabledRuleCategories.add(id);
     enabledRuleCategories.remove(id);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -755,7 +789,7 @@ public class JLanguageTool {
   public void enableRule(String ruleId) {
     disabledRules.remove(ruleId);
     enabledRules.add(ruleId);
-    ruleSetCache.clear();
+    clearRuleCaches();
   }
 
   /**
@@ -768,7 +802,50 @@ public class JLanguageTool {
   public void enableRuleCategory(CategoryId id) {
     disabledRuleCategories.remove(id);
     enabledRuleCategories.add(id);
-    ruleSetCache.clear();
+    clearRuleCaches();
+  }
+
+  /**
+   * A copy of the currently enabled and disabled rules and categories, to go back to them
+   * later with {@link #restoreRuleSelection(RuleSelection)}.
+   * @since 6.4
+   */
+  protected RuleSelection saveRuleSelection() {
+    return new RuleSelection(disabledRules, disabledRuleCategories, enabledRules, enabledRuleCategories);
+  }
+
+  /**
+   * Enable and disable rules and categories exactly as they were when {@code selection} was saved.
+   * @since 6.4
+   */
+  protected void restoreRuleSelection(RuleSelection selection) {
+    disabledRules.clear();
+    disabledRules.addAll(selection.disabledRules);
+    disabledRuleCategories.clear();
+    disabledRuleCategories.addAll(selection.disabledRuleCategories);
+    enabledRules.clear();
+    enabledRules.addAll(selection.enabledRules);
+    enabledRuleCategories.clear();
+    enabledRuleCategories.addAll(selection.enabledRuleCategories);
+    clearRuleCaches();
+  }
+
+  /**
+   * Enabled and disabled rules and categories, see {@link #saveRuleSelection()}.
+   * @since 6.4
+   */
+  protected static final class RuleSelection {
+    private final Set<String> disabledRules;
+    private final Set<CategoryId> disabledRuleCategories;
+    private final Set<String> enabledRules;
+    private final Set<CategoryId> enabledRuleCategories;
+
+    private RuleSelection(Set<String> disabledRules, Set<CategoryId> disabledRuleCategories, Set<String> enabledRules, Set<CategoryId> enabledRuleCategories) {
+      this.disabledRules = new HashSet<>(disabledRules);
+      this.disabledRuleCategories = new HashSet<>(disabledRuleCategories);
+      this.enabledRules = new HashSet<>(enabledRules);
+      this.enabledRuleCategories = new HashSet<>(enabledRuleCategories);
+    }
   }
 
   /**
@@ -905,10 +982,17 @@ public class JLanguageTool {
    */
   public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
                                Mode mode, Level level, @Nullable Long textSessionID) throws IOException {
-    annotatedText = cleanText(annotatedText);
-    List<String> sentences = getSentences(annotatedText, tokenizeText);
-    List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    return checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences).getRuleMatches();
+    stageTimer = new CheckStageMetrics.Timer();
+    try {
+      annotatedText = cleanText(annotatedText);
+      List<String> sentences = getSentences(annotatedText, tokenizeText);
+      List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+      List<RuleMatch> ruleMatches = checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences).getRuleMatches();
+      stageTimer.report(language.getShortCode());
+      return ruleMatches;
+    } finally {
+      stageTimer = CheckStageMetrics.Timer.NONE;
+    }
   }
 
   public CheckResults check2(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
@@ -918,19 +1002,27 @@ public class JLanguageTool {
   
   public CheckResults check2(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
                              Mode mode, Level level, @NotNull Set<ToneTag> toneTags, @Nullable Long textSessionID) throws IOException {
-    annotatedText = cleanText(annotatedText);
-    List<String> sentences = getSentences(annotatedText, tokenizeText);
-    List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, toneTags, textSessionID, sentences, analyzedSentences);
-    List<SentenceRange> sentenceRanges = SentenceRange.getRangesFromSentences(annotatedText, sentences);
-    checkResults.addSentenceRanges(sentenceRanges);
-    return checkResults;
+    stageTimer = new CheckStageMetrics.Timer();
+    try {
+      annotatedText = cleanText(annotatedText);
+      List<String> sentences = getSentences(annotatedText, tokenizeText);
+      List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+      CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, toneTags, textSessionID, sentences, analyzedSentences);
+      List<SentenceRange> sentenceRanges = SentenceRange.getRangesFromSentences(annotatedText, sentences);
+      checkResults.addSentenceRanges(sentenceRanges);
+      stageTimer.report(language.getShortCode());
+      return checkResults;
+    } finally {
+      stageTimer = CheckStageMetrics.Timer.NONE;
+    }
   }
 
   private List<String> getSentences(AnnotatedText annotatedText, boolean tokenizeText) {
     List<String> sentences;
     if (tokenizeText) {
+      long startTime = System.nanoTime();
       sentences = sentenceTokenize(annotatedText.getPlainText());
+      stageTimer.add(CheckStageMetrics.Stage.SENTENCE_TOKENIZATION, startTime);
     } else {
       sentences = new ArrayList<>();
       sentences.add(annotatedText.getPlainText());
@@ -994,11 +1086,13 @@ public class JLanguageTool {
     ExecutorService remoteRulesThreadPool =
       mode == Mode.TEXTLEVEL_ONLY || remoteRules.isEmpty() ? null :
       LtThreadPoolFactory.getFixedThreadPoolExecutor(LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL).orElse(null);
+    // System.nanoTime() when the last remote rule that finished in time finished:
+    AtomicLong remoteRulesDone = new AtomicLong(0);
     if (remoteRulesThreadPool != null) {
       // trigger remote rules to run on whole text at once, at the start, then we wait for the results
       remoteRuleTasks = new ArrayList<>();
       checkRemoteRules(remoteRules, analyzedSentences, mode, level,
-        remoteRuleTasks, requestSize, cachedResults, matchOffset, textSessionID, remoteRulesThreadPool, toneTags);
+        remoteRuleTasks, requestSize, cachedResults, matchOffset, textSessionID, remoteRulesThreadPool, toneTags, remoteRulesDone);
     } else {
       remoteRuleTasks = null;
     }
@@ -1024,6 +1118,12 @@ public class JLanguageTool {
         TimeUnit.NANOSECONDS.toMillis(textCheckEnd - deadlineStartNanos),
         TimeUnit.NANOSECONDS.toMillis(remoteRuleCheckEnd - remoteRuleCheckStart), wait);
       RemoteRuleMetrics.wait(language.getShortCode(), wait);
+      long lastRemoteRuleDone = remoteRulesDone.get();
+      if (lastRemoteRuleDone != 0) {
+        // only until the last remote rule finished, the rest of the time is REMOTE_RULES_WAITING or local checks:
+        stageTimer.add(CheckStageMetrics.Stage.REMOTE_RULES_RUNNING, remoteRuleCheckStart, lastRemoteRuleDone);
+      }
+      stageTimer.add(CheckStageMetrics.Stage.REMOTE_RULES_WAITING, textCheckEnd);
     }
 
     List<RuleMatch> ruleMatches = res.getRuleMatches();
@@ -1067,18 +1167,65 @@ public class JLanguageTool {
     ruleMatches = ruleMatches.stream().filter(match -> isRuleActiveForLevelAndToneTags(
       match.getRule(), level, toneTags)).collect(Collectors.toList());
 
+    CheckStageMetrics.Timer timer = stageTimer;
+    long startTime = System.nanoTime();
     ruleMatches = new SameRuleGroupFilter().filter(ruleMatches);
+    timer.add(CheckStageMetrics.Stage.SAME_RULE_GROUP_FILTER, startTime);
     // no sorting: SameRuleGroupFilter sorts rule matches already
+    startTime = System.nanoTime();
     ruleMatches = new LanguageDependentMergeSuggestionFilter(language, rules).filter(ruleMatches, annotatedText);
+    timer.add(CheckStageMetrics.Stage.MERGE_SUGGESTION_FILTER, startTime);
     if (cleanOverlappingMatches) {
+      startTime = System.nanoTime();
       ruleMatches = new CleanOverlappingFilter(language, userConfig.getHidePremiumMatches()).filter(ruleMatches);
+      timer.add(CheckStageMetrics.Stage.CLEAN_OVERLAPPING_FILTER, startTime);
     }
+    startTime = System.nanoTime();
     ruleMatches = new LanguageDependentFilter(language, rules).filter(ruleMatches);
+    timer.add(CheckStageMetrics.Stage.LANGUAGE_DEPENDENT_FILTER, startTime);
 
     return applyCustomFilters(ruleMatches, annotatedText);
   }
 
   private final Map<LevelToneTagCacheKey, RuleSet> ruleSetCache = new ConcurrentHashMap<>();
+  // fingerprint of the enabled/disabled rules and categories, 0 = needs to be computed:
+  private volatile long ruleSelectionFingerprint;
+
+  private void clearRuleCaches() {
+    ruleSetCache.clear();
+    ruleSelectionFingerprint = 0;
+  }
+
+  /**
+   * A 64-bit fingerprint of the rule configuration that's used for a check, so cached
+   * matches can be looked up without comparing all the enabled and disabled rules.
+   */
+  long getRuleConfigFingerprint(Mode mode, Level level, Set<ToneTag> toneTags) {
+    long selection = ruleSelectionFingerprint;
+    if (selection == 0) {
+      Hasher hasher = Hashing.murmur3_128().newHasher();
+      putSorted(hasher, disabledRules);
+      putSorted(hasher, disabledRuleCategories);
+      putSorted(hasher, enabledRules);
+      putSorted(hasher, enabledRuleCategories);
+      selection = hasher.hash().asLong();
+      ruleSelectionFingerprint = selection;
+    }
+    Hasher hasher = Hashing.murmur3_128().newHasher()
+      .putLong(selection)
+      .putInt(mode.ordinal())
+      .putInt(level.ordinal());
+    putSorted(hasher, toneTags != null ? toneTags : Collections.emptySet());
+    return hasher.hash().asLong();
+  }
+
+  private static void putSorted(Hasher hasher, Collection<?> values) {
+    List<String> sorted = values.stream().map(Object::toString).sorted().collect(Collectors.toList());
+    hasher.putInt(sorted.size());
+    for (String value : sorted) {
+      hasher.putUnencodedChars(value).putChar('\0');
+    }
+  }
 
   static boolean isRuleActiveForLevelAndToneTags(Rule rule, Level level, Set<ToneTag> toneTags) {
 
@@ -1241,7 +1388,8 @@ public class JLanguageTool {
   private void checkRemoteRules(List<RemoteRule> rules, List<AnalyzedSentence> analyzedSentences, Mode mode, Level level,
                                 List<FutureTask<RemoteRuleResult>> remoteRuleTasks, List<Integer> requestSize,
                                 Map<Integer, List<RuleMatch>> cachedResults, Map<Integer, Integer> matchOffset,
-                                Long textSessionID, ExecutorService executor, Set<ToneTag> toneTags) {
+                                Long textSessionID, ExecutorService executor, Set<ToneTag> toneTags,
+                                AtomicLong remoteRulesDone) {
     List<InputSentence> cacheKeys = new LinkedList<>();
     int offset = 0;
     // prepare keys for caching, offsets for adjusting match positions
@@ -1303,7 +1451,13 @@ public class JLanguageTool {
           rule.circuitBreaker().getState() == CircuitBreaker.State.FORCED_OPEN) {
           task = null;
         } else {
-          executor.submit(task);
+          FutureTask<RemoteRuleResult> submitted = task;
+          executor.submit(() -> {
+            submitted.run();
+            if (!submitted.isCancelled()) {
+              remoteRulesDone.accumulateAndGet(System.nanoTime(), Math::max);
+            }
+          });
         }
         remoteRuleTasks.add(task);
       } catch (RejectedExecutionException ignored) {
@@ -1426,13 +1580,21 @@ public class JLanguageTool {
    */
   public List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode,
                                                List<Rule> rules, AnalyzedSentence analyzedSentence, boolean checkRemoteRules) throws IOException {
-    return checkAnalyzedSentence(paraMode, rules, analyzedSentence, checkRemoteRules, -1);
+    return checkAnalyzedSentence(paraMode, rules, analyzedSentence, checkRemoteRules, -1, null, 0);
   }
 
-  private List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode, List<Rule> rules, AnalyzedSentence analyzedSentence, boolean checkRemoteRules, int wordCounter) throws IOException {
+  /**
+   * @param ruleMatches cached matches of the rules for this sentence, used and filled if not {@code null}
+   * @param cacheableRules the number of rules at the start of {@code rules} that may use {@code ruleMatches}
+   */
+  private List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode, List<Rule> rules, AnalyzedSentence analyzedSentence, boolean checkRemoteRules, int wordCounter,
+                                                @Nullable CachedRuleMatches.Builder ruleMatches, int cacheableRules) throws IOException {
     if (paraMode == ParagraphHandling.ONLYPARA) {
       return Collections.emptyList();
     }
+    CheckStageMetrics.Timer timer = stageTimer;
+    RuleProfiler profiler = ruleProfiler;
+    long startTime = System.nanoTime();
     List<RuleMatch> sentenceMatches = new ArrayList<>();
     List<String> errorRateLog = new ArrayList<>();
     float tmpErrorsPerWord = 0.0f;
@@ -1444,7 +1606,22 @@ public class JLanguageTool {
       if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
         break;
       }
-      RuleMatch[] thisMatches = rule.match(analyzedSentence);
+      RuleMatch[] thisMatches = null;
+      boolean cacheable = ruleMatches != null && i < cacheableRules && !(rule instanceof RemoteRule);
+      int ruleIndex = cacheable ? ruleMatches.indexOf(rule) : -1;
+      if (cacheable) {
+        thisMatches = ruleMatches.getIfRun(ruleIndex, rule);
+      }
+      if (thisMatches == null) {
+        long ruleStartTime = profiler != null ? System.nanoTime() : 0;
+        thisMatches = rule.match(analyzedSentence);
+        if (profiler != null) {
+          profiler.add(rule, ruleStartTime, thisMatches.length);
+        }
+        if (cacheable) {
+          ruleMatches.add(ruleIndex, rule, thisMatches);
+        }
+      }
       Collections.addAll(sentenceMatches, thisMatches);
       if (wordCounter > 0) {
         //check if the maxErrorsPerWordRate is already reached for the full text with this sentence and rule  
@@ -1464,6 +1641,7 @@ public class JLanguageTool {
         }
       }
     }
+    timer.add(CheckStageMetrics.Stage.SENTENCE_RULES, startTime);
     if (sentenceMatches.isEmpty()) {
       return sentenceMatches;
     }
@@ -1474,7 +1652,10 @@ public class JLanguageTool {
     // so do another pass with ignoreRule here
     sentenceMatches = sentenceMatches.stream()
       .filter(match -> !ignoreRule(match.getRule())).collect(Collectors.toList());
-    return applyCustomFilters(new SameRuleGroupFilter().filter(sentenceMatches), text);
+    startTime = System.nanoTime();
+    sentenceMatches = new SameRuleGroupFilter().filter(sentenceMatches);
+    timer.add(CheckStageMetrics.Stage.SAME_RULE_GROUP_FILTER, startTime);
+    return applyCustomFilters(sentenceMatches, text);
   }
 
   private boolean ignoreRule(Rule rule) {
@@ -1612,11 +1793,16 @@ public class JLanguageTool {
     if (cachedSentence != null) {
       return cachedSentence;
     } else {
+      CheckStageMetrics.Timer timer = stageTimer;
       AnalyzedSentence raw = getRawAnalyzedSentence(sentence);
+      long startTime = System.nanoTime();
       AnalyzedSentence disambig = language.getDisambiguator().disambiguate(raw, checkCancelledCallback);
       AnalyzedSentence analyzedSentence = new AnalyzedSentence(disambig.getTokens(), raw.getTokens());
+      timer.add(CheckStageMetrics.Stage.DISAMBIGUATION, startTime);
       if (language.getPostDisambiguationChunker() != null) {
+        startTime = System.nanoTime();
         language.getPostDisambiguationChunker().addChunkTags(Arrays.asList(analyzedSentence.getTokens()));
+        timer.add(CheckStageMetrics.Stage.CHUNKING, startTime);
       }
       if (cache != null) {
         cache.put(cacheKey, analyzedSentence);
@@ -1643,12 +1829,19 @@ public class JLanguageTool {
    * @since 0.9.8
    */
   public AnalyzedSentence getRawAnalyzedSentence(String sentence) throws IOException {
+    CheckStageMetrics.Timer timer = stageTimer;
+    long startTime = System.nanoTime();
     List<String> tokens = language.getWordTokenizer().tokenize(sentence);
+    timer.add(CheckStageMetrics.Stage.WORD_TOKENIZATION, startTime);
     Map<Integer, CleanToken> softHyphenTokens = replaceSoftHyphens(tokens);
 
+    startTime = System.nanoTime();
     List<AnalyzedTokenReadings> aTokens = language.getTagger().tag(tokens);
+    timer.add(CheckStageMetrics.Stage.TAGGING, startTime);
     if (language.getChunker() != null) {
+      startTime = System.nanoTime();
       language.getChunker().addChunkTags(aTokens);
+      timer.add(CheckStageMetrics.Stage.CHUNKING, startTime);
     }
 
     AnalyzedTokenReadings[] tokenArray = new AnalyzedTokenReadings[tokens.size() + 1];
@@ -1882,10 +2075,15 @@ public class JLanguageTool {
    * @since 4.7
    */
   protected List<RuleMatch> applyCustomFilters(List<RuleMatch> matches, AnnotatedText text) {
+    if (matchFilters.isEmpty()) {
+      return matches;
+    }
+    long startTime = System.nanoTime();
     List<RuleMatch> transformed = matches;
     for (RuleMatchFilter filter : matchFilters) {
       transformed = filter.filter(transformed, text);
     }
+    stageTimer.add(CheckStageMetrics.Stage.CUSTOM_FILTERS, startTime);
     return transformed;
   }
 
@@ -1947,17 +2145,39 @@ public class JLanguageTool {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<Range> ignoreRanges = new ArrayList<>();
       List<ExtendedSentenceRange> extendedSentenceRanges = new ArrayList<>();
-      if (mode == Mode.ALL) {
+      if (mode == Mode.ALL && textLevelRuleExecutor != null) {
+        // text-level rules run in parallel to the sentence-level rules on this thread:
+        List<Future<List<RuleMatch>>> textLevelRuleTasks = submitTextLevelRules();
+        CheckResults otherRuleMatches;
+        try {
+          // the listener gets the text-level matches first, as in the sequential case:
+          otherRuleMatches = getOtherRuleMatches(toneTags, null);
+        } catch (Throwable e) {
+          cancelAll(textLevelRuleTasks);
+          throw e;
+        }
+        ruleMatches.addAll(collectTextLevelRuleMatches(textLevelRuleTasks));
+        ruleMatches.addAll(otherRuleMatches.getRuleMatches());
+        if (listener != null) {
+          for (RuleMatch match : otherRuleMatches.getRuleMatches()) {
+            listener.matchFound(match);
+          }
+        }
+        ignoreRanges.addAll(otherRuleMatches.getIgnoredRanges());
+        extendedSentenceRanges.addAll(otherRuleMatches.getExtendedSentenceRanges());
+      } else if (mode == Mode.ALL) {
         ruleMatches.addAll(getTextLevelRuleMatches());
-        CheckResults otherRuleMatches = getOtherRuleMatches(toneTags);
+        CheckResults otherRuleMatches = getOtherRuleMatches(toneTags, listener);
         ruleMatches.addAll(otherRuleMatches.getRuleMatches());
         ignoreRanges.addAll(otherRuleMatches.getIgnoredRanges());
         extendedSentenceRanges.addAll(otherRuleMatches.getExtendedSentenceRanges());
       } else if (mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
-        CheckResults otherRuleMatches = getOtherRuleMatches(toneTags);
+        CheckResults otherRuleMatches = getOtherRuleMatches(toneTags, listener);
         ruleMatches.addAll(otherRuleMatches.getRuleMatches());
         ignoreRanges.addAll(otherRuleMatches.getIgnoredRanges());
         extendedSentenceRanges.addAll(otherRuleMatches.getExtendedSentenceRanges());
+      } else if (mode == Mode.TEXTLEVEL_ONLY && textLevelRuleExecutor != null) {
+        ruleMatches.addAll(collectTextLevelRuleMatches(submitTextLevelRules()));
       } else if (mode == Mode.TEXTLEVEL_ONLY) {
         ruleMatches.addAll(getTextLevelRuleMatches());
       } else {
@@ -1979,34 +2199,59 @@ public class JLanguageTool {
           if (analyzedSentences == null) {
             analyzedSentences = sentences.stream().map(s -> s.analyzed).collect(Collectors.toList());
           }
-          RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
-          List<RuleMatch> adaptedMatches = new ArrayList<>();
-          for (RuleMatch match : matches) {
-            LineColumnPosition from;
-            LineColumnPosition to;
-            try {
-              from = findLineColumn(match.getFromPos());
-              to = findLineColumn(match.getToPos());
-            } catch (RuntimeException e) {
-              throw new RuntimeException("Getting line/column positions failed for match " + match + " Sentence: " + match.getSentence().getText(), e);
+          List<RuleMatch> adaptedMatches = matchTextLevelRule((TextLevelRule) rule, analyzedSentences);
+          ruleMatches.addAll(adaptedMatches);
+          if (listener != null) {
+            for (RuleMatch adaptedMatch : adaptedMatches) {
+              listener.matchFound(adaptedMatch);
             }
-            int newFromPos;
-            int newToPos;
-            try {
-              newFromPos = annotatedText.getOriginalTextPositionFor(match.getFromPos(), false);
-              newToPos = annotatedText.getOriginalTextPositionFor(match.getToPos() - 1, true) + 1;
-            } catch (RuntimeException e) {
-              throw new RuntimeException("Getting positions failed for match " + match + " Sentence: " + match.getSentence().getText(), e);
+          }
+        }
+      }
+      return ruleMatches;
+    }
+
+    /**
+     * Start each text-level rule as a task of {@link #textLevelRuleExecutor}, or on the
+     * calling thread if the executor doesn't accept more tasks.
+     */
+    private List<Future<List<RuleMatch>>> submitTextLevelRules() {
+      List<Future<List<RuleMatch>>> futures = new ArrayList<>();
+      if (paraMode == ParagraphHandling.ONLYNONPARA) {
+        return futures;
+      }
+      List<AnalyzedSentence> analyzedSentences = sentences.stream().map(s -> s.analyzed).collect(Collectors.toList());
+      for (Rule rule : rules.allRules()) {
+        if (rule instanceof TextLevelRule) {
+          FutureTask<List<RuleMatch>> task = new FutureTask<>(() -> {
+            if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+              return Collections.emptyList();
             }
-            RuleMatch newMatch = new RuleMatch(match);
-            newMatch.setOffsetPosition(newFromPos, newToPos);
-            newMatch.setLine(from.line);
-            newMatch.setEndLine(to.line);
-            newMatch.setColumn(from.column - (from.line == 0 ? 1 : 0));
-            newMatch.setEndColumn(to.column - (to.line == 0 ? 1 : 0));
-            newMatch.setSuggestedReplacementObjects(extendSuggestions(match.getSuggestedReplacementObjects()));
-            adaptedMatches.add(newMatch);
+            return matchTextLevelRule((TextLevelRule) rule, analyzedSentences);
+          });
+          try {
+            textLevelRuleExecutor.execute(task);
+          } catch (RejectedExecutionException e) {
+            task.run();
           }
+          futures.add(task);
+        }
+      }
+      return futures;
+    }
+
+    /**
+     * Wait for the tasks from {@link #submitTextLevelRules()} and return their matches in rule order,
+     * so the result is the same as with {@link #getTextLevelRuleMatches()}.
+     */
+    private List<RuleMatch> collectTextLevelRuleMatches(List<Future<List<RuleMatch>>> futures) throws IOException, InterruptedException {
+      List<RuleMatch> ruleMatches = new ArrayList<>();
+      try {
+        for (Future<List<RuleMatch>> future : futures) {
+          if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+            break;
+          }
+          List<RuleMatch> adaptedMatches = future.get();
           ruleMatches.addAll(adaptedMatches);
           if (listener != null) {
             for (RuleMatch adaptedMatch : adaptedMatches) {
@@ -2014,11 +2259,64 @@ public class JLanguageTool {
             }
           }
         }
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        } else if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException(e.getCause());
+      } finally {
+        cancelAll(futures);
       }
       return ruleMatches;
     }
 
-    private CheckResults getOtherRuleMatches(Set<ToneTag> toneTags) {
+    private void cancelAll(List<Future<List<RuleMatch>>> futures) {
+      for (Future<List<RuleMatch>> future : futures) {
+        future.cancel(true);
+      }
+    }
+
+    private List<RuleMatch> matchTextLevelRule(TextLevelRule rule, List<AnalyzedSentence> analyzedSentences) throws IOException {
+      long startTime = System.nanoTime();
+      RuleMatch[] matches = rule.match(analyzedSentences, annotatedText);
+      stageTimer.add(CheckStageMetrics.Stage.TEXT_RULES, startTime);
+      RuleProfiler profiler = ruleProfiler;
+      if (profiler != null) {
+        profiler.add(rule, startTime, matches.length);
+      }
+      List<RuleMatch> adaptedMatches = new ArrayList<>();
+      for (RuleMatch match : matches) {
+        LineColumnPosition from;
+        LineColumnPosition to;
+        try {
+          from = findLineColumn(match.getFromPos());
+          to = findLineColumn(match.getToPos());
+        } catch (RuntimeException e) {
+          throw new RuntimeException("Getting line/column positions failed for match " + match + " Sentence: " + match.getSentence().getText(), e);
+        }
+        int newFromPos;
+        int newToPos;
+        try {
+          newFromPos = annotatedText.getOriginalTextPositionFor(match.getFromPos(), false);
+          newToPos = annotatedText.getOriginalTextPositionFor(match.getToPos() - 1, true) + 1;
+        } catch (RuntimeException e) {
+          throw new RuntimeException("Getting positions failed for match " + match + " Sentence: " + match.getSentence().getText(), e);
+        }
+        RuleMatch newMatch = new RuleMatch(match);
+        newMatch.setOffsetPosition(newFromPos, newToPos);
+        newMatch.setLine(from.line);
+        newMatch.setEndLine(to.line);
+        newMatch.setColumn(from.column - (from.line == 0 ? 1 : 0));
+        newMatch.setEndColumn(to.column - (to.line == 0 ? 1 : 0));
+        newMatch.setSuggestedReplacementObjects(extendSuggestions(match.getSuggestedReplacementObjects()));
+        adaptedMatches.add(newMatch);
+      }
+      return adaptedMatches;
+    }
+
+    private CheckResults getOtherRuleMatches(Set<ToneTag> toneTags, @Nullable RuleMatchListener listener) {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<Range> ignoreRanges = new ArrayList<>(); //TODO: remove later
       List<ExtendedSentenceRange> extendedSentenceRanges = new ArrayList<>();
@@ -2027,6 +2325,7 @@ public class JLanguageTool {
       int wordCounter = 0;
       float tmpErrorsPerWord = 0.0f;
       List<String> errorRateLog = new ArrayList<>();
+      long ruleConfigFingerprint = cache != null ? getRuleConfigFingerprint(mode, level, toneTags) : 0;
       for (int i = 0, sentencesSize = sentences.size(); i < sentencesSize; i++) {
         SentenceData sentence = sentences.get(i);
         wordCounter += sentence.wordCount;
@@ -2039,16 +2338,26 @@ public class JLanguageTool {
           //}
           List<RuleMatch> sentenceMatches = null;
           InputSentence cacheKey = null;
+          InputSentence ruleMatchesKey = null;
+          CachedRuleMatches.Builder cachedRuleMatches = null;
           if (cache != null) {
-            cacheKey = new InputSentence(sentence.text, language, motherTongue,
-                    disabledRules, disabledRuleCategories,
-                    enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level, toneTags);
+            cacheKey = new InputSentence(sentence.text, language, motherTongue, userConfig, altLanguages, ruleConfigFingerprint);
             sentenceMatches = cache.getIfPresent(cacheKey);
+            if (sentenceMatches == null) {
+              // matches of single rules can be shared with checks that use other rules:
+              ruleMatchesKey = new InputSentence(sentence.text, language, motherTongue, userConfig, altLanguages, 0);
+              cachedRuleMatches = new CachedRuleMatches.Builder(cache.getRuleMatchesCache().getIfPresent(ruleMatchesKey), cache.getRuleIndexes(language));
+            }
           }
           if (sentenceMatches == null) {
             List<Rule> rules = new ArrayList<>(this.rules.rulesForSentence(sentence.analyzed));
+            // the user's own rules are not cached per rule, their ids are not from a fixed set:
+            int cacheableRules = rules.size();
             rules.addAll(userConfig.getRules());
-            sentenceMatches = checkAnalyzedSentence(paraMode, rules, sentence.analyzed, checkRemoteRules, textWordCounter);
+            sentenceMatches = checkAnalyzedSentence(paraMode, rules, sentence.analyzed, checkRemoteRules, textWordCounter, cachedRuleMatches, cacheableRules);
+            if (cachedRuleMatches != null && cachedRuleMatches.hasNewResults()) {
+              cache.getRuleMatchesCache().put(ruleMatchesKey, cachedRuleMatches.build());
+            }
           }
           if (cache != null) {
             cache.put(cacheKey, sentenceMatches);
@@ -26,6 +26,7 @@ import org.languagetool.rules.RuleMatch;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -47,6 +48,12 @@ public class ResultCache {
    */
   private final Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatchesCache;
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
+  /**
+   * matches of the local rules that have run on a sentence, independent of the rule configuration,
+   * so results can be shared by checks that use different rules
+   */
+  private final Cache<InputSentence, CachedRuleMatches> ruleMatchesCache;
+  private final Map<String, CachedRuleMatches.Indexes> ruleIndexes = new ConcurrentHashMap<>();
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
 
   /**
@@ -65,8 +72,14 @@ public class ResultCache {
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
+    // the matches cache and the rule matches cache hold the same kind of results, so they share a budget:
     matchesCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
+            maximumWeight(maxSize/4).weigher(new MatchesWeigher()).
+            recordStats().
+            expireAfterAccess(expireAfter, timeUnit).
+            build();
+    ruleMatchesCache = CacheBuilder.newBuilder().
+            maximumWeight(maxSize/4).weigher(new RuleMatchesWeigher()).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
@@ -91,6 +104,14 @@ public class ResultCache {
     }
   }
 
+  static class RuleMatchesWeigher implements Weigher<InputSentence, CachedRuleMatches> {
+    @Override
+    public int weigh(InputSentence sentence, @NotNull CachedRuleMatches matches) {
+      // like MatchesWeigher, plus the set of rules that have run (a few hundred bytes per sentence):
+      return sentence.getText().length() / 75 + matches.getMatchCount() + matches.getRuleBits() / 4096 + 1;
+    }
+  }
+
   static class RemoteMatchesWeigher implements Weigher<InputSentence, Map<String, List<RuleMatch>>> {
     @Override
     public int weigh(InputSentence sentence, @NotNull Map<String, List<RuleMatch>> matches) {
@@ -140,6 +161,15 @@ public class ResultCache {
     return matchesCache;
   }
 
+  /** @since 6.4 */
+  public Cache<InputSentence, CachedRuleMatches> getRuleMatchesCache() {
+    return ruleMatchesCache;
+  }
+
+  CachedRuleMatches.Indexes getRuleIndexes(Language lang) {
+    return ruleIndexes.computeIfAbsent(lang.getShortCodeWithCountryAndVariant(), k -> new CachedRuleMatches.Indexes());
+  }
+
   /** @since 5.0 */
   public Cache<InputSentence, Map<String, List<RuleMatch>>> getRemoteMatchesCache() {
     return remoteMatchesCache;
@@ -48,6 +48,7 @@ public class UserConfig {
   private final int maxSpellingSuggestions;
   private final Long userDictCacheSize;
   private final String userDictName;
+  private final Long userDictVersion;
   private final Long premiumUid;
   private final Map<String, Integer> configurableRuleValues = new HashMap<>();
   private final LinguServices linguServices;
@@ -110,6 +111,23 @@ public class UserConfig {
                     @Nullable List<String> abTest, @Nullable Long textSessionId,
                     boolean hidePremiumMatches, List<String> preferredLanguages,
                     boolean untrustedSource) {
+    this(userSpecificSpellerWords, userSpecificRules, ruleValues, maxSpellingSuggestions, premiumUid, userDictName, userDictCacheSize, linguServices, filterDictionaryMatches, abTest, textSessionId, hidePremiumMatches, preferredLanguages, untrustedSource, null);
+  }
+
+  /**
+   * @param userDictVersion a version of the user's dictionary that changes whenever words are added or removed,
+   *                        or {@code null} if unknown. If set, compiled user dictionaries are cached per version.
+   * @since 6.4
+   */
+  public UserConfig(List<String> userSpecificSpellerWords,
+                    List<Rule> userSpecificRules,
+                    Map<String, Integer> ruleValues,
+                    int maxSpellingSuggestions, Long premiumUid, String userDictName,
+                    Long userDictCacheSize,
+                    LinguServices linguServices, boolean filterDictionaryMatches,
+                    @Nullable List<String> abTest, @Nullable Long textSessionId,
+                    boolean hidePremiumMatches, List<String> preferredLanguages,
+                    boolean untrustedSource, @Nullable Long userDictVersion) {
     this.userSpecificSpellerWords = Objects.requireNonNull(userSpecificSpellerWords);
     this.userSpecificRules = Objects.requireNonNull(userSpecificRules);
     for (Map.Entry<String, Integer> entry : ruleValues.entrySet()) {
@@ -119,6 +137,7 @@ public class UserConfig {
     this.premiumUid = premiumUid;
     this.userDictName = userDictName == null ? "default" : userDictName;
     this.userDictCacheSize = userDictCacheSize;
+    this.userDictVersion = userDictVersion;
     this.linguServices = linguServices;
     this.filterDictionaryMatches = filterDictionaryMatches;
     this.abTest = abTest;
@@ -215,6 +234,15 @@ public class UserConfig {
     return userDictName;
   }
 
+  /**
+   * Version of the user's dictionary, changes whenever words are added or removed. Null if unknown.
+   * @since 6.4
+   */
+  @Nullable
+  public Long getUserDictVersion() {
+    return userDictVersion;
+  }
+
   /**
    * @since 4.3
    */
@@ -231,13 +259,15 @@ public class UserConfig {
     // -> we use user id & dictionary names first
     // -> userSpecificSpellerWords still needs to be included,
     //  otherwise ResultCache can be used even when dictionaries have changed
+    // -> unless both have a dictionary version, which changes with every change of the words
+    boolean sameVersion = userDictVersion != null && userDictVersion.equals(other.userDictVersion);
     return new EqualsBuilder()
       .append(configurableRuleValues, other.configurableRuleValues)
       .append(userSpecificRules.stream().mapToLong(k -> k.getId().hashCode()).sum(),
               other.userSpecificRules.stream().mapToLong(k -> k.getId().hashCode()).sum())
       .append(premiumUid, other.premiumUid)
       .append(userDictName, other.userDictName)
-      .append(userSpecificSpellerWords, other.userSpecificSpellerWords)
+      .append(sameVersion ? null : userSpecificSpellerWords, sameVersion ? null : other.userSpecificSpellerWords)
       .append(filterDictionaryMatches, other.filterDictionaryMatches)
       // omitting these distorts A/B tests, as UserConfig is cached by the pipeline pool
       // -> (cached) textSessionId on server may say group A, but ID on client (relevant for saved correction) says B
@@ -70,9 +70,7 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   @Override
   public Probability getPseudoProbability(List<String> context) {
-    if (this.totalTokenCount == null) {
-      this.totalTokenCount = getTotalTokenCount();
-    }
+    long totalTokenCount = getCachedTotalTokenCount();
     int maxCoverage = 0;
     int coverage = 0;
     // TODO: lm.getCount("_START_") returns 0 for Google data -- see getCount(String) in LuceneLanguageModel
@@ -119,8 +117,32 @@ public abstract class BaseLanguageModel implements LanguageModel {
    */
   public abstract long getCount(List<String> tokens);
 
+  /**
+   * Get the occurrence counts for several token sequences, in the order of {@code ngrams}.
+   * Sub classes can override this to look up the counts faster than one by one.
+   * @since 6.4
+   */
+  public long[] getCounts(List<List<String>> ngrams) {
+    long[] result = new long[ngrams.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = getCount(ngrams.get(i));
+    }
+    return result;
+  }
+
   public abstract long getTotalTokenCount();
 
+  /**
+   * Like {@link #getTotalTokenCount()}, but only looked up once.
+   * @since 6.4
+   */
+  protected long getCachedTotalTokenCount() {
+    if (totalTokenCount == null) {
+      totalTokenCount = getTotalTokenCount();
+    }
+    return totalTokenCount;
+  }
+
   private void debug(String message, Object... vars) {
     if (DEBUG) {
       System.out.printf(Locale.ENGLISH, message, vars);
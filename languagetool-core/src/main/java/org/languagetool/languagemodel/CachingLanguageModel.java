@@ -0,0 +1,111 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.util.*;
+
+/**
+ * Remembers the counts looked up in a {@link BaseLanguageModel}, so each ngram is only
+ * looked up once. With {@link #prefetch(Collection)}, all counts needed for a set of
+ * probabilities are looked up with one call of {@link BaseLanguageModel#getCounts(List)}.
+ * Not thread-safe, meant to be used for one request, e.g. the check of a sentence.
+ * @since 6.4
+ */
+public class CachingLanguageModel extends BaseLanguageModel {
+
+  private final BaseLanguageModel lm;
+  private final Map<List<String>, Long> counts = new HashMap<>();
+
+  public CachingLanguageModel(BaseLanguageModel lm) {
+    this.lm = Objects.requireNonNull(lm);
+  }
+
+  /**
+   * Look up the counts that {@link #getPseudoProbability(List)} needs for the given contexts,
+   * unless they are known already.
+   */
+  public void prefetch(Collection<List<String>> contexts) {
+    List<List<String>> ngrams = new ArrayList<>();
+    for (List<String> context : contexts) {
+      for (int i = 1; i <= context.size(); i++) {
+        ngrams.add(context.subList(0, i));
+      }
+    }
+    lookUpMissing(ngrams);
+  }
+
+  private void lookUpMissing(Collection<List<String>> ngramsToLookUp) {
+    Set<List<String>> missing = new LinkedHashSet<>();
+    for (List<String> ngram : ngramsToLookUp) {
+      if (!counts.containsKey(ngram)) {
+        missing.add(new ArrayList<>(ngram));
+      }
+    }
+    if (!missing.isEmpty()) {
+      List<List<String>> ngrams = new ArrayList<>(missing);
+      long[] result = lm.getCounts(ngrams);
+      for (int i = 0; i < result.length; i++) {
+        counts.put(ngrams.get(i), result[i]);
+      }
+    }
+  }
+
+  @Override
+  public long getCount(String token1) {
+    return getCount(Collections.singletonList(token1));
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Long count = counts.get(tokens);
+    if (count == null) {
+      count = lm.getCount(tokens);
+      counts.put(new ArrayList<>(tokens), count);
+    }
+    return count;
+  }
+
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    lookUpMissing(ngrams);
+    long[] result = new long[ngrams.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = counts.get(ngrams.get(i));
+    }
+    return result;
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    return lm.getCachedTotalTokenCount();
+  }
+
+  /**
+   * Does nothing, the underlying language model is not closed.
+   */
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public String toString() {
+    return lm.toString();
+  }
+
+}
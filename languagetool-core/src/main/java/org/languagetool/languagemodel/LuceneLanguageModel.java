@@ -71,6 +71,18 @@ public class LuceneLanguageModel extends BaseLanguageModel {
     return lms.stream().mapToLong(lm -> lm.getCount(tokens)).sum();
   }
 
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    long[] result = new long[ngrams.size()];
+    for (LuceneSingleIndexLanguageModel lm : lms) {
+      long[] counts = lm.getCounts(ngrams);
+      for (int i = 0; i < result.length; i++) {
+        result[i] += counts[i];
+      }
+    }
+    return result;
+  }
+
   @Override
   public long getCount(String token) {
     return getCount(Arrays.asList(token));
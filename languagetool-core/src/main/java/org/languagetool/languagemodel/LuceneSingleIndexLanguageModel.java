@@ -18,11 +18,12 @@
  */
 package org.languagetool.languagemodel;
 
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.Term;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.languagetool.Experimental;
 
 import java.io.File;
@@ -40,6 +41,8 @@ import java.util.*;
  */
 public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
 
+  private static final int MAX_MATCHES = 2000;
+
   private static final Map<File,LuceneSearcher> dirToSearcherMap = new HashMap<>();  // static to save memory for language variants
 
   private final List<File> indexes = new ArrayList<>();
@@ -122,12 +125,79 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
 
   @Override
   public long getCount(List<String> tokens) {
+    checkNgramSize(tokens);
+    Term term = new Term("ngram", String.join(" ", tokens));
+    return getCount(term, getLuceneSearcher(tokens.size()));
+  }
+
+  /**
+   * Look up the counts of the ngrams sorted by term, so that the terms of each index
+   * segment are only walked through once, and each different ngram only once.
+   * @since 6.4
+   */
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    if (luceneSearcherMap.isEmpty()) {
+      // no index, sub classes provide the counts:
+      return super.getCounts(ngrams);
+    }
+    Map<Integer, SortedMap<BytesRef, IntArrayList>> ngramSizeToTerms = new TreeMap<>();
+    for (int i = 0; i < ngrams.size(); i++) {
+      List<String> tokens = ngrams.get(i);
+      checkNgramSize(tokens);
+      ngramSizeToTerms.computeIfAbsent(tokens.size(), k -> new TreeMap<>())
+        .computeIfAbsent(new BytesRef(String.join(" ", tokens)), k -> new IntArrayList())
+        .add(i);
+    }
+    long[] result = new long[ngrams.size()];
+    for (Map.Entry<Integer, SortedMap<BytesRef, IntArrayList>> entry : ngramSizeToTerms.entrySet()) {
+      addCounts(entry.getValue(), getLuceneSearcher(entry.getKey()), result);
+    }
+    return result;
+  }
+
+  private void checkNgramSize(List<String> tokens) {
     if (tokens.size() > maxNgram) {
       throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
     }
     Objects.requireNonNull(tokens);
-    Term term = new Term("ngram", String.join(" ", tokens));
-    return getCount(term, getLuceneSearcher(tokens.size()));
+  }
+
+  private void addCounts(SortedMap<BytesRef, IntArrayList> termToNgrams, LuceneSearcher luceneSearcher, long[] result) {
+    try {
+      Map<BytesRef, Integer> matches = new HashMap<>();
+      for (LeafReaderContext leaf : luceneSearcher.reader.leaves()) {
+        LeafReader reader = leaf.reader();
+        Terms terms = reader.terms("ngram");
+        if (terms == null) {
+          continue;
+        }
+        TermsEnum termsEnum = terms.iterator();
+        Bits liveDocs = reader.getLiveDocs();
+        PostingsEnum postings = null;
+        for (Map.Entry<BytesRef, IntArrayList> entry : termToNgrams.entrySet()) {
+          if (!termsEnum.seekExact(entry.getKey())) {
+            continue;
+          }
+          postings = termsEnum.postings(postings, PostingsEnum.NONE);
+          for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+            if (liveDocs != null && !liveDocs.get(doc)) {
+              continue;
+            }
+            if (matches.merge(entry.getKey(), 1, Integer::sum) > MAX_MATCHES) {
+              throw new RuntimeException("More than " + MAX_MATCHES + " matches for '" + entry.getKey().utf8ToString() +
+                                         "' not supported for performance reasons in " + luceneSearcher.directory);
+            }
+            long count = Long.parseLong(reader.document(doc).get("count"));
+            for (int i : entry.getValue()) {
+              result[i] += count;
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   @Override
@@ -193,9 +263,9 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
   private long getCount(Term term, LuceneSearcher luceneSearcher) {
     long result = 0;
     try {
-      TopDocs docs = luceneSearcher.searcher.search(new TermQuery(term), 2000);
-      if (docs.totalHits > 2000) {
-        throw new RuntimeException("More than 2000 matches for '" + term + "' not supported for performance reasons: " +
+      TopDocs docs = luceneSearcher.searcher.search(new TermQuery(term), MAX_MATCHES);
+      if (docs.totalHits > MAX_MATCHES) {
+        throw new RuntimeException("More than " + MAX_MATCHES + " matches for '" + term + "' not supported for performance reasons: " +
                                    docs.totalHits + " matches in " + luceneSearcher.directory);
       }
       for (ScoreDoc scoreDoc : docs.scoreDocs) {
@@ -27,14 +27,18 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.regex.Pattern;
@@ -47,7 +51,10 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import io.grpc.*;
 import io.grpc.internal.DnsNameResolverProvider;
@@ -140,6 +147,7 @@ public abstract class GRPCRule extends RemoteRule {
   public static class Connection {
     final ManagedChannel channel;
     final MLServerFutureStub stub;
+    final BatchSizer batchSizer;
 
     public static ManagedChannel getManagedChannel(String host, int port, boolean useSSL, @Nullable String clientPrivateKey, @Nullable String clientCertificate, @Nullable String rootCertificate) throws SSLException {
       NettyChannelBuilder channelBuilder;
@@ -174,6 +182,13 @@ public abstract class GRPCRule extends RemoteRule {
       String ca = serviceConfiguration.getOptions().get("rootCertificate");
       this.channel = getManagedChannel(host, port, ssl, key, cert, ca);
       this.stub = MLServerGrpc.newFutureStub(channel);
+      this.batchSizer = new BatchSizer(serviceConfiguration);
+    }
+
+    Connection(ManagedChannel channel, RemoteRuleConfig serviceConfiguration) {
+      this.channel = channel;
+      this.stub = MLServerGrpc.newFutureStub(channel);
+      this.batchSizer = new BatchSizer(serviceConfiguration);
     }
 
     private void shutdown() {
@@ -183,6 +198,45 @@ public abstract class GRPCRule extends RemoteRule {
     }
   }
 
+  /**
+   * Chooses the number of sentences per request from the latency observed for earlier requests
+   * to the same server: a request should take at most half of the timeout, so that slow servers
+   * get smaller requests, which are sent in parallel, and fast servers get requests of up to
+   * {@code batchSize} sentences. Without a timeout or observations yet, {@code batchSize} is used.
+   */
+  static class BatchSizer {
+    private static final double NEW_OBSERVATION_WEIGHT = 0.2;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private double millisPerSentence = -1;  // moving average, negative as long as nothing was observed
+
+    BatchSizer(RemoteRuleConfig serviceConfiguration) {
+      this.maxBatchSize = Integer.parseInt(serviceConfiguration.getOptions().getOrDefault("batchSize", String.valueOf(DEFAULT_BATCH_SIZE)));
+      this.minBatchSize = Math.min(maxBatchSize, Integer.parseInt(serviceConfiguration.getOptions().getOrDefault("minBatchSize", "1")));
+    }
+
+    synchronized void addObservation(long millis, int sentences) {
+      if (sentences <= 0) {
+        return;
+      }
+      double observed = (double) millis / sentences;
+      if (millisPerSentence < 0) {
+        millisPerSentence = observed;
+      } else {
+        millisPerSentence = NEW_OBSERVATION_WEIGHT * observed + (1 - NEW_OBSERVATION_WEIGHT) * millisPerSentence;
+      }
+    }
+
+    synchronized int getBatchSize(long timeoutMilliseconds) {
+      if (timeoutMilliseconds <= 0 || millisPerSentence <= 0) {
+        return maxBatchSize;
+      }
+      long size = Math.round(timeoutMilliseconds / 2.0 / millisPerSentence);
+      return (int) Math.max(minBatchSize, Math.min(maxBatchSize, size));
+    }
+  }
+
   private static final LoadingCache<RemoteRuleConfig, Connection> servers =
     CacheBuilder.newBuilder().build(CacheLoader.from(serviceConfiguration -> {
       if (serviceConfiguration == null) {
@@ -200,27 +254,40 @@ public abstract class GRPCRule extends RemoteRule {
   }
 
   private final Connection conn;
-  private final int batchSize;
   private final boolean sendAnalyzedData;
   private int maxSentenceLength;
 
   public GRPCRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging) {
+    this(language, messages, config, inputLogging, getConnection(config));
+  }
+
+  /**
+   * Use the given channel instead of connecting to the server of {@code config}, e.g. for tests with an in-process server.
+   * @since 6.4
+   */
+  protected GRPCRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging, ManagedChannel channel) {
+    this(language, messages, config, inputLogging, new Connection(channel, config));
+  }
+
+  private GRPCRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging, @Nullable Connection conn) {
     super(language, messages, config, inputLogging);
 
     this.maxSentenceLength = Integer.parseInt(config.getOptions().getOrDefault("maxSentenceLength", String.valueOf(Integer.MAX_VALUE)));
     sendAnalyzedData = config.getOptions()
       .getOrDefault("analyzed", "false")
       .equalsIgnoreCase("true");
-    this.batchSize = Integer.parseInt(config.getOptions().getOrDefault("batchSize",
-                                                                       String.valueOf(DEFAULT_BATCH_SIZE)));
+    this.conn = conn;
+  }
+
+  @Nullable
+  private static Connection getConnection(RemoteRuleConfig config) {
     synchronized (servers) {
-      Connection conn = null;
-        try {
-          conn = servers.get(serviceConfiguration);
-        } catch (Exception e) {
-          logger.error("Could not connect to remote service at " + serviceConfiguration, e);
-        }
-      this.conn = conn;
+      try {
+        return servers.get(config);
+      } catch (Exception e) {
+        logger.error("Could not connect to remote service at " + config, e);
+        return null;
+      }
     }
   }
 
@@ -258,6 +325,8 @@ public abstract class GRPCRule extends RemoteRule {
     if (textSessionId != null) {
       ids = Collections.nCopies(filteredSentences.size(), textSessionId);
     }
+    int batchSize = conn != null ? conn.batchSizer.getBatchSize(getTimeout(sentences.stream().mapToLong(s -> s.getText().length()).sum())) :
+      DEFAULT_BATCH_SIZE;
     if (sendAnalyzedData) {
       List<MLServerProto.AnalyzedMatchRequest> requests = new ArrayList<>();
 
@@ -321,58 +390,114 @@ public abstract class GRPCRule extends RemoteRule {
       }
 
       List<AnalyzedSentence> sentences;
+      List<Integer> requestSizes = new ArrayList<>();
       List<ListenableFuture<MatchResponse>> futures = new ArrayList<>();
-      List<MatchResponse> responses = new ArrayList<>();
+      // one deadline for all requests, so that a slow request doesn't delay the others beyond the timeout:
+      Deadline deadline = timeoutMilliseconds > 0 ? Deadline.after(timeoutMilliseconds, TimeUnit.MILLISECONDS) : null;
+      MLServerFutureStub stub = deadline != null ? conn.stub.withDeadline(deadline) : conn.stub;
+      if (deadline != null) {
+        logger.debug("Deadline for rule {}: {}ms", getId(), timeoutMilliseconds);
+      }
+      long startNanos = System.nanoTime();
       try {
         if (sendAnalyzedData) {
           AnalyzedMLRuleRequest reqData = (AnalyzedMLRuleRequest) requestArg;
           sentences = reqData.sentences;
-
           for (MLServerProto.AnalyzedMatchRequest req : reqData.requests) {
-            if (timeoutMilliseconds > 0) {
-              logger.debug("Deadline for rule {}: {}ms", getId(), timeoutMilliseconds);
-              futures.add(conn.stub
-                .withDeadlineAfter(timeoutMilliseconds, TimeUnit.MILLISECONDS)
-                .matchAnalyzed(req));
-            } else {
-              futures.add(conn.stub.matchAnalyzed(req));
-            }
+            requestSizes.add(req.getSentencesCount());
+            futures.add(stub.matchAnalyzed(req));
           }
         } else {
           MLRuleRequest reqData = (MLRuleRequest) requestArg;
           sentences = reqData.sentences;
-
           for (MLServerProto.MatchRequest req : reqData.requests) {
-            if (timeoutMilliseconds > 0) {
-              logger.debug("Deadline for rule {}: {}ms", getId(), timeoutMilliseconds);
-              futures.add(conn.stub
-                .withDeadlineAfter(timeoutMilliseconds, TimeUnit.MILLISECONDS)
-                .match(req));
-            } else {
-              futures.add(conn.stub.match(req));
-            }
+            requestSizes.add(req.getSentencesCount());
+            futures.add(stub.match(req));
           }
         }
-        // TODO: handle partial failures
-        for (ListenableFuture<MatchResponse> res : futures) {
-          responses.add(res.get());
-        }
       } catch (StatusRuntimeException e) {
         if (e.getStatus().getCode() == Status.DEADLINE_EXCEEDED.getCode()) {
           throw new TimeoutException(e.getMessage());
         } else {
           throw e;
         }
-      } catch (InterruptedException | ExecutionException e) {
-        throw new TimeoutException(e + Objects.toString(e.getMessage()));
       }
 
-      List<RuleMatch> matches = getRuleMatches(sentences, responses);
-      RemoteRuleResult result = new RemoteRuleResult(true, true, matches, sentences);
-      return result;
+      AtomicReferenceArray<Object> responses = awaitResponses(futures, requestSizes, deadline, startNanos);
+      List<RuleMatch> matches = new ArrayList<>();
+      List<AnalyzedSentence> processedSentences = new ArrayList<>();
+      Set<AnalyzedSentence> failedSentences = new LinkedHashSet<>();
+      Object failure = null;
+      int offset = 0;
+      for (int i = 0; i < futures.size(); i++) {
+        List<AnalyzedSentence> requestSentences = sentences.subList(offset, offset + requestSizes.get(i));
+        offset += requestSizes.get(i);
+        Object response = responses.get(i);
+        if (response instanceof MatchResponse) {
+          matches.addAll(getRuleMatches(requestSentences, Collections.singletonList((MatchResponse) response)));
+          processedSentences.addAll(requestSentences);
+        } else {
+          if (response == null || response instanceof CancellationException || isDeadlineExceeded((Throwable) response)) {
+            // the time until the deadline is a lower bound for the latency of this request:
+            conn.batchSizer.addObservation(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), requestSizes.get(i));
+            failure = "no response within " + timeoutMilliseconds + "ms";
+          } else {
+            failure = response;
+          }
+          failedSentences.addAll(requestSentences);
+        }
+      }
+      if (failure != null && processedSentences.isEmpty()) {
+        throw new TimeoutException(Objects.toString(failure));
+      } else if (failure != null) {
+        logger.warn("Rule {}: {} of {} sentences failed, returning partial results: {}", getId(), failedSentences.size(),
+          sentences.size(), failure);
+      }
+      return new RemoteRuleResult(true, true, matches, processedSentences, failedSentences);
     };
   }
 
+  private static boolean isDeadlineExceeded(Throwable t) {
+    return Status.fromThrowable(t).getCode() == Status.Code.DEADLINE_EXCEEDED;
+  }
+
+  /**
+   * Wait for the responses until the deadline and cancel the requests that haven't finished by then.
+   * @return for each request its {@link MatchResponse}, the {@link Throwable} it failed with,
+   *         or {@code null} if it didn't finish in time
+   */
+  private AtomicReferenceArray<Object> awaitResponses(List<ListenableFuture<MatchResponse>> futures, List<Integer> requestSizes,
+                                                      @Nullable Deadline deadline, long startNanos) throws InterruptedException {
+    AtomicReferenceArray<Object> responses = new AtomicReferenceArray<>(futures.size());
+    CountDownLatch finished = new CountDownLatch(futures.size());
+    for (int i = 0; i < futures.size(); i++) {
+      int index = i;
+      Futures.addCallback(futures.get(i), new FutureCallback<MatchResponse>() {
+        @Override
+        public void onSuccess(MatchResponse response) {
+          conn.batchSizer.addObservation(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), requestSizes.get(index));
+          responses.set(index, response);
+          finished.countDown();
+        }
+        @Override
+        public void onFailure(Throwable t) {
+          responses.set(index, t);
+          finished.countDown();
+        }
+      }, MoreExecutors.directExecutor());
+    }
+    try {
+      if (deadline == null) {
+        finished.await();
+      } else {
+        finished.await(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+      }
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return responses;
+  }
+
   private List<RuleMatch> getRuleMatches(List<AnalyzedSentence> sentences, List<MatchResponse> responses) {
     BiFunction<MLServerProto.MatchList, AnalyzedSentence, Stream<RuleMatch>> createMatch = (matchList, sentence) -> matchList.getMatchesList().stream().map(match -> {
         String description = match.getRuleDescription();
@@ -188,6 +188,12 @@ public abstract class RemoteRule extends Rule {
       RemoteRuleResult result;
 
       result = executeRequest(req, timeout).call();
+      // sentences of failed requests must not count as processed, so their (missing) matches aren't cached:
+      List<AnalyzedSentence> processedSentences = sentences;
+      if (!result.failedSentences().isEmpty()) {
+        Set<AnalyzedSentence> failedSentences = result.failedSentences();
+        processedSentences = sentences.stream().filter(s -> !failedSentences.contains(s)).collect(Collectors.toList());
+      }
 
       if (fixOffsets) {
         for (AnalyzedSentence sentence : sentences) {
@@ -208,7 +214,7 @@ public abstract class RemoteRule extends Rule {
             filteredMatches.addAll(filteredSentenceMatches);
           }
         }
-        result = new RemoteRuleResult(result.isRemote(), result.isSuccess(), filteredMatches, sentences);
+        result = new RemoteRuleResult(result.isRemote(), result.isSuccess(), filteredMatches, processedSentences, result.failedSentences());
       }
 
       List<RuleMatch> filteredMatches = new ArrayList<>();
@@ -219,7 +225,7 @@ public abstract class RemoteRule extends Rule {
           filteredMatches.addAll(filteredSentenceMatches);
         }
       }
-      result = new RemoteRuleResult(result.isRemote(), result.isSuccess(), filteredMatches, sentences);
+      result = new RemoteRuleResult(result.isRemote(), result.isSuccess(), filteredMatches, processedSentences, result.failedSentences());
       return result;
     });
   }
@@ -33,14 +33,26 @@ public class RemoteRuleResult {
   private final Set<AnalyzedSentence> processedSentences;
   // which sentences were processed? to distinguish between no matches because not processed (e.g. cached)
   // and no errors/corrections found
+  private final Set<AnalyzedSentence> failedSentences; // sentences whose request failed, e.g. to retry them later
 
   private final Map<AnalyzedSentence, List<RuleMatch>> sentenceMatches = new HashMap<>();
 
   public RemoteRuleResult(boolean remote, boolean success, List<RuleMatch> matches, List<AnalyzedSentence> processedSentences) {
+    this(remote, success, matches, processedSentences, Collections.emptySet());
+  }
+
+  /**
+   * @param failedSentences sentences that could not be processed although the request was
+   *                        successful for others, they are not part of {@code processedSentences}
+   * @since 6.4
+   */
+  public RemoteRuleResult(boolean remote, boolean success, List<RuleMatch> matches, List<AnalyzedSentence> processedSentences,
+                          Set<AnalyzedSentence> failedSentences) {
     this.remote = remote;
     this.success = success;
     this.matches = matches;
     this.processedSentences = Collections.unmodifiableSet(new HashSet<>(processedSentences));
+    this.failedSentences = Collections.unmodifiableSet(new HashSet<>(failedSentences));
 
     for (RuleMatch match : matches) {
       sentenceMatches.compute(match.getSentence(), (sentence, ruleMatches) -> {
@@ -74,6 +86,14 @@ public class RemoteRuleResult {
     return processedSentences;
   }
 
+  /**
+   * Sentences that failed while others were processed, e.g. to retry them or to use a fallback.
+   * @since 6.4
+   */
+  public Set<AnalyzedSentence> failedSentences() {
+    return failedSentences;
+  }
+
   /**
    * get matches for a specific sentence
    * @param sentence sentence to look up
@@ -23,6 +23,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
 import org.languagetool.broker.ResourceDataBroker;
+import org.languagetool.languagemodel.BaseLanguageModel;
+import org.languagetool.languagemodel.CachingLanguageModel;
 import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.rules.*;
 import org.languagetool.rules.patterns.PatternToken;
@@ -130,6 +132,8 @@ public abstract class ConfusionProbabilityRule extends Rule {
 
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) {
+    // counts are remembered for this sentence only, as neighbouring tokens and alternatives share many ngrams:
+    LanguageModel lm = this.lm instanceof BaseLanguageModel ? new CachingLanguageModel((BaseLanguageModel) this.lm) : this.lm;
     String text = sentence.getText();
     List<GoogleToken> tokens = GoogleToken.getGoogleTokens(text, true, LanguageModelUtils.getGoogleStyleWordTokenizer(language));
     List<RuleMatch> matches = new ArrayList<>();
@@ -156,7 +160,7 @@ public abstract class ConfusionProbabilityRule extends Rule {
           boolean isEasilyConfused = confusionPair != null;
           if (isEasilyConfused) {
             List<ConfusionString> pairs = uppercase ? confusionPair.getUppercaseFirstCharTerms() : confusionPair.getTerms();
-            ConfusionString betterAlternative = getBetterAlternativeOrNull(tokens.get(pos), tokens, pairs, confusionPair.getFactor());
+            ConfusionString betterAlternative = getBetterAlternativeOrNull(lm, tokens.get(pos), tokens, pairs, confusionPair.getFactor());
             if (betterAlternative != null && !isException(text, googleToken.startPos, googleToken.endPos)) {
               if (!confusionPair.isBidirectional() && betterAlternative.getString().equals(pairs.get(0).getString())) {
                 // only direction A -> B is possible, i.e. if A is used incorrectly, B is suggested - not vice versa
@@ -182,7 +186,7 @@ public abstract class ConfusionProbabilityRule extends Rule {
                 String id = getId() + "_" + cleanId(term1) +  "_" + cleanId(term2);
                 String desc = getDescription(term1, term2);
                 String shortDesc = Tools.i18n(messages, "statistics_suggest_short_desc");
-                RuleMatch match = new RuleMatch(new SpecificIdRule(id, desc, messages, lm, language), sentence, googleToken.startPos, googleToken.endPos, message, shortDesc);
+                RuleMatch match = new RuleMatch(new SpecificIdRule(id, desc, messages, this.lm, language), sentence, googleToken.startPos, googleToken.endPos, message, shortDesc);
                 match.setSuggestedReplacements(suggestions);
                 matches.add(match);
               }
@@ -292,12 +296,12 @@ public abstract class ConfusionProbabilityRule extends Rule {
   }
 
   @Nullable
-  private ConfusionString getBetterAlternativeOrNull(GoogleToken token, List<GoogleToken> tokens, List<ConfusionString> confusionSet, long factor) {
+  private ConfusionString getBetterAlternativeOrNull(LanguageModel lm, GoogleToken token, List<GoogleToken> tokens, List<ConfusionString> confusionSet, long factor) {
     if (confusionSet.size() != 2) {
       throw new RuntimeException("Confusion set must be of size 2: " + confusionSet);
     }
     ConfusionString other = getAlternativeTerm(confusionSet, token);
-    return getBetterAlternativeOrNull(token, tokens, other, factor);
+    return getBetterAlternativeOrNull(lm, token, tokens, other, factor);
   }
 
   private ConfusionString getAlternativeTerm(List<ConfusionString> confusionSet, GoogleToken token) {
@@ -318,8 +322,13 @@ public abstract class ConfusionProbabilityRule extends Rule {
     throw new RuntimeException("Not found in set '" + confusionSet + "': " + token);
   }
 
-  private ConfusionString getBetterAlternativeOrNull(GoogleToken token, List<GoogleToken> tokens, ConfusionString otherWord, long factor) {
+  private ConfusionString getBetterAlternativeOrNull(LanguageModel lm, GoogleToken token, List<GoogleToken> tokens, ConfusionString otherWord, long factor) {
     String word = token.token;
+    if (lm instanceof CachingLanguageModel) {
+      List<List<String>> contexts = new ArrayList<>(LanguageModelUtils.getNgramContexts(language, grams, token, tokens, word));
+      contexts.addAll(LanguageModelUtils.getNgramContexts(language, grams, token, tokens, otherWord.getString()));
+      ((CachingLanguageModel) lm).prefetch(contexts);
+    }
     double p1;
     double p2;
     if (grams == 3) {
@@ -128,26 +128,63 @@ public final class LanguageModelUtils {
   }
 
 
+  /**
+   * The contexts whose probabilities {@code get3gramProbabilityFor()} ({@code grams} = 3) or
+   * {@code get4gramProbabilityFor()} ({@code grams} = 4) need for {@code term}, so they
+   * can be looked up in advance. Empty if the term is not supported.
+   * @since 6.4
+   */
+  static List<List<String>> getNgramContexts(Language lang, int grams, GoogleToken token, List<GoogleToken> tokens, String term) {
+    Tokenizer tokenizer = getGoogleStyleWordTokenizer(lang);
+    List<GoogleToken> newTokens = GoogleToken.getGoogleTokens(term, false, tokenizer);
+    return getNgramContexts(grams, token, tokens, term, newTokens);
+  }
+
+  /**
+   * @param newTokens {@code term} split into Google tokens
+   * @return the contexts from left to right: 3 (3grams) or 4 (4grams) for a term that's a single token,
+   *   2 (3grams) or 3 (4grams) for a term of two tokens, none otherwise
+   */
+  private static List<List<String>> getNgramContexts(int grams, GoogleToken token, List<GoogleToken> tokens, String term, List<GoogleToken> newTokens) {
+    List<List<String>> result = new ArrayList<>();
+    if (grams == 3 && newTokens.size() == 1) {
+      result.add(getContext(token, tokens, term, 0, 2));
+      result.add(getContext(token, tokens, term, 1, 1));
+      result.add(getContext(token, tokens, term, 2, 0));
+    } else if (grams == 3 && newTokens.size() == 2) {
+      result.add(getContext(token, tokens, newTokens, 0, 1));
+      result.add(getContext(token, tokens, newTokens, 1, 0));
+    } else if (grams == 4 && newTokens.size() == 1) {
+      result.add(getContext(token, tokens, newTokens, 0, 3));
+      result.add(getContext(token, tokens, newTokens, 2, 1));
+      result.add(getContext(token, tokens, newTokens, 1, 2));
+      result.add(getContext(token, tokens, newTokens, 3, 0));
+    } else if (grams == 4 && newTokens.size() == 2) {
+      result.add(getContext(token, tokens, newTokens, 0, 2));
+      result.add(getContext(token, tokens, newTokens, 1, 1));
+      result.add(getContext(token, tokens, newTokens, 2, 0));
+    }
+    return result;
+  }
+
   static double get3gramProbabilityFor(Language lang, LanguageModel lm, GoogleToken token, List<GoogleToken> tokens, String term) {
     Tokenizer tokenizer = getGoogleStyleWordTokenizer(lang);
     List<GoogleToken> newTokens = GoogleToken.getGoogleTokens(term, false, tokenizer);
+    List<List<String>> contexts = getNgramContexts(3, token, tokens, term, newTokens);
     Probability ngram3Left;
     Probability ngram3Middle;
     Probability ngram3Right;
-    if (newTokens.size() == 1) {
-      List<String> leftContext = getContext(token, tokens, term, 0, 2);
-      ngram3Left = lm.getPseudoProbability(leftContext);
-      logger.trace(String.format("Left  : %.90f %s\n", ngram3Left.getProb(), Arrays.asList(leftContext)));
-      List<String> middleContext = getContext(token, tokens, term, 1, 1);
-      ngram3Middle = lm.getPseudoProbability(middleContext);
-      logger.trace(String.format("Middle: %.90f %s\n", ngram3Middle.getProb(), Arrays.asList(middleContext)));
-      List<String> rightContext = getContext(token, tokens, term, 2, 0);
-      ngram3Right = lm.getPseudoProbability(rightContext);
-      logger.trace(String.format("Right : %.90f %s\n", ngram3Right.getProb(), Arrays.asList(rightContext)));
-    } else if (newTokens.size() == 2) {
+    if (contexts.size() == 3) {
+      ngram3Left = lm.getPseudoProbability(contexts.get(0));
+      logger.trace(String.format("Left  : %.90f %s\n", ngram3Left.getProb(), Arrays.asList(contexts.get(0))));
+      ngram3Middle = lm.getPseudoProbability(contexts.get(1));
+      logger.trace(String.format("Middle: %.90f %s\n", ngram3Middle.getProb(), Arrays.asList(contexts.get(1))));
+      ngram3Right = lm.getPseudoProbability(contexts.get(2));
+      logger.trace(String.format("Right : %.90f %s\n", ngram3Right.getProb(), Arrays.asList(contexts.get(2))));
+    } else if (contexts.size() == 2) {
       // e.g. you're -> you 're
-      ngram3Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 1));
-      ngram3Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 0));
+      ngram3Left = lm.getPseudoProbability(contexts.get(0));
+      ngram3Right = lm.getPseudoProbability(contexts.get(1));
       // we cannot just use new Probability(1.0, 1.0f) as that would always produce higher
       // probabilities than in the case of one token (eg. "your"):
       ngram3Middle = new Probability((ngram3Left.getProb() + ngram3Right.getProb()) / 2, 1.0f);
@@ -169,18 +206,20 @@ public final class LanguageModelUtils {
     Tokenizer tokenizer = getGoogleStyleWordTokenizer(lang);
     List<GoogleToken> newTokens = GoogleToken.getGoogleTokens(term, false, tokenizer);
 
+    List<List<String>> contexts = getNgramContexts(4, token, tokens, term, newTokens);
+
     Probability ngram4Left, ngram4MiddleLeft, ngram4MiddleRight, ngram4Right;
 
-    if (newTokens.size() == 1) {
-      ngram4Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 3));
-      ngram4MiddleLeft = lm.getPseudoProbability(getContext(token, tokens, newTokens, 2, 1));
-      ngram4MiddleRight = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 2));
-      ngram4Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 3, 0));
-    } else if (newTokens.size() == 2) {
-      ngram4Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 2));
-      ngram4MiddleLeft = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 1));
+    if (contexts.size() == 4) {
+      ngram4Left = lm.getPseudoProbability(contexts.get(0));
+      ngram4MiddleLeft = lm.getPseudoProbability(contexts.get(1));
+      ngram4MiddleRight = lm.getPseudoProbability(contexts.get(2));
+      ngram4Right = lm.getPseudoProbability(contexts.get(3));
+    } else if (contexts.size() == 3) {
+      ngram4Left = lm.getPseudoProbability(contexts.get(0));
+      ngram4MiddleLeft = lm.getPseudoProbability(contexts.get(1));
       ngram4MiddleRight = ngram4MiddleLeft; // TODO: is this okay?
-      ngram4Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 2, 0));
+      ngram4Right = lm.getPseudoProbability(contexts.get(2));
     } else {
       logger.warn("Words that consists of more than 2 tokens (according to Google tokenization) are not supported yet: " + term + " -> " + newTokens);
       return 0.0;
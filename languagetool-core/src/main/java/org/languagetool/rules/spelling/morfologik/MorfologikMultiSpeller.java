@@ -34,6 +34,7 @@ import org.languagetool.rules.spelling.SpellingCheckRule;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -50,6 +51,8 @@ import static org.languagetool.JLanguageTool.getDataBroker;
  */
 public class MorfologikMultiSpeller {
 
+  private static final long MAX_VERSIONED_USER_DICT_WORDS = 2_000_000;
+
   private static final LoadingCache<BufferedReaderWithSource, List<byte[]>> dictCache = CacheBuilder.newBuilder()
     // .maximumSize(0)
     .expireAfterWrite(10, TimeUnit.MINUTES)
@@ -90,6 +93,12 @@ public class MorfologikMultiSpeller {
   private static final Map<String, Dictionary> dicPathToDict = new HashMap<>();
   private static final Map<UserDictCacheKey, Cache<String, Dictionary>> userDictCaches = new HashMap<>();
   private static final Map<UserDictCacheKey, Map<String, Integer>> userDictSizes = new HashMap<>();
+  // compiled user dictionaries for configs with a dictionary version, see UserConfig#getUserDictVersion():
+  private static final Cache<VersionedUserDictKey, Dictionary> versionedUserDicts = CacheBuilder.newBuilder()
+    .expireAfterAccess(10, TimeUnit.MINUTES)
+    .maximumWeight(MAX_VERSIONED_USER_DICT_WORDS)
+    .weigher((Weigher<VersionedUserDictKey, Dictionary>) (k, v) -> k.size)
+    .build();
   private final List<MorfologikSpeller> spellers;
   private final List<MorfologikSpeller> defaultDictSpellers;
   private final List<MorfologikSpeller> userDictSpellers;
@@ -202,6 +211,16 @@ public class MorfologikMultiSpeller {
   public static void clearUserDictCache() {
     userDictCaches.clear();
     userDictSizes.clear();
+    versionedUserDicts.invalidateAll();
+  }
+
+  /**
+   * Drop the compiled dictionaries of the given user that were cached by dictionary version.
+   * Not strictly needed, as a changed dictionary comes with a new version, but frees the memory early.
+   * @since 6.4
+   */
+  public static void invalidateUserDicts(long userId) {
+    versionedUserDicts.asMap().keySet().removeIf(key -> key.userId == userId);
   }
 
   private Cache<String, Dictionary> getUserDictCache() {
@@ -239,9 +258,19 @@ public class MorfologikMultiSpeller {
       }
       return byteLines;
     };
-    Dictionary dictionary = getDictionary(byteLinesSupplier, dictPath,
-      dictPath.replace(DICTIONARY_FILENAME_EXTENSION, ".info"),
-      true, userConfig.getAcceptedWords().size());
+    String infoPath = dictPath.replace(DICTIONARY_FILENAME_EXTENSION, ".info");
+    Dictionary dictionary;
+    Long userDictVersion = userConfig.getUserDictVersion();
+    if (userDictVersion != null) {
+      VersionedUserDictKey key = new VersionedUserDictKey(premiumUid, userDictVersion, dictPath, userConfig.getAcceptedWords().size());
+      try {
+        dictionary = versionedUserDicts.get(key, () -> buildDictionary(byteLinesSupplier.get(), infoPath));
+      } catch (ExecutionException e) {
+        throw new IOException("Could not build dictionary for user " + premiumUid + ", version " + userDictVersion, e.getCause());
+      }
+    } else {
+      dictionary = getDictionary(byteLinesSupplier, dictPath, infoPath, true, userConfig.getAcceptedWords().size());
+    }
     return new MorfologikSpeller(dictionary, maxEditDistance);
   }
 
@@ -313,17 +342,7 @@ public class MorfologikMultiSpeller {
       if (linesCopy.isEmpty()) {
         return null;
       }
-      linesCopy.sort(FSABuilder.LEXICAL_ORDERING);
-      FSA fsa = FSABuilder.build(linesCopy);
-      ByteArrayOutputStream fsaOutStream = new CFSA2Serializer().serialize(fsa, new ByteArrayOutputStream());
-      ByteArrayInputStream fsaInStream = new ByteArrayInputStream(fsaOutStream.toByteArray());
-      InputStream metadata;
-      if (new File(infoPath).exists()) {
-        metadata = new FileInputStream(infoPath);
-      } else {
-        metadata = getDataBroker().getFromResourceDirAsStream(infoPath);
-      }
-      Dictionary dict = Dictionary.read(fsaInStream, metadata);
+      Dictionary dict = buildDictionary(linesCopy, infoPath);
       if (!isUserDict) {
         dicPathToDict.put(cacheKey, dict);
       } else if (userDictCacheSize != null) {
@@ -333,6 +352,20 @@ public class MorfologikMultiSpeller {
     }
   }
 
+  private static Dictionary buildDictionary(List<byte[]> lines, String infoPath) throws IOException {
+    lines.sort(FSABuilder.LEXICAL_ORDERING);
+    FSA fsa = FSABuilder.build(lines);
+    ByteArrayOutputStream fsaOutStream = new CFSA2Serializer().serialize(fsa, new ByteArrayOutputStream());
+    ByteArrayInputStream fsaInStream = new ByteArrayInputStream(fsaOutStream.toByteArray());
+    InputStream metadata;
+    if (new File(infoPath).exists()) {
+      metadata = new FileInputStream(infoPath);
+    } else {
+      metadata = getDataBroker().getFromResourceDirAsStream(infoPath);
+    }
+    return Dictionary.read(fsaInStream, metadata);
+  }
+
   /**
    * Accept the word if at least one of the dictionaries accepts it as not
    * misspelled.
@@ -449,6 +482,46 @@ public class MorfologikMultiSpeller {
     }
   }
 
+  private static class VersionedUserDictKey {
+
+    private final long userId;
+    private final long version;
+    private final String binaryDictPath;
+    private final int size;  // only for the cache weigher
+
+    VersionedUserDictKey(long userId, long version, String binaryDictPath, int size) {
+      this.userId = userId;
+      this.version = version;
+      this.binaryDictPath = binaryDictPath;
+      this.size = size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      VersionedUserDictKey that = (VersionedUserDictKey) o;
+      return new EqualsBuilder()
+        .append(userId, that.userId)
+        .append(version, that.version)
+        .append(binaryDictPath, that.binaryDictPath)
+        .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+      return new HashCodeBuilder(47, 59)
+        .append(userId)
+        .append(version)
+        .append(binaryDictPath)
+        .toHashCode();
+    }
+  }
+
   static class BufferedReaderWithSource {
     private final BufferedReader reader;
     private final String readerPath;
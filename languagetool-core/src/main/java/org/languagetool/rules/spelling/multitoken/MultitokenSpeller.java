@@ -43,14 +43,15 @@ public class MultitokenSpeller {
   private static final Pattern DASH_SPACE = compile("- ");
   private static final Pattern SPACE_DASH = compile(" -");
   private static final Pattern SPACE_OR_DASH = compile("[ -]");
+  private static final PhraseIndex EMPTY_INDEX = new PhraseIndex(Collections.emptyMap());
 
   private final SpellingCheckRule spellingRule;
   private final Language language;
 
-  private HashMap<String, String> oneSpace;
-  private HashMap<String, String> twoSpaces;
-  private HashMap<String, String> threeSpaces;
-  private HashMap<String, String> hyphenated;
+  private PhraseIndex oneSpace;
+  private PhraseIndex twoSpaces;
+  private PhraseIndex threeSpaces;
+  private PhraseIndex hyphenated;
 
   /*
    * Ultra-naive speller that provides spelling suggestions for multitoken words from a list of words.
@@ -77,12 +78,13 @@ public class MultitokenSpeller {
     String wordLowercase = StringTools.removeDiacritics(word.toLowerCase());
     int numSpaces = StringTools.numberOf(word, " ");
     int numHyphens = StringTools.numberOf(word, "-");
-    HashMap<String, String> set = chooseHashMap(word, numSpaces, numHyphens);
+    PhraseIndex index = chooseIndex(numSpaces, numHyphens);
     List<WeightedSuggestion> weightedCandidates = new ArrayList<>();
     String firstChar = StringTools.removeDiacritics(word.substring(0,1).toLowerCase());
-    for (Map.Entry<String, String> entry : set.entrySet()) {
-      String candidateLowercase = entry.getValue();
-      String candidate = entry.getKey();
+    String[] wordParts = SPACE_OR_DASH.split(wordLowercase);
+    for (int ordinal : getCandidates(index, originalWord, word, firstChar, wordLowercase, wordParts.length)) {
+      String candidateLowercase = index.getLowercasePhrase(ordinal);
+      String candidate = index.getPhrase(ordinal);
       if (isException(originalWord, candidate)) {
         weightedCandidates.clear();
         break;
@@ -103,7 +105,6 @@ public class MultitokenSpeller {
         return Collections.emptyList();
       }
       String[] candidateParts = SPACE_OR_DASH.split(candidateLowercase);
-      String[] wordParts = SPACE_OR_DASH.split(wordLowercase);
       List<Integer> distances = distancesPerWord(candidateParts, wordParts, candidateLowercase, wordLowercase);
       int totalDistance = distances.stream().reduce(0, Integer::sum);
       if (totalDistance < 1) {
@@ -156,6 +157,40 @@ public class MultitokenSpeller {
     return results;
   }
 
+  /**
+   * Instead of comparing the word to all phrases, only get the phrases that can have an effect in
+   * {@link #getSuggestions(String, boolean)}: those that are a prefix of the original word
+   * (see {@link #isException(String, String)}), and those that the index cannot rule out by their
+   * first character, length and characters. They are sorted in the order of the phrase list,
+   * so the suggestions are the same as when comparing the word to all phrases.
+   */
+  private Collection<Integer> getCandidates(PhraseIndex index, String originalWord, String word, String firstChar,
+                                            String wordLowercase, int numWordParts) {
+    SortedSet<Integer> candidates = new TreeSet<>();
+    if (index.size() == 0) {
+      return candidates;
+    }
+    for (int i = 1; i <= originalWord.length(); i++) {
+      int ordinal = index.getOrdinal(originalWord.substring(0, i));
+      if (ordinal >= 0) {
+        candidates.add(ordinal);
+      }
+    }
+    index.addCandidates(candidates, firstChar, word.length() - MAX_LENGTH_DIFF, word.length() + MAX_LENGTH_DIFF,
+      wordLowercase, maxTotalDistance(wordLowercase, numWordParts));
+    return candidates;
+  }
+
+  /**
+   * The highest total distance a candidate can have to be accepted, for any candidate:
+   * at most {@link #maxEditDistance(String, String)} and at most 2 per token.
+   */
+  private int maxTotalDistance(String wordLowercase, int numWordParts) {
+    int length = wordLowercase.length();
+    int maxEditDistance = length <= 7 ? 2 : Math.max(2, (int) (2 + 0.25 * (length - 7)));
+    return Math.min(maxEditDistance, 2 * Math.max(1, numWordParts));
+  }
+
   private int maxEditDistance(String candidateLowercase, String wordLowercase) {
     int totalLength = wordLowercase.length();
     int correctLength = totalLength - numberOfCorrectChars(candidateLowercase, wordLowercase);
@@ -263,10 +298,10 @@ public class MultitokenSpeller {
     if (oneSpace != null) {
       return;
     }
-    oneSpace = new HashMap<>();
-    twoSpaces = new HashMap<>();
-    threeSpaces = new HashMap<>();
-    hyphenated = new HashMap<>();
+    Map<String, String> oneSpace = new HashMap<>();
+    Map<String, String> twoSpaces = new HashMap<>();
+    Map<String, String> threeSpaces = new HashMap<>();
+    Map<String, String> hyphenated = new HashMap<>();
     for (String filePath : filePaths) {
       try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(filePath);
            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
@@ -297,9 +332,13 @@ public class MultitokenSpeller {
         throw new RuntimeException(e);
       }
     }
+    this.oneSpace = new PhraseIndex(oneSpace);
+    this.twoSpaces = new PhraseIndex(twoSpaces);
+    this.threeSpaces = new PhraseIndex(threeSpaces);
+    this.hyphenated = new PhraseIndex(hyphenated);
   }
 
-  private HashMap<String, String> chooseHashMap(String word, int numSpaces, int numHyphens) {
+  private PhraseIndex chooseIndex(int numSpaces, int numHyphens) {
     if (numSpaces==1) {
       return oneSpace;
     } else if (numSpaces==2) {
@@ -309,7 +348,7 @@ public class MultitokenSpeller {
     } else if (numSpaces==0 && numHyphens==1) {
       return hyphenated;
     }
-    return new HashMap<>();
+    return EMPTY_INDEX;
   }
 
   private boolean discardRunOnWords(String underlinedError) throws IOException {
@@ -332,6 +371,10 @@ public class MultitokenSpeller {
     return false;
   }
 
+  /**
+   * If this returns true, no suggestions are made for {@code original}. Only called for phrases
+   * from the list that are a prefix of {@code original} (including {@code original} itself).
+   */
   protected boolean isException(String original, String candidate) {
     return false;
   }
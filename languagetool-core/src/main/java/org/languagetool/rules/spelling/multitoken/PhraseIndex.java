@@ -0,0 +1,191 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.multitoken;
+
+import java.util.*;
+
+/**
+ * The phrases of a {@link MultitokenSpeller} with the same number of tokens, indexed
+ * by the first character and the length of their lowercase form. Each phrase also
+ * gets a signature, the sorted characters of its lowercase form without separators,
+ * with 'y'/'i' and 'k'/'c' folded like in {@code MultitokenSpeller.normalizeSimilarChars()}.
+ * The number of characters two signatures don't have in common is a lower bound of the
+ * (per-token, normalized, transposition-aware) edit distance used by the speller, so
+ * phrases beyond that bound can be skipped without computing any distance.
+ * Phrases are numbered in the order of the map they were created from.
+ * @since 6.4
+ */
+class PhraseIndex {
+
+  private final String[] phrases;
+  private final String[] lowercasePhrases;
+  private final char[][] signatures;
+  private final Map<String, Integer> ordinals = new HashMap<>();
+  private final Map<String, Bucket> buckets = new HashMap<>();
+
+  /**
+   * @param phrases map from phrase to its lowercase form without diacritics
+   */
+  PhraseIndex(Map<String, String> phrases) {
+    int size = phrases.size();
+    this.phrases = new String[size];
+    this.lowercasePhrases = new String[size];
+    this.signatures = new char[size][];
+    Map<String, List<Integer>> byFirstChar = new HashMap<>();
+    int i = 0;
+    for (Map.Entry<String, String> entry : phrases.entrySet()) {
+      this.phrases[i] = entry.getKey();
+      this.lowercasePhrases[i] = entry.getValue();
+      this.signatures[i] = signature(entry.getValue());
+      ordinals.put(entry.getKey(), i);
+      if (!entry.getValue().isEmpty()) {
+        byFirstChar.computeIfAbsent(entry.getValue().substring(0, 1), k -> new ArrayList<>()).add(i);
+      }
+      i++;
+    }
+    for (Map.Entry<String, List<Integer>> entry : byFirstChar.entrySet()) {
+      buckets.put(entry.getKey(), new Bucket(entry.getValue(), lowercasePhrases));
+    }
+  }
+
+  int size() {
+    return phrases.length;
+  }
+
+  String getPhrase(int ordinal) {
+    return phrases[ordinal];
+  }
+
+  String getLowercasePhrase(int ordinal) {
+    return lowercasePhrases[ordinal];
+  }
+
+  /**
+   * @return the number of the phrase or {@code -1} if it's not in the index
+   */
+  int getOrdinal(String phrase) {
+    Integer ordinal = ordinals.get(phrase);
+    return ordinal != null ? ordinal : -1;
+  }
+
+  /**
+   * Add the numbers of the phrases whose lowercase form starts with {@code firstChar}, has a
+   * length from {@code minLength} to {@code maxLength} and whose signature differs from that of
+   * {@code wordLowercase} by at most {@code maxDistance} characters.
+   */
+  void addCandidates(Collection<Integer> result, String firstChar, int minLength, int maxLength, String wordLowercase, int maxDistance) {
+    Bucket bucket = buckets.get(firstChar);
+    if (bucket == null) {
+      return;
+    }
+    char[] wordSignature = signature(wordLowercase);
+    int from = bucket.firstIndexWithLength(minLength);
+    for (int i = from; i < bucket.ordinals.length && bucket.lengths[i] <= maxLength; i++) {
+      int ordinal = bucket.ordinals[i];
+      if (isWithinDistance(signatures[ordinal], wordSignature, maxDistance)) {
+        result.add(ordinal);
+      }
+    }
+  }
+
+  static char[] signature(String lowercase) {
+    char[] chars = new char[lowercase.length()];
+    int length = 0;
+    for (int i = 0; i < lowercase.length(); i++) {
+      char c = lowercase.charAt(i);
+      if (c == ' ' || c == '-') {
+        continue;
+      }
+      c = Character.toLowerCase(Character.toUpperCase(c));
+      if (c == 'y') {
+        c = 'i';
+      } else if (c == 'k') {
+        c = 'c';
+      }
+      chars[length++] = c;
+    }
+    char[] signature = Arrays.copyOf(chars, length);
+    Arrays.sort(signature);
+    return signature;
+  }
+
+  /**
+   * Whether neither signature has more than {@code maxDistance} characters that the other one doesn't have.
+   */
+  static boolean isWithinDistance(char[] signature1, char[] signature2, int maxDistance) {
+    if (Math.abs(signature1.length - signature2.length) > maxDistance) {
+      return false;
+    }
+    int only1 = 0;
+    int only2 = 0;
+    int i = 0;
+    int j = 0;
+    while (i < signature1.length && j < signature2.length) {
+      if (signature1[i] == signature2[j]) {
+        i++;
+        j++;
+      } else if (signature1[i] < signature2[j]) {
+        only1++;
+        i++;
+      } else {
+        only2++;
+        j++;
+      }
+      if (only1 > maxDistance || only2 > maxDistance) {
+        return false;
+      }
+    }
+    return only1 + signature1.length - i <= maxDistance && only2 + signature2.length - j <= maxDistance;
+  }
+
+  /**
+   * Phrases with the same first character, sorted by length.
+   */
+  private static class Bucket {
+
+    private final int[] ordinals;
+    private final int[] lengths;
+
+    Bucket(List<Integer> ordinalList, String[] lowercasePhrases) {
+      List<Integer> sorted = new ArrayList<>(ordinalList);
+      sorted.sort(Comparator.comparingInt(ordinal -> lowercasePhrases[ordinal].length()));
+      ordinals = new int[sorted.size()];
+      lengths = new int[sorted.size()];
+      for (int i = 0; i < ordinals.length; i++) {
+        ordinals[i] = sorted.get(i);
+        lengths[i] = lowercasePhrases[ordinals[i]].length();
+      }
+    }
+
+    int firstIndexWithLength(int minLength) {
+      int low = 0;
+      int high = lengths.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (lengths[mid] < minLength) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+}
@@ -19,8 +19,6 @@
 
 package org.languagetool.tagging.disambiguation;
 
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.WordUtils;
 import org.jetbrains.annotations.Nullable;
@@ -36,6 +34,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -51,10 +50,10 @@ public class MultiWordChunker extends AbstractDisambiguator {
   private final boolean allowAllUppercase;
   private final boolean allowTitlecase;
 
-  private volatile boolean initialized;
-  private Map<String, Integer> mStartSpace;
-  private Map<String, Integer> mStartNoSpace;
-  private Map<String, AnalyzedToken> mFull;
+  // the tries are immutable, so chunkers with the same file and settings (e.g. of different Language objects) share them:
+  private static final Map<String, MultiWordTrie> tries = new ConcurrentHashMap<>();
+
+  private volatile MultiWordTrie trie;
 
   private final static int MAX_TOKENS_IN_MULTIWORD = 20;
 
@@ -103,32 +102,31 @@ public class MultiWordChunker extends AbstractDisambiguator {
   /*
    * Lazy init, thanks to Artur Trzewik
    */
-  private void lazyInit() {
-    if (initialized) {
-      return;
+  private MultiWordTrie lazyInit() {
+    MultiWordTrie trie = this.trie;
+    if (trie != null) {
+      return trie;
     }
-
     synchronized (this) {
-      if (initialized) return;
-
-      Object2IntOpenHashMap<String> mStartSpace = new Object2IntOpenHashMap<>();
-      Object2IntOpenHashMap<String> mStartNoSpace = new Object2IntOpenHashMap<>();
-      Object2ObjectOpenHashMap<String, AnalyzedToken> mFull = new Object2ObjectOpenHashMap<>();
-
-      fillMaps(mStartSpace, mStartNoSpace, mFull);
-
-      mStartSpace.trim();
-      mStartNoSpace.trim();
-      mFull.trim();
-
-      this.mStartSpace = mStartSpace;
-      this.mStartNoSpace = mStartNoSpace;
-      this.mFull = mFull;
-      initialized = true;
+      if (this.trie == null) {
+        String key = filename + "/" + allowFirstCapitalized + "/" + allowAllUppercase + "/" + allowTitlecase + "/" + defaultTag;
+        MultiWordTrie sharedTrie = tries.get(key);
+        if (sharedTrie == null) {
+          Map<String, AnalyzedToken> mFull = new HashMap<>();
+          fillMap(mFull);
+          sharedTrie = new MultiWordTrie(mFull);
+          MultiWordTrie existing = tries.putIfAbsent(key, sharedTrie);
+          if (existing != null) {
+            sharedTrie = existing;
+          }
+        }
+        this.trie = sharedTrie;
+      }
+      return this.trie;
     }
   }
 
-  private void fillMaps(Map<String, Integer> mStartSpace, Map<String, Integer> mStartNoSpace, Map<String, AnalyzedToken> mFull) {
+  private void fillMap(Map<String, AnalyzedToken> mFull) {
     Map<String, String> interner = new HashMap<>();
     try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(filename)) {
       List<String> posTokens = loadWords(stream);
@@ -148,33 +146,6 @@ public class MultiWordChunker extends AbstractDisambiguator {
         tokens.add(originalToken);
         tokens.addAll(getTokenLettercaseVariants(originalToken, mFull));
         for (String token : tokens) {
-          boolean containsSpace = token.indexOf(' ') > 0;
-          String firstToken;
-          String[] firstTokens;
-          if (!containsSpace) {
-            firstTokens = new String[tokenAndTag[0].length()];
-            firstToken = token.substring(0, 1);
-            for (int i = 1; i < token.length(); i++) {
-              firstTokens[i] = token.substring(i - 1, i);
-            }
-            if (mStartNoSpace.containsKey(firstToken)) {
-              if (mStartNoSpace.get(firstToken) < firstTokens.length) {
-                mStartNoSpace.put(firstToken, firstTokens.length);
-              }
-            } else {
-              mStartNoSpace.put(firstToken, firstTokens.length);
-            }
-          } else {
-            firstTokens = token.split(" ");
-            firstToken = firstTokens[0];
-            if (mStartSpace.containsKey(firstToken)) {
-              if (mStartSpace.get(firstToken) < firstTokens.length) {
-                mStartSpace.put(firstToken, firstTokens.length);
-              }
-            } else {
-              mStartSpace.put(firstToken, firstTokens.length);
-            }
-          }
           mFull.put(token, new AnalyzedToken(token, tag, originalToken));
         }
       }
@@ -228,89 +199,47 @@ public class MultiWordChunker extends AbstractDisambiguator {
   @Override
   public final AnalyzedSentence disambiguate(AnalyzedSentence input, @Nullable JLanguageTool.CheckCancelledCallback checkCanceled) throws IOException {
 
-    lazyInit();
+    MultiWordTrie trie = lazyInit();
 
     AnalyzedTokenReadings[] anTokens = input.getTokens();
     AnalyzedTokenReadings[] output = anTokens;
+    int[] chunkNodes = new int[MAX_TOKENS_IN_MULTIWORD];
 
     for (int i = 0; i < anTokens.length; i++) {
-      String tok = output[i].getToken();
-      if (tok.length() < 1) {
+      if (anTokens[i].isWhitespace() || anTokens[i].getToken().isEmpty()) {
         continue;
       }
-      // If the next token is not whitespace, concatenate it
-      int k = i + 1;
-      while (k < anTokens.length && !anTokens[k].isWhitespace()) {
-        tok = tok + output[k].getToken();
-        k++;
-      }
-
       if (checkCanceled != null && checkCanceled.checkCancelled()) {
         break;
       }
-      if (mStartSpace.containsKey(tok)) {
-        int finalLen = 0;
-        StringBuilder keyBuilder = new StringBuilder();
-        int len = mStartSpace.get(tok);
-        int j = i;
-        int lenCounter = 0;
-        while (j < anTokens.length  && j - i < MAX_TOKENS_IN_MULTIWORD) {
+      // walk the tokens up to the next whitespace through the trie once, multi-words with and without spaces start with them:
+      int chunkLength = 0;
+      int node = MultiWordTrie.ROOT;
+      for (int k = i; k < anTokens.length && !anTokens[k].isWhitespace() && node != MultiWordTrie.NONE; k++) {
+        node = trie.next(node, anTokens[k].getToken());
+        if (node != MultiWordTrie.NONE && k - i < MAX_TOKENS_IN_MULTIWORD) {
+          chunkNodes[chunkLength++] = node;
+        }
+      }
+      if (node != MultiWordTrie.NONE && trie.next(node, ' ') != MultiWordTrie.NONE) {
+        // the chunk is the first word of a multi-word with spaces:
+        for (int j = i; j < i + chunkLength; j++) {
+          annotate(output, i, j, trie.get(chunkNodes[j - i]), false);
+        }
+        for (int j = i + chunkLength; j < anTokens.length && j - i < MAX_TOKENS_IN_MULTIWORD && node != MultiWordTrie.NONE; j++) {
           if (!anTokens[j].isWhitespace()) {
-            keyBuilder.append(anTokens[j].getToken());
-            String keyStr = keyBuilder.toString();
-            if (mFull.containsKey(keyStr) && !mFull.get(keyStr).getPOSTag().equals(tagForNotAddingTags)) {
-              if (finalLen == 0) { // the key has only one token
-                output[i] = setAndAnnotate(output[i], new AnalyzedToken(anTokens[j].getToken(), mFull.get(keyStr).getPOSTag(), mFull.get(keyStr).getLemma()));
-              } else {
-                output[i] = prepareNewReading(keyStr, output[i].getToken(), output[i], false);
-                output[finalLen] = prepareNewReading(keyStr, anTokens[finalLen].getToken(), output[finalLen], true);
-              }
-            }
-            if (mFull.containsKey(keyStr) && addIgnoreSpelling) {
-              if (finalLen == 0) {
-                output[i].ignoreSpelling();
-              } else {
-                for (int m = i; m <= finalLen; m++) {
-                  output[m].ignoreSpelling();
-                }
-              }
-            }
-          } else {
-            if (j > 1 && !anTokens[j - 1].isWhitespace()) { // avoid multiple whitespaces
-              keyBuilder.append(' ');
-              lenCounter++;
-            }
-            if (lenCounter == len) {
-              break;
+            node = trie.next(node, anTokens[j].getToken());
+            if (node != MultiWordTrie.NONE) {
+              annotate(output, i, j, trie.get(node), false);
             }
+          } else if (!anTokens[j - 1].isWhitespace()) { // avoid multiple whitespaces
+            node = trie.next(node, ' ');
           }
-          j++;
-          finalLen = j;
         }
       }
-      if (mStartNoSpace.containsKey(tok.substring(0, 1))) {
-        int j = i;
-        StringBuilder keyBuilder = new StringBuilder();
-        while (j < anTokens.length && !anTokens[j].isWhitespace() && j - i < MAX_TOKENS_IN_MULTIWORD) {
-          keyBuilder.append(anTokens[j].getToken());
-          String keyStr = keyBuilder.toString();
-          if (mFull.containsKey(keyStr) && !mFull.get(keyStr).getPOSTag().equals(tagForNotAddingTags)) {
-            if (i == j) {
-              String postag = mFull.get(keyStr).getPOSTag();
-              if (!isLowPriorityTag(postag) || !output[i].hasReading()) {
-                output[i] = setAndAnnotate(output[i], new AnalyzedToken(anTokens[j].getToken(), postag, mFull.get(keyStr).getLemma()));
-              }
-            } else {
-              output[i] = prepareNewReading(keyStr, anTokens[i].getToken(), output[i], false);
-              output[j] = prepareNewReading(keyStr, anTokens[j].getToken(), output[j], true);
-            }
-          }
-          if (mFull.containsKey(keyStr) && addIgnoreSpelling) {
-            for (int m = i; m <= j; m++) {
-              output[m].ignoreSpelling();
-            }
-          }
-          j++;
+      if (trie.hasSingleWordStartingWith(anTokens[i].getToken().charAt(0))) {
+        for (int j = i; j < i + chunkLength; j++) {
+          annotate(output, i, j, trie.get(chunkNodes[j - i]), true);
         }
       }
     }
@@ -320,16 +249,41 @@ public class MultiWordChunker extends AbstractDisambiguator {
     return new AnalyzedSentence(output);
   }
 
-  private AnalyzedTokenReadings prepareNewReading(String tokens, String tok, AnalyzedTokenReadings token,
+  /**
+   * Add the readings for a multi-word from token {@code start} to {@code end}, if {@code entry} isn't {@code null}.
+   */
+  private void annotate(AnalyzedTokenReadings[] output, int start, int end, @Nullable AnalyzedToken entry, boolean skipLowPriority) {
+    if (entry == null) {
+      return;
+    }
+    if (!entry.getPOSTag().equals(tagForNotAddingTags)) {
+      if (start == end) { // the multi-word has only one token
+        String postag = entry.getPOSTag();
+        if (!skipLowPriority || !isLowPriorityTag(postag) || !output[start].hasReading()) {
+          output[start] = setAndAnnotate(output[start], new AnalyzedToken(output[start].getToken(), postag, entry.getLemma()));
+        }
+      } else {
+        output[start] = prepareNewReading(entry, output[start].getToken(), output[start], false);
+        output[end] = prepareNewReading(entry, output[end].getToken(), output[end], true);
+      }
+    }
+    if (addIgnoreSpelling) {
+      for (int m = start; m <= end; m++) {
+        output[m].ignoreSpelling();
+      }
+    }
+  }
+
+  private AnalyzedTokenReadings prepareNewReading(AnalyzedToken entry, String tok, AnalyzedTokenReadings token,
       boolean isLast) {
     StringBuilder sb = new StringBuilder();
     sb.append('<');
     if (isLast) {
       sb.append('/');
     }
-    sb.append(mFull.get(tokens).getPOSTag());
+    sb.append(entry.getPOSTag());
     sb.append('>');
-    AnalyzedToken tokenStart = new AnalyzedToken(tok, sb.toString(), mFull.get(tokens).getLemma());
+    AnalyzedToken tokenStart = new AnalyzedToken(tok, sb.toString(), entry.getLemma());
     return setAndAnnotate(token, tokenStart);
   }
 
@@ -0,0 +1,147 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation;
+
+import it.unimi.dsi.fastutil.chars.CharArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedToken;
+
+import java.util.*;
+
+/**
+ * An immutable character trie of the multi-word entries of a {@link MultiWordChunker}, including
+ * their letter case variants. Nodes are numbered in breadth-first order and stored in arrays:
+ * the children of node {@code n} are at {@code childStart[n]} to {@code childStart[n+1]-1},
+ * sorted by their character, so a lookup is a binary search per character and the sentence
+ * doesn't need to be concatenated into strings to be looked up.
+ * @since 6.4
+ */
+final class MultiWordTrie {
+
+  static final int ROOT = 0;
+  static final int NONE = -1;
+
+  private final int[] childStart;
+  private final char[] labels;
+  private final int[] children;
+  private final AnalyzedToken[] values;
+  private final BitSet firstCharsWithoutSpace = new BitSet();
+
+  /**
+   * @param entries map from multi-word (or letter case variant) to its reading
+   */
+  MultiWordTrie(Map<String, AnalyzedToken> entries) {
+    String[] keys = entries.keySet().toArray(new String[0]);
+    Arrays.sort(keys);
+    IntArrayList childStart = new IntArrayList();
+    CharArrayList labels = new CharArrayList();
+    IntArrayList children = new IntArrayList();
+    List<AnalyzedToken> values = new ArrayList<>();
+    // each node covers the keys from rangeStart to rangeEnd-1, which share their first 'depth' characters:
+    IntArrayList rangeStart = new IntArrayList();
+    IntArrayList rangeEnd = new IntArrayList();
+    IntArrayList depths = new IntArrayList();
+    rangeStart.add(0);
+    rangeEnd.add(keys.length);
+    depths.add(0);
+    for (int node = 0; node < rangeStart.size(); node++) {
+      int start = rangeStart.getInt(node);
+      int end = rangeEnd.getInt(node);
+      int depth = depths.getInt(node);
+      if (start < end && keys[start].length() == depth) {
+        values.add(entries.get(keys[start]));
+        start++;
+      } else {
+        values.add(null);
+      }
+      childStart.add(labels.size());
+      while (start < end) {
+        char c = keys[start].charAt(depth);
+        int childEnd = start + 1;
+        while (childEnd < end && keys[childEnd].charAt(depth) == c) {
+          childEnd++;
+        }
+        labels.add(c);
+        children.add(rangeStart.size());
+        rangeStart.add(start);
+        rangeEnd.add(childEnd);
+        depths.add(depth + 1);
+        start = childEnd;
+      }
+    }
+    childStart.add(labels.size());
+    this.childStart = childStart.toIntArray();
+    this.labels = labels.toCharArray();
+    this.children = children.toIntArray();
+    this.values = values.toArray(new AnalyzedToken[0]);
+    for (String key : keys) {
+      if (key.indexOf(' ') <= 0) {
+        firstCharsWithoutSpace.set(key.charAt(0));
+      }
+    }
+  }
+
+  /**
+   * @return the node reached from {@code node} by the characters of {@code s}, or {@link #NONE}
+   */
+  int next(int node, String s) {
+    for (int i = 0; i < s.length() && node != NONE; i++) {
+      node = next(node, s.charAt(i));
+    }
+    return node;
+  }
+
+  int next(int node, char c) {
+    int low = childStart[node];
+    int high = childStart[node + 1] - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char label = labels[mid];
+      if (label < c) {
+        low = mid + 1;
+      } else if (label > c) {
+        high = mid - 1;
+      } else {
+        return children[mid];
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * @return the reading of the entry that ends at {@code node}, or {@code null}
+   */
+  @Nullable
+  AnalyzedToken get(int node) {
+    return values[node];
+  }
+
+  /**
+   * Whether an entry without a space (i.e. a single word) starts with {@code c}.
+   */
+  boolean hasSingleWordStartingWith(char c) {
+    return firstCharsWithoutSpace.get(c);
+  }
+
+  int getNodeCount() {
+    return values.length;
+  }
+
+}
@@ -0,0 +1,133 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import io.prometheus.client.Histogram;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-language histograms of the time spent in the stages of a text check
+ * (tokenization, tagging, rules, filters, ...), so a slowdown can be attributed
+ * to e.g. the tagger or the rules.
+ * @since 6.4
+ */
+@ApiStatus.Internal
+public final class CheckStageMetrics {
+
+  public enum Stage {
+    SENTENCE_TOKENIZATION,
+    WORD_TOKENIZATION,
+    TAGGING,
+    CHUNKING,
+    DISAMBIGUATION,
+    SENTENCE_RULES,
+    TEXT_RULES,
+    REMOTE_RULES_RUNNING,
+    REMOTE_RULES_WAITING,
+    SAME_RULE_GROUP_FILTER,
+    MERGE_SUGGESTION_FILTER,
+    CLEAN_OVERLAPPING_FILTER,
+    LANGUAGE_DEPENDENT_FILTER,
+    CUSTOM_FILTERS,
+    SUGGESTIONS,
+    SERIALIZATION,
+    RESPONSE_WRITING
+  }
+
+  private static final double[] LATENCY_BUCKETS = {
+    0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, .1, .25, .5, 1., 2.5, 5., 10.
+  };
+
+  private static final Histogram stageLatency = Histogram
+    .build("languagetool_check_stage_seconds", "Time spent in the stages of a text check")
+    .labelNames("language", "stage")
+    .buckets(LATENCY_BUCKETS)
+    .register();
+
+  private CheckStageMetrics() {
+  }
+
+  public static void observe(String langCode, Stage stage, long nanos) {
+    stageLatency.labels(langCode, stage.name().toLowerCase()).observe(nanos / 1e9);
+  }
+
+  /**
+   * Sums up the stage times of a single check, which may be collected by several
+   * threads, so that each stage is observed only once per check.
+   */
+  public static final class Timer {
+
+    /** A timer that ignores everything, used when no check is running. */
+    public static final Timer NONE = new Timer(false);
+
+    private final boolean enabled;
+    private final AtomicLongArray nanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicIntegerArray calls = new AtomicIntegerArray(Stage.values().length);
+
+    public Timer() {
+      this(true);
+    }
+
+    private Timer(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /**
+     * Add the time since {@code startNanos} (from {@link System#nanoTime()}) to the given stage.
+     */
+    public void add(Stage stage, long startNanos) {
+      if (enabled) {
+        nanos.addAndGet(stage.ordinal(), System.nanoTime() - startNanos);
+        calls.incrementAndGet(stage.ordinal());
+      }
+    }
+
+    /**
+     * Add the time from {@code startNanos} to {@code endNanos} (both from {@link System#nanoTime()}) to the given stage.
+     */
+    public void add(Stage stage, long startNanos, long endNanos) {
+      if (enabled) {
+        nanos.addAndGet(stage.ordinal(), endNanos - startNanos);
+        calls.incrementAndGet(stage.ordinal());
+      }
+    }
+
+    public long getNanos(Stage stage) {
+      return nanos.get(stage.ordinal());
+    }
+
+    /**
+     * Observe the summed time of all stages that were used in this check.
+     */
+    public void report(String langCode) {
+      if (!enabled) {
+        return;
+      }
+      for (Stage stage : Stage.values()) {
+        if (calls.get(stage.ordinal()) > 0) {
+          observe(langCode, stage, nanos.get(stage.ordinal()));
+        }
+      }
+    }
+  }
+
+}
@@ -37,6 +37,7 @@ public final class LtThreadPoolFactory {
   public static final String SERVER_POOL = "lt-server-thread";
   public static final String TEXT_CHECKER_POOL = "lt-text-checker-thread";
   public static final String REMOTE_RULE_EXECUTING_POOL = "remote-rule-executing-thread";
+  public static final String TEXT_LEVEL_RULE_POOL = "text-level-rule-thread";
   public static final int REMOTE_RULE_POOL_SIZE_FACTOR = 4;
   // we need more maximum threads for timed out requests that haven't been interrupted/cancelled (or reacted to that) yet
 
@@ -61,7 +62,7 @@ public final class LtThreadPoolFactory {
   static {
     Timer timer = new Timer("LtThreadPoolMonitor", true);
     TimerTask timedAction = new TimerTask() {
-      final String[] poolNames = new String[]{SERVER_POOL, TEXT_CHECKER_POOL, REMOTE_RULE_EXECUTING_POOL};
+      final String[] poolNames = new String[]{SERVER_POOL, TEXT_CHECKER_POOL, REMOTE_RULE_EXECUTING_POOL, TEXT_LEVEL_RULE_POOL};
 
       @Override
       public void run() {
@@ -118,6 +119,25 @@ public final class LtThreadPoolFactory {
     }
   }
 
+  /**
+   * Like {@link #createFixedThreadPoolExecutor(String, int, int, int, long, boolean, Thread.UncaughtExceptionHandler, boolean)},
+   * but with a queue provided by the caller, e.g. one that doesn't run tasks in the order they were submitted.
+   * The pool is never reused.
+   * @param identifier           Name of the thread-pool, will be used as name of the threads in the threadPool
+   * @param corePool             Number of core pool threads
+   * @param maxThreads           Maximum number of parallel threads running in this pool
+   * @param queue                Queue for tasks waiting for a thread, tasks are rejected when it doesn't accept them
+   * @param keepAliveTimeSeconds keep-alive time for idle threads
+   * @param isDaemon             Run the threads as daemon threads
+   * @param exceptionHandler     Handler for exceptions in Thread
+   * @return a Fixed ThreadPoolExecutor
+   * @since 6.4
+   */
+  public static ThreadPoolExecutor createFixedThreadPoolExecutor(@NotNull String identifier, int corePool, int maxThreads, @NotNull BlockingQueue<Runnable> queue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
+    log.debug(LoggingTools.SYSTEM, String.format("Create new threadPool with corePool: %d maxThreads: %d queue: %s identifier: %s daemon: %s exceptionHandler: %s", corePool, maxThreads, queue.getClass().getSimpleName(), identifier, isDaemon, exceptionHandler));
+    return newThreadPoolExecutor(identifier, corePool, maxThreads, queue, keepAliveTimeSeconds, isDaemon, exceptionHandler);
+  }
+
   private static class LtRejectedExecutionHandler extends ThreadPoolExecutor.AbortPolicy {
 
     @Override
@@ -143,6 +163,11 @@ public final class LtThreadPoolFactory {
       // fair = true helps with respecting keep-alive time
       queue = new ArrayBlockingQueue<>(maxTaskInQueue, true);
     }
+    return newThreadPoolExecutor(identifier, corePool, maxThreads, queue, keepAliveTimeSeconds, isDaemon, exceptionHandler);
+  }
+
+  @NotNull
+  private static ThreadPoolExecutor newThreadPoolExecutor(@NotNull String identifier, int corePool, int maxThreads, @NotNull BlockingQueue<Runnable> queue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
     ThreadFactory threadFactory = new ThreadFactoryBuilder()
       .setNameFormat(identifier + "-%d")
       .setDaemon(isDaemon)
@@ -104,25 +104,10 @@ public class RuleMatchesAsJsonSerializer {
    */
   public String ruleMatchesToJson2(List<CheckResults> res, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
                                    DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint, JLanguageTool.Mode mode) {
-    ContextTools contextTools = new ContextTools();
-    contextTools.setEscapeHtml(false);
-    contextTools.setContextSize(contextSize);
-    contextTools.setErrorMarker(START_MARKER, "");
     StringWriter sw = new StringWriter();
     try {
       try (JsonGenerator g = factory.createGenerator(sw)) {
-        g.writeStartObject();
-        writeSoftwareSection(g, showPremiumHint);
-        writeWarningsSection(g, incompleteResultsReason);
-        writeLanguageSection(g, detectedLang);
-        writeMatchesSection("matches", g, res, text, contextTools);
-        if (hiddenMatches != null && hiddenMatches.size() > 0) {
-          writeMatchesSection("hiddenMatches", g, Collections.singletonList(new CheckResults(hiddenMatches, Collections.emptyList())), text, contextTools);
-        }
-        writeIgnoreRanges(g, res);
-        writeSentenceRanges(g, res);
-        writeExtendedSentenceRanges(g, res);
-        g.writeEndObject();
+        ruleMatchesToJson2(g, res, hiddenMatches, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint, mode);
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -130,6 +115,32 @@ public class RuleMatchesAsJsonSerializer {
     return sw.toString();
   }
 
+  /**
+   * Like {@link #ruleMatchesToJson2(List, List, AnnotatedText, int, DetectedLanguage, String, boolean, JLanguageTool.Mode)},
+   * but writes to the given generator, so the result can be streamed and use another format
+   * supported by Jackson (e.g. Smile or CBOR). The generator is not closed.
+   * @since 6.4
+   */
+  public void ruleMatchesToJson2(JsonGenerator g, List<CheckResults> res, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                 DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException {
+    ContextTools contextTools = new ContextTools();
+    contextTools.setEscapeHtml(false);
+    contextTools.setContextSize(contextSize);
+    contextTools.setErrorMarker(START_MARKER, "");
+    g.writeStartObject();
+    writeSoftwareSection(g, showPremiumHint);
+    writeWarningsSection(g, incompleteResultsReason);
+    writeLanguageSection(g, detectedLang);
+    writeMatchesSection("matches", g, res, text, contextTools);
+    if (hiddenMatches != null && hiddenMatches.size() > 0) {
+      writeMatchesSection("hiddenMatches", g, Collections.singletonList(new CheckResults(hiddenMatches, Collections.emptyList())), text, contextTools);
+    }
+    writeIgnoreRanges(g, res);
+    writeSentenceRanges(g, res);
+    writeExtendedSentenceRanges(g, res);
+    g.writeEndObject();
+  }
+
   private void writeSoftwareSection(JsonGenerator g, boolean showPremiumHint) throws IOException {
     if (compactMode == 1) {
       return;
@@ -0,0 +1,103 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.languagetool.rules.Rule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the time each rule takes while text is checked normally, so that all rules
+ * can be profiled with a single pass over the input. Set it with
+ * {@link org.languagetool.JLanguageTool#setRuleProfiler(RuleProfiler)}. Thread-safe, so
+ * it can also be used with {@link org.languagetool.MultiThreadedJLanguageTool}.
+ * @since 6.4
+ */
+public class RuleProfiler {
+
+  private final Map<String, RuleStats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * Record a call of {@code rule} that started at {@code startNanos} (from {@link System#nanoTime()}).
+   * @param matchCount the number of matches the call found
+   */
+  public void add(Rule rule, long startNanos, int matchCount) {
+    long nanos = System.nanoTime() - startNanos;
+    RuleStats ruleStats = stats.computeIfAbsent(rule.getFullId(), RuleStats::new);
+    ruleStats.nanos.add(nanos);
+    ruleStats.calls.increment();
+    ruleStats.matches.add(matchCount);
+  }
+
+  /**
+   * @return the statistics of all rules that were called, the slowest rule (by total time) first
+   */
+  public List<RuleStats> getStats() {
+    List<RuleStats> result = new ArrayList<>(stats.values());
+    result.sort(Comparator.comparingLong(RuleStats::getTotalNanos).reversed().thenComparing(RuleStats::getRuleId));
+    return result;
+  }
+
+  public void clear() {
+    stats.clear();
+  }
+
+  public static class RuleStats {
+
+    private final String ruleId;
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+
+    private RuleStats(String ruleId) {
+      this.ruleId = ruleId;
+    }
+
+    public String getRuleId() {
+      return ruleId;
+    }
+
+    public long getTotalNanos() {
+      return nanos.sum();
+    }
+
+    /**
+     * The number of times the rule was called, i.e. the number of sentences for sentence-level
+     * rules and the number of texts for text-level rules.
+     */
+    public long getCalls() {
+      return calls.sum();
+    }
+
+    public long getMeanNanos() {
+      long calls = getCalls();
+      return calls == 0 ? 0 : getTotalNanos() / calls;
+    }
+
+    public long getMatches() {
+      return matches.sum();
+    }
+  }
+
+}
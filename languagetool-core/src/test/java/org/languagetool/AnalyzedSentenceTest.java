@@ -21,8 +21,9 @@ package org.languagetool;
 
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotEquals;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
 
 public class AnalyzedSentenceTest {
 
@@ -53,4 +54,22 @@ public class AnalyzedSentenceTest {
     assertNotEquals(sentence, copySentence);
   }
 
+  @Test
+  public void testOffsets() {
+    AnalyzedTokenReadings[] words = new AnalyzedTokenReadings[5];
+    words[0] = new AnalyzedTokenReadings(new AnalyzedToken("", "SENT_START", null));
+    words[1] = new AnalyzedTokenReadings(new AnalyzedToken("Words", "NNS", "word"));
+    words[2] = new AnalyzedTokenReadings(new AnalyzedToken(" ", null, null));
+    words[3] = new AnalyzedTokenReadings(new AnalyzedToken("word", "NN", "word"));
+    words[4] = new AnalyzedTokenReadings(new AnalyzedToken(".", "SENT_END", null));
+    AnalyzedSentence sentence = new AnalyzedSentence(words);
+    assertEquals(Arrays.asList(1), sentence.getTokenOffsets("words"));
+    assertEquals(Arrays.asList(1, 2), sentence.getLemmaOffsets("word"));
+    assertNull(sentence.getTokenOffsets("foo"));
+    assertTrue(sentence.getLemmaSet().contains("word"));
+    assertEquals(4, sentence.getTokensWithoutWhitespace().length);
+    assertArrayEquals(sentence.getTokensWithoutWhitespace(), sentence.getPreDisambigTokensWithoutWhitespace());
+    assertEquals(3, sentence.getOriginalPosition(2));
+  }
+
 }
@@ -0,0 +1,63 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import static org.junit.Assert.*;
+
+public class CachedRuleMatchesTest {
+
+  @Test
+  public void testBuilder() {
+    CachedRuleMatches.Indexes indexes = new CachedRuleMatches.Indexes();
+    Rule matching = new FakeRule("MATCHING");
+    Rule notMatching = new FakeRule("NOT_MATCHING");
+    Rule notRun = new FakeRule("NOT_RUN");
+    assertEquals(indexes.indexOf("MATCHING"), indexes.indexOf("MATCHING"));
+    assertNotEquals(indexes.indexOf("MATCHING"), indexes.indexOf("NOT_MATCHING"));
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[0]);
+    RuleMatch match = new RuleMatch(matching, sentence, 0, 1, "msg");
+
+    CachedRuleMatches.Builder builder = new CachedRuleMatches.Builder(null, indexes);
+    assertNull(builder.getIfRun(builder.indexOf(matching), matching));
+    assertFalse(builder.hasNewResults());
+    builder.add(builder.indexOf(matching), matching, new RuleMatch[]{match});
+    builder.add(builder.indexOf(notMatching), notMatching, new RuleMatch[0]);
+    assertTrue(builder.hasNewResults());
+    CachedRuleMatches first = builder.build();
+    assertEquals(2, first.getRuleCount());
+    assertEquals(1, first.getMatchCount());
+
+    CachedRuleMatches.Builder builder2 = new CachedRuleMatches.Builder(first, indexes);
+    assertArrayEquals(new RuleMatch[]{match}, builder2.getIfRun(builder2.indexOf(matching), matching));
+    assertEquals(0, builder2.getIfRun(builder2.indexOf(notMatching), notMatching).length);
+    assertNull(builder2.getIfRun(builder2.indexOf(notRun), notRun));
+    builder2.add(builder2.indexOf(notRun), notRun, new RuleMatch[0]);
+    CachedRuleMatches second = builder2.build();
+    assertEquals(3, second.getRuleCount());
+    assertEquals(1, second.getMatchCount());
+    // the cached entry itself doesn't change:
+    assertEquals(2, first.getRuleCount());
+  }
+
+}
@@ -72,4 +72,17 @@ public class InputSentenceTest {
     assertNotEquals(inputSentence1a, inputSentence1aOtherAltLang);
   }
 
+  @Test
+  public void testRuleConfigFingerprint() {
+    Language lang = Languages.getLanguageForShortCode("xx-XX");
+    UserConfig userConfig = new UserConfig(Arrays.asList("foo1", "foo2"));
+    List<Language> altLanguages = new ArrayList<>();
+    assertEquals(new InputSentence("foo", lang, null, userConfig, altLanguages, 42),
+                 new InputSentence("foo", lang, null, new UserConfig(Arrays.asList("foo1", "foo2")), altLanguages, 42));
+    assertNotEquals(new InputSentence("foo", lang, null, userConfig, altLanguages, 42),
+                    new InputSentence("foo", lang, null, userConfig, altLanguages, 43));
+    assertNotEquals(new InputSentence("foo", lang, null, userConfig, altLanguages, 42),
+                    new InputSentence("foo", lang, null, new UserConfig(Arrays.asList("foo3")), altLanguages, 42));
+  }
+
 }
@@ -19,14 +19,21 @@
 package org.languagetool;
 
 import org.junit.Test;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.GenericUnpairedBracketsRule;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.WordRepeatRule;
 import org.languagetool.rules.patterns.PatternRule;
 import org.languagetool.rules.patterns.PatternRuleBuilderHelper;
 import org.languagetool.rules.patterns.PatternToken;
+import org.languagetool.tools.RuleProfiler;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -52,4 +59,94 @@ public class JLanguageToolTest {
     assertThat(matches2.size(), is(1));
   }
 
+  @Test
+  public void testRestoreRuleSelection() throws IOException {
+    JLanguageTool lt = new JLanguageTool(Languages.getLanguageForShortCode("xx"));
+    int matchCount = lt.check("This is my test").size();
+    assertThat(matchCount > 0, is(true));
+    JLanguageTool.RuleSelection selection = lt.saveRuleSelection();
+    lt.disableRule("test_unification_with_negation");
+    assertThat(lt.check("This is my test").size(), is(0));
+    lt.restoreRuleSelection(selection);
+    assertThat(lt.getDisabledRules().isEmpty(), is(true));
+    assertThat(lt.check("This is my test").size(), is(matchCount));
+  }
+
+  @Test
+  public void testRuleMatchesSharedAcrossRuleConfigurations() throws IOException {
+    Language lang = Languages.getLanguageForShortCode("xx");
+    ResultCache cache = new ResultCache(1000);
+    JLanguageTool lt1 = new JLanguageTool(lang, null, cache);
+    int matchCount = lt1.check("This is my test").size();
+    assertThat(matchCount > 0, is(true));
+    assertThat(cache.getRuleMatchesCache().stats().hitCount(), is(0L));
+    JLanguageTool lt2 = new JLanguageTool(lang, null, cache);
+    lt2.disableRule("test_unification_with_negation");
+    assertThat(lt2.getRuleConfigFingerprint(JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null) ==
+      lt1.getRuleConfigFingerprint(JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null), is(false));
+    // different rule configuration, but the matches of the single rules get re-used:
+    assertThat(lt2.check("This is my test").size(), is(0));
+    assertThat(cache.getRuleMatchesCache().stats().hitCount(), is(1L));
+    lt2.enableRule("test_unification_with_negation");
+    assertThat(lt2.check("This is my test").size(), is(matchCount));
+    assertThat(cache.getRuleMatchesCache().stats().hitCount(), is(2L));
+  }
+
+  @Test
+  public void testParallelTextLevelRules() throws IOException {
+    Language lang = Languages.getLanguageForShortCode("xx");
+    String text = "This is (a test. This is my my test. And \"another one.";
+    JLanguageTool sequential = new JLanguageTool(lang);
+    sequential.addRule(new GenericUnpairedBracketsRule(JLanguageTool.getMessageBundle(), Arrays.asList("(", "\""), Arrays.asList(")", "\"")));
+    sequential.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+    List<RuleMatch> expectedListenerMatches = new ArrayList<>();
+    List<RuleMatch> expected = sequential.check(text, expectedListenerMatches::add);
+    assertThat(expected.size() > 2, is(true));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      JLanguageTool parallel = new JLanguageTool(lang);
+      parallel.addRule(new GenericUnpairedBracketsRule(JLanguageTool.getMessageBundle(), Arrays.asList("(", "\""), Arrays.asList(")", "\"")));
+      parallel.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+      parallel.setTextLevelRuleExecutor(executor);
+      List<RuleMatch> listenerMatches = new ArrayList<>();
+      List<RuleMatch> matches = parallel.check(text, listenerMatches::add);
+      assertThat(matches.toString(), is(expected.toString()));
+      assertThat(listenerMatches.toString(), is(expectedListenerMatches.toString()));
+      assertThat(listenerMatches.stream().anyMatch(match -> match.getRule() instanceof WordRepeatRule), is(true));
+      AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(text).build();
+      assertThat(parallel.check(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.TEXTLEVEL_ONLY, JLanguageTool.Level.DEFAULT).toString(),
+        is(sequential.check(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.TEXTLEVEL_ONLY, JLanguageTool.Level.DEFAULT).toString()));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRuleProfiler() throws IOException {
+    Language lang = Languages.getLanguageForShortCode("xx");
+    JLanguageTool lt = new JLanguageTool(lang);
+    lt.addRule(new GenericUnpairedBracketsRule(JLanguageTool.getMessageBundle(), Arrays.asList("(", "\""), Arrays.asList(")", "\"")));
+    RuleProfiler profiler = new RuleProfiler();
+    lt.setRuleProfiler(profiler);
+    int matchCount = lt.check("This is (a test. This is my test. And \"another one.").size();
+    List<RuleProfiler.RuleStats> stats = profiler.getStats();
+    assertThat(stats.isEmpty(), is(false));
+    long profiledMatches = 0;
+    for (int i = 0; i < stats.size(); i++) {
+      RuleProfiler.RuleStats ruleStats = stats.get(i);
+      if (i > 0) {
+        assertThat(stats.get(i - 1).getTotalNanos() >= ruleStats.getTotalNanos(), is(true));
+      }
+      assertThat(ruleStats.getCalls() > 0, is(true));
+      profiledMatches += ruleStats.getMatches();
+    }
+    assertThat(profiledMatches >= matchCount, is(true));
+    // text-level rules run once per text:
+    assertThat(stats.stream().filter(ruleStats -> ruleStats.getRuleId().equals("UNPAIRED_BRACKETS")).findFirst().get().getCalls(), is(1L));
+    long calls = stats.stream().mapToLong(RuleProfiler.RuleStats::getCalls).sum();
+    lt.setRuleProfiler(null);
+    lt.check("Another (test.");
+    assertThat(profiler.getStats().stream().mapToLong(RuleProfiler.RuleStats::getCalls).sum(), is(calls));
+  }
+
 }
@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+import org.languagetool.rules.ngrams.FakeLanguageModel;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CachingLanguageModelTest {
+
+  @Test
+  public void testCaching() {
+    List<List<String>> lookups = new ArrayList<>();
+    FakeLanguageModel lm = new FakeLanguageModel() {
+      @Override
+      public long getCount(List<String> tokens) {
+        lookups.add(tokens);
+        return super.getCount(tokens);
+      }
+    };
+    List<String> context = Arrays.asList("Why", "is", "there");
+    double expected = lm.getPseudoProbability(context).getProb();
+    lookups.clear();
+
+    CachingLanguageModel cachingLm = new CachingLanguageModel(lm);
+    cachingLm.prefetch(Arrays.asList(context, Arrays.asList("Why", "is", "their")));
+    assertEquals(4, lookups.size());  // "Why" and "Why is" only once
+    assertEquals(expected, cachingLm.getPseudoProbability(context).getProb(), 0.0);
+    assertEquals(50, cachingLm.getCount(Arrays.asList("Why", "is")));
+    assertEquals(4, lookups.size());
+    assertEquals(11, cachingLm.getCount(Arrays.asList("their", "car")));
+    assertEquals(11, cachingLm.getCount(Arrays.asList("their", "car")));
+    assertEquals(5, lookups.size());
+  }
+
+}
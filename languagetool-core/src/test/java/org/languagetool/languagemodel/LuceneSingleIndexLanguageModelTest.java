@@ -25,6 +25,7 @@ import org.languagetool.JLanguageTool;
 import java.io.File;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -40,6 +41,15 @@ public class LuceneSingleIndexLanguageModelTest extends LanguageModelTest {
       assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
       assertThat(model.getCount("not-in-here"), is(0L));
       assertThat(model.getTotalTokenCount(), is(3L));
+
+      long[] counts = model.getCounts(Arrays.asList(
+        Arrays.asList("the", "nice", "building"),
+        Arrays.asList("the"),
+        Arrays.asList("not-in-here"),
+        Arrays.asList("the", "nice"),
+        Arrays.asList("the")));
+      assertThat(Arrays.toString(counts), is("[1, 55, 0, 3, 55]"));
+      assertThat(model.getCounts(Collections.emptyList()).length, is(0));
     }
   }
 
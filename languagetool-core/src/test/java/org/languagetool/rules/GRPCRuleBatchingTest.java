@@ -0,0 +1,194 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.rules.ml.MLServerGrpc;
+import org.languagetool.rules.ml.MLServerProto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class GRPCRuleBatchingTest {
+
+  private final JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+
+  private Server server;
+  private ManagedChannel channel;
+
+  /**
+   * Finds "foo" in each sentence. Fails for sentences with "FAIL" and sleeps for those with "SLOW".
+   */
+  private static class FakeMLServer extends MLServerGrpc.MLServerImplBase {
+    @Override
+    public void match(MLServerProto.MatchRequest request, StreamObserver<MLServerProto.MatchResponse> responseObserver) {
+      MLServerProto.MatchResponse.Builder response = MLServerProto.MatchResponse.newBuilder();
+      for (String sentence : request.getSentencesList()) {
+        if (sentence.contains("FAIL")) {
+          responseObserver.onError(Status.INTERNAL.withDescription("failed: " + sentence).asRuntimeException());
+          return;
+        }
+        if (sentence.contains("SLOW")) {
+          try {
+            Thread.sleep(3000);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        MLServerProto.MatchList.Builder matchList = MLServerProto.MatchList.newBuilder();
+        int pos = sentence.indexOf("foo");
+        if (pos >= 0) {
+          matchList.addMatches(MLServerProto.Match.newBuilder().setOffset(pos).setLength(3).setId("FOO").setSubId("")
+            .setRuleDescription("desc").setMatchDescription("Found foo"));
+        }
+        response.addSentenceMatches(matchList);
+      }
+      responseObserver.onNext(response.build());
+      responseObserver.onCompleted();
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    String name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name).addService(new FakeMLServer()).build().start();
+    channel = InProcessChannelBuilder.forName(name).build();
+  }
+
+  @After
+  public void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  public void testAllSucceed() throws Exception {
+    GRPCRule rule = getRule(2, 5000);
+    List<AnalyzedSentence> sentences = getSentences("This is foo.", "A test.", "More foo here.", "And a foo.", "End.");
+    RemoteRuleResult result = run(rule, sentences);
+    assertEquals(3, result.getMatches().size());
+    assertEquals(5, result.processedSentences().size());
+    assertTrue(result.failedSentences().isEmpty());
+    assertEquals(1, result.matchesForSentence(sentences.get(2)).size());
+    assertEquals(0, result.matchesForSentence(sentences.get(1)).size());
+  }
+
+  @Test
+  public void testPartialFailure() throws Exception {
+    GRPCRule rule = getRule(1, 5000);
+    List<AnalyzedSentence> sentences = getSentences("This is foo.", "This will FAIL with foo.", "More foo here.");
+    RemoteRuleResult result = run(rule, sentences);
+    assertTrue(result.isSuccess());
+    assertEquals(2, result.getMatches().size());
+    assertEquals(1, result.failedSentences().size());
+    assertTrue(result.failedSentences().contains(sentences.get(1)));
+    assertNull(result.matchesForSentence(sentences.get(1)));
+    assertEquals(1, result.matchesForSentence(sentences.get(2)).size());
+  }
+
+  @Test
+  public void testSlowRequestDoesNotBlockOthers() throws Exception {
+    GRPCRule rule = getRule(1, 500);
+    List<AnalyzedSentence> sentences = getSentences("This is SLOW foo.", "This is foo.", "More foo here.");
+    long startTime = System.currentTimeMillis();
+    RemoteRuleResult result = run(rule, sentences);
+    assertTrue(System.currentTimeMillis() - startTime < 2500);
+    assertEquals(2, result.getMatches().size());
+    assertTrue(result.failedSentences().contains(sentences.get(0)));
+    assertNull(result.matchesForSentence(sentences.get(0)));
+  }
+
+  @Test
+  public void testAllFailed() throws Exception {
+    GRPCRule rule = getRule(8, 5000);
+    try {
+      run(rule, getSentences("This will FAIL.", "Another one."));
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+  }
+
+  @Test
+  public void testBatchSizer() {
+    RemoteRuleConfig config = new RemoteRuleConfig();
+    config.options.put("batchSize", "16");
+    config.options.put("minBatchSize", "2");
+    GRPCRule.BatchSizer sizer = new GRPCRule.BatchSizer(config);
+    assertEquals(16, sizer.getBatchSize(1000));  // nothing observed yet
+    sizer.addObservation(800, 8);  // 100ms per sentence
+    assertEquals(5, sizer.getBatchSize(1000));
+    assertEquals(16, sizer.getBatchSize(0));  // no timeout
+    assertEquals(2, sizer.getBatchSize(100));
+    assertEquals(16, sizer.getBatchSize(100_000));
+    sizer.addObservation(10, 1);  // faster: 0.2 * 10 + 0.8 * 100 = 82ms per sentence
+    assertEquals(6, sizer.getBatchSize(1000));
+  }
+
+  private GRPCRule getRule(int batchSize, long timeoutMillis) {
+    RemoteRuleConfig config = new RemoteRuleConfig();
+    config.ruleId = "TEST_GRPC_RULE";
+    config.baseTimeoutMilliseconds = timeoutMillis;
+    config.options.put("batchSize", String.valueOf(batchSize));
+    config.options.put("fixOffsets", "false");
+    return new GRPCRule(TestTools.getDemoLanguage(), JLanguageTool.getMessageBundle(), config, false, channel) {
+      @Override
+      protected String getMessage(MLServerProto.Match match, AnalyzedSentence sentence) {
+        return match.getMatchDescription();
+      }
+      @Override
+      public String getDescription() {
+        return "Test rule";
+      }
+    };
+  }
+
+  private List<AnalyzedSentence> getSentences(String... sentences) throws IOException {
+    List<AnalyzedSentence> result = new ArrayList<>();
+    for (String sentence : Arrays.asList(sentences)) {
+      result.add(lt.getAnalyzedSentence(sentence));
+    }
+    return result;
+  }
+
+  private RemoteRuleResult run(GRPCRule rule, List<AnalyzedSentence> sentences) throws Exception {
+    FutureTask<RemoteRuleResult> task = rule.run(sentences);
+    task.run();
+    return task.get();
+  }
+
+}
@@ -19,8 +19,11 @@
 package org.languagetool.rules.spelling.morfologik;
 
 import org.junit.Test;
+import org.languagetool.UserConfig;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import static java.util.Collections.*;
 import static org.hamcrest.core.Is.is;
@@ -72,6 +75,28 @@ public class MorfologikMultiSpellerTest {
     new MorfologikMultiSpeller("/xx/spelling/no-such-file", singletonList("/xx/spelling/test2.txt"), null, 1);
   }
 
+  @Test
+  public void testVersionedUserDict() throws IOException {
+    MorfologikMultiSpeller.clearUserDictCache();
+    assertTrue(getSpeller(singletonList("userword"), 1L).isMisspelled("otherword"));
+    // the dictionary is cached by version, so its content isn't looked at again:
+    MorfologikMultiSpeller speller = getSpeller(Arrays.asList("userword", "otherword"), 1L);
+    assertFalse(speller.isMisspelled("userword"));
+    assertTrue(speller.isMisspelled("otherword"));
+    assertFalse(getSpeller(Arrays.asList("userword", "otherword"), 2L).isMisspelled("otherword"));
+    MorfologikMultiSpeller.invalidateUserDicts(42);
+    assertFalse(getSpeller(Arrays.asList("userword", "otherword"), 1L).isMisspelled("otherword"));
+    // no version, no caching by version:
+    assertFalse(getSpeller(singletonList("thirdword"), null).isMisspelled("thirdword"));
+    MorfologikMultiSpeller.clearUserDictCache();
+  }
+
+  private MorfologikMultiSpeller getSpeller(List<String> userWords, Long userDictVersion) throws IOException {
+    UserConfig userConfig = new UserConfig(userWords, emptyList(), emptyMap(), 0, 42L, null, null, null,
+      false, null, null, false, null, false, userDictVersion);
+    return new MorfologikMultiSpeller("/xx/spelling/test.dict", singletonList("/xx/spelling/test2.txt"), null, userConfig, 1, null);
+  }
+
   private MorfologikMultiSpeller getSpeller() throws IOException {
     return new MorfologikMultiSpeller("/xx/spelling/test.dict", singletonList("/xx/spelling/test2.txt"), null, 1);
   }
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.multitoken;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PhraseIndexTest {
+
+  @Test
+  public void testCandidates() {
+    Map<String, String> phrases = new LinkedHashMap<>();
+    phrases.put("Woody Allen", "woody allen");
+    phrases.put("Led Zeppelin", "led zeppelin");
+    phrases.put("Lluís Llach", "lluis llach");
+    phrases.put("Leonard Cohen", "leonard cohen");
+    phrases.put("Lady Gaga", "lady gaga");
+    PhraseIndex index = new PhraseIndex(phrases);
+    assertEquals(5, index.size());
+    assertEquals("Lluís Llach", index.getPhrase(2));
+    assertEquals("lluis llach", index.getLowercasePhrase(2));
+    assertEquals(2, index.getOrdinal("Lluís Llach"));
+    assertEquals(-1, index.getOrdinal("lluis llach"));
+
+    assertEquals("[1]", candidates(index, "l", 8, 14, "led sepelin", 2).toString());
+    assertEquals("[]", candidates(index, "l", 8, 11, "led sepelin", 2).toString());
+    assertEquals("[]", candidates(index, "l", 8, 14, "led sepelin", 1).toString());
+    // y/i and k/c don't count as a difference, transpositions neither:
+    assertEquals("[0]", candidates(index, "w", 0, 100, "wodie allen", 1).toString());
+    assertEquals("[3]", candidates(index, "l", 0, 100, "leonrad kohen", 0).toString());
+    assertEquals("[]", candidates(index, "x", 0, 100, "led zeppelin", 2).toString());
+  }
+
+  @Test
+  public void testIsWithinDistance() {
+    assertTrue(PhraseIndex.isWithinDistance(PhraseIndex.signature("abc"), PhraseIndex.signature("cba"), 0));
+    assertTrue(PhraseIndex.isWithinDistance(PhraseIndex.signature("a-b c"), PhraseIndex.signature("abc"), 0));
+    assertTrue(PhraseIndex.isWithinDistance(PhraseIndex.signature("abcd"), PhraseIndex.signature("abxd"), 1));
+    assertFalse(PhraseIndex.isWithinDistance(PhraseIndex.signature("abcd"), PhraseIndex.signature("abxx"), 1));
+    assertFalse(PhraseIndex.isWithinDistance(PhraseIndex.signature("abcd"), PhraseIndex.signature("a"), 2));
+    assertTrue(PhraseIndex.isWithinDistance(PhraseIndex.signature("abcd"), PhraseIndex.signature("a"), 3));
+  }
+
+  private List<Integer> candidates(PhraseIndex index, String firstChar, int minLength, int maxLength, String word, int maxDistance) {
+    SortedSet<Integer> result = new TreeSet<>();
+    index.addCandidates(result, firstChar, minLength, maxLength, word, maxDistance);
+    return new ArrayList<>(result);
+  }
+
+}
@@ -0,0 +1,60 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedToken;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MultiWordTrieTest {
+
+  @Test
+  public void testLookup() {
+    Map<String, AnalyzedToken> entries = new HashMap<>();
+    AnalyzedToken newYork = new AnalyzedToken("New York", "NPR", "New York");
+    AnalyzedToken newYorker = new AnalyzedToken("New Yorker", "NPR", "New Yorker");
+    AnalyzedToken email = new AnalyzedToken("e-mail", "N", "e-mail");
+    entries.put("New York", newYork);
+    entries.put("New Yorker", newYorker);
+    entries.put("e-mail", email);
+    MultiWordTrie trie = new MultiWordTrie(entries);
+
+    int node = trie.next(MultiWordTrie.ROOT, "New");
+    assertNotEquals(MultiWordTrie.NONE, node);
+    assertNull(trie.get(node));
+    node = trie.next(trie.next(node, ' '), "York");
+    assertSame(newYork, trie.get(node));
+    assertSame(newYorker, trie.get(trie.next(node, "er")));
+    assertEquals(MultiWordTrie.NONE, trie.next(node, "ers"));
+    assertEquals(MultiWordTrie.NONE, trie.next(MultiWordTrie.ROOT, "new"));
+
+    node = trie.next(trie.next(MultiWordTrie.ROOT, "e"), "-");
+    assertSame(email, trie.get(trie.next(node, "mail")));
+
+    assertTrue(trie.hasSingleWordStartingWith('e'));
+    assertFalse(trie.hasSingleWordStartingWith('N'));
+    // root, "New York" (8 chars), "er", "e-mail" (6 chars):
+    assertEquals(17, trie.getNodeCount());
+  }
+
+}
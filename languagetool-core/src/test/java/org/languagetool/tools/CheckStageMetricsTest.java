@@ -0,0 +1,65 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import io.prometheus.client.CollectorRegistry;
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class CheckStageMetricsTest {
+
+  @Test
+  public void testTimer() {
+    CheckStageMetrics.Timer timer = new CheckStageMetrics.Timer();
+    long start = System.nanoTime();
+    timer.add(CheckStageMetrics.Stage.TAGGING, start);
+    timer.add(CheckStageMetrics.Stage.TAGGING, start);
+    assertTrue(timer.getNanos(CheckStageMetrics.Stage.TAGGING) > 0);
+    assertEquals(0, timer.getNanos(CheckStageMetrics.Stage.CHUNKING));
+    timer.add(CheckStageMetrics.Stage.REMOTE_RULES_RUNNING, start, start + 1000);
+    assertEquals(1000, timer.getNanos(CheckStageMetrics.Stage.REMOTE_RULES_RUNNING));
+    CheckStageMetrics.Timer.NONE.add(CheckStageMetrics.Stage.TAGGING, start);
+    assertEquals(0, CheckStageMetrics.Timer.NONE.getNanos(CheckStageMetrics.Stage.TAGGING));
+  }
+
+  @Test
+  public void testCheckReportsStages() throws IOException {
+    double before = getCount("tagging");
+    double sentenceTokenizationBefore = getCount("sentence_tokenization");
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    lt.check("This is a test. And another one.");
+    assertEquals(before + 1, getCount("tagging"), 0.0);
+    assertEquals(sentenceTokenizationBefore + 1, getCount("sentence_tokenization"), 0.0);
+    // no check running, so nothing gets reported:
+    lt.getAnalyzedSentence("Yet another test.");
+    assertEquals(before + 1, getCount("tagging"), 0.0);
+  }
+
+  private double getCount(String stage) {
+    Double value = CollectorRegistry.defaultRegistry.getSampleValue("languagetool_check_stage_seconds_count",
+      new String[]{"language", "stage"}, new String[]{"xx", stage});
+    return value != null ? value : 0;
+  }
+
+}
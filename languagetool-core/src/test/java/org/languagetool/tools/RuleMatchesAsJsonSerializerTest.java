@@ -18,14 +18,22 @@
  */
 package org.languagetool.tools;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.junit.Test;
 import org.languagetool.*;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -85,6 +93,19 @@ public class RuleMatchesAsJsonSerializerTest {
     assertContains("\"tags\":[\"picky\"]", json);
   }
 
+  @Test
+  public void testJsonToGenerator() throws IOException {
+    DetectedLanguage lang = new DetectedLanguage(Languages.getLanguageForShortCode("xx-XX"), Languages.getLanguageForShortCode("xx-XX")) ;
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text.").build();
+    List<CheckResults> res = Collections.singletonList(new CheckResults(matches, Collections.emptyList()));
+    String json = serializer.ruleMatchesToJson2(res, Collections.emptyList(), text, 5, lang, null, false, null);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonGenerator g = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      serializer.ruleMatchesToJson2(g, res, Collections.emptyList(), text, 5, lang, null, false, null);
+    }
+    assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
   private void assertContains(String expectedSubstring, String json) {
     assertTrue("Did not find expected string '" + expectedSubstring + "' in JSON:\n" + json, json.contains(expectedSubstring));
   }
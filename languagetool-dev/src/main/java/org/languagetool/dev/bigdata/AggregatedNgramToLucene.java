@@ -73,19 +73,33 @@ class AggregatedNgramToLucene implements AutoCloseable {
       System.err.println("Not 2 parts but " + lineParts.length + ", ignoring: '" + line + "'");
       return;
     }
-    String ngram = lineParts[0];
-    String[] ngramParts = ngram.split(" ");
-    LuceneIndex index = indexes.get(ngramParts.length);
+    addNgram(lineParts[0], Long.parseLong(lineParts[1]));
+  }
+
+  /**
+   * Add an ngram with its final count - every ngram must only be added once.
+   * @since 6.4
+   */
+  void addNgram(String ngram, long count) throws IOException {
+    int ngramSize = ngram.split(" ").length;
+    LuceneIndex index = indexes.get(ngramSize);
     if (index == null) {
-      throw new RuntimeException("No ngram data found for: " + Arrays.toString(lineParts));
+      throw new RuntimeException("No ngram index found for: " + ngram + " (ngram size " + ngramSize + ")");
     }
-    long count = Long.parseLong(lineParts[1]);
-    if (ngramParts.length == 1) {
+    if (ngramSize == 1) {
       totalTokenCount += count;
     }
     index.indexWriter.addDocument(getDoc(ngram, count));
   }
 
+  /**
+   * Add the sum of all unigram counts, to be called after all ngrams have been added.
+   * @since 6.4
+   */
+  void addTotalTokenCountDoc() throws IOException {
+    addTotalTokenCountDoc(totalTokenCount, indexes.get(1).indexWriter);
+  }
+
   @NotNull
   private Document getDoc(String ngram, long count) {
     Document doc = new Document();
@@ -130,7 +144,7 @@ class AggregatedNgramToLucene implements AutoCloseable {
           prg.indexInputFile(file);
         }
       }
-      prg.addTotalTokenCountDoc(prg.totalTokenCount, prg.indexes.get(1).indexWriter);
+      prg.addTotalTokenCountDoc();
     }
   }
   
@@ -45,7 +45,8 @@ import java.util.Map;
 
 /**
  * Indexing the CommonCrawl-based data from http://data.statmt.org/ngrams/
- * to ngrams.
+ * to ngrams. Updates the index while indexing so it can be evaluated, use
+ * {@link NgramAggregator} to build an index from large input faster.
  * 
  * @since 3.2
  */
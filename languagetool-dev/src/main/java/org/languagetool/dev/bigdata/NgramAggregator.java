@@ -0,0 +1,411 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.languagemodel.LanguageModel;
+import org.languagetool.rules.en.GoogleStyleWordTokenizer;
+import org.languagetool.tokenizers.SentenceTokenizer;
+import org.languagetool.tokenizers.Tokenizer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Counts the ngrams of a large corpus like the CommonCrawl-based data from http://data.statmt.org/ngrams/
+ * and writes them to the Lucene index format used by {@link org.languagetool.languagemodel.LuceneLanguageModel}.
+ * Unlike {@link CommonCrawlToNgram}, which merges its counts into the index again and again, this
+ * counts in several threads with primitive-valued hash tables, spills them as sorted files when
+ * they get too large, and merges the spill files so every ngram is written to the index exactly once.
+ * @since 6.4
+ */
+class NgramAggregator {
+
+  private static final int MAX_TOKEN_LENGTH = 20;
+  private static final int MAX_NGRAM_SIZE = 3;
+  private static final int LINES_PER_CHUNK = 10_000;
+
+  private final Language language;
+  private final File tempDir;
+  private final int threads;
+  private final int maxNgramsInMemory;
+  private final List<List<File>> spillFiles = new ArrayList<>();
+  private final AtomicInteger spillCount = new AtomicInteger();
+  private final AtomicLong lineCount = new AtomicLong();
+
+  private int maxMergeFiles = 100;  // spill files merged at once, to stay below the open file limit
+
+  /**
+   * @param tempDir directory for the spill files, needs space for about the size of the final index
+   * @param maxNgramsInMemory number of distinct ngrams held in memory by all threads together before they spill to disk
+   */
+  NgramAggregator(Language language, File tempDir, int threads, int maxNgramsInMemory) {
+    this.language = language;
+    this.tempDir = tempDir;
+    this.threads = threads;
+    this.maxNgramsInMemory = maxNgramsInMemory;
+    for (int i = 0; i < MAX_NGRAM_SIZE; i++) {
+      spillFiles.add(Collections.synchronizedList(new ArrayList<>()));
+    }
+  }
+
+  void setMaxMergeFiles(int maxMergeFiles) {
+    this.maxMergeFiles = Math.max(2, maxMergeFiles);
+  }
+
+  /**
+   * Count the ngrams of a file with one text per line. The file can be plain text or
+   * compressed with any format supported by Commons Compress (e.g. xz, bz2, gz).
+   * Can be called for several files, their counts are summed up.
+   */
+  void count(File input) throws IOException, InterruptedException {
+    BlockingQueue<List<String>> chunks = new ArrayBlockingQueue<>(threads * 2);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      workers.add(executor.submit(new Worker(chunks, maxNgramsInMemory / threads)));
+    }
+    long startTime = System.currentTimeMillis();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(openInput(input), UTF_8))) {
+      List<String> chunk = new ArrayList<>(LINES_PER_CHUNK);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        chunk.add(line);
+        if (chunk.size() == LINES_PER_CHUNK) {
+          putChunk(chunks, chunk, workers);
+          chunk = new ArrayList<>(LINES_PER_CHUNK);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        putChunk(chunks, chunk, workers);
+      }
+      for (int i = 0; i < threads; i++) {
+        putChunk(chunks, Collections.emptyList(), workers);  // tell worker to stop
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IOException("Counting ngrams failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    System.out.printf(Locale.ENGLISH, "Counted %d lines in %ds, %d spill files\n", lineCount.get(),
+      (System.currentTimeMillis() - startTime) / 1000, spillCount.get());
+  }
+
+  private static InputStream openInput(File input) throws IOException {
+    InputStream in = new BufferedInputStream(new FileInputStream(input));
+    try {
+      return new CompressorStreamFactory().createCompressorInputStream(in);
+    } catch (CompressorException e) {
+      return in;  // not compressed
+    }
+  }
+
+  private static void putChunk(BlockingQueue<List<String>> chunks, List<String> chunk, List<Future<?>> workers)
+      throws InterruptedException, ExecutionException {
+    // don't block forever if the workers have failed:
+    while (!chunks.offer(chunk, 1, TimeUnit.SECONDS)) {
+      for (Future<?> worker : workers) {
+        if (worker.isDone()) {
+          worker.get();
+          throw new IllegalStateException("Worker stopped unexpectedly");
+        }
+      }
+    }
+  }
+
+  /**
+   * Merge the spill files and add every ngram with its total count to the index.
+   */
+  void writeIndex(AggregatedNgramToLucene index) throws IOException {
+    for (int i = 0; i < MAX_NGRAM_SIZE; i++) {
+      long startTime = System.currentTimeMillis();
+      List<File> files = reduceSpillFiles(new ArrayList<>(spillFiles.get(i)));
+      long ngrams;
+      try (SpillMerger merger = new SpillMerger(files)) {
+        ngrams = merger.merge(index::addNgram);
+      }
+      deleteAll(files);
+      spillFiles.get(i).clear();
+      System.out.printf(Locale.ENGLISH, "Indexed %d %d-grams in %dms\n", ngrams, i + 1, System.currentTimeMillis() - startTime);
+    }
+    index.addTotalTokenCountDoc();
+  }
+
+  /**
+   * Merge spill files until at most {@code maxMergeFiles} are left.
+   */
+  private List<File> reduceSpillFiles(List<File> files) throws IOException {
+    while (files.size() > maxMergeFiles) {
+      List<File> merged = new ArrayList<>();
+      for (int i = 0; i < files.size(); i += maxMergeFiles) {
+        List<File> group = files.subList(i, Math.min(files.size(), i + maxMergeFiles));
+        File mergedFile = newSpillFile();
+        try (SpillMerger merger = new SpillMerger(group);
+             DataOutputStream out = openSpillOutput(mergedFile)) {
+          merger.merge((ngram, count) -> writeEntry(out, ngram, count));
+        }
+        deleteAll(group);
+        merged.add(mergedFile);
+      }
+      files = merged;
+    }
+    return files;
+  }
+
+  private static void deleteAll(List<File> files) throws IOException {
+    for (File file : files) {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  private File newSpillFile() {
+    return new File(tempDir, "ngram-spill-" + spillCount.incrementAndGet() + ".bin");
+  }
+
+  private static DataOutputStream openSpillOutput(File file) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+  }
+
+  private static void writeEntry(DataOutputStream out, String ngram, long count) throws IOException {
+    out.writeUTF(ngram);
+    out.writeLong(count);
+  }
+
+  /**
+   * Counts the ngrams of the chunks it takes from the queue, spilling its counts when it holds too many ngrams.
+   */
+  private class Worker implements Callable<Void> {
+
+    private final BlockingQueue<List<String>> chunks;
+    private final int maxNgrams;
+    private final SentenceTokenizer sentenceTokenizer = language.getSentenceTokenizer();
+    private final Tokenizer wordTokenizer = new GoogleStyleWordTokenizer();
+    private final List<Object2LongOpenHashMap<String>> ngramToCount = new ArrayList<>();
+
+    Worker(BlockingQueue<List<String>> chunks, int maxNgrams) {
+      this.chunks = chunks;
+      this.maxNgrams = Math.max(1, maxNgrams);
+      for (int i = 0; i < MAX_NGRAM_SIZE; i++) {
+        ngramToCount.add(new Object2LongOpenHashMap<>());
+      }
+    }
+
+    @Override
+    public Void call() throws Exception {
+      List<String> chunk;
+      while (!(chunk = chunks.take()).isEmpty()) {
+        for (String line : chunk) {
+          for (String sentence : sentenceTokenizer.tokenize(line)) {
+            countSentence(sentence);
+          }
+          if (lineCount.incrementAndGet() % 1_000_000 == 0) {
+            System.out.printf(Locale.ENGLISH, "Counting line %d\n", lineCount.get());
+          }
+        }
+        if (size() > maxNgrams) {
+          spill();
+        }
+      }
+      spill();
+      return null;
+    }
+
+    private void countSentence(String sentence) {
+      List<String> tokens = wordTokenizer.tokenize(sentence);
+      tokens.add(0, LanguageModel.GOOGLE_SENTENCE_START);
+      tokens.add(LanguageModel.GOOGLE_SENTENCE_END);
+      String prevPrev = null;
+      String prev = null;
+      for (String token : tokens) {
+        if (token.trim().isEmpty()) {
+          continue;
+        }
+        boolean valid = token.length() <= MAX_TOKEN_LENGTH;
+        if (valid) {
+          ngramToCount.get(0).addTo(token, 1);
+        }
+        if (valid && prev != null && prev.length() <= MAX_TOKEN_LENGTH) {
+          ngramToCount.get(1).addTo(prev + " " + token, 1);
+          if (prevPrev != null && prevPrev.length() <= MAX_TOKEN_LENGTH) {
+            ngramToCount.get(2).addTo(prevPrev + " " + prev + " " + token, 1);
+          }
+        }
+        prevPrev = prev;
+        prev = token;
+      }
+    }
+
+    private int size() {
+      int size = 0;
+      for (Object2LongOpenHashMap<String> map : ngramToCount) {
+        size += map.size();
+      }
+      return size;
+    }
+
+    private void spill() throws IOException {
+      for (int i = 0; i < MAX_NGRAM_SIZE; i++) {
+        Object2LongOpenHashMap<String> map = ngramToCount.get(i);
+        if (map.isEmpty()) {
+          continue;
+        }
+        String[] ngrams = map.keySet().toArray(new String[0]);
+        Arrays.sort(ngrams);
+        File file = newSpillFile();
+        try (DataOutputStream out = openSpillOutput(file)) {
+          for (String ngram : ngrams) {
+            writeEntry(out, ngram, map.getLong(ngram));
+          }
+        }
+        spillFiles.get(i).add(file);
+        map.clear();
+        map.trim();
+      }
+    }
+  }
+
+  interface NgramConsumer {
+    void accept(String ngram, long count) throws IOException;
+  }
+
+  /**
+   * Merges sorted spill files, summing up the counts of equal ngrams.
+   */
+  static class SpillMerger implements Closeable {
+
+    private final PriorityQueue<SpillReader> queue = new PriorityQueue<>(Comparator.comparing((SpillReader r) -> r.ngram));
+    private final List<SpillReader> readers = new ArrayList<>();
+
+    SpillMerger(List<File> files) throws IOException {
+      try {
+        for (File file : files) {
+          SpillReader reader = new SpillReader(file);
+          readers.add(reader);
+          if (reader.next()) {
+            queue.add(reader);
+          }
+        }
+      } catch (IOException e) {
+        close();
+        throw e;
+      }
+    }
+
+    /**
+     * @return the number of distinct ngrams
+     */
+    long merge(NgramConsumer consumer) throws IOException {
+      long distinct = 0;
+      while (!queue.isEmpty()) {
+        SpillReader reader = queue.poll();
+        String ngram = reader.ngram;
+        long count = reader.count;
+        advance(reader);
+        while (!queue.isEmpty() && queue.peek().ngram.equals(ngram)) {
+          SpillReader same = queue.poll();
+          count += same.count;
+          advance(same);
+        }
+        consumer.accept(ngram, count);
+        distinct++;
+      }
+      return distinct;
+    }
+
+    private void advance(SpillReader reader) throws IOException {
+      if (reader.next()) {
+        queue.add(reader);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (SpillReader reader : readers) {
+        reader.in.close();
+      }
+    }
+  }
+
+  private static class SpillReader {
+
+    private final DataInputStream in;
+    private String ngram;
+    private long count;
+
+    SpillReader(File file) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+    }
+
+    boolean next() throws IOException {
+      try {
+        ngram = in.readUTF();
+      } catch (EOFException e) {
+        return false;
+      }
+      count = in.readLong();
+      return true;
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 3 || args.length > 5) {
+      System.out.println("Usage: " + NgramAggregator.class.getSimpleName() + " <langCode> <input> <ngramIndexDir> [threads] [maxNgramsInMemory]");
+      System.out.println(" <input> a file with one text per line, plain or compressed (e.g. the .xz files from http://data.statmt.org/ngrams/)");
+      System.out.println(" <ngramIndexDir> the directory to write the index to, must not contain an index yet");
+      System.out.println(" [threads] number of counting threads, default: number of processors");
+      System.out.println(" [maxNgramsInMemory] distinct ngrams held in memory before spilling to disk, default: 20000000");
+      System.exit(1);
+    }
+    Language language = Languages.getLanguageForShortCode(args[0]);
+    File input = new File(args[1]);
+    File indexDir = new File(args[2]);
+    int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+    int maxNgramsInMemory = args.length > 4 ? Integer.parseInt(args[4]) : 20_000_000;
+    File tempDir = Files.createTempDirectory(indexDir.getAbsoluteFile().getParentFile().toPath(), "ngram-spill").toFile();
+    try {
+      NgramAggregator aggregator = new NgramAggregator(language, tempDir, threads, maxNgramsInMemory);
+      aggregator.count(input);
+      try (AggregatedNgramToLucene index = new AggregatedNgramToLucene(indexDir)) {
+        aggregator.writeIndex(index);
+      }
+    } finally {
+      File[] files = tempDir.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          Files.deleteIfExists(file.toPath());
+        }
+      }
+      Files.deleteIfExists(tempDir.toPath());
+    }
+  }
+
+}
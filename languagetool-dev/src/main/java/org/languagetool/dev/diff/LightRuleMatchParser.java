@@ -25,6 +25,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,10 +39,25 @@ class LightRuleMatchParser {
   private final Pattern coverPattern = Pattern.compile("^([ ^]+)$");
 
   JsonParseResult parseOutput(File inputFile) throws IOException {
+    List<LightRuleMatch> ruleMatches = new ArrayList<>();
+    Set<String> buildDates = parseOutput(inputFile, ruleMatches::add);
+    return new JsonParseResult(ruleMatches, buildDates);
+  }
+
+  /**
+   * Like {@link #parseOutput(File)}, but hands each match to {@code consumer} as soon as it has
+   * been parsed instead of collecting all matches in memory.
+   * @return the build dates of the LT versions that created the output
+   * @since 6.4
+   */
+  Set<String> parseOutput(File inputFile, Consumer<LightRuleMatch> consumer) throws IOException {
     if (inputFile.getName().endsWith(".json")) {
-      return parseAggregatedJson(inputFile);
+      return parseAggregatedJson(inputFile, consumer);
     } else {
-      return parseOutput(new FileReader(inputFile));
+      try (Reader reader = new FileReader(inputFile)) {
+        parseOutput(reader, consumer);
+      }
+      return Collections.singleton("unknown");
     }
   }
 
@@ -49,10 +65,9 @@ class LightRuleMatchParser {
    * Parses LT JSON that has been appended into a large file (one JSON result per line).
    */
   @NotNull
-  private JsonParseResult parseAggregatedJson(File inputFile) {
+  private Set<String> parseAggregatedJson(File inputFile, Consumer<LightRuleMatch> consumer) {
     System.out.println("Parsing " + inputFile + "...");
     ObjectMapper mapper = new ObjectMapper();
-    List<LightRuleMatch> ruleMatches = new ArrayList<>();
     Set<String> buildDates = new HashSet<>();
     int lineCount = 1;
     try (Scanner scanner = new Scanner(inputFile)) {
@@ -64,14 +79,14 @@ class LightRuleMatchParser {
         String buildDate = software != null ? software.get("buildDate").asText() : "unknown";
         buildDates.add(buildDate);
         for (JsonNode match : matches) {
-          ruleMatches.add(nodeToLightMatch(node.get("title").asText(), match));
+          consumer.accept(nodeToLightMatch(node.get("title").asText(), match));
         }
         lineCount++;
       }
     } catch (Exception e) {
       throw new RuntimeException("Failed to parse line " + lineCount + " of " + inputFile, e);
     }
-    return new JsonParseResult(ruleMatches, buildDates);
+    return buildDates;
   }
 
   @NotNull
@@ -147,6 +162,11 @@ class LightRuleMatchParser {
 
   JsonParseResult parseOutput(Reader reader) {
     List<LightRuleMatch> result = new ArrayList<>();
+    parseOutput(reader, result::add);
+    return new JsonParseResult(result, Collections.singleton("unknown"));
+  }
+
+  private void parseOutput(Reader reader, Consumer<LightRuleMatch> consumer) {
     int lineNum = -1;
     int columnNum = -1;
     String ruleId = null;
@@ -197,7 +217,7 @@ class LightRuleMatchParser {
         }
         String cleanId = ruleId.replace("[off]", "").replace("[temp_off]", "");
         List<String> tags = new ArrayList<>();  // not supported yet...
-        result.add(makeMatch(lineNum, columnNum, ruleId, cleanId, message, Arrays.asList(suggestion), context, coveredText, title, source, tags, isPremium));
+        consumer.accept(makeMatch(lineNum, columnNum, ruleId, cleanId, message, Arrays.asList(suggestion), context, coveredText, title, source, tags, isPremium));
         lineNum = -1;
         columnNum = -1;
         ruleId = null;
@@ -208,7 +228,6 @@ class LightRuleMatchParser {
         // don't reset title, can appear more than once per sentence
       }
     }
-    return new JsonParseResult(result, Collections.singleton("unknown"));
   }
 
   @NotNull
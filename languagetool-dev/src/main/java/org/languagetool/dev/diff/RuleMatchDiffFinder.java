@@ -42,9 +42,19 @@ public class RuleMatchDiffFinder {
   private static final int IFRAME_MAX = -1;
 
   private boolean fullMode;
+  private boolean streaming;
 
   List<RuleMatchDiff> getDiffs(List<LightRuleMatch> l1, List<LightRuleMatch> l2) {
-    System.out.println("Comparing result 1 (" + l1.size() + " matches) to result 2 (" + l2.size() + " matches), step 1");
+    return getDiffs(l1, l2, true);
+  }
+
+  /**
+   * @param printProgress whether to print the progress, turned off for the partitions of {@link StreamingDiffFinder}
+   */
+  List<RuleMatchDiff> getDiffs(List<LightRuleMatch> l1, List<LightRuleMatch> l2, boolean printProgress) {
+    if (printProgress) {
+      System.out.println("Comparing result 1 (" + l1.size() + " matches) to result 2 (" + l2.size() + " matches), step 1");
+    }
     //debugList("List 1", l1);
     //debugList("List 2", l2);
     List<RuleMatchDiff> result = new ArrayList<>();
@@ -64,7 +74,9 @@ public class RuleMatchDiffFinder {
         result.add(RuleMatchDiff.added(match));
       }
     }
-    System.out.println("Comparing result 1 (" + l1.size() + " matches) to result 2 (" + l2.size() + " matches), step 2");
+    if (printProgress) {
+      System.out.println("Comparing result 1 (" + l1.size() + " matches) to result 2 (" + l2.size() + " matches), step 2");
+    }
     Map<String, List<RuleMatchDiff>> addedToMatch = getAddedMatchesMap(result);
     Map<MatchKey, LightRuleMatch> newMatches = getMatchMap(l2);
     for (LightRuleMatch match : l1) {
@@ -391,17 +403,44 @@ public class RuleMatchDiffFinder {
     fw.write("</table>\n\n");
   }
 
-  private void run(LightRuleMatchParser parser, File file1, File file2, File outputDir, String langCode, String date) throws IOException {
+  void run(LightRuleMatchParser parser, File file1, File file2, File outputDir, String langCode, String date) throws IOException {
     if (file1.getName().equals("empty.json")) {
       fullMode = true;
     }
+    if (streaming) {
+      new StreamingDiffFinder(this).run(parser, file1, file2, outputDir, langCode, date);
+      return;
+    }
     LightRuleMatchParser.JsonParseResult jsonParseResult1 = parser.parseOutput(file1);
     List<LightRuleMatch> l1 = jsonParseResult1.result;
     LightRuleMatchParser.JsonParseResult jsonParseResult2 = parser.parseOutput(file2);
     List<LightRuleMatch> l2 = jsonParseResult2.result;
-    String title = "Comparing " + file1.getName() + " to " + file2.getName();
+    String title = getTitle(file1, file2);
     System.out.println(title);
     List<RuleMatchDiff> diffs = getDiffs(l1, l2);
+    sortDiffs(diffs);
+    System.out.println("Total diffs found: " + diffs.size());
+    Map<String, List<RuleMatchDiff>> keyToDiffs = groupDiffs(diffs);
+    List<OutputFile> outputFiles = new ArrayList<>();
+    for (Map.Entry<String, List<RuleMatchDiff>> entry : keyToDiffs.entrySet()) {
+      outputFiles.add(writeRuleFile(title, outputDir, entry.getKey(), entry.getValue(), langCode, date));
+    }
+    writeIndex(outputDir, outputFiles, jsonParseResult1.buildDates, jsonParseResult2.buildDates, langCode);
+  }
+
+  /**
+   * Use {@link StreamingDiffFinder}, which doesn't need to keep the matches in memory.
+   * @since 6.4
+   */
+  void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  String getTitle(File file1, File file2) {
+    return "Comparing " + file1.getName() + " to " + file2.getName();
+  }
+
+  void sortDiffs(List<RuleMatchDiff> diffs) {
     diffs.sort((k, j) -> {
         int idDiff = getFullId(k).compareTo(getFullId(j));
         if (idDiff == 0) {
@@ -415,26 +454,30 @@ public class RuleMatchDiffFinder {
         return idDiff;
       }
     );
-    System.out.println("Total diffs found: " + diffs.size());
-    Map<String, List<RuleMatchDiff>> keyToDiffs = groupDiffs(diffs);
-    List<OutputFile> outputFiles = new ArrayList<>();
-    for (Map.Entry<String, List<RuleMatchDiff>> entry : keyToDiffs.entrySet()) {
-      String filename = "result_" + entry.getKey().replaceAll("/", "_").replaceAll("[\\s_]+", "_") + ".html";
-      /*if (filename.length() > 100) {
-        System.out.println("WARN: Skipping " + filename);
-        continue;
-      }*/
-      File outputFile = new File(outputDir, filename);
-      if (entry.getValue().size() > 0) {
-        outputFiles.add(new OutputFile(outputFile, entry.getValue()));
-      }
-      try (FileWriter fw = new FileWriter(outputFile)) {
-        System.out.println("Writing result to " + outputFile);
-        printHeader(title, fw);
-        printDiffs(entry.getValue(), fw, langCode, date, filename, entry.getKey());
-        printFooter(fw);
-      }
+  }
+
+  /**
+   * Write the HTML file with the diffs of one rule.
+   * @param key the rule key as created by {@link #getRuleKey(RuleMatchDiff)}
+   * @param diffs the diffs of that rule, sorted with {@link #sortDiffs(List)}
+   */
+  OutputFile writeRuleFile(String title, File outputDir, String key, List<RuleMatchDiff> diffs, String langCode, String date) throws IOException {
+    String filename = "result_" + key.replaceAll("/", "_").replaceAll("[\\s_]+", "_") + ".html";
+    /*if (filename.length() > 100) {
+      System.out.println("WARN: Skipping " + filename);
+      continue;
+    }*/
+    File outputFile = new File(outputDir, filename);
+    try (FileWriter fw = new FileWriter(outputFile)) {
+      System.out.println("Writing result to " + outputFile);
+      printHeader(title, fw);
+      printDiffs(diffs, fw, langCode, date, filename, key);
+      printFooter(fw);
     }
+    return new OutputFile(outputFile, diffs);
+  }
+
+  void writeIndex(File outputDir, List<OutputFile> outputFiles, Set<String> buildDates1, Set<String> buildDates2, String langCode) throws IOException {
     try (FileWriter fw = new FileWriter(new File(outputDir, "index.html"))) {
       printHeader("Overview of regression results", fw);
       fw.write("<table class='sortable_table'>\n");
@@ -454,48 +497,33 @@ public class RuleMatchDiffFinder {
       fw.write("</thead>");
       fw.write("<tbody>\n");
       outputFiles.sort((f1, f2) -> {
-          long added1 = f1.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.ADDED).count();
-          long added2 = f2.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.ADDED).count();
-          if (added2 == added1) {
-            long removed1 = f1.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.REMOVED).count();
-            long removed2 = f2.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.REMOVED).count();
-            return Long.compare(removed2, removed1);
+          if (f2.added != f1.added) {
+            return Long.compare(f2.added, f1.added);
+          } else if (f2.removed != f1.removed) {
+            return Long.compare(f2.removed, f1.removed);
           } else {
-            return Long.compare(added2, added1);
+            return f1.file.getName().compareTo(f2.file.getName());
           }
         }
       );
       for (OutputFile outputFile : outputFiles) {
         String file = outputFile.file.getName();
+        LightRuleMatch firstMatch = outputFile.firstMatch;
         fw.write("<tr>");
-        fw.write("<td>" + outputFile.items.size() + "</td>");
-        long added = outputFile.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.ADDED).count();
-        fw.write("<td " + (added > 0 ? "style='background-color: #c7ffd0'" : "") + ">" + added + "</td>");
-        long removed = outputFile.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.REMOVED).count();
-        fw.write("<td " + (removed > 0 ? "style='background-color: #ffd2d8'" : "") + ">" + removed + "</td>");
-        fw.write("<td>" + outputFile.items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.MODIFIED).count() + "</td>");
+        fw.write("<td>" + outputFile.total + "</td>");
+        fw.write("<td " + (outputFile.added > 0 ? "style='background-color: #c7ffd0'" : "") + ">" + outputFile.added + "</td>");
+        fw.write("<td " + (outputFile.removed > 0 ? "style='background-color: #ffd2d8'" : "") + ">" + outputFile.removed + "</td>");
+        fw.write("<td>" + outputFile.modified + "</td>");
         fw.write("<td>");
         fw.write(file.replaceFirst("result_", "").replaceFirst("_.*", ""));
         fw.write("</td>");
-        if (outputFile.items.size() > 0 && outputFile.items.get(0).getNewMatch() != null) {
-          fw.write("<td>" + (outputFile.items.get(0).getNewMatch().getTags().contains("picky") ? "p" : "") + "</td>");
-        } else if (outputFile.items.size() > 0 && outputFile.items.get(0).getOldMatch() != null) {
-          fw.write("<td>" + (outputFile.items.get(0).getOldMatch().getTags().contains("picky") ? "p" : "") + "</td>");
+        if (firstMatch != null) {
+          fw.write("<td>" + (firstMatch.getTags().contains("picky") ? "p" : "") + "</td>");
+          fw.write("<td>" + (firstMatch.getStatus() == LightRuleMatch.Status.temp_off ? "t" : "") + "</td>");
+          fw.write("<td>" + (firstMatch.isPremium() ? "prem" : "") + "</td>");
         } else {
           fw.write("<td></td>");
-        }
-        if (outputFile.items.size() > 0 && outputFile.items.get(0).getNewMatch() != null) {
-          fw.write("<td>" + (outputFile.items.get(0).getNewMatch().getStatus() == LightRuleMatch.Status.temp_off ? "t" : "") + "</td>");
-        } else if (outputFile.items.size() > 0 && outputFile.items.get(0).getOldMatch() != null) {
-          fw.write("<td>" + (outputFile.items.get(0).getOldMatch().getStatus() == LightRuleMatch.Status.temp_off ? "t" : "") + "</td>");
-        } else {
           fw.write("<td></td>");
-        }
-        if (outputFile.items.size() > 0 && outputFile.items.get(0).getNewMatch() != null) {
-          fw.write("<td>" + (outputFile.items.get(0).getNewMatch().isPremium() ? "prem" : "") + "</td>");
-        } else if (outputFile.items.size() > 0 && outputFile.items.get(0).getOldMatch() != null) {
-          fw.write("<td>" + (outputFile.items.get(0).getOldMatch().isPremium() ? "prem" : "") + "</td>");
-        } else {
           fw.write("<td></td>");
         }
         fw.write("<td>");
@@ -503,10 +531,8 @@ public class RuleMatchDiffFinder {
         fw.write("  <a href='" + enc(file) + "'>" + id + "</a>");
         fw.write("  " + getAnalyticsLink(id, langCode));
         fw.write("</td>");
-        if (outputFile.items.size() > 0 && outputFile.items.get(0).getNewMatch() != null) {
-          fw.write("<td class='msg'>" + escapeSentence(outputFile.items.get(0).getNewMatch().getMessage()) + "</td>");
-        } else if (outputFile.items.size() > 0 && outputFile.items.get(0).getOldMatch() != null) {
-          fw.write("<td class='msg'>" + escapeSentence(outputFile.items.get(0).getOldMatch().getMessage()) + "</td>");
+        if (firstMatch != null) {
+          fw.write("<td class='msg'>" + escapeSentence(firstMatch.getMessage()) + "</td>");
         } else {
           fw.write("<td></td>");
         }
@@ -515,34 +541,53 @@ public class RuleMatchDiffFinder {
       fw.write("</tbody>");
       fw.write("</table>\n\n");
       fw.write("<br><table class='meta'>\n");
-      fw.write("  <tr><td>Old API:</td> <td>" + jsonParseResult1.buildDates + "</td></tr>\n");
-      fw.write("  <tr><td>New API:</td> <td>" + jsonParseResult2.buildDates + "</td></tr>\n");
+      fw.write("  <tr><td>Old API:</td> <td>" + buildDates1 + "</td></tr>\n");
+      fw.write("  <tr><td>New API:</td> <td>" + buildDates2 + "</td></tr>\n");
       fw.write("</table>\n");
       printFooterForIndex(fw);
     }
   }
 
+  /**
+   * The summary of the diffs of one rule, as needed for the index page.
+   */
   static class OutputFile {
-    File file;
-    List<RuleMatchDiff> items;
+    final File file;
+    final int total;
+    final long added;
+    final long removed;
+    final long modified;
+    final LightRuleMatch firstMatch;
 
     OutputFile(File file, List<RuleMatchDiff> items) {
       this.file = file;
-      this.items = items;
+      this.total = items.size();
+      this.added = items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.ADDED).count();
+      this.removed = items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.REMOVED).count();
+      this.modified = items.stream().filter(k -> k.getStatus() == RuleMatchDiff.Status.MODIFIED).count();
+      if (items.isEmpty()) {
+        firstMatch = null;
+      } else {
+        firstMatch = items.get(0).getNewMatch() != null ? items.get(0).getNewMatch() : items.get(0).getOldMatch();
+      }
+    }
+  }
+
+  String getRuleKey(RuleMatchDiff diff) {
+    if (diff.getOldMatch() != null) {
+      return cleanSource(diff.getOldMatch().getRuleSource()) + " / " + diff.getOldMatch().getFullRuleId();
+    } else {
+      return cleanSource(diff.getNewMatch().getRuleSource()) + " / " + diff.getNewMatch().getFullRuleId();
     }
   }
 
-  private Map<String, List<RuleMatchDiff>> groupDiffs(List<RuleMatchDiff> diffs) {
+  Map<String, List<RuleMatchDiff>> groupDiffs(List<RuleMatchDiff> diffs) {
     Map<String, List<RuleMatchDiff>> keyToDiffs = new TreeMap<>();
     String key;
     String prevKey = "";
     List<RuleMatchDiff> l = new ArrayList<>();
     for (RuleMatchDiff diff : diffs) {
-      if (diff.getOldMatch() != null) {
-        key = cleanSource(diff.getOldMatch().getRuleSource()) + " / " + diff.getOldMatch().getFullRuleId();
-      } else {
-        key = cleanSource(diff.getNewMatch().getRuleSource()) + " / " + diff.getNewMatch().getFullRuleId();
-      }
+      key = getRuleKey(diff);
       if (!key.equals(prevKey) && l.size() > 0) {
         keyToDiffs.put(prevKey, l);
         l = new ArrayList<>();
@@ -631,15 +676,21 @@ public class RuleMatchDiffFinder {
   }
 
   private static void printUsageAndExit() {
-    System.out.println("Usage: " + RuleMatchDiffFinder.class.getSimpleName() + " <matches1> <matches2> <resultDir> <date>");
+    System.out.println("Usage: " + RuleMatchDiffFinder.class.getSimpleName() + " [--streaming] <matches1> <matches2> <resultDir> <date>");
     System.out.println(" <matches1> and <matches2> are text outputs of different versions of org.languagetool.dev.dumpcheck.SentenceSourceChecker run on the same input");
     System.out.println("                           or JSON outputs from org.languagetool.dev.httpchecker.HttpApiSentenceChecker");
+    System.out.println(" --streaming: for inputs too large to fit into memory, diffs are also written to <resultDir>/diffs.json");
     System.exit(1);
   }
 
   public static void main(String[] args) throws IOException {
     RuleMatchDiffFinder diffFinder = new RuleMatchDiffFinder();
     LightRuleMatchParser parser = new LightRuleMatchParser();
+    if (args.length > 0 && args[0].equals("--streaming")) {
+      System.out.println("Running in streaming mode, matches are not kept in memory");
+      diffFinder.setStreaming(true);
+      args = Arrays.copyOfRange(args, 1, args.length);
+    }
     if (args.length == 0) {
       printUsageAndExit();
     }
@@ -673,9 +724,10 @@ public class RuleMatchDiffFinder {
       }
     } else {
       if (args.length != 5) {
-        System.out.println("Usage: " + RuleMatchDiffFinder.class.getSimpleName() + " <matches1> <matches2> <resultDir> <langCode> <date>");
+        System.out.println("Usage: " + RuleMatchDiffFinder.class.getSimpleName() + " [--streaming] <matches1> <matches2> <resultDir> <langCode> <date>");
         System.out.println(" <matches1> and <matches2> are text outputs of different versions of org.languagetool.dev.dumpcheck.SentenceSourceChecker run on the same input");
         System.out.println("                           or JSON outputs from org.languagetool.dev.httpchecker.HttpApiSentenceChecker");
+        System.out.println(" --streaming: for inputs too large to fit into memory, diffs are also written to <resultDir>/diffs.json");
         System.exit(1);
       }
       File file1 = new File(args[0]);
@@ -0,0 +1,293 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.diff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Diff mode for result files that are too large to be kept in memory. Both inputs are split by
+ * document title into partition files on disk, so each partition can be diffed on its own with
+ * {@link RuleMatchDiffFinder#getDiffs(List, List)} - matches are never compared across titles.
+ * The diffs are written to {@code diffs.json} (one diff per line) as soon as they are found and
+ * re-partitioned by rule, so the HTML page of each rule can be written in parallel. Memory use is
+ * bounded by the size of one partition per thread, not by the size of the input. Text output without
+ * titles cannot be split and ends up in a single partition.
+ * @since 6.4
+ */
+class StreamingDiffFinder {
+
+  private static final long BYTES_PER_PARTITION = 32 * 1024 * 1024;
+  private static final int MAX_PARTITIONS = 512;  // each one is an open file while partitioning
+
+  private final RuleMatchDiffFinder finder;
+  private final int threads;
+  private final int partitions;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  StreamingDiffFinder(RuleMatchDiffFinder finder) {
+    this(finder, Runtime.getRuntime().availableProcessors(), 0);
+  }
+
+  /**
+   * @param partitions the number of partitions, or {@code 0} to derive it from the input size
+   */
+  StreamingDiffFinder(RuleMatchDiffFinder finder, int threads, int partitions) {
+    this.finder = Objects.requireNonNull(finder);
+    this.threads = Math.max(1, threads);
+    this.partitions = partitions;
+  }
+
+  void run(LightRuleMatchParser parser, File file1, File file2, File outputDir, String langCode, String date) throws IOException {
+    int partitionCount = partitions > 0 ? partitions :
+      (int) Math.min(MAX_PARTITIONS, 1 + (file1.length() + file2.length()) / BYTES_PER_PARTITION);
+    String title = finder.getTitle(file1, file2);
+    System.out.println(title + " (streaming, " + partitionCount + " partitions, " + threads + " threads)");
+    File tempDir = Files.createTempDirectory("rule-match-diff").toFile();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Set<String> buildDates1;
+      Set<String> buildDates2;
+      try (Partitions oldMatches = new Partitions(tempDir, "old", partitionCount);
+           Partitions newMatches = new Partitions(tempDir, "new", partitionCount)) {
+        buildDates1 = parser.parseOutput(file1, match -> oldMatches.write(getPartitionKey(match), toJson(match)));
+        buildDates2 = parser.parseOutput(file2, match -> newMatches.write(getPartitionKey(match), toJson(match)));
+      }
+      System.out.println("Comparing result 1 to result 2 in " + partitionCount + " partitions");
+      long diffCount = findDiffs(executor, tempDir, partitionCount, outputDir);
+      System.out.println("Total diffs found: " + diffCount);
+      List<RuleMatchDiffFinder.OutputFile> outputFiles = writeRuleFiles(executor, tempDir, partitionCount, title, outputDir, langCode, date);
+      finder.writeIndex(outputDir, outputFiles, buildDates1, buildDates2, langCode);
+    } finally {
+      executor.shutdownNow();
+      FileUtils.deleteQuietly(tempDir);
+    }
+  }
+
+  /**
+   * Matches that {@link MatchKey} considers equal must end up in the same partition, so use the same title.
+   */
+  @Nullable
+  private static String getPartitionKey(LightRuleMatch match) {
+    return match.getTitle() != null ? match.getTitle().trim() : null;
+  }
+
+  private long findDiffs(ExecutorService executor, File tempDir, int partitionCount, File outputDir) throws IOException {
+    List<Future<Integer>> futures = new ArrayList<>();
+    try (Partitions ruleDiffs = new Partitions(tempDir, "diffs", partitionCount);
+         Writer report = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(outputDir, "diffs.json")), StandardCharsets.UTF_8))) {
+      for (int i = 0; i < partitionCount; i++) {
+        int partition = i;
+        futures.add(executor.submit(() -> {
+          List<LightRuleMatch> l1 = readMatches(Partitions.getFile(tempDir, "old", partition));
+          List<LightRuleMatch> l2 = readMatches(Partitions.getFile(tempDir, "new", partition));
+          List<RuleMatchDiff> diffs = finder.getDiffs(l1, l2, false);
+          for (RuleMatchDiff diff : diffs) {
+            String json = toJson(diff);
+            synchronized (report) {
+              report.write(json);
+              report.write('\n');
+            }
+            ruleDiffs.write(finder.getRuleKey(diff), json);
+          }
+          return diffs.size();
+        }));
+      }
+      long diffCount = 0;
+      for (Future<Integer> future : futures) {
+        diffCount += get(future);
+      }
+      return diffCount;
+    }
+  }
+
+  private List<RuleMatchDiffFinder.OutputFile> writeRuleFiles(ExecutorService executor, File tempDir, int partitionCount,
+                                                             String title, File outputDir, String langCode, String date) throws IOException {
+    List<Future<List<RuleMatchDiffFinder.OutputFile>>> futures = new ArrayList<>();
+    for (int i = 0; i < partitionCount; i++) {
+      int partition = i;
+      futures.add(executor.submit(() -> {
+        List<RuleMatchDiff> diffs = readDiffs(Partitions.getFile(tempDir, "diffs", partition));
+        finder.sortDiffs(diffs);
+        List<RuleMatchDiffFinder.OutputFile> outputFiles = new ArrayList<>();
+        for (Map.Entry<String, List<RuleMatchDiff>> entry : finder.groupDiffs(diffs).entrySet()) {
+          outputFiles.add(finder.writeRuleFile(title, outputDir, entry.getKey(), entry.getValue(), langCode, date));
+        }
+        return outputFiles;
+      }));
+    }
+    List<RuleMatchDiffFinder.OutputFile> result = new ArrayList<>();
+    for (Future<List<RuleMatchDiffFinder.OutputFile>> future : futures) {
+      result.addAll(get(future));
+    }
+    return result;
+  }
+
+  private static <T> T get(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private List<LightRuleMatch> readMatches(File file) throws IOException {
+    List<LightRuleMatch> result = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        result.add(fromJson(mapper.readTree(line)));
+      }
+    }
+    return result;
+  }
+
+  private List<RuleMatchDiff> readDiffs(File file) throws IOException {
+    List<RuleMatchDiff> result = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        JsonNode node = mapper.readTree(line);
+        LightRuleMatch oldMatch = fromJson(node.get("oldMatch"));
+        LightRuleMatch newMatch = fromJson(node.get("newMatch"));
+        RuleMatchDiff diff;
+        switch (RuleMatchDiff.Status.valueOf(node.get("status").asText())) {
+          case ADDED: diff = RuleMatchDiff.added(newMatch); break;
+          case REMOVED: diff = RuleMatchDiff.removed(oldMatch, fromJson(node.get("replacedBy"))); break;
+          default: diff = RuleMatchDiff.modified(oldMatch, newMatch);
+        }
+        diff.setReplaces(fromJson(node.get("replaces")));
+        result.add(diff);
+      }
+    }
+    return result;
+  }
+
+  private String toJson(RuleMatchDiff diff) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("status", diff.getStatus().name());
+    node.set("oldMatch", toNode(diff.getOldMatch()));
+    node.set("newMatch", toNode(diff.getNewMatch()));
+    node.set("replacedBy", toNode(diff.getReplacedBy()));
+    node.set("replaces", toNode(diff.getReplaces()));
+    return node.toString();
+  }
+
+  private String toJson(LightRuleMatch match) {
+    return toNode(match).toString();
+  }
+
+  private JsonNode toNode(@Nullable LightRuleMatch match) {
+    if (match == null) {
+      return mapper.nullNode();
+    }
+    ObjectNode node = mapper.createObjectNode();
+    node.put("line", match.getLine());
+    node.put("column", match.getColumn());
+    node.put("ruleId", match.getFullRuleId());
+    node.put("message", match.getMessage());
+    node.put("category", match.getCategoryName());
+    node.put("context", match.getContext());
+    node.put("coveredText", match.getCoveredText());
+    ArrayNode suggestions = node.putArray("suggestions");
+    match.getSuggestions().forEach(suggestions::add);
+    node.put("ruleSource", match.getRuleSource());
+    node.put("title", match.getTitle());
+    node.put("status", match.getStatus().name());
+    ArrayNode tags = node.putArray("tags");
+    match.getTags().forEach(tags::add);
+    node.put("premium", match.isPremium());
+    return node;
+  }
+
+  @Nullable
+  private static LightRuleMatch fromJson(@Nullable JsonNode node) {
+    if (node == null || node.isNull()) {
+      return null;
+    }
+    List<String> suggestions = new ArrayList<>();
+    node.get("suggestions").forEach(s -> suggestions.add(s.isNull() ? null : s.asText()));
+    List<String> tags = new ArrayList<>();
+    node.get("tags").forEach(t -> tags.add(t.asText()));
+    return new LightRuleMatch(node.get("line").asInt(), node.get("column").asInt(), node.get("ruleId").asText(),
+      node.get("message").asText(), node.get("category").asText(), node.get("context").asText(),
+      node.get("coveredText").asText(), suggestions, textOrNull(node.get("ruleSource")), textOrNull(node.get("title")),
+      LightRuleMatch.Status.valueOf(node.get("status").asText()), tags, node.get("premium").asBoolean());
+  }
+
+  @Nullable
+  private static String textOrNull(@Nullable JsonNode node) {
+    return node == null || node.isNull() ? null : node.asText();
+  }
+
+  /**
+   * A set of files on disk, one JSON object per line, that lines are assigned to by the hash of a key.
+   */
+  private static class Partitions implements Closeable {
+
+    private final Writer[] writers;
+
+    Partitions(File dir, String name, int count) throws IOException {
+      writers = new Writer[count];
+      for (int i = 0; i < count; i++) {
+        writers[i] = Files.newBufferedWriter(getFile(dir, name, i).toPath(), StandardCharsets.UTF_8);
+      }
+    }
+
+    static File getFile(File dir, String name, int partition) {
+      return new File(dir, name + "-" + partition + ".json");
+    }
+
+    void write(@Nullable String key, String json) {
+      Writer writer = writers[key == null ? 0 : Math.floorMod(key.hashCode(), writers.length)];
+      try {
+        synchronized (writer) {
+          writer.write(json);
+          writer.write('\n');
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (Writer writer : writers) {
+        writer.close();
+      }
+    }
+  }
+
+}
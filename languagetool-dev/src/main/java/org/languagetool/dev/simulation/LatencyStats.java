@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.simulation;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms of the requests sent by {@link LoadGenerator}, per language and text size.
+ * Values are recorded in microseconds.
+ * @since 6.4
+ */
+class LatencyStats {
+
+  private static final int[] SIZE_LIMITS = {50, 200, 1000, 5000};
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Map<String, Histogram> responseTimes = new ConcurrentSkipListMap<>();
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+  private final Histogram allResponseTimes = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+  private final Histogram allServiceTimes = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+  private final LongAdder allErrors = new LongAdder();
+
+  /**
+   * @param responseNanos time from when the request should have been sent until the response arrived
+   * @param serviceNanos time from when the request was actually sent until the response arrived
+   */
+  void record(String language, int textLength, long responseNanos, long serviceNanos, boolean success) {
+    String key = getKey(language, textLength);
+    if (success) {
+      long responseMicros = TimeUnit.NANOSECONDS.toMicros(responseNanos);
+      responseTimes.computeIfAbsent(key, k -> new ConcurrentHistogram(SIGNIFICANT_DIGITS)).recordValue(responseMicros);
+      allResponseTimes.recordValue(responseMicros);
+      allServiceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceNanos));
+    } else {
+      errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+      allErrors.increment();
+    }
+  }
+
+  static String getKey(String language, int textLength) {
+    for (int i = 0; i < SIZE_LIMITS.length; i++) {
+      if (textLength < SIZE_LIMITS[i]) {
+        return language + " " + (i == 0 ? 0 : SIZE_LIMITS[i - 1]) + "-" + (SIZE_LIMITS[i] - 1);
+      }
+    }
+    return language + " " + SIZE_LIMITS[SIZE_LIMITS.length - 1] + "+";
+  }
+
+  long getRequests() {
+    return allResponseTimes.getTotalCount() + allErrors.sum();
+  }
+
+  long getErrors() {
+    return allErrors.sum();
+  }
+
+  Histogram getResponseTimes() {
+    return allResponseTimes;
+  }
+
+  void print(PrintStream out) {
+    out.printf("%-20s%10s%8s%10s%10s%10s%10s%n", "Language/chars", "Requests", "Errors", "p50", "p99", "p99.9", "max");
+    for (Map.Entry<String, Histogram> entry : responseTimes.entrySet()) {
+      LongAdder keyErrors = errors.get(entry.getKey());
+      printLine(out, entry.getKey(), entry.getValue(), keyErrors != null ? keyErrors.sum() : 0);
+    }
+    for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+      if (!responseTimes.containsKey(entry.getKey())) {
+        out.printf("%-20s%10d%8d%n", entry.getKey(), entry.getValue().sum(), entry.getValue().sum());
+      }
+    }
+    printLine(out, "all", allResponseTimes, allErrors.sum());
+    printLine(out, "all (service time)", allServiceTimes, allErrors.sum());
+    out.println("(times in ms; service time doesn't include the time a request waited to be sent)");
+  }
+
+  private static void printLine(PrintStream out, String label, Histogram histogram, long errors) {
+    out.printf(Locale.ENGLISH, "%-20s%10d%8d%10.1f%10.1f%10.1f%10.1f%n", label, histogram.getTotalCount() + errors, errors,
+      millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+      millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+}
@@ -0,0 +1,246 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.simulation;
+
+import org.languagetool.dev.simulation.TypingSession.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Open-loop load generator for the HTTP API, to be used against a local server for capacity planning.
+ * Many virtual users replay typing sessions, and requests are started at a fixed rate no matter
+ * how fast the server answers - so, unlike with {@link TypingSimulator}, an overloaded server makes
+ * requests queue up instead of slowing down the load. Latency is measured from the time a request was
+ * scheduled, not from the time it was actually sent, so the waiting time of queued requests is not hidden
+ * (coordinated omission). Latency percentiles are reported per language and text size.
+ * @since 6.4
+ */
+public class LoadGenerator {
+
+  private static final long STOP = Long.MIN_VALUE;
+  private static final int TIMEOUT_MILLIS = 60_000;
+
+  private final String apiUrl;
+  private final List<TypingSession> sessions;
+  private final AtomicInteger nextSession = new AtomicInteger();
+  private final LatencyStats stats = new LatencyStats();
+
+  LoadGenerator(String apiUrl, List<TypingSession> sessions) {
+    if (sessions.isEmpty()) {
+      throw new IllegalArgumentException("No sessions to replay");
+    }
+    this.apiUrl = apiUrl;
+    this.sessions = sessions;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length == 0 || args.length % 2 != 0) {
+      System.out.println("Usage: " + LoadGenerator.class.getSimpleName() + " [options]");
+      System.out.println("  --sessions FILE     recorded sessions to replay, see TypingSession for the format");
+      System.out.println("  --corpus FILE       a file with one sentence per line to simulate typing sessions from");
+      System.out.println("  --language CODE     the language of the corpus (default: en-US)");
+      System.out.println("  --save FILE         save the simulated sessions, so they can be replayed with --sessions");
+      System.out.println("  --url URL           the API endpoint (default: http://localhost:8081/v2/check)");
+      System.out.println("  --rate N            requests per second (default: 10)");
+      System.out.println("  --users N           number of concurrent virtual users (default: 20)");
+      System.out.println("  --duration SECONDS  how long to send requests (default: 60)");
+      System.out.println("  --warmup SECONDS    how long to ignore the results at start (default: 10)");
+      System.exit(1);
+    }
+    Map<String, String> options = new HashMap<>();
+    for (int i = 0; i < args.length; i += 2) {
+      options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+    }
+    List<TypingSession> sessions;
+    int users = Integer.parseInt(options.getOrDefault("users", "20"));
+    if (options.containsKey("sessions")) {
+      sessions = TypingSession.load(Paths.get(options.get("sessions")));
+    } else if (options.containsKey("corpus")) {
+      DocProvider docProvider = new DocProvider(new ArrayList<>(Files.readAllLines(Paths.get(options.get("corpus")), UTF_8)));
+      sessions = simulateSessions(docProvider, options.getOrDefault("language", "en-US"), Math.max(100, users * 5));
+      if (options.containsKey("save")) {
+        TypingSession.save(sessions, Paths.get(options.get("save")));
+      }
+    } else {
+      throw new IllegalArgumentException("Set either --sessions or --corpus");
+    }
+    LoadGenerator generator = new LoadGenerator(options.getOrDefault("url", "http://localhost:8081/v2/check"), sessions);
+    generator.run(Double.parseDouble(options.getOrDefault("rate", "10")), users,
+      Integer.parseInt(options.getOrDefault("duration", "60")), Integer.parseInt(options.getOrDefault("warmup", "10")));
+  }
+
+  static List<TypingSession> simulateSessions(DocProvider docProvider, String language, int maxSessions) {
+    Random rnd = new Random(123);
+    List<TypingSession> sessions = new ArrayList<>();
+    try {
+      while (sessions.size() < maxSessions) {
+        sessions.add(TypingSession.simulate(docProvider.getDoc(), language, rnd));
+      }
+    } catch (RuntimeException e) {
+      if (sessions.isEmpty()) {
+        throw e;
+      }
+      System.out.println("Corpus only sufficient for " + sessions.size() + " sessions, they will be re-used");
+    }
+    return sessions;
+  }
+
+  void run(double requestsPerSecond, int userCount, int durationSeconds, int warmUpSeconds) throws InterruptedException {
+    System.out.printf(Locale.ENGLISH, "Sending %.1f requests/sec to %s for %ds with %d virtual users replaying %d sessions%n",
+      requestsPerSecond, apiUrl, durationSeconds, userCount, sessions.size());
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    long startTime = System.nanoTime();
+    long warmUpEnd = startTime + TimeUnit.SECONDS.toNanos(warmUpSeconds);
+    long endTime = startTime + TimeUnit.SECONDS.toNanos(durationSeconds);
+    List<VirtualUser> users = new ArrayList<>();
+    for (int i = 0; i < userCount; i++) {
+      VirtualUser user = new VirtualUser(warmUpEnd);
+      user.setName("virtual-user-" + i);
+      user.setDaemon(true);
+      user.start();
+      users.add(user);
+    }
+    long maxBacklog = 0;
+    for (long i = 0; ; i++) {
+      long intendedTime = startTime + i * intervalNanos;
+      if (intendedTime >= endTime) {
+        break;
+      }
+      long waitNanos;
+      while ((waitNanos = intendedTime - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(waitNanos);
+      }
+      VirtualUser user = users.get((int) (i % userCount));
+      user.schedule(intendedTime);
+      maxBacklog = Math.max(maxBacklog, user.getBacklog());
+    }
+    for (VirtualUser user : users) {
+      user.schedule(STOP);
+    }
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    for (VirtualUser user : users) {
+      user.join(Math.max(1, deadline - System.currentTimeMillis()));
+    }
+    double seconds = (System.nanoTime() - warmUpEnd) / 1e9;
+    System.out.printf(Locale.ENGLISH, "%d requests after warm-up (%.1f/sec), %d errors, max. requests waiting per user: %d%n",
+      stats.getRequests(), stats.getRequests() / seconds, stats.getErrors(), maxBacklog);
+    stats.print(System.out);
+  }
+
+  LatencyStats getStats() {
+    return stats;
+  }
+
+  private boolean send(Request request) {
+    try {
+      HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
+      connection.setConnectTimeout(TIMEOUT_MILLIS);
+      connection.setReadTimeout(TIMEOUT_MILLIS);
+      connection.setDoOutput(true);
+      String postData = "language=" + URLEncoder.encode(request.language, "UTF-8") +
+        "&mode=" + request.mode +
+        "&text=" + URLEncoder.encode(request.text, "UTF-8") +
+        "&useragent=load-generator";
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(postData.getBytes(UTF_8));
+      }
+      int status = connection.getResponseCode();
+      // read the complete response so the connection can be re-used:
+      try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+        if (in != null) {
+          byte[] buffer = new byte[8192];
+          while (in.read(buffer) != -1) {
+            // just consume
+          }
+        }
+      }
+      if (status != HttpURLConnection.HTTP_OK) {
+        System.err.println("Got HTTP " + status + " for " + request);
+      }
+      return status == HttpURLConnection.HTTP_OK;
+    } catch (IOException e) {
+      System.err.println("Request " + request + " failed: " + e);
+      return false;
+    }
+  }
+
+  /**
+   * A user who types the documents of one session after the other. Requests are sent
+   * in order, so if the server is slow, the user's scheduled requests wait in a queue.
+   */
+  private class VirtualUser extends Thread {
+
+    private final BlockingQueue<Long> scheduled = new LinkedBlockingQueue<>();
+    private final long warmUpEnd;
+    private Iterator<Request> requests = Collections.emptyIterator();
+
+    VirtualUser(long warmUpEnd) {
+      this.warmUpEnd = warmUpEnd;
+    }
+
+    void schedule(long intendedTime) {
+      scheduled.add(intendedTime);
+    }
+
+    int getBacklog() {
+      return scheduled.size();
+    }
+
+    @Override
+    public void run() {
+      try {
+        long intendedTime;
+        while ((intendedTime = scheduled.take()) != STOP) {
+          Request request = nextRequest();
+          long sendTime = System.nanoTime();
+          boolean success = send(request);
+          long doneTime = System.nanoTime();
+          if (intendedTime >= warmUpEnd) {
+            stats.record(request.language, request.text.length(), doneTime - intendedTime, doneTime - sendTime, success);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private Request nextRequest() {
+      while (!requests.hasNext()) {
+        requests = sessions.get(Math.floorMod(nextSession.getAndIncrement(), sessions.size())).getRequests().iterator();
+      }
+      return requests.next();
+    }
+  }
+
+}
@@ -0,0 +1,154 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The requests a user sends while writing a document. Sessions are either recorded or created
+ * from a text corpus by simulating typing, like {@link TypingSimulator} does.
+ * Recorded sessions are read from a file with one request per line in the format
+ * {@code language<TAB>mode<TAB>text}, with line breaks in the text written as {@code \n},
+ * and an empty line after each session.
+ * @since 6.4
+ */
+class TypingSession {
+
+  private static final float copyPasteProb = 0.05f;  // per document
+  private static final float backSpaceProb = 0.05f;  // per character
+  private static final float typoProb = 0.03f;       // per character
+  private static final int minCharsPerCheck = 5;     // a check is triggered when the user pauses, roughly every few words
+  private static final int maxCharsPerCheck = 40;
+
+  private final List<Request> requests;
+
+  TypingSession(List<Request> requests) {
+    this.requests = Collections.unmodifiableList(requests);
+  }
+
+  List<Request> getRequests() {
+    return requests;
+  }
+
+  /**
+   * Simulate typing {@code doc}: after every few characters, the last paragraph is checked by
+   * the sentence-level rules and the whole text by the text-level rules.
+   */
+  static TypingSession simulate(String doc, String language, Random rnd) {
+    List<Request> requests = new ArrayList<>();
+    if (rnd.nextFloat() < copyPasteProb) {
+      requests.add(new Request(language, "allButTextLevelOnly", doc));
+      requests.add(new Request(language, "textLevelOnly", doc));
+      return new TypingSession(requests);
+    }
+    StringBuilder sb = new StringBuilder();
+    int nextCheck = nextCheckDistance(rnd);
+    for (int i = 0; i < doc.length(); i++) {
+      if (rnd.nextFloat() < typoProb) {
+        if (rnd.nextBoolean()) {
+          sb.append('x');  // simulate randomly inserted char
+        } else if (sb.length() > 0) {
+          sb.setLength(sb.length() - 1);  // simulate random char left out
+        }
+      }
+      if (rnd.nextFloat() < backSpaceProb && sb.length() > 0) {
+        sb.setLength(sb.length() - 1);
+      }
+      sb.append(doc.charAt(i));
+      if (--nextCheck <= 0 || i == doc.length() - 1) {
+        addCheck(requests, language, sb.toString());
+        nextCheck = nextCheckDistance(rnd);
+      }
+    }
+    return new TypingSession(requests);
+  }
+
+  private static int nextCheckDistance(Random rnd) {
+    return minCharsPerCheck + rnd.nextInt(maxCharsPerCheck - minCharsPerCheck + 1);
+  }
+
+  private static void addCheck(List<Request> requests, String language, String text) {
+    String[] paras = text.split("\n\n");
+    requests.add(new Request(language, "allButTextLevelOnly", paras[paras.length - 1]));
+    requests.add(new Request(language, "textLevelOnly", text));
+  }
+
+  static List<TypingSession> load(Path file) throws IOException {
+    List<TypingSession> sessions = new ArrayList<>();
+    List<Request> requests = new ArrayList<>();
+    int lineNumber = 0;
+    for (String line : Files.readAllLines(file, UTF_8)) {
+      lineNumber++;
+      if (line.trim().isEmpty()) {
+        if (!requests.isEmpty()) {
+          sessions.add(new TypingSession(requests));
+          requests = new ArrayList<>();
+        }
+        continue;
+      }
+      String[] parts = line.split("\t", 3);
+      if (parts.length != 3) {
+        throw new IOException("Expected 'language<TAB>mode<TAB>text' in line " + lineNumber + " of " + file + ": " + line);
+      }
+      requests.add(new Request(parts[0], parts[1], parts[2].replace("\\n", "\n")));
+    }
+    if (!requests.isEmpty()) {
+      sessions.add(new TypingSession(requests));
+    }
+    return sessions;
+  }
+
+  static void save(List<TypingSession> sessions, Path file) throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (TypingSession session : sessions) {
+      for (Request request : session.requests) {
+        lines.add(request.language + "\t" + request.mode + "\t" + request.text.replace("\n", "\\n"));
+      }
+      lines.add("");
+    }
+    Files.write(file, lines, UTF_8);
+  }
+
+  static class Request {
+
+    final String language;
+    final String mode;
+    final String text;
+
+    Request(String language, String mode, String text) {
+      this.language = language;
+      this.mode = mode;
+      this.text = text;
+    }
+
+    @Override
+    public String toString() {
+      return language + "/" + mode + "/" + text.length();
+    }
+  }
+
+}
@@ -37,7 +37,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Sends requests to a local LT server, simulating a real user of the browser add-on or languagetool.org.
- * TODO: use several threads
+ * For load tests with several concurrent users, see {@link LoadGenerator}.
  */
 class TypingSimulator {
 
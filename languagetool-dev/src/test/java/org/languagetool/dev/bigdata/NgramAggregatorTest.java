@@ -0,0 +1,81 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.language.GermanyGerman;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class NgramAggregatorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testCountAndIndex() throws Exception {
+    File spillDir = folder.newFolder("spill");
+    NgramAggregator aggregator = new NgramAggregator(new GermanyGerman(), spillDir, 2, 2);
+    aggregator.setMaxMergeFiles(2);
+    // each file leads to a spill of each thread, so there are more spill files than can be merged at once:
+    for (int i = 0; i < 3; i++) {
+      aggregator.count(writeInput(Collections.nCopies(5 + i, "Das ist ein Test. Das ist gut.")));
+    }
+    aggregator.count(writeInput(Arrays.asList("Ein Test mit einem sehr_langen_token_mit_mehr_als_20_zeichen.", "")));
+    File indexDir = folder.newFolder("index");
+    try (AggregatedNgramToLucene index = new AggregatedNgramToLucene(indexDir)) {
+      aggregator.writeIndex(index);
+    }
+    assertEquals(0, spillDir.list().length);
+    LuceneLanguageModel lm = new LuceneLanguageModel(indexDir);
+    try {
+      assertEquals(36, lm.getCount("Das"));
+      assertEquals(19, lm.getCount("Test"));
+      assertEquals(36, lm.getCount(Arrays.asList("Das", "ist")));
+      assertEquals(18, lm.getCount(Arrays.asList("ist", "ein", "Test")));
+      assertEquals(36, lm.getCount(Arrays.asList("_START_", "Das", "ist")));
+      assertEquals(1, lm.getCount(Arrays.asList("Ein", "Test", "mit")));
+      assertEquals(0, lm.getCount("sehr_langen_token_mit_mehr_als_20_zeichen"));
+      assertEquals(0, lm.getCount(Arrays.asList("einem", "sehr_langen_token_mit_mehr_als_20_zeichen")));
+      // 18 lines with 7 + 6 tokens (incl. sentence start and end), plus one sentence with 7 valid tokens:
+      assertEquals(18 * 13 + 7, lm.getTotalTokenCount());
+    } finally {
+      lm.close();
+    }
+  }
+
+  private File writeInput(List<String> lines) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), new ArrayList<>(lines), UTF_8);
+    return file;
+  }
+
+}
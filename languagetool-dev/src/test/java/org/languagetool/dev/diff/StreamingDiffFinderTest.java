@@ -0,0 +1,90 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.diff;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StreamingDiffFinderTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testSameResultAsInMemoryDiff() throws IOException {
+    List<String> oldLines = new ArrayList<>();
+    List<String> newLines = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      String title = "doc" + i;
+      oldLines.add(doc(title, match("RULE_A", "old message", "word" + i), match("RULE_B", "message", "text" + i)));
+      // titles are compared without surrounding whitespace, so this is still the same document:
+      String newTitle = i % 2 == 0 ? title + " " : title;
+      if (i % 3 == 0) {
+        newLines.add(doc(newTitle, match("RULE_A", "new message", "word" + i)));
+      } else {
+        newLines.add(doc(newTitle, match("RULE_A", "old message", "word" + i), match("RULE_B", "message", "text" + i), match("RULE_C", "added", "other" + i)));
+      }
+    }
+    Collections.shuffle(newLines, new Random(1));  // documents don't need to be in the same order
+    File file1 = tempFolder.newFile("old.json");
+    File file2 = tempFolder.newFile("new.json");
+    Files.write(file1.toPath(), oldLines, StandardCharsets.UTF_8);
+    Files.write(file2.toPath(), newLines, StandardCharsets.UTF_8);
+    LightRuleMatchParser parser = new LightRuleMatchParser();
+
+    File inMemoryDir = tempFolder.newFolder("in-memory");
+    new RuleMatchDiffFinder().run(parser, file1, file2, inMemoryDir, "en", "2024-01-01");
+    File streamingDir = tempFolder.newFolder("streaming");
+    new StreamingDiffFinder(new RuleMatchDiffFinder(), 2, 7).run(parser, file1, file2, streamingDir, "en", "2024-01-01");
+
+    String[] files = inMemoryDir.list();
+    Arrays.sort(files);
+    assertEquals("[index.html, result_grammar_RULE_A.html, result_grammar_RULE_B.html, result_grammar_RULE_C.html]", Arrays.toString(files));
+    for (String file : files) {
+      assertEquals(file, read(new File(inMemoryDir, file)), read(new File(streamingDir, file)));
+    }
+    List<String> diffs = Files.readAllLines(new File(streamingDir, "diffs.json").toPath());
+    assertEquals(7 + 7 + 13, diffs.size());  // modified RULE_A, removed RULE_B, added RULE_C
+  }
+
+  private String doc(String title, String... matches) {
+    return "{\"title\":\"" + title + "\",\"software\":{\"buildDate\":\"2024-01-01\"},\"matches\":[" + String.join(",", matches) + "]}";
+  }
+
+  private String match(String ruleId, String message, String covered) {
+    return "{\"offset\":0,\"message\":\"" + message + "\"," +
+      "\"rule\":{\"id\":\"" + ruleId + "\",\"sourceFile\":\"grammar.xml\",\"category\":{\"name\":\"Misc\"}}," +
+      "\"context\":{\"text\":\"" + covered + " and more\",\"offset\":0,\"length\":" + covered.length() + "}," +
+      "\"replacements\":[{\"value\":\"fix\"}]}";
+  }
+
+  private String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+
+}
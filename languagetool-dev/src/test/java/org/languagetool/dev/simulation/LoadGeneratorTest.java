@@ -0,0 +1,74 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.simulation;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class LoadGeneratorTest {
+
+  @Test
+  public void testRun() throws Exception {
+    AtomicInteger received = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/v2/check", exchange -> {
+      byte[] response = "{\"matches\":[]}".getBytes(UTF_8);
+      received.incrementAndGet();
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    server.start();
+    try {
+      List<TypingSession> sessions = new ArrayList<>();
+      for (String doc : Arrays.asList("This is a test.", "Das ist ein Test.\n\nMit zwei Absätzen.")) {
+        sessions.add(TypingSession.simulate(doc, "xx", new Random(1)));
+      }
+      LoadGenerator generator = new LoadGenerator("http://localhost:" + server.getAddress().getPort() + "/v2/check", sessions);
+      generator.run(100, 4, 1, 0);
+      assertTrue(received.get() > 50);
+      assertEquals(received.get(), generator.getStats().getRequests());
+      assertEquals(0, generator.getStats().getErrors());
+      assertTrue(generator.getStats().getResponseTimes().getValueAtPercentile(50) > 0);
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void testKey() {
+    assertEquals("en 0-49", LatencyStats.getKey("en", 0));
+    assertEquals("en 50-199", LatencyStats.getKey("en", 50));
+    assertEquals("de 1000-4999", LatencyStats.getKey("de", 4999));
+    assertEquals("de 5000+", LatencyStats.getKey("de", 5000));
+  }
+
+}
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.simulation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TypingSessionTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSimulate() {
+    String doc = "This is a test. It has two paragraphs.\n\nAnd here comes the second paragraph.";
+    TypingSession session = TypingSession.simulate(doc, "en-US", new Random(1));
+    List<TypingSession.Request> requests = session.getRequests();
+    assertTrue(requests.size() >= 2);
+    for (TypingSession.Request request : requests) {
+      assertEquals("en-US", request.language);
+      assertTrue(request.mode.equals("allButTextLevelOnly") || request.mode.equals("textLevelOnly"));
+    }
+    TypingSession.Request last = requests.get(requests.size() - 1);
+    assertEquals("textLevelOnly", last.mode);
+    assertTrue(last.text, last.text.contains("\n\n"));
+    assertFalse(requests.get(requests.size() - 2).text.contains("\n"));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    List<TypingSession> sessions = Arrays.asList(
+      TypingSession.simulate("A short text.\n\nWith two paragraphs.", "de-DE", new Random(2)),
+      TypingSession.simulate("Another text.", "en-GB", new Random(3)));
+    Path file = folder.newFile().toPath();
+    TypingSession.save(sessions, file);
+    List<TypingSession> loaded = TypingSession.load(file);
+    assertEquals(2, loaded.size());
+    for (int i = 0; i < sessions.size(); i++) {
+      assertEquals(sessions.get(i).getRequests().toString(), loaded.get(i).getRequests().toString());
+      assertEquals(sessions.get(i).getRequests().get(0).text, loaded.get(i).getRequests().get(0).text);
+    }
+  }
+
+}
@@ -18,18 +18,25 @@
  */
 package org.languagetool.remote;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import javax.xml.stream.XMLStreamException;
 import java.io.*;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Check a text using a <a href="https://dev.languagetool.org/http-server">remote LanguageTool server</a> via HTTP or HTTPS.
  * Our public HTTPS API and its restrictions are documented
  * <a href="https://dev.languagetool.org/public-http-api">here</a>.
+ * Connections are kept alive and re-used for later requests to the same server.
+ * To check many texts, use {@link #checkAll(List, CheckConfiguration, int)}.
  *
  * @since 3.4
  */
@@ -40,6 +47,12 @@ public class RemoteLanguageTool {
   private static final String V2_MAXTEXTLENGTH = "/v2/maxtextlength";
   private static final String V2_CONFIGINFO = "/v2/configinfo";
 
+  private static final ExecutorService asyncExecutor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "remote-lt-async");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private final ObjectMapper mapper = new ObjectMapper();
   private final URL serverBaseUrl;
 
@@ -77,6 +90,46 @@ public class RemoteLanguageTool {
     return check(getUrlParams(text, config, customParams));
   }
 
+  /**
+   * Like {@link #check(String, CheckConfiguration)}, but doesn't block. Errors complete the future exceptionally.
+   * @since 6.4
+   */
+  public CompletableFuture<RemoteResult> checkAsync(String text, CheckConfiguration config) {
+    String params = getUrlParams(text, config, null);
+    return CompletableFuture.supplyAsync(() -> check(params), asyncExecutor);
+  }
+
+  /**
+   * Check several texts, with at most {@code maxInFlight} requests sent to the server at the same time.
+   * Doesn't block: the futures complete in any order, each one with the result for the text
+   * at the same position, or exceptionally if that check failed.
+   * @since 6.4
+   */
+  public List<CompletableFuture<RemoteResult>> checkAll(List<String> texts, CheckConfiguration config, int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be >= 1: " + maxInFlight);
+    }
+    List<CompletableFuture<RemoteResult>> futures = new ArrayList<>();
+    for (int i = 0; i < texts.size(); i++) {
+      futures.add(new CompletableFuture<>());
+    }
+    AtomicInteger next = new AtomicInteger();
+    Runnable worker = () -> {
+      int i;
+      while ((i = next.getAndIncrement()) < texts.size()) {
+        try {
+          futures.get(i).complete(check(getUrlParams(texts.get(i), config, null)));
+        } catch (Throwable t) {
+          futures.get(i).completeExceptionally(t);
+        }
+      }
+    };
+    for (int i = 0; i < Math.min(maxInFlight, texts.size()); i++) {
+      asyncExecutor.execute(worker);
+    }
+    return futures;
+  }
+
   private String getUrlParams(String text, CheckConfiguration config, Map<String, String> customParams) {
     StringBuilder params = new StringBuilder();
     append(params, "text", text);
@@ -148,10 +201,14 @@ public class RemoteLanguageTool {
       throw new RuntimeException(e);
     }
     HttpURLConnection conn = getConnection(postData, checkUrl);
+    boolean keepAlive = false;
     try {
       if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
         try (InputStream inputStream = conn.getInputStream()) {
-          return parseJson(inputStream);
+          RemoteResult result = parseJson(inputStream);
+          // don't disconnect, so the JDK can re-use the connection for the next request:
+          keepAlive = true;
+          return result;
         }
       } else {
         try (InputStream inputStream = conn.getErrorStream()) {
@@ -164,7 +221,9 @@ public class RemoteLanguageTool {
     } catch (Exception e) {
       throw new RuntimeException(e);
     } finally {
-      conn.disconnect();
+      if (!keepAlive) {
+        conn.disconnect();
+      }
     }
   }
 
@@ -265,53 +324,84 @@ public class RemoteLanguageTool {
     return sb.toString();
   }
 
-  private RemoteResult parseJson(InputStream inputStream) throws XMLStreamException, IOException {
-    Map map = mapper.readValue(inputStream, Map.class);
-    Map<String, String> languageObj = (Map<String, String>) map.get("language");
-    String language = languageObj.get("name");
-    String languageCode = languageObj.get("code");
-    Map<String, String> detectedLanguageObj = (Map<String, String>) ((Map) languageObj).get("detectedLanguage");
-    String languageDetectedCode = null, languageDetectedName = null;
-    if (detectedLanguageObj != null) {
-      languageDetectedCode = detectedLanguageObj.get("code");
-      languageDetectedName = detectedLanguageObj.get("name");
-    }
-    Map<String, String> software = (Map<String, String>) map.get("software");
-    RemoteServer remoteServer = new RemoteServer(software.get("name"), software.get("version"), software.get("buildDate"));
-    List matches = (ArrayList) map.get("matches");
+  /**
+   * Parse the JSON response with a streaming parser, so matches are created directly
+   * without building a tree of the whole response first.
+   */
+  private RemoteResult parseJson(InputStream inputStream) throws IOException {
+    String language = null, languageCode = null, languageDetectedCode = null, languageDetectedName = null;
+    RemoteServer remoteServer = null;
     List<RemoteRuleMatch> result = new ArrayList<>();
-    for (Object match : matches) {
-      RemoteRuleMatch remoteMatch = getMatch((Map<String, Object>) match);
-      result.add(remoteMatch);
-    }
-    List ignoreRanges = (ArrayList) map.get("ignoreRanges");
     List<RemoteIgnoreRange> remoteIgnoreRanges = new ArrayList<>();
-    if (ignoreRanges != null) {
-      for (Object range : ignoreRanges) {
-        RemoteIgnoreRange remoteIgnoreRange = getIgnoreRange((Map<String, Object>) range);
-        remoteIgnoreRanges.add(remoteIgnoreRange);
+    try (JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (field.equals("software") && token == JsonToken.START_OBJECT) {
+          Map<String, Object> software = readObject(parser);
+          remoteServer = new RemoteServer((String) software.get("name"), (String) software.get("version"), (String) software.get("buildDate"));
+        } else if (field.equals("language") && token == JsonToken.START_OBJECT) {
+          Map<String, Object> languageObj = readObject(parser);
+          language = (String) languageObj.get("name");
+          languageCode = (String) languageObj.get("code");
+          Map<String, Object> detectedLanguageObj = (Map<String, Object>) languageObj.get("detectedLanguage");
+          if (detectedLanguageObj != null) {
+            languageDetectedCode = (String) detectedLanguageObj.get("code");
+            languageDetectedName = (String) detectedLanguageObj.get("name");
+          }
+        } else if (field.equals("matches") && token == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            result.add(parseMatch(parser));
+          }
+        } else if (field.equals("ignoreRanges") && token == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            remoteIgnoreRanges.add(getIgnoreRange(readObject(parser)));
+          }
+        } else {
+          parser.skipChildren();
+        }
       }
     }
+    if (remoteServer == null || language == null) {
+      throw new RuntimeException("JSON response doesn't contain required properties 'software' and 'language'");
+    }
     return new RemoteResult(language, languageCode, languageDetectedCode, languageDetectedName, result, remoteIgnoreRanges, remoteServer);
   }
 
-  private RemoteIgnoreRange getIgnoreRange(Map<String, Object> range) {
-    int from = (int) range.get("from");
-    int to = (int) range.get("to");
-    String langCode = (String) ((Map<String, Object>) range.get("language")).get("code");
-    return new RemoteIgnoreRange(from, to, langCode);
-  }
-
-  private RemoteRuleMatch getMatch(Map<String, Object> match) {
-    Map<String, Object> rule = (Map<String, Object>) match.get("rule");
-    int offset = (int) getRequired(match, "offset");
-    int errorLength = (int) getRequired(match, "length");
-
-    Map<String, Object> context = (Map<String, Object>) match.get("context");
-    int contextOffset = (int) getRequired(context, "offset");
-    RemoteRuleMatch remoteMatch = new RemoteRuleMatch(getRequiredString(rule, "id"), getRequiredString(rule, "description"), getRequiredString(match, "message"),
-            getRequiredString(context, "text"), contextOffset, offset, errorLength);
-    remoteMatch.setShortMsg(getOrNull(match, "shortMessage"));
+  /**
+   * Parse a match, the parser is positioned at the start of the match object.
+   */
+  private RemoteRuleMatch parseMatch(JsonParser parser) throws IOException {
+    String message = null, shortMessage = null;
+    Integer offset = null, errorLength = null;
+    Map<String, Object> rule = null;
+    Map<String, Object> context = null;
+    List<String> replacements = new ArrayList<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "message": message = parser.getValueAsString(); break;
+        case "shortMessage": shortMessage = parser.getValueAsString(); break;
+        case "offset": offset = parser.getValueAsInt(); break;
+        case "length": errorLength = parser.getValueAsInt(); break;
+        case "rule": rule = readObject(parser); break;
+        case "context": context = readObject(parser); break;
+        case "replacements":
+          expect(parser, token, JsonToken.START_ARRAY);
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            replacements.add((String) readObject(parser).get("value"));
+          }
+          break;
+        default: parser.skipChildren();
+      }
+    }
+    rule = required(rule, "rule");
+    context = required(context, "context");
+    RemoteRuleMatch remoteMatch = new RemoteRuleMatch(getRequiredString(rule, "id"), getRequiredString(rule, "description"), required(message, "message"),
+            getRequiredString(context, "text"), (int) getRequired(context, "offset"), required(offset, "offset"), required(errorLength, "length"));
+    remoteMatch.setShortMsg(shortMessage);
     remoteMatch.setRuleSubId(getOrNull(rule, "subId"));
     remoteMatch.setLocQualityIssueType(getOrNull(rule, "issueType"));
     List<String> urls = getValueList(rule, "urls");
@@ -319,13 +409,41 @@ public class RemoteLanguageTool {
       remoteMatch.setUrl(urls.get(0));
     }
     Map<String, Object> category = (Map<String, Object>) rule.get("category");
-    remoteMatch.setCategory(getOrNull(category, "name"));
-    remoteMatch.setCategoryId(getOrNull(category, "id"));
-
-    remoteMatch.setReplacements(getValueList(match, "replacements"));
+    if (category != null) {
+      remoteMatch.setCategory(getOrNull(category, "name"));
+      remoteMatch.setCategoryId(getOrNull(category, "id"));
+    }
+    remoteMatch.setReplacements(replacements);
     return remoteMatch;
   }
 
+  /**
+   * Read a small object (like 'rule' or 'context') completely, the parser is positioned at its start.
+   */
+  private Map<String, Object> readObject(JsonParser parser) throws IOException {
+    return mapper.readValue(parser, Map.class);
+  }
+
+  private void expect(JsonParser parser, JsonToken token, JsonToken expected) throws IOException {
+    if (token != expected) {
+      throw new IOException("Unexpected JSON: expected " + expected + ", got " + token + " at " + parser.getCurrentLocation());
+    }
+  }
+
+  private <T> T required(T val, String propertyName) {
+    if (val != null) {
+      return val;
+    }
+    throw new RuntimeException("JSON match doesn't contain required property '" + propertyName + "'");
+  }
+
+  private RemoteIgnoreRange getIgnoreRange(Map<String, Object> range) {
+    int from = (int) range.get("from");
+    int to = (int) range.get("to");
+    String langCode = (String) ((Map<String, Object>) range.get("language")).get("code");
+    return new RemoteIgnoreRange(from, to, langCode);
+  }
+
   private Object getRequired(Map<String, Object> elem, String propertyName) {
     Object val = elem.get(propertyName);
     if (val != null) {
@@ -36,7 +36,11 @@ import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -110,6 +114,40 @@ public class RemoteLanguageToolIntegrationTest {
     }
   }
 
+  @Test
+  public void testAsyncClient() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    HTTPServer server = new HTTPServer(config);
+    try {
+      server.run();
+      RemoteLanguageTool lt = new RemoteLanguageTool(new URL(serverUrl));
+      CheckConfiguration deConfig = new CheckConfigurationBuilder("de-DE").build();
+      RemoteResult result = lt.checkAsync("Das Häuser ist schön.", deConfig).get();
+      assertThat(result.getMatches().size(), is(1));
+      assertThat(result.getMatches().get(0).getRuleId(), is("DE_AGREEMENT"));
+
+      List<String> texts = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        texts.add(i % 2 == 0 ? "Das Häuser ist schön." : "Das Haus ist schön.");
+      }
+      List<CompletableFuture<RemoteResult>> futures = lt.checkAll(texts, deConfig, 3);
+      assertThat(futures.size(), is(12));
+      for (int i = 0; i < futures.size(); i++) {
+        assertThat(futures.get(i).get().getMatches().size(), is(i % 2 == 0 ? 1 : 0));
+      }
+
+      try {
+        System.err.println("=== Testing invalid language code - ignore the following exception: ===");
+        lt.checkAsync("foo", new CheckConfigurationBuilder("xy").build()).get();
+        fail();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause().getMessage().contains("is not a language code known to LanguageTool"));
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
   @Test
   public void testClientWithHTTPS() throws MalformedURLException, KeyManagementException, NoSuchAlgorithmException {
     disableCertChecks();
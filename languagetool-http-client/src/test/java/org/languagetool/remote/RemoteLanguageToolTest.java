@@ -28,6 +28,9 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -47,6 +50,18 @@ public class RemoteLanguageToolTest {
     assertThat(result3.getMatches().get(0).getUrl().get(), is("https://fake.org/foo"));
   }
 
+  @Test
+  public void testAsyncResultParsing() throws Exception {
+    RemoteLanguageTool lt = new FakeRemoteLanguageTool("response.json");
+    CheckConfiguration config = new CheckConfigurationBuilder().build();
+    runAsserts(lt.checkAsync("some text, reply is hard-coded anyway", config).get());
+    List<CompletableFuture<RemoteResult>> futures = lt.checkAll(Arrays.asList("text 1", "text 2", "text 3", "text 4", "text 5"), config, 2);
+    assertThat(futures.size(), is(5));
+    for (CompletableFuture<RemoteResult> future : futures) {
+      runAsserts(future.get());
+    }
+  }
+
   private void runAsserts(RemoteResult result) {
     assertThat(result.getLanguage(), is("English (US)"));
     assertThat(result.getLanguageCode(), is("en-US"));
@@ -40,7 +40,6 @@ import org.languagetool.JLanguageTool;
 import org.languagetool.gui.Configuration;
 import org.languagetool.openoffice.DocumentCache.SerialLocale;
 import org.languagetool.openoffice.IgnoredMatches.LocaleEntry;
-import org.languagetool.openoffice.OfficeTools.LoErrorType;
 
 import com.sun.star.frame.XModel;
 import com.sun.star.lang.Locale;
@@ -61,12 +60,14 @@ public class CacheIO implements Serializable {
   private static final String CACHEFILE_MAP = "LtCacheMap";           //  Name of cache map file
   private static final String CACHEFILE_PREFIX = "LtCache";           //  Prefix for cache files (simply a number is added for file name)
   private static final String CACHEFILE_EXTENSION = "lcz";            //  extension of the files name (Note: cache files are in zip format)
+  private static final String RESULT_CACHEFILE_EXTENSION = "lcr";     //  extension of the binary result cache files (see ResultCacheFile)
   private static final int MIN_CHARACTERS_TO_SAVE_CACHE = 25000;      //  Minimum characters of document for saving cache
 
   private static final String SPELL_CACHEFILE = "LtSpellCache." + CACHEFILE_EXTENSION;  //  Spell cache name
   
   private String documentPath = null;
   private AllCaches allCaches;
+  private ResultCacheFile resultCacheFile = null;
   
   CacheIO(XComponent xComponent) {
     setDocumentPath(xComponent);
@@ -142,6 +143,13 @@ public class CacheIO implements Serializable {
     }
     return cacheFilePath.getAbsolutePath();
   }
+
+  /**
+   * get the result cache file that belongs to a cache file
+   */
+  private static File getResultCacheFile(String cachePath) {
+    return new File(cachePath.substring(0, cachePath.length() - CACHEFILE_EXTENSION.length()) + RESULT_CACHEFILE_EXTENSION);
+  }
   
   /**
    * save all caches (document cache, all result caches) to cache file
@@ -185,15 +193,25 @@ public class CacheIO implements Serializable {
     String cachePath = getCachePath(true);
     if (cachePath != null) {
       try {
+        File resultFile = getResultCacheFile(cachePath);
         if (!ignoredMatches.isEmpty() || exceedsSaveSize(docCache)) {
-          allCaches = new AllCaches(docCache, paragraphsCache, mDocHandler.getAllDisabledRules(), config.getDisabledRuleIds(), config.getDisabledCategoryNames(), 
-              config.getEnabledRuleIds(), ignoredMatches, JLanguageTool.VERSION);
+          //  the result caches are written first: the cache file contains the valid length of the result cache file
+          if (resultCacheFile == null || !resultCacheFile.getFile().equals(resultFile)) {
+            resultCacheFile = new ResultCacheFile(resultFile);
+          }
+          resultCacheFile.save(paragraphsCache);
+          allCaches = new AllCaches(docCache, resultCacheFile, paragraphsCache.size(), mDocHandler.getAllDisabledRules(), config.getDisabledRuleIds(), 
+              config.getDisabledCategoryNames(), config.getEnabledRuleIds(), ignoredMatches, JLanguageTool.VERSION);
           saveAllCaches(cachePath);
         } else {
           File file = new File( cachePath );
           if (file.exists() && !file.isDirectory()) {
             file.delete();
           }
+          if (resultFile.exists() && !resultFile.isDirectory()) {
+            resultFile.delete();
+          }
+          resultCacheFile = null;
         }
       } catch (Throwable t) {
         MessageHandler.printToLogFile("CacheIO: saveCaches: " + t.getMessage());
@@ -225,6 +243,15 @@ public class CacheIO implements Serializable {
           printCacheInfo();
         }
         if (runSameRules(config, mDocHandler)) {
+          ResultCacheFile resultFile = new ResultCacheFile(getResultCacheFile(cachePath));
+          if (!resultFile.open(allCaches.resultCacheId, allCaches.resultCacheLength, allCaches.numberOfResultCaches)) {
+            MessageHandler.printToLogFile("Result cache file not valid: Cache rejected");
+            return false;
+          }
+          resultCacheFile = resultFile;
+          if (DEBUG_MODE) {
+            printResultCacheInfo();
+          }
           return true;
         } else {
           MessageHandler.printToLogFile("Version or active rules have changed: Cache rejected (Cache Version: " 
@@ -310,10 +337,11 @@ public class CacheIO implements Serializable {
   }
   
   /**
-   * get paragraph caches (results for check of paragraphes)
+   * set the paragraph caches (results for check of paragraphes) to the content of the cache file
+   * the entries are read from file when they are needed
    */
-  public List<ResultCache> getParagraphsCache() {
-    return allCaches.paragraphsCache;
+  public void loadParagraphsCache(List<ResultCache> paragraphsCache) {
+    resultCacheFile.load(paragraphsCache);
   }
   
   /**
@@ -357,42 +385,32 @@ public class CacheIO implements Serializable {
   private void printCacheInfo() {
     MessageHandler.printToLogFile("CacheIO: saveCaches:");
     MessageHandler.printToLogFile("Document Cache: Number of paragraphs: " + allCaches.docCache.size());
-    MessageHandler.printToLogFile("Paragraph Cache(0): Number of paragraphs: " + allCaches.paragraphsCache.get(0).getNumberOfParas() 
-        + ", Number of matches: " + allCaches.paragraphsCache.get(0).getNumberOfMatches());
-    MessageHandler.printToLogFile("Paragraph Cache(1): Number of paragraphs: " + allCaches.paragraphsCache.get(1).getNumberOfParas() 
-        + ", Number of matches: " + allCaches.paragraphsCache.get(1).getNumberOfMatches());
     for (int n = 0; n < allCaches.docCache.size(); n++) {
       MessageHandler.printToLogFile("allCaches.docCache.getFlatParagraphLocale(" + n + "): " 
             + (allCaches.docCache.getFlatParagraphLocale(n) == null ? "null" : OfficeTools.localeToString(allCaches.docCache.getFlatParagraphLocale(n))));
     }
-    if (allCaches.paragraphsCache.get(0) == null) {
-      MessageHandler.printToLogFile("paragraphsCache(0) == null");
-    } else {
-      if (allCaches.paragraphsCache.get(0).getNumberOfMatches() > 0) {
-        for (int n = 0; n < allCaches.paragraphsCache.get(0).getNumberOfParas(); n++) {
-          if (allCaches.paragraphsCache.get(0).getMatches(n, LoErrorType.BOTH) == null) {
-            MessageHandler.printToLogFile("allCaches.sentencesCache.getMatches(" + n + ") == null");
-          } else {
-            if (allCaches.paragraphsCache.get(0).getMatches(n, LoErrorType.BOTH).length > 0) {
-              MessageHandler.printToLogFile("Paragraph " + n + " sentence match[0]: " 
-                  + "nStart = " + allCaches.paragraphsCache.get(0).getMatches(n, LoErrorType.BOTH)[0].nErrorStart 
-                  + ", nLength = " + allCaches.paragraphsCache.get(0).getMatches(n, LoErrorType.BOTH)[0].nErrorLength
-                  + ", errorID = " 
-                  + (allCaches.paragraphsCache.get(0).getMatches(n, LoErrorType.BOTH)[0].aRuleIdentifier == null ? "null" 
-                      : allCaches.paragraphsCache.get(0).getMatches(n, LoErrorType.BOTH)[0].aRuleIdentifier));
-            }
-          }
-        }
-      }
+    MessageHandler.printToLogFile("Result Cache File: id: " + allCaches.resultCacheId + ", length: " + allCaches.resultCacheLength
+        + ", Number of caches: " + allCaches.numberOfResultCaches);
+  }
+
+  /**
+   * print debug information of the read result cache file to log file
+   */
+  private void printResultCacheInfo() {
+    int[] nEntries = resultCacheFile.getNumberOfEntries();
+    for (int i = 0; i < nEntries.length; i++) {
+      MessageHandler.printToLogFile("Paragraph Cache(" + i + "): Number of paragraphs: " + nEntries[i]);
     }
   }
 
   class AllCaches implements Serializable {
 
-    private static final long serialVersionUID = 6L;
+    private static final long serialVersionUID = 7L;
 
     DocumentCache docCache;                 //  cache of paragraphs
-    List<ResultCache> paragraphsCache;      //  Cache for matches of text rules
+    long resultCacheId;                     //  the caches for matches of text rules are stored in a ResultCacheFile
+    long resultCacheLength;
+    int numberOfResultCaches;
     Map<String, List<String>> disabledRulesUI;
     List<String> disabledRuleIds;
     List<String> disabledCategories;
@@ -401,10 +419,12 @@ public class CacheIO implements Serializable {
     Map<Integer, List<LocaleSerialEntry>> spellLocales;
     String ltVersion;
     
-    AllCaches(DocumentCache docCache, List<ResultCache> paragraphsCache, Map<String, Set<String>> disabledRulesUI, Set<String> disabledRuleIds, 
-        Set<String> disabledCategories, Set<String> enabledRuleIds, IgnoredMatches ignoredMatches, String ltVersion) {
+    AllCaches(DocumentCache docCache, ResultCacheFile resultCacheFile, int numberOfResultCaches, Map<String, Set<String>> disabledRulesUI, 
+        Set<String> disabledRuleIds, Set<String> disabledCategories, Set<String> enabledRuleIds, IgnoredMatches ignoredMatches, String ltVersion) {
       this.docCache = docCache;
-      this.paragraphsCache = paragraphsCache;
+      this.resultCacheId = resultCacheFile.getId();
+      this.resultCacheLength = resultCacheFile.getLength();
+      this.numberOfResultCaches = numberOfResultCaches;
       this.disabledRulesUI = new HashMap<String, List<String>>();
       for (String langCode : disabledRulesUI.keySet()) {
         List <String >ruleIDs = new ArrayList<String>();
@@ -697,6 +717,10 @@ public class CacheIO implements Serializable {
                 cacheFile.delete();
                 MessageHandler.printToLogFile("CacheIO: CacheCleanUp: Delete cache file: " + cacheFile.getAbsolutePath());
               }
+              File resultFile = getResultCacheFile(cacheFile.getAbsolutePath());
+              if (resultFile.exists()) {
+                resultFile.delete();
+              }
             }
           }
           if (mapChanged) {
@@ -708,7 +732,11 @@ public class CacheIO implements Serializable {
           File[] cacheFiles = cacheDir.listFiles();
           if (cacheFiles != null) {
             for (File cacheFile : cacheFiles) {
-              if (!cacheMap.containsValue(cacheFile.getName()) && !cacheFile.getName().equals(CACHEFILE_MAP)
+              String cacheFileName = cacheFile.getName();
+              if (cacheFileName.endsWith("." + RESULT_CACHEFILE_EXTENSION)) {
+                cacheFileName = cacheFileName.substring(0, cacheFileName.length() - RESULT_CACHEFILE_EXTENSION.length()) + CACHEFILE_EXTENSION;
+              }
+              if (!cacheMap.containsValue(cacheFileName) && !cacheFile.getName().equals(CACHEFILE_MAP)
                   && !cacheFile.getName().equals(SPELL_CACHEFILE)) {
                 cacheFile.delete();
                 MessageHandler.printToLogFile("Delete cache file: " + cacheFile.getAbsolutePath());
@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.languagetool.openoffice.OfficeTools.LoErrorType;
@@ -42,8 +43,14 @@ import com.sun.star.text.TextMarkupType;
  */
 public class ResultCache implements Serializable {
 
-  private static final long serialVersionUID = 2L;
-  private final Map<Integer, SerialCacheEntry> entries = new HashMap<Integer, SerialCacheEntry>();
+  private static final long serialVersionUID = 3L;
+  private final Map<Integer, SerialCacheEntry> entries = new ConcurrentHashMap<Integer, SerialCacheEntry>();
+  //  entries read from a cache file, that are only decoded when they are needed
+  private transient volatile ResultCacheFile.LazyEntries lazyEntries = null;
+  //  changes since the cache was last written to or read from a cache file (see ResultCacheFile)
+  private transient boolean allChanged = true;
+  private transient Set<Integer> changedParas = new HashSet<>();
+  private transient List<int[]> shifts = new ArrayList<>();
   
   private ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
   
@@ -55,18 +62,6 @@ public class ResultCache implements Serializable {
     replace(cache);
   }
 
-  /**
-   * Get cache entry map
-   */
-  private Map<Integer, SerialCacheEntry> getMap() {
-    rwLock.readLock().lock();
-    try {
-      return new HashMap<Integer, SerialCacheEntry>(entries);
-    } finally {
-      rwLock.readLock().unlock();
-    }
-  }
-
   /**
    * Replace the cache content
    */
@@ -74,9 +69,20 @@ public class ResultCache implements Serializable {
     rwLock.writeLock().lock();
     try {
       entries.clear();
-      if (cache != null && !cache.entries.isEmpty()) {
-        entries.putAll(cache.getMap());
+      lazyEntries = null;
+      if (cache != null) {
+        cache.rwLock.readLock().lock();
+        try {
+          entries.putAll(cache.entries);
+          ResultCacheFile.LazyEntries lazy = cache.lazyEntries;
+          if (lazy != null && !lazy.isEmpty()) {
+            lazyEntries = lazy.copy();
+          }
+        } finally {
+          cache.rwLock.readLock().unlock();
+        }
       }
+      setAllChanged();
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -88,7 +94,7 @@ public class ResultCache implements Serializable {
   public void remove(int numberOfParagraph) {
     rwLock.writeLock().lock();
     try {
-      entries.remove(numberOfParagraph);
+      removeEntry(numberOfParagraph);
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -101,7 +107,7 @@ public class ResultCache implements Serializable {
     rwLock.writeLock().lock();
     try {
       for (int i = firstParagraph; i <= lastParagraph; i++) {
-        entries.remove(i);
+        removeEntry(i);
       }
     } finally {
       rwLock.writeLock().unlock();
@@ -119,37 +125,62 @@ public class ResultCache implements Serializable {
     }
     rwLock.writeLock().lock();
     try {
-      Map<Integer, SerialCacheEntry> tmpEntries = new HashMap<Integer, SerialCacheEntry>(entries);
-      entries.clear();
-      if (shift < 0) {   // new size < old size
-        for (int i : tmpEntries.keySet()) {
-          if (i < fromParagraph) {
-            entries.put(i, tmpEntries.get(i));
-          } else if (i >= toParagraph - shift) {
-              entries.put(i + shift, tmpEntries.get(i));
-          }
-        }
-      } else {
-        for (int i : tmpEntries.keySet()) {
-          if (i < fromParagraph) {
-            entries.put(i, tmpEntries.get(i));
-          } else if (i >= toParagraph) {
-              entries.put(i + shift, tmpEntries.get(i));
+      shiftMap(entries, fromParagraph, toParagraph, shift);
+      ResultCacheFile.LazyEntries lazy = lazyEntries;
+      if (lazy != null) {
+        lazy.shift(fromParagraph, toParagraph, shift);
+      }
+      if (!allChanged) {
+        Set<Integer> tmpParas = new HashSet<>(changedParas);
+        changedParas.clear();
+        for (int i : tmpParas) {
+          int n = shiftParagraph(i, fromParagraph, toParagraph, shift);
+          if (n >= 0) {
+            changedParas.add(n);
           }
         }
+        shifts.add(new int[] { fromParagraph, toParagraph, oldSize, newSize });
       }
     } finally {
       rwLock.writeLock().unlock();
     }
   }
 
+  /**
+   * Get the new number of a paragraph after paragraphs between fromParagraph (included)
+   * and toParagraph (excluded) are removed and the following are shifted by 'shift'
+   * returns -1 if the paragraph is removed
+   */
+  static int shiftParagraph(int numberOfParagraph, int fromParagraph, int toParagraph, int shift) {
+    if (numberOfParagraph < fromParagraph) {
+      return numberOfParagraph;
+    } else if (numberOfParagraph >= (shift < 0 ? toParagraph - shift : toParagraph)) {
+      return numberOfParagraph + shift;
+    }
+    return -1;
+  }
+
+  /**
+   * Shift the keys (numbers of paragraphs) of a map like removeAndShift does
+   */
+  static <T> void shiftMap(Map<Integer, T> map, int fromParagraph, int toParagraph, int shift) {
+    Map<Integer, T> tmpEntries = new HashMap<Integer, T>(map);
+    map.clear();
+    for (int i : tmpEntries.keySet()) {
+      int n = shiftParagraph(i, fromParagraph, toParagraph, shift);
+      if (n >= 0) {
+        map.put(n, tmpEntries.get(i));
+      }
+    }
+  }
+
   /**
    * add or replace a cache entry
    */
   public void put(int numberOfParagraph, List<Integer> nextSentencePositions, SingleProofreadingError[] errorArray) {
     rwLock.writeLock().lock();
     try {
-      entries.put(numberOfParagraph, new SerialCacheEntry(nextSentencePositions, errorArray));
+      putEntry(numberOfParagraph, new SerialCacheEntry(nextSentencePositions, errorArray));
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -161,7 +192,7 @@ public class ResultCache implements Serializable {
   public void put(int numberOfParagraph, SingleProofreadingError[] errorArray) {
     rwLock.writeLock().lock();
     try {
-      entries.put(numberOfParagraph, new SerialCacheEntry(null, errorArray));
+      putEntry(numberOfParagraph, new SerialCacheEntry(null, errorArray));
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -173,9 +204,9 @@ public class ResultCache implements Serializable {
   public void add(int numberOfParagraph, SingleProofreadingError[] errorArray) {
     rwLock.writeLock().lock();
     try {
-      SerialCacheEntry cacheEntry = entries.get(numberOfParagraph);
+      SerialCacheEntry cacheEntry = getEntry(numberOfParagraph);
       cacheEntry.addErrorArray(errorArray);
-      entries.put(numberOfParagraph, cacheEntry);
+      putEntry(numberOfParagraph, cacheEntry);
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -188,6 +219,8 @@ public class ResultCache implements Serializable {
     rwLock.writeLock().lock();
     try {
       entries.clear();
+      lazyEntries = null;
+      setAllChanged();
     } finally {
       rwLock.writeLock().unlock();
     }
@@ -199,7 +232,7 @@ public class ResultCache implements Serializable {
   public int size() {
     rwLock.readLock().lock();
     try {
-      return entries.size();
+      return entriesSize();
     } finally {
       rwLock.readLock().unlock();
     }
@@ -211,6 +244,7 @@ public class ResultCache implements Serializable {
   public int getNumberofNotNullEntries() {
     rwLock.readLock().lock();
     try {
+      loadAll();
       int num = 0;
       for (int n : entries.keySet()) {
         if (entries.get(n) != null) {
@@ -229,6 +263,7 @@ public class ResultCache implements Serializable {
   public int getNumberofErrors() {
     rwLock.readLock().lock();
     try {
+      loadAll();
       int num = 0;
       for (int n : entries.keySet()) {
         if (entries.get(n) != null) {
@@ -247,7 +282,7 @@ public class ResultCache implements Serializable {
   public CacheEntry getCacheEntry(int numberOfParagraph) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numberOfParagraph);
+      SerialCacheEntry entry = getEntry(numberOfParagraph);
       return entry == null ? null : new CacheEntry(entry);
     } finally {
       rwLock.readLock().unlock();
@@ -258,7 +293,7 @@ public class ResultCache implements Serializable {
    * get cache entry of paragraph without read lock 
    */
   public CacheEntry getUnsafeCacheEntry(int numberOfParagraph) {
-    SerialCacheEntry entry = entries.get(numberOfParagraph);
+    SerialCacheEntry entry = getEntry(numberOfParagraph);
     return entry == null ? null : new CacheEntry(entry);
   }
 
@@ -268,9 +303,10 @@ public class ResultCache implements Serializable {
   public boolean hasAnError(int limit) {
     rwLock.readLock().lock();
     try {
-      if (entries.size() >= limit) {
+      if (entriesSize() >= limit) {
         return true;
       }
+      loadAll();
       Set<Integer> paras = new HashSet<>(entries.keySet());
       for (int n : paras) {
         if (entries.get(n).errorArray.length > 0) {
@@ -289,7 +325,7 @@ public class ResultCache implements Serializable {
   public SerialCacheEntry getSerialCacheEntry(int numberOfParagraph) {
     rwLock.readLock().lock();
     try {
-      return entries.get(numberOfParagraph);
+      return getEntry(numberOfParagraph);
     } finally {
       rwLock.readLock().unlock();
     }
@@ -302,7 +338,7 @@ public class ResultCache implements Serializable {
   public SingleProofreadingError[] getSafeMatches(int numberOfParagraph) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numberOfParagraph);
+      SerialCacheEntry entry = getEntry(numberOfParagraph);
       if (entry == null) {
         return null;
       }
@@ -321,7 +357,7 @@ public class ResultCache implements Serializable {
   public SingleProofreadingError[] getMatches(int numberOfParagraph, LoErrorType errType) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numberOfParagraph);
+      SerialCacheEntry entry = getEntry(numberOfParagraph);
       if (entry == null) {
         return null;
       }
@@ -348,7 +384,7 @@ public class ResultCache implements Serializable {
   public int getStartSentencePosition(int numberOfParagraph, int sentencePosition) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numberOfParagraph);
+      SerialCacheEntry entry = getEntry(numberOfParagraph);
       if (entry == null) {
         return 0;
       }
@@ -375,7 +411,7 @@ public class ResultCache implements Serializable {
   public int getNextSentencePosition(int numberOfParagraph, int sentencePosition) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numberOfParagraph);
+      SerialCacheEntry entry = getEntry(numberOfParagraph);
       if (entry == null) {
         return 0;
       }
@@ -401,7 +437,7 @@ public class ResultCache implements Serializable {
                                         int startOfSentencePosition, int endOfSentencePosition, LoErrorType errType) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numberOfParagraph);
+      SerialCacheEntry entry = getEntry(numberOfParagraph);
       if (entry == null) {
         return null;
       }
@@ -473,11 +509,12 @@ public class ResultCache implements Serializable {
       SerialCacheEntry oEntry;
       SerialCacheEntry nEntry;
       boolean isDifferent = true;
+      loadAll();
       Set<Integer> entrySet = new HashSet<>(entries.keySet());
       for (int nPara : entrySet) {
         if (oldCache != null) {
           nEntry = entries.get(nPara);
-          oEntry = oldCache.entries.get(nPara);
+          oEntry = oldCache.getEntry(nPara);
           isDifferent = areDifferentEntries(nEntry, oEntry);
         }
         if (isDifferent) {
@@ -498,6 +535,7 @@ public class ResultCache implements Serializable {
     rwLock.writeLock().lock();
     try {
       List<Integer> changed = new ArrayList<>();
+      loadAll();
       Set<Integer> keySet = entries.keySet();
       for (int n : keySet) {
         SerialCacheEntry entry = entries.get(n);
@@ -517,7 +555,7 @@ public class ResultCache implements Serializable {
               j++;
             }
           }
-          entries.put(n, new SerialCacheEntry(entry.nextSentencePositions, newArray));
+          putEntry(n, new SerialCacheEntry(entry.nextSentencePositions, newArray));
         }
       }
       return changed;
@@ -532,7 +570,7 @@ public class ResultCache implements Serializable {
   public int getNumberOfParas() {
     rwLock.readLock().lock();
     try {
-      return entries.size();
+      return entriesSize();
     } finally {
       rwLock.readLock().unlock();
     }
@@ -544,7 +582,7 @@ public class ResultCache implements Serializable {
   public int getNumberOfEntries() {
     rwLock.readLock().lock();
     try {
-      return entries.size();
+      return entriesSize();
     } finally {
       rwLock.readLock().unlock();
     }
@@ -556,6 +594,7 @@ public class ResultCache implements Serializable {
   public int getNumberOfMatches() {
     rwLock.readLock().lock();
     try {
+      loadAll();
       int number = 0;
       for (int n : entries.keySet()) {
         number += entries.get(n).errorArray.length;
@@ -574,7 +613,7 @@ public class ResultCache implements Serializable {
   public SingleProofreadingError getErrorAtPosition(int numPara, int numChar) {
     rwLock.readLock().lock();
     try {
-      SerialCacheEntry entry = entries.get(numPara);
+      SerialCacheEntry entry = getEntry(numPara);
       if (entry == null) {
         return null;
       }
@@ -593,6 +632,133 @@ public class ResultCache implements Serializable {
     }
   }
 
+  /**
+   * get a cache entry, decode it from the cache file if it was not needed before
+   * has to be called with read or write lock
+   */
+  private SerialCacheEntry getEntry(int numberOfParagraph) {
+    SerialCacheEntry entry = entries.get(numberOfParagraph);
+    ResultCacheFile.LazyEntries lazy = lazyEntries;
+    if (entry == null && lazy != null && !lazy.isEmpty()) {
+      entry = entries.computeIfAbsent(numberOfParagraph, n -> lazy.decode(n, this));
+    }
+    return entry;
+  }
+
+  /**
+   * decode all entries which are still in the cache file
+   * has to be called with read or write lock
+   */
+  private void loadAll() {
+    ResultCacheFile.LazyEntries lazy = lazyEntries;
+    if (lazy != null) {
+      for (int n : lazy.getParagraphs()) {
+        getEntry(n);
+      }
+    }
+  }
+
+  /**
+   * number of entries (inclusive the not decoded entries)
+   * has to be called with read or write lock
+   */
+  private int entriesSize() {
+    ResultCacheFile.LazyEntries lazy = lazyEntries;
+    return entries.size() + (lazy == null ? 0 : lazy.size());
+  }
+
+  /**
+   * has to be called with write lock
+   */
+  private void putEntry(int numberOfParagraph, SerialCacheEntry entry) {
+    entries.put(numberOfParagraph, entry);
+    ResultCacheFile.LazyEntries lazy = lazyEntries;
+    if (lazy != null) {
+      lazy.remove(numberOfParagraph);
+    }
+    changedParas.add(numberOfParagraph);
+  }
+
+  /**
+   * has to be called with write lock
+   */
+  private void removeEntry(int numberOfParagraph) {
+    entries.remove(numberOfParagraph);
+    ResultCacheFile.LazyEntries lazy = lazyEntries;
+    if (lazy != null) {
+      lazy.remove(numberOfParagraph);
+    }
+    changedParas.add(numberOfParagraph);
+  }
+
+  /**
+   * has to be called with write lock
+   */
+  private void setAllChanged() {
+    allChanged = true;
+    changedParas.clear();
+    shifts.clear();
+  }
+
+  /**
+   * Set the content of the cache to the entries of a cache file
+   * the entries are decoded when they are needed
+   */
+  void setLazyEntries(ResultCacheFile.LazyEntries lazy) {
+    rwLock.writeLock().lock();
+    try {
+      entries.clear();
+      lazyEntries = lazy;
+      allChanged = false;
+      changedParas.clear();
+      shifts.clear();
+    } finally {
+      rwLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the changes since the last call (or since the cache was read from a cache file) and reset them
+   * if all == true or the cache was replaced or cleared: get all entries
+   */
+  Changes takeChanges(boolean all) {
+    rwLock.writeLock().lock();
+    try {
+      Changes changes;
+      if (all || allChanged) {
+        loadAll();
+        changes = new Changes(true, new ArrayList<>(), new HashMap<>(entries));
+      } else {
+        Map<Integer, SerialCacheEntry> changedEntries = new HashMap<>();
+        for (int n : changedParas) {
+          changedEntries.put(n, entries.get(n));
+        }
+        changes = new Changes(false, new ArrayList<>(shifts), changedEntries);
+      }
+      allChanged = false;
+      changedParas.clear();
+      shifts.clear();
+      return changes;
+    } finally {
+      rwLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Changes of a cache, which have to be written to a cache file
+   */
+  static class Changes {
+    final boolean all;                                //  entries contains the complete cache
+    final List<int[]> shifts;                         //  parameters of removeAndShift calls
+    final Map<Integer, SerialCacheEntry> entries;     //  changed entries (null if the entry was removed)
+
+    Changes(boolean all, List<int[]> shifts, Map<Integer, SerialCacheEntry> entries) {
+      this.all = all;
+      this.shifts = shifts;
+      this.entries = entries;
+    }
+  }
+
   /**
    * Class of serializable cache entries
    */
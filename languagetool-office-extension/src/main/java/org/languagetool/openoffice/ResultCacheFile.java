@@ -0,0 +1,519 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.openoffice;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.star.beans.PropertyState;
+import com.sun.star.beans.PropertyValue;
+import com.sun.star.linguistic2.SingleProofreadingError;
+
+/**
+ * Binary file to store the result caches of a document (see {@link ResultCache})
+ * The file is a log of records (put, remove or shift of paragraphs, clear of a cache).
+ * Changes are appended to the file, so a save only writes the paragraphs that have changed.
+ * The file is read by memory mapping: only the positions of the records are read,
+ * the entries of a paragraph are decoded when they are needed.
+ * The valid length of the file is stored in the document cache file (see {@link CacheIO}),
+ * so a record that was appended after the last complete save is ignored.
+ * @since 6.4
+ */
+class ResultCacheFile {
+
+  private static final boolean DEBUG_MODE = OfficeTools.DEBUG_MODE_IO;
+
+  private static final int MAGIC = 0x4C545243;         //  "LTRC"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final int MIN_RECORDS_TO_COMPACT = 1000;
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  private static final byte SHIFT = 3;
+  private static final byte CLEAR = 4;
+
+  private static final byte NULL_VALUE = 0;
+  private static final byte STRING_VALUE = 1;
+  private static final byte INT_VALUE = 2;
+  private static final byte SHORT_VALUE = 3;
+  private static final byte BOOLEAN_VALUE = 4;
+  private static final byte LONG_VALUE = 5;
+
+  private final File file;
+  private final List<ResultCache> syncedCaches = new ArrayList<>();   //  caches the file is up to date with
+  private long id = 0;
+  private long length = 0;
+  private int records = 0;
+  private List<Map<Integer, Integer>> offsets = null;                 //  positions of the entries after open()
+  private ByteBuffer buffer = null;
+
+  ResultCacheFile(File file) {
+    this.file = file;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  /**
+   * random id of the file, it changes if the file is written completely new
+   */
+  long getId() {
+    return id;
+  }
+
+  /**
+   * length of the file after the last save
+   */
+  long getLength() {
+    return length;
+  }
+
+  /**
+   * open the file, read only the first 'validLength' bytes
+   * returns false if the file doesn't exist or is not the expected one
+   */
+  boolean open(long expectedId, long validLength, int numberOfCaches) {
+    try {
+      if (!file.exists() || file.length() < validLength || validLength < HEADER_SIZE) {
+        return false;
+      }
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, validLength);
+      }
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != expectedId) {
+        MessageHandler.printToLogFile("ResultCacheFile: open: Wrong header: Cache not read: " + file);
+        buffer = null;
+        return false;
+      }
+      offsets = new ArrayList<>();
+      for (int i = 0; i < numberOfCaches; i++) {
+        offsets.add(new HashMap<>());
+      }
+      records = 0;
+      while (buffer.hasRemaining()) {
+        readRecord(buffer, offsets);
+        records++;
+      }
+      id = expectedId;
+      length = validLength;
+      if (DEBUG_MODE) {
+        MessageHandler.printToLogFile("ResultCacheFile: open: " + records + " records read from: " + file);
+      }
+      return true;
+    } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      MessageHandler.printToLogFile("ResultCacheFile: open: Corrupt file: Cache not read: " + file + ": " + e);
+      offsets = null;
+      buffer = null;
+      return false;
+    }
+  }
+
+  /**
+   * set the content of the caches to the file content read by open()
+   * the entries are decoded when they are needed
+   */
+  void load(List<ResultCache> caches) {
+    syncedCaches.clear();
+    for (int i = 0; i < caches.size(); i++) {
+      Map<Integer, Integer> cacheOffsets = offsets != null && i < offsets.size() ? offsets.get(i) : new HashMap<>();
+      caches.get(i).setLazyEntries(new LazyEntries(buffer, cacheOffsets));
+      syncedCaches.add(caches.get(i));
+    }
+    offsets = null;
+  }
+
+  /**
+   * number of entries per cache read by open()
+   */
+  int[] getNumberOfEntries() {
+    int[] n = new int[offsets == null ? 0 : offsets.size()];
+    for (int i = 0; i < n.length; i++) {
+      n[i] = offsets.get(i).size();
+    }
+    return n;
+  }
+
+  /**
+   * write the changes of the caches to the file
+   * the changes are appended, the file is only written completely new,
+   * if it doesn't exist or has too many outdated records
+   */
+  void save(List<ResultCache> caches) throws IOException {
+    boolean rewrite = length == 0 || !file.exists() || file.length() < length || caches.size() != syncedCaches.size();
+    int liveEntries = 0;
+    for (ResultCache cache : caches) {
+      liveEntries += cache.getNumberOfEntries();
+    }
+    if (records > MIN_RECORDS_TO_COMPACT && records > 2 * liveEntries) {
+      rewrite = true;
+    }
+    List<ResultCache.Changes> changes = new ArrayList<>();
+    for (int i = 0; i < caches.size(); i++) {
+      boolean synced = !rewrite && syncedCaches.get(i) == caches.get(i);
+      changes.add(caches.get(i).takeChanges(!synced));
+    }
+    syncedCaches.clear();
+    try {
+      if (rewrite && rewrite(changes)) {
+        MessageHandler.printToLogFile("ResultCacheFile: save: Caches written to: " + file);
+      } else {
+        append(changes);
+        if (DEBUG_MODE) {
+          MessageHandler.printToLogFile("ResultCacheFile: save: Changes appended to: " + file);
+        }
+      }
+    } catch (IOException e) {
+      length = 0;     //  write the whole file at next save
+      throw e;
+    }
+    syncedCaches.addAll(caches);
+  }
+
+  /**
+   * write all entries to a new file and replace the old one by it
+   * returns false, if the old file can't be replaced (e.g. on Windows while it's mapped to memory)
+   */
+  private boolean rewrite(List<ResultCache.Changes> changes) throws IOException {
+    File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+    long newId = new Random().nextLong();
+    int newRecords;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(newId);
+      newRecords = writeRecords(out, changes, false);
+    }
+    try {
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      MessageHandler.printToLogFile("ResultCacheFile: rewrite: Can't replace " + file + ": " + e.getMessage());
+      tmpFile.delete();
+      if (length == 0 || !file.exists()) {
+        throw e;
+      }
+      return false;
+    }
+    id = newId;
+    length = file.length();
+    records = newRecords;
+    return true;
+  }
+
+  /**
+   * append the changes to the file, the content after the last save is overwritten
+   */
+  private void append(List<ResultCache.Changes> changes) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      if (channel.size() > length) {
+        channel.truncate(length);
+      }
+      channel.position(length);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      records += writeRecords(out, changes, true);
+      out.flush();
+      length = channel.position();
+    }
+  }
+
+  private static int writeRecords(DataOutputStream out, List<ResultCache.Changes> changes, boolean append) throws IOException {
+    int n = 0;
+    ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+    DataOutputStream entryOut = new DataOutputStream(entryBytes);
+    for (int i = 0; i < changes.size(); i++) {
+      ResultCache.Changes cacheChanges = changes.get(i);
+      if (append && cacheChanges.all) {
+        out.writeByte(CLEAR);
+        out.writeInt(i);
+        n++;
+      }
+      for (int[] shift : cacheChanges.shifts) {
+        out.writeByte(SHIFT);
+        out.writeInt(i);
+        for (int param : shift) {
+          out.writeInt(param);
+        }
+        n++;
+      }
+      for (Map.Entry<Integer, ResultCache.SerialCacheEntry> entry : cacheChanges.entries.entrySet()) {
+        if (entry.getValue() == null) {
+          if (!cacheChanges.all) {
+            out.writeByte(REMOVE);
+            out.writeInt(i);
+            out.writeInt(entry.getKey());
+            n++;
+          }
+        } else {
+          entryBytes.reset();
+          writeEntry(entryOut, entry.getValue().nextSentencePositions, entry.getValue().getErrorArray());
+          entryOut.flush();
+          out.writeByte(PUT);
+          out.writeInt(i);
+          out.writeInt(entry.getKey());
+          out.writeInt(entryBytes.size());
+          entryBytes.writeTo(out);
+          n++;
+        }
+      }
+    }
+    return n;
+  }
+
+  /**
+   * read the next record and apply it to the offsets of the entries
+   */
+  private static void readRecord(ByteBuffer buffer, List<Map<Integer, Integer>> offsets) throws IOException {
+    byte type = buffer.get();
+    int cacheIndex = buffer.getInt();
+    if (cacheIndex < 0) {
+      throw new IOException("Invalid cache index: " + cacheIndex);
+    }
+    while (offsets.size() <= cacheIndex) {
+      offsets.add(new HashMap<>());
+    }
+    Map<Integer, Integer> cacheOffsets = offsets.get(cacheIndex);
+    if (type == PUT) {
+      int paragraph = buffer.getInt();
+      int size = buffer.getInt();
+      cacheOffsets.put(paragraph, buffer.position());
+      buffer.position(buffer.position() + size);
+    } else if (type == REMOVE) {
+      cacheOffsets.remove(buffer.getInt());
+    } else if (type == SHIFT) {
+      int fromParagraph = buffer.getInt();
+      int toParagraph = buffer.getInt();
+      int oldSize = buffer.getInt();
+      int newSize = buffer.getInt();
+      ResultCache.shiftMap(cacheOffsets, fromParagraph, toParagraph, newSize - oldSize);
+    } else if (type == CLEAR) {
+      cacheOffsets.clear();
+    } else {
+      throw new IOException("Invalid record type: " + type);
+    }
+  }
+
+  static void writeEntry(DataOutputStream out, List<Integer> nextSentencePositions, SingleProofreadingError[] errors) throws IOException {
+    if (nextSentencePositions == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(nextSentencePositions.size());
+      for (int position : nextSentencePositions) {
+        out.writeInt(position);
+      }
+    }
+    out.writeInt(errors.length);
+    for (SingleProofreadingError error : errors) {
+      out.writeInt(error.nErrorStart);
+      out.writeInt(error.nErrorLength);
+      out.writeInt(error.nErrorType);
+      writeString(out, error.aFullComment);
+      writeString(out, error.aRuleIdentifier);
+      writeString(out, error.aShortComment);
+      if (error.aSuggestions == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeInt(error.aSuggestions.length);
+        for (String suggestion : error.aSuggestions) {
+          writeString(out, suggestion);
+        }
+      }
+      if (error.aProperties == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeInt(error.aProperties.length);
+        for (PropertyValue property : error.aProperties) {
+          writeString(out, property.Name);
+          writeValue(out, property.Value);
+        }
+      }
+    }
+  }
+
+  static SingleProofreadingError[] readErrors(ByteBuffer in) {
+    SingleProofreadingError[] errors = new SingleProofreadingError[in.getInt()];
+    for (int i = 0; i < errors.length; i++) {
+      SingleProofreadingError error = new SingleProofreadingError();
+      error.nErrorStart = in.getInt();
+      error.nErrorLength = in.getInt();
+      error.nErrorType = in.getInt();
+      error.aFullComment = readString(in);
+      error.aRuleIdentifier = readString(in);
+      error.aShortComment = readString(in);
+      int nSuggestions = in.getInt();
+      if (nSuggestions >= 0) {
+        error.aSuggestions = new String[nSuggestions];
+        for (int j = 0; j < nSuggestions; j++) {
+          error.aSuggestions[j] = readString(in);
+        }
+      }
+      int nProperties = in.getInt();
+      if (nProperties >= 0) {
+        error.aProperties = new PropertyValue[nProperties];
+        for (int j = 0; j < nProperties; j++) {
+          //  see SingleCheck: handle is always -1 and state is always DIRECT_VALUE
+          error.aProperties[j] = new PropertyValue(readString(in), -1, readValue(in), PropertyState.DIRECT_VALUE);
+        }
+      }
+      errors[i] = error;
+    }
+    return errors;
+  }
+
+  static List<Integer> readPositions(ByteBuffer in) {
+    int nPositions = in.getInt();
+    if (nPositions < 0) {
+      return null;
+    }
+    List<Integer> positions = new ArrayList<>(nPositions);
+    for (int i = 0; i < nPositions; i++) {
+      positions.add(in.getInt());
+    }
+    return positions;
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(ByteBuffer in) {
+    int size = in.getInt();
+    if (size < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[size];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL_VALUE);
+    } else if (value instanceof String) {
+      out.writeByte(STRING_VALUE);
+      writeString(out, (String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INT_VALUE);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT_VALUE);
+      out.writeShort((Short) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN_VALUE);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG_VALUE);
+      out.writeLong((Long) value);
+    } else {
+      throw new IOException("Unsupported property value type: " + value.getClass());
+    }
+  }
+
+  private static Object readValue(ByteBuffer in) {
+    byte type = in.get();
+    switch (type) {
+      case NULL_VALUE: return null;
+      case STRING_VALUE: return readString(in);
+      case INT_VALUE: return in.getInt();
+      case SHORT_VALUE: return in.getShort();
+      case BOOLEAN_VALUE: return in.get() != 0;
+      case LONG_VALUE: return in.getLong();
+      default: throw new IllegalArgumentException("Unsupported property value type: " + type);
+    }
+  }
+
+  /**
+   * Entries of a result cache, that are still in the memory mapped file
+   * an entry is decoded (and removed from here) when it's needed
+   */
+  static class LazyEntries {
+
+    private final ByteBuffer buffer;
+    private final Map<Integer, Integer> offsets;
+
+    LazyEntries(ByteBuffer buffer, Map<Integer, Integer> offsets) {
+      this.buffer = buffer;
+      this.offsets = new ConcurrentHashMap<>(offsets);
+    }
+
+    LazyEntries copy() {
+      return new LazyEntries(buffer, offsets);
+    }
+
+    boolean isEmpty() {
+      return offsets.isEmpty();
+    }
+
+    int size() {
+      return offsets.size();
+    }
+
+    Set<Integer> getParagraphs() {
+      return offsets.keySet();
+    }
+
+    void remove(int numberOfParagraph) {
+      offsets.remove(numberOfParagraph);
+    }
+
+    void shift(int fromParagraph, int toParagraph, int shift) {
+      ResultCache.shiftMap(offsets, fromParagraph, toParagraph, shift);
+    }
+
+    /**
+     * decode the entry of a paragraph, returns null if there is none
+     */
+    ResultCache.SerialCacheEntry decode(int numberOfParagraph, ResultCache cache) {
+      Integer offset = offsets.remove(numberOfParagraph);
+      if (offset == null) {
+        return null;
+      }
+      ByteBuffer in = buffer.duplicate();
+      in.position(offset);
+      List<Integer> nextSentencePositions = readPositions(in);
+      return cache.new SerialCacheEntry(nextSentencePositions, readErrors(in));
+    }
+  }
+
+}
@@ -677,9 +677,7 @@ public class SingleDocument {
       boolean cacheExist = cacheIO.readAllCaches(config, mDocHandler);
       if (cacheExist) {
         docCache.put(cacheIO.getDocumentCache());
-        for (int i = 0; i < cacheIO.getParagraphsCache().size(); i++) {
-          paragraphsCache.get(i).replace(cacheIO.getParagraphsCache().get(i));
-        }
+        cacheIO.loadParagraphsCache(paragraphsCache);
         permanentIgnoredMatches = new IgnoredMatches(cacheIO.getIgnoredMatches());
         if (docType == DocumentType.WRITER && mDocHandler != null) {
           mDocHandler.runShapeCheck(docCache.hasUnsupportedText(), 9);
@@ -696,11 +694,7 @@ public class SingleDocument {
     if (numParasToCheck != 0 && !config.noBackgroundCheck() && docType != DocumentType.CALC) {
       MessageHandler.printToLogFile("SingleDocument: writeCaches: Copy DocumentCache");
       DocumentCache docCache = new DocumentCache(this.docCache);
-      List<ResultCache> paragraphsCache = new ArrayList<ResultCache>();
-      for (int i = 0; i < this.paragraphsCache.size(); i++) {
-        MessageHandler.printToLogFile("SingleDocument: writeCaches: Copy ResultCache " + i);
-        paragraphsCache.add(new ResultCache(this.paragraphsCache.get(i)));
-      }
+      //  result caches are not copied: only their changes since the last save are written
       MessageHandler.printToLogFile("SingleDocument: writeCaches: Save Caches ...");
       cacheIO.saveCaches(docCache, paragraphsCache, permanentIgnoredMatches, config, mDocHandler);
       SpellCache sc = cacheIO.new SpellCache();
@@ -0,0 +1,202 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.openoffice;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.openoffice.OfficeTools.LoErrorType;
+
+import com.sun.star.beans.PropertyState;
+import com.sun.star.beans.PropertyValue;
+import com.sun.star.linguistic2.SingleProofreadingError;
+import com.sun.star.text.TextMarkupType;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheFileTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    File file = new File(tempFolder.getRoot(), "LtCache1.lcr");
+    List<ResultCache> caches = Arrays.asList(new ResultCache(), new ResultCache());
+    for (int i = 0; i < 10; i++) {
+      caches.get(0).put(i, Arrays.asList(5, 12), new SingleProofreadingError[] { error(i, "RULE_" + i) });
+    }
+    caches.get(1).put(3, new SingleProofreadingError[0]);
+    ResultCacheFile resultFile = new ResultCacheFile(file);
+    resultFile.save(caches);
+
+    List<ResultCache> loaded = load(file, resultFile);
+    assertEquals(10, loaded.get(0).size());
+    assertEquals(1, loaded.get(1).size());
+    assertSameContent(caches, loaded);
+    SingleProofreadingError error = loaded.get(0).getMatches(4, LoErrorType.BOTH)[0];
+    assertEquals("RULE_4", error.aRuleIdentifier);
+    assertArrayEquals(new String[] { "a", "b" }, error.aSuggestions);
+    assertEquals("http://example.com", error.aProperties[0].Value);
+    assertEquals(0xFF0000, error.aProperties[1].Value);
+    assertEquals((short) 18, error.aProperties[2].Value);
+    assertEquals(PropertyState.DIRECT_VALUE, error.aProperties[2].State);
+    assertEquals(12, loaded.get(0).getNextSentencePosition(4, 5));
+    assertEquals(0, loaded.get(1).getMatches(3, LoErrorType.BOTH).length);
+    assertNull(loaded.get(1).getMatches(4, LoErrorType.BOTH));
+  }
+
+  @Test
+  public void testIncrementalSave() throws IOException {
+    File file = new File(tempFolder.getRoot(), "LtCache1.lcr");
+    List<ResultCache> caches = Arrays.asList(new ResultCache(), new ResultCache());
+    for (int i = 0; i < 100; i++) {
+      caches.get(0).put(i, new SingleProofreadingError[] { error(i, "RULE_" + i) });
+    }
+    ResultCacheFile resultFile = new ResultCacheFile(file);
+    resultFile.save(caches);
+    long fullLength = resultFile.getLength();
+    long id = resultFile.getId();
+
+    // read lazily into the caches of the document and change them:
+    resultFile = new ResultCacheFile(file);
+    assertTrue(resultFile.open(id, fullLength, 2));
+    List<ResultCache> docCaches = Arrays.asList(new ResultCache(), new ResultCache());
+    resultFile.load(docCaches);
+    docCaches.get(0).put(5, new SingleProofreadingError[] { error(5, "CHANGED") });
+    docCaches.get(0).remove(7);
+    docCaches.get(0).removeAndShift(20, 20, 100, 98);   // paragraphs 20 and 21 deleted
+    docCaches.get(0).put(30, new SingleProofreadingError[] { error(30, "AFTER_SHIFT") });
+    docCaches.get(1).put(2, new SingleProofreadingError[] { error(2, "OTHER_CACHE") });
+    resultFile.save(docCaches);
+    assertEquals(id, resultFile.getId());
+    assertTrue(resultFile.getLength() - fullLength < fullLength / 10);
+
+    List<ResultCache> loaded = load(file, resultFile);
+    assertEquals(97, loaded.get(0).size());
+    assertEquals("CHANGED", loaded.get(0).getMatches(5, LoErrorType.BOTH)[0].aRuleIdentifier);
+    assertNull(loaded.get(0).getMatches(7, LoErrorType.BOTH));
+    assertEquals("RULE_22", loaded.get(0).getMatches(20, LoErrorType.BOTH)[0].aRuleIdentifier);
+    assertEquals("AFTER_SHIFT", loaded.get(0).getMatches(30, LoErrorType.BOTH)[0].aRuleIdentifier);
+    assertEquals("RULE_99", loaded.get(0).getMatches(97, LoErrorType.BOTH)[0].aRuleIdentifier);
+    assertSameContent(docCaches, loaded);
+
+    // without a change nothing is written, a cleared cache is written completely:
+    long length = resultFile.getLength();
+    resultFile.save(docCaches);
+    assertEquals(length, resultFile.getLength());
+    docCaches.get(1).removeAll();
+    resultFile.save(docCaches);
+    assertSameContent(docCaches, load(file, resultFile));
+  }
+
+  @Test
+  public void testUncommittedChangesAreIgnored() throws IOException {
+    File file = new File(tempFolder.getRoot(), "LtCache1.lcr");
+    List<ResultCache> caches = Arrays.asList(new ResultCache());
+    caches.get(0).put(0, new SingleProofreadingError[] { error(0, "RULE_0") });
+    ResultCacheFile resultFile = new ResultCacheFile(file);
+    resultFile.save(caches);
+    long id = resultFile.getId();
+    long length = resultFile.getLength();
+    caches.get(0).put(1, new SingleProofreadingError[] { error(1, "RULE_1") });
+    resultFile.save(caches);
+
+    ResultCacheFile oldState = new ResultCacheFile(file);
+    assertTrue(oldState.open(id, length, 1));
+    List<ResultCache> loaded = Arrays.asList(new ResultCache());
+    oldState.load(loaded);
+    assertEquals(1, loaded.get(0).size());
+    assertNull(loaded.get(0).getMatches(1, LoErrorType.BOTH));
+
+    assertFalse(new ResultCacheFile(file).open(id + 1, length, 1));
+    assertFalse(new ResultCacheFile(file).open(id, file.length() + 1, 1));
+  }
+
+  @Test
+  public void testCopyOfLazyCache() throws IOException {
+    File file = new File(tempFolder.getRoot(), "LtCache1.lcr");
+    List<ResultCache> caches = Arrays.asList(new ResultCache());
+    for (int i = 0; i < 5; i++) {
+      caches.get(0).put(i, new SingleProofreadingError[] { error(i, "RULE_" + i) });
+    }
+    ResultCacheFile resultFile = new ResultCacheFile(file);
+    resultFile.save(caches);
+    List<ResultCache> loaded = load(file, resultFile);
+    ResultCache copy = new ResultCache(loaded.get(0));
+    loaded.get(0).remove(2);
+    assertEquals(5, copy.size());
+    assertEquals(4, loaded.get(0).size());
+    assertEquals("RULE_2", copy.getMatches(2, LoErrorType.BOTH)[0].aRuleIdentifier);
+    assertEquals(4, loaded.get(0).getNumberOfMatches());
+    assertEquals(5, copy.getNumberOfMatches());
+  }
+
+  private List<ResultCache> load(File file, ResultCacheFile savedFile) {
+    ResultCacheFile resultFile = new ResultCacheFile(file);
+    assertTrue(resultFile.open(savedFile.getId(), savedFile.getLength(), 2));
+    List<ResultCache> caches = Arrays.asList(new ResultCache(), new ResultCache());
+    resultFile.load(caches);
+    return caches;
+  }
+
+  private void assertSameContent(List<ResultCache> expected, List<ResultCache> actual) {
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).size(), actual.get(i).size());
+      for (int n = 0; n < 200; n++) {
+        assertEquals(toString(expected.get(i).getMatches(n, LoErrorType.BOTH)), toString(actual.get(i).getMatches(n, LoErrorType.BOTH)));
+      }
+    }
+  }
+
+  private String toString(SingleProofreadingError[] errors) {
+    if (errors == null) {
+      return "null";
+    }
+    List<String> result = new ArrayList<>();
+    for (SingleProofreadingError error : errors) {
+      result.add(error.nErrorStart + "/" + error.nErrorLength + "/" + error.aRuleIdentifier + "/" + Arrays.toString(error.aSuggestions));
+    }
+    return result.toString();
+  }
+
+  private SingleProofreadingError error(int start, String ruleId) {
+    SingleProofreadingError error = new SingleProofreadingError();
+    error.nErrorStart = start;
+    error.nErrorLength = 3;
+    error.nErrorType = TextMarkupType.PROOFREADING;
+    error.aFullComment = "Full comment with ümlauts";
+    error.aShortComment = null;
+    error.aRuleIdentifier = ruleId;
+    error.aSuggestions = new String[] { "a", "b" };
+    error.aProperties = new PropertyValue[] {
+      new PropertyValue("FullCommentURL", -1, "http://example.com", PropertyState.DIRECT_VALUE),
+      new PropertyValue("LineColor", -1, 0xFF0000, PropertyState.DIRECT_VALUE),
+      new PropertyValue("LineType", -1, (short) 18, PropertyState.DIRECT_VALUE)
+    };
+    return error;
+  }
+
+}
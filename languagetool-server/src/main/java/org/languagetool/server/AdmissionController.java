@@ -0,0 +1,171 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.languagetool.Language;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a check request gets into the text checker pool. The cost of a request
+ * is predicted from its text length and the check speed observed for its language. If the work
+ * already admitted means the request cannot finish within its {@code maxCheckTimeMillis},
+ * it's rejected right away instead of timing out after wasting a thread on it.
+ * Texts longer than {@link #SHORT_TEXT_LENGTH} are only admitted while the predicted wait is
+ * at most half of their time budget, so short interactive requests still get through under load.
+ * Admitted requests are run cheapest first, see {@link CostOrderedQueue}.
+ * @since 6.4
+ */
+@Slf4j
+class AdmissionController {
+
+  static final int SHORT_TEXT_LENGTH = 1000;
+
+  private static final double DEFAULT_CHARS_PER_SECOND = 5000;  // used until we have seen checks for a language
+  private static final long OVERHEAD_MILLIS = 5;  // fixed cost of any request (pipeline, language detection, ...)
+  private static final int MIN_LENGTH_FOR_SPEED = 100;  // speed of shorter texts is dominated by overhead
+  private static final double SPEED_SMOOTHING = 0.1;
+
+  private final int threads;
+  private final Map<String, Double> charsPerSecond = new ConcurrentHashMap<>();
+  private final AtomicLong pendingCostMillis = new AtomicLong();
+  private final AtomicInteger pendingRequests = new AtomicInteger();
+
+  AdmissionController(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * @param maxCheckTimeMillis the time budget of the request, a negative value means no limit
+   * @throws UnavailableException if the request would not finish within {@code maxCheckTimeMillis}
+   */
+  Ticket admit(Language lang, int textLength, long maxCheckTimeMillis) {
+    long cost = estimateCostMillis(lang, textLength);
+    long predictedWait = getPredictedWaitMillis();
+    ServerMetricsCollector.getInstance().logAdmission(predictedWait, pendingRequests.get());
+    // without other pending requests, there's nothing to gain from rejecting:
+    if (maxCheckTimeMillis >= 0 && pendingRequests.get() > 0) {
+      boolean tooSlow = predictedWait + cost > maxCheckTimeMillis;
+      boolean longTextUnderLoad = textLength > SHORT_TEXT_LENGTH && predictedWait > maxCheckTimeMillis / 2;
+      if (tooSlow || longTextUnderLoad) {
+        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.LOAD_SHEDDING);
+        log.info("Rejecting check of {} chars ({}): predicted wait {}ms + cost {}ms, limit {}ms, pending requests: {}",
+          textLength, lang.getShortCodeWithCountryAndVariant(), predictedWait, cost, maxCheckTimeMillis, pendingRequests.get());
+        throw new UnavailableException("Server overloaded, please try again later");
+      }
+    }
+    return new Ticket(lang, textLength, cost);
+  }
+
+  long estimateCostMillis(Language lang, int textLength) {
+    double speed = getCharsPerSecond(lang);
+    return OVERHEAD_MILLIS + (long) (textLength * 1000 / speed);
+  }
+
+  /**
+   * Time a newly submitted request is expected to wait until all requests admitted before are done.
+   */
+  long getPredictedWaitMillis() {
+    return pendingCostMillis.get() / threads;
+  }
+
+  int getPendingRequests() {
+    return pendingRequests.get();
+  }
+
+  double getCharsPerSecond(Language lang) {
+    return charsPerSecond.getOrDefault(lang.getShortCode(), DEFAULT_CHARS_PER_SECOND);
+  }
+
+  private void updateSpeed(Language lang, int textLength, long runNanos) {
+    if (textLength < MIN_LENGTH_FOR_SPEED || runNanos <= 0) {
+      return;
+    }
+    double speed = textLength / (runNanos / 1e9);
+    charsPerSecond.merge(lang.getShortCode(), speed, (old, cur) -> old + SPEED_SMOOTHING * (cur - old));
+  }
+
+  /**
+   * An admitted request. The check calls {@link #started()} when it starts running and {@link #finished()}
+   * when it's done, even if nobody waits for its result anymore. Call {@link #abandon()} when
+   * the check has been cancelled or rejected, so a check that never started doesn't stay pending.
+   */
+  class Ticket {
+
+    private final Language lang;
+    private final int textLength;
+    private final long cost;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile long startNanos;
+
+    private Ticket(Language lang, int textLength, long cost) {
+      this.lang = lang;
+      this.textLength = textLength;
+      this.cost = cost;
+      pendingCostMillis.addAndGet(cost);
+      pendingRequests.incrementAndGet();
+    }
+
+    long getCost() {
+      return cost;
+    }
+
+    void started() {
+      startNanos = System.nanoTime();
+      started.set(true);
+    }
+
+    /**
+     * Remove this request from the pending work if its check has not started. A check that
+     * is already running keeps its share of the pending work until it calls {@link #finished()}.
+     */
+    void abandon() {
+      if (!started.get()) {
+        release();
+      }
+    }
+
+    /**
+     * Remove this request from the pending work. Can safely be called more than once.
+     */
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        pendingCostMillis.addAndGet(-cost);
+        pendingRequests.decrementAndGet();
+      }
+    }
+
+    /**
+     * Remove this request from the pending work and learn the check speed from it.
+     */
+    void finished() {
+      if (startNanos > 0) {
+        updateSpeed(lang, textLength, System.nanoTime() - startNanos);
+      }
+      release();
+    }
+  }
+
+}
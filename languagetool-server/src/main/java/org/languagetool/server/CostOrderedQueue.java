@@ -0,0 +1,88 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Work queue for the text checker pool that hands out the cheapest waiting {@link Task} first,
+ * so a short interactive request doesn't wait behind long texts that were admitted before it.
+ * Tasks with the same cost run in the order they were created, other tasks run before any {@link Task}.
+ * Long texts could wait forever under a constant stream of short ones, but {@link AdmissionController}
+ * doesn't admit them while the predicted wait is high anyway.
+ * @since 6.4
+ */
+class CostOrderedQueue extends PriorityBlockingQueue<Runnable> {
+
+  private static final Comparator<Runnable> BY_COST = Comparator
+    .comparingLong((Runnable r) -> r instanceof Task ? ((Task<?>) r).cost : Long.MIN_VALUE)
+    .thenComparingLong(r -> r instanceof Task ? ((Task<?>) r).sequence : Long.MIN_VALUE);
+
+  private final int capacity;
+
+  /**
+   * @param capacity maximum number of waiting tasks, {@code 0} for no limit
+   */
+  CostOrderedQueue(int capacity) {
+    super(11, BY_COST);
+    this.capacity = capacity > 0 ? capacity : Integer.MAX_VALUE;
+  }
+
+  @Override
+  public synchronized boolean offer(Runnable r) {
+    // the thread pool only uses offer(), a full queue makes it reject the task:
+    return size() < capacity && super.offer(r);
+  }
+
+  @Override
+  public boolean offer(Runnable r, long timeout, TimeUnit unit) {
+    return offer(r);
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return capacity == Integer.MAX_VALUE ? Integer.MAX_VALUE : Math.max(0, capacity - size());
+  }
+
+  /**
+   * A task that {@link CostOrderedQueue} orders by its predicted cost. Pass it to
+   * {@code execute()}, as {@code submit()} wraps it into a task without a cost.
+   */
+  static class Task<T> extends FutureTask<T> {
+
+    private static final AtomicLong nextSequence = new AtomicLong();
+
+    private final long cost;
+    private final long sequence = nextSequence.getAndIncrement();
+
+    /**
+     * @param cost predicted cost of the task, e.g. in milliseconds
+     */
+    Task(Callable<T> callable, long cost) {
+      super(callable);
+      this.cost = cost;
+    }
+  }
+
+}
@@ -20,6 +20,7 @@ package org.languagetool.server;
 
 import com.google.common.cache.Cache;
 import org.apache.ibatis.jdbc.SQL;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.jetbrains.annotations.Nullable;
@@ -44,11 +45,13 @@ import java.util.List;
 abstract class DatabaseAccess {
   private static DatabaseAccess instance;
   protected SqlSessionFactory sqlSessionFactory;
+  protected final UserDictCache userDictCache;
 
   /**
    * Implementations required to provide a constructor with the same signature
    */
   protected DatabaseAccess(HTTPServerConfig config) {
+    userDictCache = UserDictCache.create(config);
   }
   
   static synchronized void init(HTTPServerConfig config) {
@@ -221,6 +224,26 @@ abstract class DatabaseAccess {
    */
   public abstract List<String> getWords(UserLimits limits, List<String> groups, int offset, int limit);
 
+  /**
+   * Like {@link #getWords(UserLimits, List, int, int)} for all words, but served from memory
+   * if {@code userDictCacheMaxWords} is configured and the dictionaries haven't changed since.
+   * @since 6.4
+   */
+  UserDictCache.Entry getCachedWords(UserLimits limits, @Nullable List<String> groups) {
+    return userDictCache.get(limits.getPremiumUid(), groups,
+      () -> getWords(limits, groups, RowBounds.NO_ROW_OFFSET, RowBounds.NO_ROW_LIMIT));
+  }
+
+  /**
+   * Implementations need to call this after words of a user's dictionary have been added or deleted.
+   * @since 6.4
+   */
+  protected void userDictChanged(Long userId) {
+    if (userId != null) {
+      userDictCache.wordsChanged(userId);
+    }
+  }
+
   /**
    * @param limits user account and settings for e.g. caching
    * @param lang language of rules to fetch; fetches global rules and language-specific rules for that language
@@ -80,7 +80,7 @@ class DatabaseAccessOpenSource extends DatabaseAccess {
           }
         }));
 
-        DatabaseLogger.init(sqlSessionFactory);
+        DatabaseLogger.init(sqlSessionFactory, config.getDbLogQueueSize(), config.getDbLogOverflowPolicy());
         if (!config.getDatabaseLogging()) {
           logger.info("dbLogging not set to true, turning off logging");
           DatabaseLogger.getInstance().disableLogging();
@@ -95,7 +95,7 @@ class DatabaseAccessOpenSource extends DatabaseAccess {
 
   @Override
   void invalidateCaches() {
-
+    userDictCache.invalidateAll();
   }
 
   @Override
@@ -191,6 +191,7 @@ class DatabaseAccessOpenSource extends DatabaseAccess {
         map.put("updated_at", now);
         int affectedRows = session.insert("org.languagetool.server.UserDictMapper.addWord", map);
         logger.info("Added '" + word + "' for user " + userId + " to list of ignored words, affectedRows: " + affectedRows);
+        userDictChanged(userId);
         return affectedRows == 1;
       }
     }
@@ -245,6 +246,7 @@ class DatabaseAccessOpenSource extends DatabaseAccess {
       } else {
         int affectedRows = session.delete("org.languagetool.server.UserDictMapper.deleteWord", map);
         logger.info("Deleted '" + word + "' for user " + userId + " from list of ignored words, affectedRows: " + affectedRows);
+        userDictChanged(userId);
         return affectedRows >= 1;
       }
     }
@@ -81,4 +81,9 @@ class DatabaseCheckLogEntry extends DatabaseLogEntry {
     return "org.languagetool.server.LogMapper.logCheck";
   }
 
+  @Override
+  public String getBatchMappingIdentifier() {
+    return "org.languagetool.server.LogMapper.logCheckBatch";
+  }
+
 }
@@ -41,6 +41,17 @@ public abstract class DatabaseLogEntry {
    */
   public abstract String getMappingIdentifier();
 
+  /**
+   * @return identifier for a mybatis SQL statement that inserts several entries of this type at once,
+   * with a map from {@code entries} to a list of {@link #getMapping()} results as parameter;
+   * null if there is no such statement
+   * @since 6.4
+   */
+  @Nullable
+  public String getBatchMappingIdentifier() {
+    return null;
+  }
+
   /**
    * for interdependent log entries, i.e. with foreign keys referencing other entries
    * @return null if no followup needed, else log entry that needs to be inserted directly afterwards
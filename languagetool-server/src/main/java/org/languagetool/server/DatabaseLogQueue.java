@@ -0,0 +1,139 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of log entries for {@link DatabaseLogger}, stored in a ring buffer, so adding
+ * an entry doesn't allocate anything. What happens when the queue is full depends on the
+ * {@link OverflowPolicy}.
+ * @since 6.4
+ */
+final class DatabaseLogQueue {
+
+  enum OverflowPolicy {
+    /** discard the new entry */
+    DROP_NEWEST,
+    /** discard the oldest entry to make room for the new one */
+    DROP_OLDEST,
+    /** replace a random entry with the new one, so the queue keeps a sample of old and new entries */
+    SAMPLE
+  }
+
+  private final DatabaseLogEntry[] entries;
+  private final OverflowPolicy policy;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition enoughEntries = lock.newCondition();
+
+  private int head;   // index of the oldest entry
+  private int count;
+  private int wanted = Integer.MAX_VALUE;  // number of entries the consumer waits for
+
+  DatabaseLogQueue(int capacity, OverflowPolicy policy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+    }
+    this.entries = new DatabaseLogEntry[capacity];
+    this.policy = policy;
+  }
+
+  /**
+   * @return {@code false} if an entry had to be discarded because the queue is full - depending
+   * on the policy, this is the given entry or one that was added earlier
+   */
+  boolean offer(DatabaseLogEntry entry) {
+    lock.lock();
+    try {
+      if (count == entries.length) {
+        switch (policy) {
+          case DROP_NEWEST:
+            break;
+          case DROP_OLDEST:
+            entries[head] = entry;
+            head = (head + 1) % entries.length;
+            break;
+          case SAMPLE:
+            entries[(head + ThreadLocalRandom.current().nextInt(count)) % entries.length] = entry;
+            break;
+          default:
+            throw new IllegalStateException("Unknown policy: " + policy);
+        }
+        return false;
+      }
+      entries[(head + count) % entries.length] = entry;
+      count++;
+      if (count >= wanted) {
+        enoughEntries.signal();
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait until the queue holds at least {@code minEntries} entries or the timeout has elapsed,
+   * then move up to {@code maxEntries} of the oldest entries to {@code target}.
+   * @return whether the timeout has elapsed before {@code minEntries} were available
+   */
+  boolean drainTo(List<DatabaseLogEntry> target, int minEntries, int maxEntries, long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      wanted = minEntries;
+      while (count < minEntries && nanos > 0) {
+        nanos = enoughEntries.awaitNanos(nanos);
+      }
+      wanted = Integer.MAX_VALUE;
+      int n = Math.min(count, maxEntries);
+      for (int i = 0; i < n; i++) {
+        target.add(entries[head]);
+        entries[head] = null;
+        head = (head + 1) % entries.length;
+      }
+      count -= n;
+      return nanos <= 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int capacity() {
+    return entries.length;
+  }
+
+  OverflowPolicy getPolicy() {
+    return policy;
+  }
+
+}
@@ -25,11 +25,14 @@ import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Writes log entries to the database asynchronously. Entries are kept in a bounded
+ * {@link DatabaseLogQueue} and written in batches by a worker thread, using multi-row
+ * inserts where the entry type supports them.
  * @since 4.3
  */
 class DatabaseLogger {
@@ -38,11 +41,15 @@ class DatabaseLogger {
   static DatabaseLogger instance = null;
 
   // smaller numbers used for tests
-  static final int POLLING_TIME = 1000;
-  static int SQL_BATCH_SIZE = 1000;
-  static int SQL_BATCH_WAITING_TIME = 10000; // milliseconds to wait until batch gets committed anyway
-  
-  private static final int MAX_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+  static int SQL_BATCH_SIZE = 1000;  // maximum batch size
+  static int SQL_BATCH_WAITING_TIME = 10000; // maximum milliseconds to wait until batch gets committed anyway
+
+  static final int DEFAULT_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+
+  private static final int MIN_SQL_BATCH_SIZE = 10;
+  private static final int MIN_SQL_BATCH_WAITING_TIME = 100;
+  private static final int MAX_ROWS_PER_INSERT = 100;
+  private static final int DROP_WARNING_INTERVAL = 10000;  // print a warning for every n-th dropped entry
 
   /**
    * @return an instance that will be disabled until initialized by DatabaseAccess
@@ -59,57 +66,105 @@ class DatabaseLogger {
    * @param factory shared factory from DatabaseAccess
    */
   static void init(SqlSessionFactory factory) {
-    getInstance().start(factory);
+    init(factory, DEFAULT_QUEUE_SIZE, DatabaseLogQueue.OverflowPolicy.DROP_NEWEST);
+  }
+
+  /**
+   * called by DatabaseAccess.init
+   * @param factory shared factory from DatabaseAccess
+   * @since 6.4
+   */
+  static void init(SqlSessionFactory factory, int queueSize, DatabaseLogQueue.OverflowPolicy overflowPolicy) {
+    getInstance().start(factory, queueSize, overflowPolicy);
+  }
+
+  /**
+   * Adapts batch size and waiting time to the load: when entries come in faster than they are
+   * written, batches get bigger and are committed sooner; when it's quiet, batches get smaller,
+   * but are committed less often.
+   * @since 6.4
+   */
+  static class FlushPolicy {
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minWaitingTime;
+    private final long maxWaitingTime;
+    private int batchSize;
+    private long waitingTime;
+
+    FlushPolicy(int minBatchSize, int maxBatchSize, long minWaitingTime, long maxWaitingTime) {
+      this.minBatchSize = Math.min(minBatchSize, maxBatchSize);
+      this.maxBatchSize = maxBatchSize;
+      this.minWaitingTime = Math.min(minWaitingTime, maxWaitingTime);
+      this.maxWaitingTime = maxWaitingTime;
+      this.batchSize = this.minBatchSize;
+      this.waitingTime = maxWaitingTime;
+    }
+
+    /**
+     * @param written number of entries written in the last batch
+     * @param backlog number of entries still waiting
+     * @param timedOut whether the last batch was written because the waiting time had elapsed
+     */
+    void update(int written, int backlog, boolean timedOut) {
+      if (backlog >= batchSize) {
+        batchSize = Math.min(maxBatchSize, batchSize * 2);
+        waitingTime = Math.max(minWaitingTime, waitingTime / 2);
+      } else if (timedOut && written < batchSize / 2) {
+        batchSize = Math.max(minBatchSize, batchSize / 2);
+        waitingTime = Math.min(maxWaitingTime, waitingTime * 2);
+      }
+    }
+
+    int getBatchSize() {
+      return batchSize;
+    }
+
+    long getWaitingTime() {
+      return waitingTime;
+    }
   }
 
   private class WorkerThread extends Thread {
     @Override
     public void run() {
-      try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
-        while (!Thread.currentThread().isInterrupted()) {
-          int batchSize = 0;
-          long batchTime = System.currentTimeMillis();
+      FlushPolicy flushPolicy = new FlushPolicy(MIN_SQL_BATCH_SIZE, SQL_BATCH_SIZE, MIN_SQL_BATCH_WAITING_TIME, SQL_BATCH_WAITING_TIME);
+      List<DatabaseLogEntry> batch = new ArrayList<>();
+      while (!Thread.currentThread().isInterrupted()) {
+        boolean timedOut;
+        try {
           // commit when batch size is reached or after waiting period elapsed
-          while(!Thread.currentThread().isInterrupted()
-            && batchSize < SQL_BATCH_SIZE
-            && System.currentTimeMillis() - batchTime < SQL_BATCH_WAITING_TIME)  {
-            if (messages.size() > SQL_BATCH_SIZE) {
-              ServerTools.print(String.format("Logging queue filling up: %d entries", messages.size()));
-            }
-            // polling to be able to react when waiting time has elapsed
-            DatabaseLogEntry entry = messages.poll(POLLING_TIME, TimeUnit.MILLISECONDS);
-            if (entry == null) {
-              continue;
-            }
-            batchSize++;
-            session.insert(entry.getMappingIdentifier(), entry.getMapping());
-            DatabaseLogEntry followup = entry.followup();
-            if (followup != null) { // followup statements need to be inserted directly afterwards, dependent on e.g. generated primary keys
-              session.insert(followup.getMappingIdentifier(), followup.getMapping());
-              batchSize++;
-            }
-          }
-          session.commit();
+          timedOut = queue.drainTo(batch, flushPolicy.getBatchSize(), flushPolicy.getBatchSize(),
+            flushPolicy.getWaitingTime(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          break;
         }
-      } catch (Exception e) {
-        e.printStackTrace();
-        if (!Thread.currentThread().isInterrupted()) {
-          new WorkerThread().start();
+        int written = batch.size();
+        if (written > 0) {
+          write(batch);
+          batch.clear();
         }
+        flushPolicy.update(written, queue.size(), timedOut);
       }
     }
   }
 
-  private final BlockingQueue<DatabaseLogEntry> messages = new LinkedBlockingQueue<>();
+  private final AtomicLong queuedCount = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final AtomicLong flushedCount = new AtomicLong();
+  private final AtomicLong pending = new AtomicLong();  // entries in the queue or being written
+  private volatile DatabaseLogQueue queue = null;
   private SqlSessionFactory sessionFactory = null;
   private WorkerThread worker = null;
-  private boolean disabled = true;
+  private volatile boolean disabled = true;
 
-  private DatabaseLogger() {
+  DatabaseLogger() {
   }
 
-  private void start(SqlSessionFactory factory) {
+  void start(SqlSessionFactory factory, int queueSize, DatabaseLogQueue.OverflowPolicy overflowPolicy) {
     sessionFactory = factory;
+    queue = new DatabaseLogQueue(queueSize, overflowPolicy);
     disabled = false;
     worker = new WorkerThread();
     worker.start();
@@ -127,28 +182,96 @@ class DatabaseLogger {
   }
 
   public void log(DatabaseLogEntry entry) {
-    try {
-      if (!disabled) {
-        if (messages.size() < MAX_QUEUE_SIZE) {
-          messages.put(entry);
+    DatabaseLogQueue queue = this.queue;
+    if (disabled || queue == null) {
+      return;
+    }
+    if (queue.offer(entry)) {
+      pending.incrementAndGet();
+      queuedCount.incrementAndGet();
+      ServerMetricsCollector.getInstance().logDatabaseLogEntries("queued", 1);
+    } else {
+      if (queue.getPolicy() != DatabaseLogQueue.OverflowPolicy.DROP_NEWEST) {
+        // the new entry has replaced an older one
+        queuedCount.incrementAndGet();
+        ServerMetricsCollector.getInstance().logDatabaseLogEntries("queued", 1);
+      }
+      long dropped = droppedCount.incrementAndGet();
+      ServerMetricsCollector.getInstance().logDatabaseLogEntries("dropped", 1);
+      if (dropped % DROP_WARNING_INTERVAL == 1) {
+        ServerTools.print(String.format("Logging queue has reached size limit of %d entries, discarding entries (policy: %s, %d discarded so far)",
+          queue.capacity(), queue.getPolicy(), dropped));
+      }
+    }
+  }
+
+  private void write(List<DatabaseLogEntry> batch) {
+    try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+      Map<String, List<Map<Object, Object>>> rowsByStatement = new LinkedHashMap<>();
+      for (DatabaseLogEntry entry : batch) {
+        DatabaseLogEntry followup = entry.followup();
+        String batchStatement = entry.getBatchMappingIdentifier();
+        if (followup == null && batchStatement != null && session.getConfiguration().hasStatement(batchStatement)) {
+          rowsByStatement.computeIfAbsent(batchStatement, k -> new ArrayList<>()).add(entry.getMapping());
         } else {
-          ServerTools.print("Logging queue has reached size limit; discarding new messages.");
+          session.insert(entry.getMappingIdentifier(), entry.getMapping());
+          if (followup != null) { // followup statements need to be inserted directly afterwards, dependent on e.g. generated primary keys
+            session.insert(followup.getMappingIdentifier(), followup.getMapping());
+          }
         }
       }
-    } catch (InterruptedException e) {
+      for (Map.Entry<String, List<Map<Object, Object>>> statement : rowsByStatement.entrySet()) {
+        List<Map<Object, Object>> rows = statement.getValue();
+        for (int i = 0; i < rows.size(); i += MAX_ROWS_PER_INSERT) {
+          List<Map<Object, Object>> chunk = rows.subList(i, Math.min(i + MAX_ROWS_PER_INSERT, rows.size()));
+          session.insert(statement.getKey(), Collections.singletonMap("entries", chunk));
+        }
+      }
+      session.commit();
+      flushedCount.addAndGet(batch.size());
+      ServerMetricsCollector.getInstance().logDatabaseLogEntries("flushed", batch.size());
+    } catch (Exception e) {
       e.printStackTrace();
+      droppedCount.addAndGet(batch.size());
+      ServerMetricsCollector.getInstance().logDatabaseLogEntries("dropped", batch.size());
+    } finally {
+      pending.addAndGet(-batch.size());
     }
   }
 
   /**
-   * For testing; wait until queue is empty.
+   * @return number of entries that were added to the queue
+   * @since 6.4
+   */
+  long getQueuedCount() {
+    return queuedCount.get();
+  }
+
+  /**
+   * @return number of entries that were discarded because the queue was full or writing them failed
+   * @since 6.4
+   */
+  long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * @return number of entries that were written to the database
+   * @since 6.4
+   */
+  long getFlushedCount() {
+    return flushedCount.get();
+  }
+
+  /**
+   * For testing; wait until all queued entries have been written (or the waiting time is over).
    */
   public void flush() {
     try {
-      while (messages.peek() != null) {
-          Thread.sleep(100);
+      long deadline = System.currentTimeMillis() + SQL_BATCH_WAITING_TIME + 5000;
+      while (pending.get() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
       }
-      Thread.sleep(SQL_BATCH_WAITING_TIME + 5000);
     } catch (InterruptedException e) {
       throw new RuntimeException(e);
     }
@@ -76,6 +76,12 @@ public class HTTPServerConfig {
   protected File ruleIdToConfidenceFile = null;
   protected boolean pipelineCaching = false;
   protected boolean pipelinePrewarming = false;
+  protected boolean warmUp = false;
+  protected int warmUpMaxSecondsPerLanguage = 60;
+  protected boolean admissionControl = false;
+  protected boolean parallelTextLevelRules = false;
+  protected long userDictCacheMaxWords = 0;
+  protected String userDictInvalidationNotifier = null;
 
   protected int maxPipelinePoolSize;
   protected int pipelineExpireTime;
@@ -135,6 +141,8 @@ public class HTTPServerConfig {
   protected int databaseDownIntervalSeconds = 10;
 
   protected boolean dbLogging;
+  protected int dbLogQueueSize = DatabaseLogger.DEFAULT_QUEUE_SIZE;
+  protected DatabaseLogQueue.OverflowPolicy dbLogOverflowPolicy = DatabaseLogQueue.OverflowPolicy.DROP_NEWEST;
   protected boolean prometheusMonitoring = false;
   protected int prometheusPort = 9301;
   protected GlobalConfig globalConfig = new GlobalConfig();
@@ -191,8 +199,9 @@ public class HTTPServerConfig {
     "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "grammalectePassword",
     "grammalecteServer", "grammalecteUser", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxTextCheckerThreads", "textCheckerQueueSize", "maxCheckTimeMillis",
     "maxCheckTimeWithApiKeyMillis", "maxErrorsPerWordRate", "maxPipelinePoolSize", "maxSpellingSuggestions", "maxTextHardLength",
-    "maxTextLength", "maxTextLengthWithApiKey", "maxWorkQueueSize", "pipelineCaching",
-    "pipelineExpireTimeInSeconds", "pipelinePrewarming", "prometheusMonitoring", "prometheusPort", "remoteRulesFile",
+    "maxTextLength", "maxTextLengthWithApiKey", "maxWorkQueueSize", "admissionControl", "parallelTextLevelRules",
+    "userDictCacheMaxWords", "userDictInvalidationNotifier", "pipelineCaching",
+    "pipelineExpireTimeInSeconds", "pipelinePrewarming", "warmUp", "warmUpMaxSecondsPerLanguage", "prometheusMonitoring", "prometheusPort", "remoteRulesFile",
     "requestLimit", "requestLimitInBytes", "requestLimitPeriodInSeconds", "requestLimitWhitelistUsers", "requestLimitWhitelistLimit",
     "rulesFile", "serverURL",
     "skipLoggingChecks", "skipLoggingRuleMatches", "timeoutRequestLimit", "trustXForwardForHeader",
@@ -204,7 +213,7 @@ public class HTTPServerConfig {
     "premiumAlways", "untrustedReferrers",
     "redisPassword", "redisHost", "redisCertificate", "redisKey", "redisKeyPassword",
     "redisUseSentinel", "sentinelHost", "sentinelPort", "sentinelPassword", "sentinelMasterId",
-    "dbLogging", "premiumOnly", "nerUrl", "minPort", "maxPort", "localApiMode", "motherTongue", "preferredLanguages",
+    "dbLogging", "dbLogQueueSize", "dbLogOverflowPolicy", "premiumOnly", "nerUrl", "minPort", "maxPort", "localApiMode", "motherTongue", "preferredLanguages",
     "dictLimitUser", "dictLimitTeam", "styleGuideLimitUser", "styleGuideLimitTeam",
     "passwortLoginAccessListPath", "redisDictTTLSeconds", "requestLimitAccessToken",
     "ruleIdToConfidenceFile");
@@ -327,12 +336,18 @@ public class HTTPServerConfig {
         requestLimitWhitelistLimit = Integer.parseInt(getOptionalProperty(props, "requestLimitWhitelistLimit", "0"));
         pipelineCaching = Boolean.parseBoolean(getOptionalProperty(props, "pipelineCaching", "false").trim());
         pipelinePrewarming = Boolean.parseBoolean(getOptionalProperty(props, "pipelinePrewarming", "false").trim());
+        warmUp = Boolean.parseBoolean(getOptionalProperty(props, "warmUp", "false").trim());
+        warmUpMaxSecondsPerLanguage = Integer.parseInt(getOptionalProperty(props, "warmUpMaxSecondsPerLanguage", "60").trim());
         maxPipelinePoolSize = Integer.parseInt(getOptionalProperty(props, "maxPipelinePoolSize", "5"));
         pipelineExpireTime = Integer.parseInt(getOptionalProperty(props, "pipelineExpireTimeInSeconds", "10"));
         requestLimitPeriodInSeconds = Integer.parseInt(getOptionalProperty(props, "requestLimitPeriodInSeconds", "0"));
         ipFingerprintFactor = Integer.parseInt(getOptionalProperty(props, "ipFingerprintFactor", "1"));
         trustXForwardForHeader = Boolean.valueOf(getOptionalProperty(props, "trustXForwardForHeader", "false").trim());
         maxWorkQueueSize = Integer.parseInt(getOptionalProperty(props, "maxWorkQueueSize", "0"));
+        admissionControl = Boolean.parseBoolean(getOptionalProperty(props, "admissionControl", "false").trim());
+        parallelTextLevelRules = Boolean.parseBoolean(getOptionalProperty(props, "parallelTextLevelRules", "false").trim());
+        userDictCacheMaxWords = Long.parseLong(getOptionalProperty(props, "userDictCacheMaxWords", "0").trim());
+        userDictInvalidationNotifier = getOptionalProperty(props, "userDictInvalidationNotifier", null);
         if (maxWorkQueueSize < 0) {
           throw new IllegalArgumentException("maxWorkQueueSize must be >= 0: " + maxWorkQueueSize);
         }
@@ -449,6 +464,17 @@ public class HTTPServerConfig {
         databaseTimeoutRateThreshold = Integer.parseInt(getOptionalProperty(props, "dbTimeoutRateThreshold", "100"));
         databaseDownIntervalSeconds = Integer.parseInt(getOptionalProperty(props, "dbDownIntervalSeconds", "10"));
         dbLogging = Boolean.valueOf(getOptionalProperty(props, "dbLogging", "false").trim());
+        dbLogQueueSize = Integer.parseInt(getOptionalProperty(props, "dbLogQueueSize", String.valueOf(DatabaseLogger.DEFAULT_QUEUE_SIZE)).trim());
+        String overflowPolicy = getOptionalProperty(props, "dbLogOverflowPolicy", "dropNewest").trim();
+        if (overflowPolicy.equalsIgnoreCase("dropNewest")) {
+          dbLogOverflowPolicy = DatabaseLogQueue.OverflowPolicy.DROP_NEWEST;
+        } else if (overflowPolicy.equalsIgnoreCase("dropOldest")) {
+          dbLogOverflowPolicy = DatabaseLogQueue.OverflowPolicy.DROP_OLDEST;
+        } else if (overflowPolicy.equalsIgnoreCase("sample")) {
+          dbLogOverflowPolicy = DatabaseLogQueue.OverflowPolicy.SAMPLE;
+        } else {
+          throw new IllegalArgumentException("Invalid value for dbLogOverflowPolicy: '" + overflowPolicy + "', use one of: dropNewest, dropOldest, sample");
+        }
         passwortLoginAccessListPath = getOptionalProperty(props, "passwortLoginAccessListPath", "");
         prometheusMonitoring = Boolean.valueOf(getOptionalProperty(props, "prometheusMonitoring", "false").trim());
         prometheusPort = Integer.parseInt(getOptionalProperty(props, "prometheusPort", "9301"));
@@ -890,6 +916,61 @@ public class HTTPServerConfig {
     return trustXForwardForHeader;
   }
 
+  /**
+   * @since 6.4
+   * Reject check requests early if the predicted wait for a text checker thread means they
+   * cannot finish within their maximum check time, see {@link AdmissionController}
+   */
+  public boolean isAdmissionControlEnabled() {
+    return admissionControl;
+  }
+
+  /** @since 6.4 */
+  public void setAdmissionControl(boolean admissionControl) {
+    this.admissionControl = admissionControl;
+  }
+
+  /**
+   * @since 6.4
+   * Run the text-level rules of a check in an extra thread pool, in parallel to the sentence-level rules
+   */
+  public boolean isParallelTextLevelRules() {
+    return parallelTextLevelRules;
+  }
+
+  /** @since 6.4 */
+  public void setParallelTextLevelRules(boolean parallelTextLevelRules) {
+    this.parallelTextLevelRules = parallelTextLevelRules;
+  }
+
+  /**
+   * @since 6.4
+   * Max. number of user dictionary words (summed over all users) to keep in memory between checks, 0 to disable the cache
+   */
+  public long getUserDictCacheMaxWords() {
+    return userDictCacheMaxWords;
+  }
+
+  /** @since 6.4 */
+  public void setUserDictCacheMaxWords(long userDictCacheMaxWords) {
+    this.userDictCacheMaxWords = userDictCacheMaxWords;
+  }
+
+  /**
+   * @since 6.4
+   * Fully qualified name of the {@link UserDictInvalidationNotifier} implementation that tells other servers about
+   * dictionary changes, or {@code null} to only invalidate the cache of this server
+   */
+  @Nullable
+  public String getUserDictInvalidationNotifier() {
+    return userDictInvalidationNotifier;
+  }
+
+  /** @since 6.4 */
+  public void setUserDictInvalidationNotifier(@Nullable String userDictInvalidationNotifier) {
+    this.userDictInvalidationNotifier = userDictInvalidationNotifier;
+  }
+
   /** @since 2.9 */
   int getMaxWorkQueueSize() {
     return maxWorkQueueSize;
@@ -915,6 +996,23 @@ public class HTTPServerConfig {
     return pipelinePrewarming;
   }
 
+  /**
+   * @since 6.4
+   * After start-up, check sample sentences in the background until the check time has stabilized
+   * and fill the pipeline pool; {@code /v2/readiness} reports that the server is not ready until then
+   */
+  public boolean isWarmUpEnabled() {
+    return warmUp;
+  }
+
+  /**
+   * @since 6.4
+   * Maximum time the warm-up spends on a language
+   */
+  public int getWarmUpMaxSecondsPerLanguage() {
+    return warmUpMaxSecondsPerLanguage;
+  }
+
   /**
    * @since 4.4
    * Keep pipelines ready for this many different request settings
@@ -942,6 +1040,16 @@ public class HTTPServerConfig {
     this.pipelinePrewarming = pipelinePrewarming;
   }
 
+  /** @since 6.4 */
+  public void setWarmUp(boolean warmUp) {
+    this.warmUp = warmUp;
+  }
+
+  /** @since 6.4 */
+  public void setWarmUpMaxSecondsPerLanguage(int warmUpMaxSecondsPerLanguage) {
+    this.warmUpMaxSecondsPerLanguage = warmUpMaxSecondsPerLanguage;
+  }
+
   /** @since 4.4 */
   public void setMaxPipelinePoolSize(int maxPipelinePoolSize) {
     this.maxPipelinePoolSize = maxPipelinePoolSize;
@@ -1126,6 +1234,36 @@ public class HTTPServerConfig {
     return this.dbLogging;
   }
 
+  /**
+   * Maximum number of log entries waiting to be written to the database.
+   * @since 6.4
+   */
+  int getDbLogQueueSize() {
+    return dbLogQueueSize;
+  }
+
+  /**
+   * @since 6.4
+   */
+  void setDbLogQueueSize(int dbLogQueueSize) {
+    this.dbLogQueueSize = dbLogQueueSize;
+  }
+
+  /**
+   * What to discard when the queue of log entries is full.
+   * @since 6.4
+   */
+  DatabaseLogQueue.OverflowPolicy getDbLogOverflowPolicy() {
+    return dbLogOverflowPolicy;
+  }
+
+  /**
+   * @since 6.4
+   */
+  void setDbLogOverflowPolicy(DatabaseLogQueue.OverflowPolicy dbLogOverflowPolicy) {
+    this.dbLogOverflowPolicy = dbLogOverflowPolicy;
+  }
+
 
   /**
    * timeout for database requests (for now, only requests for credentials to log in)
@@ -121,11 +121,16 @@ class LanguageToolHttpHandler implements HttpHandler {
         return;
       }
       if (path.startsWith("/v2/")) {
-        // healthcheck should come before other limit checks (requests per time etc.), to be sure it works: 
+        // healthcheck should come before other limit checks (requests per time etc.), to be sure it works.
+        // readiness is the same, but also fails while the warm-up is running: 
         String pathWithoutVersion = path.substring("/v2/".length());
-        if (pathWithoutVersion.equals("healthcheck")) {
+        boolean readinessCheck = pathWithoutVersion.equals("readiness");
+        if (pathWithoutVersion.equals("healthcheck") || readinessCheck) {
           String message = "Healthcheck failed: There are currently too many parallel requests.";
-          if (workQueueFull(httpExchange, parameters, message) || textCheckerQueueFull(httpExchange, message)) {
+          if (readinessCheck && !textCheckerV2.isReady()) {
+            sendError(httpExchange, HTTP_UNAVAILABLE, "Error: Not ready, warm-up is still running");
+            return;
+          } else if (workQueueFull(httpExchange, parameters, message) || textCheckerQueueFull(httpExchange, message)) {
             ServerMetricsCollector.getInstance().logFailedHealthcheck();
             return;
           } else {
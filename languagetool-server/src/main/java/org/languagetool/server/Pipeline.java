@@ -35,6 +35,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -52,14 +54,43 @@ class Pipeline extends JLanguageTool {
   }
 
   private boolean setup = false;
+  private boolean selecting = false;
+  private boolean selectionChanged = false;
+  private RuleSelection setupSelection;
 
   /**
-   * Prevents any further changes after this method was called.
+   * Prevents any further changes after this method was called, except for the rule selection
+   * of a single request with {@link #selectRules(Consumer)}.
    */
   void setupFinished() {
+   this.setupSelection = saveRuleSelection();
+   this.selectionChanged = false;
    this.setup = true;
   }
 
+  /**
+   * Enable and disable rules and categories for a single request. This also works after
+   * {@link #setupFinished()}, use {@link #resetRuleSelection()} before the pipeline is used for another request.
+   */
+  void selectRules(Consumer<Pipeline> selection) {
+    selecting = true;
+    try {
+      selection.accept(this);
+    } finally {
+      selecting = false;
+    }
+  }
+
+  /**
+   * Go back to the rules and categories that were enabled when {@link #setupFinished()} was called.
+   */
+  void resetRuleSelection() {
+    if (setupSelection != null && selectionChanged) {
+      restoreRuleSelection(setupSelection);
+      selectionChanged = false;
+    }
+  }
+
   Pipeline(Language language, List<Language> altLanguages, Language motherTongue, ResultCache cache, GlobalConfig globalConfig, UserConfig userConfig, boolean inputLogging) {
     super(language, altLanguages, motherTongue, cache, globalConfig, userConfig, inputLogging);
   }
@@ -76,12 +107,25 @@ class Pipeline extends JLanguageTool {
     }
   }
 
+  private void preventSelectionAfterSetup() {
+    if (setup && !selecting) {
+      throw new IllegalPipelineMutationException();
+    }
+    selectionChanged = true;
+  }
+
   @Override
   public void setMaxErrorsPerWordRate(float maxErrorsPerWordRate) {
     preventModificationAfterSetup();
     super.setMaxErrorsPerWordRate(maxErrorsPerWordRate);
   }
 
+  @Override
+  public void setTextLevelRuleExecutor(ExecutorService executor) {
+    preventModificationAfterSetup();
+    super.setTextLevelRuleExecutor(executor);
+  }
+
   @Override
   public void setOutput(PrintStream printStream) {
     preventModificationAfterSetup();
@@ -132,19 +176,19 @@ class Pipeline extends JLanguageTool {
 
   @Override
   public void disableRule(String ruleId) {
-    preventModificationAfterSetup();
+    preventSelectionAfterSetup();
     super.disableRule(ruleId);
   }
 
   @Override
   public void disableRules(List<String> ruleIds) {
-    preventModificationAfterSetup();
+    preventSelectionAfterSetup();
     super.disableRules(ruleIds);
   }
 
   @Override
   public void disableCategory(CategoryId id) {
-    preventModificationAfterSetup();
+    preventSelectionAfterSetup();
     super.disableCategory(id);
   }
 
@@ -155,13 +199,13 @@ class Pipeline extends JLanguageTool {
 
   @Override
   public void enableRule(String ruleId) {
-    preventModificationAfterSetup();
+    preventSelectionAfterSetup();
     super.enableRule(ruleId);
   }
 
   @Override
   public void enableRuleCategory(CategoryId id) {
-    preventModificationAfterSetup();
+    preventSelectionAfterSetup();
     super.enableRuleCategory(id);
   }
 
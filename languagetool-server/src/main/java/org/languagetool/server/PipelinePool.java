@@ -31,20 +31,27 @@ import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 import org.languagetool.*;
 import org.languagetool.gui.Configuration;
 import org.languagetool.rules.*;
+import org.languagetool.tools.LtThreadPoolFactory;
 import org.languagetool.tools.TelemetryProvider;
 import org.languagetool.tools.Tools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
  * Caches pre-configured JLanguageTool instances to avoid costly setup time of rules, etc.
+ * Pipelines are pooled by their settings without the query's rule selection, so requests that
+ * only enable or disable other rules can re-use them. The rule selection is applied when a pipeline
+ * is borrowed and reset when it's returned.
+ * Each pipeline has its own rule instances, as rules are not thread-safe. Only the resources
+ * cached by the {@link Language} (pattern rules, language model, tagger and speller dictionaries)
+ * are shared between pipelines.
  */
 class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipeline> {
 
@@ -75,31 +82,64 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
     }
   }
 
+  /**
+   * Create one pipeline per language of the given settings in parallel and put it into the pool.
+   * This loads the resources that all pipelines of a language share (pattern rules, language model,
+   * tagger and speller dictionaries), so creating more pipelines for these languages later is cheaper.
+   * @since 6.4
+   */
+  void prewarmLanguages(Collection<PipelineSettings> settings) throws Exception {
+    Map<Language, PipelineSettings> distinct = new LinkedHashMap<>();
+    for (PipelineSettings setting : settings) {
+      distinct.putIfAbsent(setting.lang, setting);
+    }
+    int threads = Math.max(1, Math.min(distinct.size(), Runtime.getRuntime().availableProcessors()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (PipelineSettings setting : distinct.values()) {
+        futures.add(executor.submit(() -> {
+          returnPipeline(setting, getPipeline(setting));
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   Pipeline getPipeline(PipelineSettings settings) throws Exception {
+    Pipeline p;
     if (pool == null) {
-      return createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.userConfig, config.getDisabledRuleIds());
+      p = createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.userConfig, config.getDisabledRuleIds());
     } else {
       try {
         long time = System.currentTimeMillis();
         logger.debug("Requesting pipeline; pool has {} active objects, {} idle; pipeline settings: {}",
           pool.getNumActive(), pool.getNumIdle(), settings);
-        Pipeline p = pool.borrowObject(settings);
+        p = pool.borrowObject(settings.withoutRuleSelection());
         logger.debug("Fetching pipeline took {}ms; pool has {} active objects, {} idle; pipeline settings: {}",
           System.currentTimeMillis() - time, pool.getNumActive(), pool.getNumIdle(), settings);
-        return p;
       } catch(NoSuchElementException ignored) {
         logger.info("Pipeline pool capacity reached: {} active objects, {} idle",
           pool.getNumActive(), pool.getNumIdle());
-        return createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.userConfig, config.getDisabledRuleIds());
+        p = createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.userConfig, config.getDisabledRuleIds());
       }
     }
+    // the pipeline is shared by all rule selections, so apply the query's one now:
+    p.selectRules(lt -> selectRules(lt, settings.query));
+    return p;
   }
 
 
   void returnPipeline(PipelineSettings settings, Pipeline pipeline) throws Exception {
     if (pool == null) return;
+    pipeline.resetRuleSelection();
     try {
-      pool.returnObject(settings, pipeline);
+      pool.returnObject(settings.withoutRuleSelection(), pipeline);
     } catch(IllegalStateException e) {
       // this might happen when pool capacity is reached and we return newly created objects that were never borrowed
       logger.info("Exception while trying to return pipeline to pool;" +
@@ -109,7 +149,8 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
 
   /**
    * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
-   * Uses Pipeline wrapper to safely share objects
+   * Uses Pipeline wrapper to safely share objects. The query's rule selection is not applied yet,
+   * {@link #getPipeline(PipelineSettings)} does that for every request.
    *  @param lang the language to be used
    * @param motherTongue the user's mother tongue or {@code null}
    */
@@ -123,80 +164,99 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
         .put("check.level", params.level.name())
         .build();
     return TelemetryProvider.INSTANCE.createSpan("createPipeline", attributes, () -> {
-      Pipeline lt = new Pipeline(lang, params.altLanguages, motherTongue, cache, globalConfig, userConfig, params.inputLogging);
-      lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
-      lt.disableRules(disabledRuleIds);
-      if (config.getLanguageModelDir() != null) {
-        lt.activateLanguageModelRules(config.getLanguageModelDir());
-      }
-      if (config.getRulesConfigFile() != null) {
-        configureFromRulesFile(lt, lang);
-      } else {
-        configureFromGUI(lt, lang);
+      Pipeline lt = createConfiguredPipeline(lang, motherTongue, params, globalConfig, userConfig, disabledRuleIds);
+      if (pool != null) {
+        lt.setupFinished();
       }
-      if (params.regressionTestMode) {
-        List<RemoteRuleConfig> rules = Collections.emptyList();
-        try {
-          if (config.getRemoteRulesConfigFile() != null) {
-            rules = RemoteRuleConfig.load(config.getRemoteRulesConfigFile());
-          }
-        } catch (Exception e) {
-          logger.error("Could not load remote rule configuration", e);
+      return lt;
+    });
+  }
+
+  /**
+   * Create a pipeline with its own rules, configured with everything that doesn't depend on the
+   * query's rule selection: language model and remote rules, the server-wide rule configuration
+   * and user dictionary filters.
+   */
+  private Pipeline createConfiguredPipeline(Language lang, Language motherTongue, TextChecker.QueryParams params, GlobalConfig globalConfig,
+                                            UserConfig userConfig, List<String> disabledRuleIds) throws Exception {
+    Pipeline lt = new Pipeline(lang, params.altLanguages, motherTongue, cache, globalConfig, userConfig, params.inputLogging);
+    lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
+    if (config.isParallelTextLevelRules()) {
+      lt.setTextLevelRuleExecutor(LtThreadPoolFactory.getFixedThreadPoolExecutor(LtThreadPoolFactory.TEXT_LEVEL_RULE_POOL).orElse(null));
+    }
+    lt.disableRules(disabledRuleIds);
+    if (config.getLanguageModelDir() != null) {
+      lt.activateLanguageModelRules(config.getLanguageModelDir());
+    }
+    if (config.getRulesConfigFile() != null) {
+      configureFromRulesFile(lt, lang);
+    } else {
+      configureFromGUI(lt, lang);
+    }
+    if (params.regressionTestMode) {
+      List<RemoteRuleConfig> rules = Collections.emptyList();
+      try {
+        if (config.getRemoteRulesConfigFile() != null) {
+          rules = RemoteRuleConfig.load(config.getRemoteRulesConfigFile());
         }
-        // modify remote rule configuration to avoid timeouts
-
-        // temporary workaround: don't run into check timeout, causes limit enforcement;
-        // extend timeout as long as possible instead
-        long timeout = Math.max(config.getMaxCheckTimeMillisAnonymous() - 1, 0);
-        rules = rules.stream().map(c -> {
-          RemoteRuleConfig config = new RemoteRuleConfig(c);
-          config.baseTimeoutMilliseconds = timeout;
-          config.timeoutPerCharacterMilliseconds = 0f;
-          return config;
-        }).collect(Collectors.toList());
-        lt.activateRemoteRules(rules);
-      } else {
-        lt.activateRemoteRules(config.getRemoteRulesConfigFile());
-      }
-      if (params.useQuerySettings) {
-        Tools.selectRules(lt, new HashSet<>(params.disabledCategories), new HashSet<>(params.enabledCategories),
-          new HashSet<>(params.disabledRules), new HashSet<>(params.enabledRules), params.useEnabledOnly, params.enableTempOffRules);
+      } catch (Exception e) {
+        logger.error("Could not load remote rule configuration", e);
       }
-      if (userConfig.filterDictionaryMatches()) {
-        lt.addMatchFilter(new DictionaryMatchFilter(userConfig));
-      }
-      lt.addMatchFilter(new DictionarySpellMatchFilter(userConfig));
+      // modify remote rule configuration to avoid timeouts
+
+      // temporary workaround: don't run into check timeout, causes limit enforcement;
+      // extend timeout as long as possible instead
+      long timeout = Math.max(config.getMaxCheckTimeMillisAnonymous() - 1, 0);
+      rules = rules.stream().map(c -> {
+        RemoteRuleConfig config = new RemoteRuleConfig(c);
+        config.baseTimeoutMilliseconds = timeout;
+        config.timeoutPerCharacterMilliseconds = 0f;
+        return config;
+      }).collect(Collectors.toList());
+      lt.activateRemoteRules(rules);
+    } else {
+      lt.activateRemoteRules(config.getRemoteRulesConfigFile());
+    }
+    if (userConfig.filterDictionaryMatches()) {
+      lt.addMatchFilter(new DictionaryMatchFilter(userConfig));
+    }
+    lt.addMatchFilter(new DictionarySpellMatchFilter(userConfig));
+    return lt;
+  }
 
-      Premium premium = Premium.get();
-      if (config.isPremiumOnly()) {
-        //System.out.println("Enabling ONLY premium rules.");
-        int premiumEnabled = 0;
-        int otherDisabled = 0;
+  /**
+   * Apply the query's rule selection to a pipeline: the enabled and disabled rules and categories,
+   * and which premium rules are used.
+   */
+  private void selectRules(Pipeline lt, TextChecker.QueryParams params) {
+    if (params.useQuerySettings) {
+      Tools.selectRules(lt, new HashSet<>(params.disabledCategories), new HashSet<>(params.enabledCategories),
+        new HashSet<>(params.disabledRules), new HashSet<>(params.enabledRules), params.useEnabledOnly, params.enableTempOffRules);
+    }
+    Premium premium = Premium.get();
+    if (config.isPremiumOnly()) {
+      //System.out.println("Enabling ONLY premium rules.");
+      int premiumEnabled = 0;
+      int otherDisabled = 0;
+      for (Rule rule : lt.getAllActiveRules()) {
+        if (premium.isPremiumRule(rule)) {
+          lt.enableRule(rule.getFullId());
+          premiumEnabled++;
+        } else {
+          lt.disableRule(rule.getFullId());
+          otherDisabled++;
+        }
+      }
+      //System.out.println("Enabled " + premiumEnabled + " premium rules, disabled " + otherDisabled + " non-premium rules.");
+    } else if (!params.premium && !params.enableHiddenRules) { // compute premium matches locally to use as hidden matches
+      if (!(premium instanceof PremiumOff)) {
         for (Rule rule : lt.getAllActiveRules()) {
           if (premium.isPremiumRule(rule)) {
-            lt.enableRule(rule.getFullId());
-            premiumEnabled++;
-          } else {
             lt.disableRule(rule.getFullId());
-            otherDisabled++;
-          }
-        }
-        //System.out.println("Enabled " + premiumEnabled + " premium rules, disabled " + otherDisabled + " non-premium rules.");
-      } else if (!params.premium && !params.enableHiddenRules) { // compute premium matches locally to use as hidden matches
-        if (!(premium instanceof PremiumOff)) {
-          for (Rule rule : lt.getAllActiveRules()) {
-            if (premium.isPremiumRule(rule)) {
-              lt.disableRule(rule.getFullId());
-            }
           }
         }
       }
-
-      if (pool != null) {
-        lt.setupFinished();
-      }
-      return lt;
-    });
+    }
   }
 
   private void configureFromRulesFile(JLanguageTool lt, Language lang) throws IOException {
@@ -233,9 +293,8 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
     return true;
   }
 
-  // can make equal on pipeline settings more liberal (e.g. equal language, but some rule IDs disabled)
-  // and make required changes to the pipeline before activating/passivating
-  // to improve reuse and reduce number of stored pipelines
+  // the query's rule selection is applied in getPipeline() and reset in returnPipeline(),
+  // as activating and passivating only knows the settings the pipeline is pooled by
   @Override
   public void activateObject(PipelineSettings pipelineSettings, PooledObject<Pipeline> pooledObject) throws Exception {
   }
@@ -47,6 +47,15 @@ public class PipelineSettings {
     this.globalConfig = globalConfig;
   }
 
+  /**
+   * These settings without the query's rule selection. Pipelines are pooled by these settings,
+   * the rule selection is applied when a pipeline is borrowed.
+   * @since 6.4
+   */
+  PipelineSettings withoutRuleSelection() {
+    return new PipelineSettings(lang, motherTongue, query.withoutRuleSelection(), globalConfig, userConfig);
+  }
+
   @Override
   public int hashCode() {
     return new HashCodeBuilder(17, 31)
@@ -21,19 +21,21 @@ package org.languagetool.server;
 import org.languagetool.JLanguageTool;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Requests are counted per IP and per IP and fingerprint in {@link SlidingWindowCounter}s,
+ * so checking a request doesn't depend on the overall traffic.
  */
 class RequestLimiter {
 
-  // TODO: this only works if the period covered is larger than requestLimitPeriodInSeconds -
-  // we should add a sanity check that warns if that's not the case
-  static final int REQUEST_QUEUE_SIZE = 1000;
+  private final ConcurrentMap<String, SlidingWindowCounter> ipCounters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SlidingWindowCounter> fingerprintCounters = new ConcurrentHashMap<>();
+  private final AtomicLong lastCleanup = new AtomicLong(System.currentTimeMillis());
 
-  final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
-  
   private final int ipFingerprintFactor;
   private final List<String> whitelistUsers;
   private final int whitelistLimit;
@@ -117,13 +119,44 @@ class RequestLimiter {
       return;
     }
     int reqSize = getRequestSize(params);
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), reqSize, computeFingerprint(httpHeader, params), ServerTools.getMode(params)));
+    logRequest(ipAddress, computeFingerprint(httpHeader, params), reqSize, ServerTools.getMode(params));
     checkLimit(ipAddress, params, httpHeader);
   }
 
+  void logRequest(String ipAddress, String fingerprint, int sizeInBytes, JLanguageTool.Mode mode) {
+    long now = System.currentTimeMillis();
+    removeIdleCounters(now);
+    // text level rules cause much less load, so count them accordingly
+    int weightedSize = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? (int) (sizeInBytes * 0.1f) : sizeInBytes;
+    getCounter(ipCounters, ipAddress).add(now, weightedSize);
+    getCounter(fingerprintCounters, fingerprintKey(ipAddress, fingerprint)).add(now, weightedSize);
+  }
+
+  private SlidingWindowCounter getCounter(ConcurrentMap<String, SlidingWindowCounter> counters, String key) {
+    SlidingWindowCounter counter = counters.get(key);
+    if (counter == null) {
+      counter = counters.computeIfAbsent(key, k -> new SlidingWindowCounter(requestLimitPeriodInSeconds * 1000L));
+    }
+    return counter;
+  }
+
+  private static String fingerprintKey(String ipAddress, String fingerprint) {
+    return ipAddress + "|" + fingerprint;
+  }
+
+  /**
+   * Once per period, drop the counters of clients that haven't sent a request during the period.
+   * A request that comes in while its counter is being dropped might not be counted, which is
+   * acceptable as it only makes the limiter a bit more lenient.
+   */
+  private void removeIdleCounters(long now) {
+    long last = lastCleanup.get();
+    if (now - last > requestLimitPeriodInSeconds * 1000L && lastCleanup.compareAndSet(last, now)) {
+      ipCounters.values().removeIf(counter -> counter.isIdle(now));
+      fingerprintCounters.values().removeIf(counter -> counter.isIdle(now));
+    }
+  }
+
   private int getRequestSize(Map<String, String> params) {
     String text = params.get("text");
     if (text != null) {
@@ -183,97 +216,54 @@ class RequestLimiter {
   }
 
   void checkLimit(String ipAddress, Map<String, String> parameters, Map<String, List<String>> httpHeader) {
-    int requestsByIp = 0;
-    int requestSizeByIp = 0;
-    int requestsByFingerprint = 0;
-    int requestSizeByFingerprint = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000L);
+    long now = System.currentTimeMillis();
     String fingerprint = computeFingerprint(httpHeader, parameters);
     String referer = getReferer(httpHeader);
     String userAgent = getUserAgent(httpHeader);
     Long clientId = getClientId(parameters);
     String user = parameters.get("username");
     boolean whitelistedUser = user != null && whitelistUsers.contains(user);
-    for (RequestEvent event : requestEvents) {
-      if (event.ip.equals(ipAddress) && event.date.after(thresholdDate)) {
-        // text level rules cause much less load, so count them accordingly
-        float modeFactor = event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? 0.1f : 1f;
-        requestsByIp++;
-        requestSizeByIp += event.getSizeInBytes() * modeFactor;
-        if (whitelistedUser) {
-          if (whitelistLimit <= 0 || requestsByIp < whitelistLimit) {
-            continue;
-          } else {
-            String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
-        if (event.fingerprint.equals(fingerprint)) {
-          requestsByFingerprint++;
-          requestSizeByFingerprint += event.getSizeInBytes() * modeFactor;
-        }
-        if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
-          String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded"); }
-        if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
-          String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded");
-        }
-        if (event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-        } else {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
+    SlidingWindowCounter ipCounter = ipCounters.get(ipAddress);
+    if (ipCounter == null) {
+      return;
+    }
+    int requestsByIp = ipCounter.getRequests(now);
+    if (requestsByIp == 0) {
+      return;
+    }
+    int requestSizeByIp = ipCounter.getSize(now);
+    if (whitelistedUser) {
+      if (whitelistLimit > 0 && requestsByIp >= whitelistLimit) {
+        String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+        throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
+          requestLimitPeriodInSeconds + " seconds exceeded");
       }
+      return;
     }
-  }
-  
-  protected static class RequestEvent {
-
-    private final String ip;
-    private final Date date;
-    private final int sizeInBytes;
-    private final String fingerprint;
-    private final JLanguageTool.Mode mode;
-
-    RequestEvent(String ip, Date date, int sizeInBytes, String fingerprint, JLanguageTool.Mode mode) {
-      this.ip = ip;
-      this.date = new Date(date.getTime());
-      this.sizeInBytes = sizeInBytes;
-      this.fingerprint = fingerprint;
-      this.mode = mode;
+    SlidingWindowCounter fingerprintCounter = fingerprintCounters.get(fingerprintKey(ipAddress, fingerprint));
+    int requestsByFingerprint = fingerprintCounter != null ? fingerprintCounter.getRequests(now) : 0;
+    int requestSizeByFingerprint = fingerprintCounter != null ? fingerprintCounter.getSize(now) : 0;
+    if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
+      String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
     }
-
-    protected Date getDate() {
-      return date;
+    if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
+      String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
     }
-    
-    int getSizeInBytes() {
-      return sizeInBytes;
+    String textLevelInfo = ServerTools.getMode(parameters) == JLanguageTool.Mode.TEXTLEVEL_ONLY ? " in text-level checks" : "";
+    if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
+      String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
+        requestLimitPeriodInSeconds + " seconds exceeded" + textLevelInfo);
+    }
+    if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
+      String msg = "limit: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
+        requestLimitPeriodInSeconds + " seconds exceeded" + textLevelInfo);
     }
-
   }
 
 }
@@ -0,0 +1,138 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+
+/**
+ * The body of a successful response that's written while it's serialized. Up to {@code maxBufferSize}
+ * bytes are buffered, so a response that fails to serialize hasn't been sent yet and an error can
+ * still be sent instead, and small responses are sent with their length. Larger responses are sent
+ * in chunks once the buffer is full - if those fail later, {@link #abort()} makes sure the client
+ * doesn't get a response that looks complete.
+ * @since 6.4
+ */
+final class ResponseBuffer extends OutputStream {
+
+  private final HttpExchange httpExchange;
+  private final int maxBufferSize;
+
+  private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private AbortableOutputStream body;  // not null once the headers have been sent
+  private long writeNanos;
+
+  ResponseBuffer(HttpExchange httpExchange, int maxBufferSize) {
+    this.httpExchange = httpExchange;
+    this.maxBufferSize = maxBufferSize;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (body == null) {
+      if (buffer.size() + len <= maxBufferSize) {
+        buffer.write(b, off, len);
+        return;
+      }
+      long startNanos = System.nanoTime();
+      // the length is unknown yet, so the response is sent in chunks:
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      body = new AbortableOutputStream(httpExchange.getResponseBody());
+      httpExchange.setStreams(null, body);
+      buffer.writeTo(body);
+      buffer = null;
+      writeNanos += System.nanoTime() - startNanos;
+    }
+    long startNanos = System.nanoTime();
+    body.write(b, off, len);
+    writeNanos += System.nanoTime() - startNanos;
+  }
+
+  /**
+   * Sends what's left of the response - the buffered response and its headers if the buffer never filled up.
+   */
+  @Override
+  public void close() throws IOException {
+    long startNanos = System.nanoTime();
+    if (body == null) {
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, buffer.size() == 0 ? -1 : buffer.size());
+      try (OutputStream out = httpExchange.getResponseBody()) {
+        buffer.writeTo(out);
+      }
+      buffer = null;
+    } else {
+      body.close();
+    }
+    writeNanos += System.nanoTime() - startNanos;
+  }
+
+  /**
+   * Give up on the response after a failed serialization. If nothing has been sent yet, an error
+   * response can be sent instead. Otherwise, the connection will be closed without the final chunk
+   * when the exchange is closed, so the client sees the response is incomplete.
+   */
+  void abort() {
+    if (body == null) {
+      buffer = null;
+    } else {
+      body.aborted = true;
+    }
+  }
+
+  /**
+   * @return the time spent sending the response to the client, in nanoseconds
+   */
+  long getWriteNanos() {
+    return writeNanos;
+  }
+
+  private static class AbortableOutputStream extends FilterOutputStream {
+
+    private boolean aborted;
+
+    AbortableOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (aborted) {
+        // makes the HTTP server close the connection instead of ending the chunked response:
+        throw new IOException("Response aborted");
+      }
+      super.close();
+    }
+  }
+
+}
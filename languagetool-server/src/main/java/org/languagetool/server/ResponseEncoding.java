@@ -0,0 +1,191 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.Headers;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The data format and compression of a check response, negotiated with the {@code Accept} and
+ * {@code Accept-Encoding} request headers. Besides JSON, clients can ask for the binary Jackson
+ * formats Smile ({@code application/x-jackson-smile}) and CBOR ({@code application/cbor}). Any
+ * format can be compressed with gzip or deflate.
+ * @since 6.4
+ */
+final class ResponseEncoding {
+
+  enum Format {
+    JSON("application/json", new JsonFactory()),
+    SMILE("application/x-jackson-smile", new SmileFactory()),
+    CBOR("application/cbor", new CBORFactory());
+
+    final String contentType;
+    final JsonFactory factory;
+
+    Format(String contentType, JsonFactory factory) {
+      this.contentType = contentType;
+      this.factory = factory;
+    }
+  }
+
+  enum Compression {
+    IDENTITY(null), GZIP("gzip"), DEFLATE("deflate");
+
+    @Nullable
+    final String name;
+
+    Compression(@Nullable String name) {
+      this.name = name;
+    }
+  }
+
+  private final Format format;
+  private final Compression compression;
+
+  ResponseEncoding(Format format, Compression compression) {
+    this.format = format;
+    this.compression = compression;
+  }
+
+  /**
+   * @param allowBinary whether a binary format may be chosen - e.g. not for JSONP requests
+   */
+  static ResponseEncoding negotiate(Headers requestHeaders, boolean allowBinary) {
+    Format format = Format.JSON;
+    String accept = requestHeaders.getFirst("Accept");
+    if (allowBinary && accept != null) {
+      Map<String, Float> qualities = parseQualities(accept);
+      float jsonQuality = Math.max(qualities.getOrDefault("application/json", 0f),
+        Math.max(qualities.getOrDefault("application/*", 0f), qualities.getOrDefault("*/*", 0f)));
+      float bestQuality = jsonQuality;
+      for (Format binaryFormat : new Format[]{Format.SMILE, Format.CBOR}) {
+        float quality = qualities.getOrDefault(binaryFormat.contentType, 0f);
+        if (quality > bestQuality) {
+          format = binaryFormat;
+          bestQuality = quality;
+        }
+      }
+    }
+    Compression compression = Compression.IDENTITY;
+    String acceptEncoding = requestHeaders.getFirst("Accept-Encoding");
+    if (acceptEncoding != null) {
+      Map<String, Float> qualities = parseQualities(acceptEncoding);
+      float anyQuality = qualities.getOrDefault("*", 0f);
+      float gzipQuality = qualities.getOrDefault("gzip", qualities.getOrDefault("x-gzip", anyQuality));
+      float deflateQuality = qualities.getOrDefault("deflate", anyQuality);
+      if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+        compression = Compression.GZIP;
+      } else if (deflateQuality > 0) {
+        compression = Compression.DEFLATE;
+      }
+    }
+    return new ResponseEncoding(format, compression);
+  }
+
+  /**
+   * @return map from lowercase value (e.g. a media type or an encoding) to its quality ({@code q} parameter)
+   */
+  static Map<String, Float> parseQualities(String header) {
+    Map<String, Float> result = new HashMap<>();
+    for (String part : header.split(",")) {
+      String[] params = part.split(";");
+      String value = params[0].trim().toLowerCase(Locale.ENGLISH);
+      if (value.isEmpty()) {
+        continue;
+      }
+      float quality = 1;
+      for (int i = 1; i < params.length; i++) {
+        String param = params[i].trim();
+        if (param.startsWith("q=")) {
+          try {
+            quality = Float.parseFloat(param.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      result.put(value, quality);
+    }
+    return result;
+  }
+
+  Format getFormat() {
+    return format;
+  }
+
+  Compression getCompression() {
+    return compression;
+  }
+
+  /**
+   * Set {@code Content-Type} (for binary formats, JSON is expected to be set already) and {@code Content-Encoding}.
+   */
+  void setHeaders(Headers responseHeaders) {
+    if (format != Format.JSON) {
+      responseHeaders.set("Content-Type", format.contentType);
+    }
+    if (compression != Compression.IDENTITY) {
+      responseHeaders.set("Content-Encoding", compression.name);
+    }
+    responseHeaders.add("Vary", "Accept, Accept-Encoding");
+  }
+
+  /**
+   * @return a stream that compresses what's written to {@code out}, if needed - it needs to be
+   * closed to write the end of the compressed data
+   */
+  OutputStream wrap(OutputStream out) throws IOException {
+    switch (compression) {
+      case GZIP:
+        return new GZIPOutputStream(out, 8192);
+      case DEFLATE:
+        return new DeflaterOutputStream(out);
+      default:
+        return out;
+    }
+  }
+
+  /**
+   * @return a generator for the negotiated format that doesn't close {@code out} when it's closed
+   */
+  JsonGenerator createGenerator(OutputStream out) throws IOException {
+    JsonGenerator generator = format.factory.createGenerator(out, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return generator;
+  }
+
+  @Override
+  public String toString() {
+    return format + "/" + compression;
+  }
+
+}
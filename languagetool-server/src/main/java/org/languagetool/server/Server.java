@@ -140,6 +140,11 @@ abstract class Server {
     System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional), see");
     System.out.println("                                    https://fasttext.cc/docs/en/support.html");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
+    System.out.println("                 'admissionControl' - set to 'true' to reject requests early that would exceed the maximum check time");
+    System.out.println("                                      because of the work already queued, long texts get rejected first (optional)");
+    System.out.println("                 'parallelTextLevelRules' - set to 'true' to run text-level rules in parallel to the sentence-level rules (optional)");
+    System.out.println("                 'userDictCacheMaxWords' - max. number of user dictionary words cached in memory, 0 to disable (default) (optional)");
+    System.out.println("                 'userDictInvalidationNotifier' - class that propagates user dictionary changes to other servers, when using userDictCacheMaxWords with more than one server (optional)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
     System.out.println("                 'blockedReferrers' - a comma-separated list of HTTP referrers (and 'Origin' headers) that are blocked and will not be served (optional)");
     System.out.println("                 'premiumOnly' - activate only the premium rules (optional)");
@@ -148,6 +153,9 @@ abstract class Server {
     System.out.println("                 'maxPipelinePoolSize' - cache size if 'pipelineCaching' is set");
     System.out.println("                 'pipelineExpireTimeInSeconds' - time after which pipeline cache items expire");
     System.out.println("                 'pipelinePrewarming' - set to 'true' to fill pipeline cache on start (can slow down start a lot)");
+    System.out.println("                 'warmUp' - set to 'true' to check sample sentences after start until the check time has stabilized");
+    System.out.println("                            and fill the pipeline cache in the background; /v2/readiness reports 503 until then");
+    System.out.println("                 'warmUpMaxSecondsPerLanguage' - maximum time the warm-up spends per language (optional, default: 60)");
     System.out.println("                 Spellcheck-only languages: You can add simple spellcheck-only support for languages that LT doesn't");
     System.out.println("                                            support by defining two optional properties:");
     System.out.println("                   'lang-xx' - set name of the language, use language code instead of 'xx', e.g. lang-tr=Turkish");
@@ -42,7 +42,8 @@ public class ServerMetricsCollector {
     TOO_MANY_ERRORS,
     MAX_CHECK_TIME,
     MAX_TEXT_SIZE,
-    INVALID_REQUEST
+    INVALID_REQUEST,
+    LOAD_SHEDDING
   }
 
   private static final double[] LATENCY_BUCKETS = {
@@ -90,6 +91,14 @@ public class ServerMetricsCollector {
     .build("languagetool_check_speed_chars_per_second", "Histogram of relative check speed")
     .buckets(SPEED_BUCKETS).labelNames("language", "mode").register();
 
+  private final Histogram queueWait = Histogram
+    .build("languagetool_text_checker_queue_wait_seconds", "Time check requests waited for a text checker thread")
+    .buckets(LATENCY_BUCKETS).register();
+  private final Gauge predictedWait = Gauge
+    .build("languagetool_text_checker_predicted_wait_seconds", "Wait time predicted by admission control for the latest request").register();
+  private final Gauge pendingChecks = Gauge
+    .build("languagetool_text_checker_pending_requests", "Requests admitted by admission control and not finished yet").register();
+
   private final Counter requestErrorCounter = Counter
     .build("languagetool_request_errors_total", "Various request errors")
     .labelNames("reason").register();
@@ -105,6 +114,16 @@ public class ServerMetricsCollector {
   private final Counter failedHealthcheckCounter = Counter
     .build("languagetool_failed_healthchecks_total", "Failed healthchecks").register();
 
+  private final Gauge warmUpTime = Gauge
+    .build("languagetool_warm_up_seconds", "Time the warm-up after start took, by language")
+    .labelNames("language").register();
+  private final Gauge ready = Gauge
+    .build("languagetool_ready", "Whether the server has finished its warm-up and is ready (1) or not (0)").register();
+
+  private final Counter dbLogEntriesCounter = Counter
+    .build("languagetool_db_log_entries_total", "Database log entries by what happened to them")
+    .labelNames("state").register();
+
   private final Info buildInfo = Info
     .build("languagetool_build", "Build information").register();
 
@@ -186,6 +205,15 @@ public class ServerMetricsCollector {
     checkSpeed.labels("", modeLabel).observe(speed);
   }
 
+  public void logQueueWait(long milliseconds) {
+    queueWait.observe(milliseconds / 1000.0);
+  }
+
+  public void logAdmission(long predictedWaitMillis, int pendingRequests) {
+    predictedWait.set(predictedWaitMillis / 1000.0);
+    pendingChecks.set(pendingRequests);
+  }
+
   public void logRequestError(RequestErrorType type) {
     requestErrorCounter.labels(type.name().toLowerCase()).inc();
   }
@@ -202,4 +230,19 @@ public class ServerMetricsCollector {
     failedHealthcheckCounter.inc();
   }
 
+  /**
+   * @param state {@code queued}, {@code dropped} or {@code flushed}
+   */
+  public void logDatabaseLogEntries(String state, int count) {
+    dbLogEntriesCounter.labels(state).inc(count);
+  }
+
+  public void logWarmUp(Language language, long milliseconds) {
+    warmUpTime.labels(language.getShortCodeWithCountryAndVariant()).set(milliseconds / 1000.0);
+  }
+
+  public void logReady(boolean isReady) {
+    ready.set(isReady ? 1 : 0);
+  }
+
 }
@@ -0,0 +1,97 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts requests and their sizes over a sliding time window without locking. The window
+ * is split into a ring of {@link #BUCKETS} buckets. Each slot stores the (truncated) number
+ * of the time bucket it belongs to in the upper 32 bits and its value in the lower 32 bits,
+ * so a slot from an older round of the ring is detected and reset with a single CAS.
+ * Requests are forgotten at most one bucket width earlier than with an exact window.
+ * @since 6.4
+ */
+class SlidingWindowCounter {
+
+  static final int BUCKETS = 20;
+
+  private final long bucketMillis;
+  private final AtomicLongArray requests = new AtomicLongArray(BUCKETS);
+  private final AtomicLongArray sizes = new AtomicLongArray(BUCKETS);
+
+  SlidingWindowCounter(long windowMillis) {
+    this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+  }
+
+  void add(long nowMillis, int size) {
+    long bucket = nowMillis / bucketMillis;
+    int slot = (int) (bucket % BUCKETS);
+    addToSlot(requests, slot, (int) bucket, 1);
+    addToSlot(sizes, slot, (int) bucket, size);
+  }
+
+  int getRequests(long nowMillis) {
+    return sum(requests, nowMillis / bucketMillis);
+  }
+
+  int getSize(long nowMillis) {
+    return sum(sizes, nowMillis / bucketMillis);
+  }
+
+  /**
+   * Whether no request has been counted in the window, i.e. the counter can be dropped.
+   */
+  boolean isIdle(long nowMillis) {
+    return getRequests(nowMillis) == 0;
+  }
+
+  private static void addToSlot(AtomicLongArray slots, int slot, int stamp, int delta) {
+    while (true) {
+      long old = slots.get(slot);
+      long value = stamp(old) == stamp ? value(old) : 0;
+      long updated = ((long) stamp << 32) | Math.min(Integer.MAX_VALUE, value + delta);
+      if (slots.compareAndSet(slot, old, updated)) {
+        return;
+      }
+    }
+  }
+
+  private static int sum(AtomicLongArray slots, long bucket) {
+    int current = (int) bucket;
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      long packed = slots.get(i);
+      int age = current - stamp(packed);  // overflow-safe, as stamps are truncated anyway
+      if (age >= 0 && age < BUCKETS) {
+        total += value(packed);
+      }
+    }
+    return (int) Math.min(Integer.MAX_VALUE, total);
+  }
+
+  private static int stamp(long packed) {
+    return (int) (packed >>> 32);
+  }
+
+  private static long value(long packed) {
+    return packed & 0xFFFFFFFFL;
+  }
+
+}
@@ -25,7 +25,6 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.ibatis.session.RowBounds;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
@@ -36,6 +35,7 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.*;
 import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
+import org.languagetool.tools.CheckStageMetrics;
 import org.languagetool.tools.TelemetryProvider;
 import org.languagetool.tools.LtThreadPoolFactory;
 import org.languagetool.tools.Tools;
@@ -43,6 +43,7 @@ import org.slf4j.MDC;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -67,8 +68,13 @@ abstract class TextChecker {
   private static final Pattern COMMA_WHITESPACE_PATTERN = Pattern.compile(",\\s*");
 
   protected abstract void setHeaders(HttpExchange httpExchange);
-  protected abstract String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
-                                        List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode);
+  /**
+   * Write the check result to {@code out}, in the format of {@code encoding} if supported. Does not close {@code out}.
+   * @since 6.4
+   */
+  protected abstract void writeResponse(OutputStream out, ResponseEncoding encoding, AnnotatedText text, Language language, DetectedLanguage lang,
+                                        Language motherTongue, List<CheckResults> matches, List<RuleMatch> hiddenMatches, String incompleteResultReason,
+                                        int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException;
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants,
@@ -81,6 +87,7 @@ abstract class TextChecker {
     
   protected static final int CONTEXT_SIZE = 40; // characters
   protected static final int NUM_PIPELINES_PER_SETTING = 3; // for prewarming
+  private static final int MAX_BUFFERED_RESPONSE_SIZE = 256 * 1024; // larger responses are sent while they're serialized
 
   protected final HTTPServerConfig config;
 
@@ -92,6 +99,7 @@ abstract class TextChecker {
   private final RequestCounter reqCounter;
   private final LanguageIdentifier languageIdentifier;
   private final ExecutorService executorService;
+  private final AdmissionController admissionController;  // null if admission control is disabled
   private final ResultCache cache;
   private final DatabaseLogger databaseLogger;
   private final Long logServerId;
@@ -100,6 +108,7 @@ abstract class TextChecker {
 
   private long pingsCleanDateMillis = System.currentTimeMillis();
   PipelinePool pipelinePool; // mocked in test -> package-private / not final
+  private final WarmUp warmUp;
 
   TextChecker(HTTPServerConfig config, boolean internalServer, Queue<Runnable> workQueue, RequestCounter reqCounter) {
     this.config = config;
@@ -114,14 +123,25 @@ abstract class TextChecker {
               config.getFasttextBinary(),
               config.getFasttextModel());
     }
-    this.executorService = LtThreadPoolFactory.createFixedThreadPoolExecutor(
-      LtThreadPoolFactory.TEXT_CHECKER_POOL,
-      config.getMaxTextCheckerThreads(), config.getMaxTextCheckerThreads(),
-      config.getTextCheckerQueueSize(),
-      60L, false, (thread, throwable) -> {
-        log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage());
-      },
-      false);
+    Thread.UncaughtExceptionHandler exceptionHandler = (thread, throwable) -> {
+      log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage());
+    };
+    this.admissionController = config.isAdmissionControlEnabled() ? new AdmissionController(config.getMaxTextCheckerThreads()) : null;
+    if (admissionController != null && config.getTextCheckerQueueSize() >= 0) {
+      // with predicted costs, short requests can overtake long ones waiting in the queue:
+      this.executorService = LtThreadPoolFactory.createFixedThreadPoolExecutor(
+        LtThreadPoolFactory.TEXT_CHECKER_POOL,
+        config.getMaxTextCheckerThreads(), config.getMaxTextCheckerThreads(),
+        new CostOrderedQueue(config.getTextCheckerQueueSize()),
+        60L, false, exceptionHandler);
+    } else {
+      this.executorService = LtThreadPoolFactory.createFixedThreadPoolExecutor(
+        LtThreadPoolFactory.TEXT_CHECKER_POOL,
+        config.getMaxTextCheckerThreads(), config.getMaxTextCheckerThreads(),
+        config.getTextCheckerQueueSize(),
+        60L, false, exceptionHandler,
+        false);
+    }
 
     // set up other pools used by text checker and remote rule
     //Need to use own thread pool, otherwise the text-checker thread-pool will be full very soon
@@ -146,6 +166,18 @@ abstract class TextChecker {
       );
     }
 
+    if (config.isParallelTextLevelRules()) {
+      int threads = config.getMaxTextCheckerThreads();
+      LtThreadPoolFactory.createFixedThreadPoolExecutor(
+        LtThreadPoolFactory.TEXT_LEVEL_RULE_POOL,
+        threads, threads, threads * 4,
+        60L, true, (thread, throwable) -> {
+          log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage());
+        },
+        true
+      );
+    }
+
     this.cache = config.getCacheSize() > 0 ? new ResultCache(
       config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
     this.databaseLogger = DatabaseLogger.getInstance();
@@ -157,6 +189,7 @@ abstract class TextChecker {
 
         if (cache != null && !config.isLocalApiMode()) {
       ServerMetricsCollector.getInstance().monitorCache("languagetool_matches_cache", cache.getMatchesCache());
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_rule_matches_cache", cache.getRuleMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
@@ -168,6 +201,14 @@ abstract class TextChecker {
       prewarmPipelinePool();
       log.info("Prewarming finished.");
     }
+    if (config.isWarmUpEnabled()) {
+      ServerMetricsCollector.getInstance().logReady(false);
+      warmUp = new WarmUp(pipelinePool, getPrewarmSettings(), NUM_PIPELINES_PER_SETTING,
+        TimeUnit.SECONDS.toMillis(config.getWarmUpMaxSecondsPerLanguage()));
+      warmUp.start();
+    } else {
+      warmUp = null;
+    }
     if (config.getAbTest() != null) {
       UserConfig.enableABTests();
       log.info("A/B-Test enabled: " + config.getAbTest());
@@ -185,10 +226,12 @@ abstract class TextChecker {
     }
   }
 
-  private void prewarmPipelinePool() {
-    // setting + number of pipelines
+  /**
+   * The settings used by the add-on for the preferred languages (or some frequently used
+   * languages), per language.
+   */
+  private Map<Language, List<PipelineSettings>> getPrewarmSettings() {
     // typical addon settings at the moment (2018-11-05)
-    Map<PipelineSettings, Integer> prewarmSettings = new HashMap<>();
     List<Language> prewarmLanguages = new ArrayList<>();
     if (config.preferredLanguages.isEmpty()) {
       prewarmLanguages.addAll(Stream.of(
@@ -204,23 +247,33 @@ abstract class TextChecker {
     List<String> addonDisabledRules = Collections.singletonList("WHITESPACE_RULE");
     List<JLanguageTool.Mode> addonModes = Arrays.asList(JLanguageTool.Mode.TEXTLEVEL_ONLY, JLanguageTool.Mode.ALL_BUT_TEXTLEVEL_ONLY);
     UserConfig user = new UserConfig();
+    Map<Language, List<PipelineSettings>> prewarmSettings = new LinkedHashMap<>();
     for (Language language : prewarmLanguages) {
+      List<PipelineSettings> settings = prewarmSettings.computeIfAbsent(language, k -> new ArrayList<>());
       // add-on uses picky mode since 2021-01-20
       for (JLanguageTool.Mode mode : addonModes) {
         QueryParams params = new QueryParams(Collections.emptyList(), Collections.emptyList(), addonDisabledRules,
           Collections.emptyList(), Collections.emptyList(), false, true,
           true, true, Premium.isPremiumVersion(), false, mode, JLanguageTool.Level.PICKY, null);
-        PipelineSettings settings = new PipelineSettings(language, null, params, config.globalConfig, user);
-        prewarmSettings.put(settings, NUM_PIPELINES_PER_SETTING);
-
-        PipelineSettings settingsMotherTongueEqual = new PipelineSettings(language, language, params, config.globalConfig, user);
-        PipelineSettings settingsMotherTongueEnglish = new PipelineSettings(language,
-          Languages.getLanguageForName("English"), params, config.globalConfig, user);
-        prewarmSettings.put(settingsMotherTongueEqual, NUM_PIPELINES_PER_SETTING);
-        prewarmSettings.put(settingsMotherTongueEnglish, NUM_PIPELINES_PER_SETTING);
+        settings.add(new PipelineSettings(language, null, params, config.globalConfig, user));
+        settings.add(new PipelineSettings(language, language, params, config.globalConfig, user));
+        settings.add(new PipelineSettings(language, Languages.getLanguageForName("English"), params, config.globalConfig, user));
+      }
+    }
+    return prewarmSettings;
+  }
+
+  private void prewarmPipelinePool() {
+    // setting + number of pipelines
+    Map<PipelineSettings, Integer> prewarmSettings = new HashMap<>();
+    for (List<PipelineSettings> settings : getPrewarmSettings().values()) {
+      for (PipelineSettings setting : settings) {
+        prewarmSettings.put(setting, NUM_PIPELINES_PER_SETTING);
       }
     }
     try {
+      // load what the pipelines of a language share (pattern rules, language model, ...) in parallel first:
+      pipelinePool.prewarmLanguages(prewarmSettings.keySet());
       for (Map.Entry<PipelineSettings, Integer> prewarmSetting : prewarmSettings.entrySet()) {
           int numPipelines = prewarmSetting.getValue();
           PipelineSettings setting = prewarmSetting.getKey();
@@ -241,7 +294,18 @@ abstract class TextChecker {
     }
   }
 
+  /**
+   * Whether the warm-up (if enabled) has finished.
+   * @since 6.4
+   */
+  boolean isReady() {
+    return warmUp == null || warmUp.isReady();
+  }
+
   void shutdownNow() {
+    if (warmUp != null) {
+      warmUp.stop();
+    }
     executorService.shutdownNow();
     RemoteRule.shutdown();
   }
@@ -317,8 +381,9 @@ abstract class TextChecker {
       dictName = "groups_" + String.join(",", dictGroups);
     }
     final List<String> finalDictGroups = dictGroups;
-    List<String> dictWords = limits.getPremiumUid() != null ?
-      TelemetryProvider.INSTANCE.createSpan(SPAN_NAME_PREFIX +"GetUserDictWords", Attributes.empty(), () -> getUserDictWords(limits, finalDictGroups)) : Collections.emptyList();
+    UserDictCache.Entry userDict = limits.getPremiumUid() != null ?
+      TelemetryProvider.INSTANCE.createSpan(SPAN_NAME_PREFIX +"GetUserDictWords", Attributes.empty(), () -> getUserDictWords(limits, finalDictGroups)) : null;
+    List<String> dictWords = userDict != null ? userDict.getWords() : Collections.emptyList();
 
     boolean filterDictionaryMatches = "true".equals(params.getOrDefault("filterDictionaryMatches", "true"));
 
@@ -413,7 +478,8 @@ abstract class TextChecker {
                      getRuleValues(params), config.getMaxSpellingSuggestions(),
                      limits.getPremiumUid(), dictName, limits.getDictCacheSize(),
                      null, filterDictionaryMatches, abTest, textSessionId,
-                     !limits.hasPremium() && enableHiddenRules, preferredLangs, untrustedSource);
+                     !limits.hasPremium() && enableHiddenRules, preferredLangs, untrustedSource,
+                     userDict != null ? userDict.getVersion() : null);
 
     //print("Check start: " + text.length() + " chars, " + langParam);
 
@@ -509,21 +575,39 @@ abstract class TextChecker {
     int textSize = length;
     List<CheckResults> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
     Future<List<CheckResults>> future;
+    AdmissionController.Ticket ticket = admissionController != null ?
+      admissionController.admit(lang, length, limits.getMaxCheckTimeMillis()) : null;
+    long submitTime = System.nanoTime();
     try {
-      future = executorService.submit(() -> {
+      CostOrderedQueue.Task<List<CheckResults>> task = new CostOrderedQueue.Task<>(() -> {
+        ServerMetricsCollector.getInstance().logQueueWait(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitTime));
+        if (ticket != null) {
+          ticket.started();
+        }
         try (MDC.MDCCloseable c = MDC.putCloseable("rID", LanguageToolHttpHandler.getRequestId(httpExchange))) {
           log.debug("Starting text check on {} chars; params: {}", length, qParams);
           long time = System.currentTimeMillis();
           List<CheckResults> results = getRuleMatches(aText, lang, motherTongue, params, qParams, userConfig, f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())));
           log.debug("Finished text check in {}ms. Starting suggestion generation.", System.currentTimeMillis() - time);
           time = System.currentTimeMillis();
+          long suggestionStartNanos = System.nanoTime();
           // generate suggestions, otherwise this is not part of the timeout logic and not properly measured in the metrics
           results.stream().flatMap(r -> r.getRuleMatches().stream()).forEach(RuleMatch::computeLazySuggestedReplacements);
+          CheckStageMetrics.observe(lang.getShortCode(), CheckStageMetrics.Stage.SUGGESTIONS, System.nanoTime() - suggestionStartNanos);
           log.debug("Finished suggestion generation in {}ms, returning results.", System.currentTimeMillis() - time);
           return results;
+        } finally {
+          if (ticket != null) {
+            ticket.finished();
+          }
         }
-      });
+      }, ticket != null ? ticket.getCost() : 0);
+      executorService.execute(task);
+      future = task;
     } catch (RejectedExecutionException e) {
+      if (ticket != null) {
+        ticket.abandon();
+      }
       throw new UnavailableException("Server overloaded, please try again later", e);
     }
     String incompleteResultReason = null;
@@ -535,7 +619,9 @@ abstract class TextChecker {
             .put("dictionary.size", dictWords.size())
             .build();
     Integer finalCount = count;
-    Map.Entry<List<CheckResults>, String> resAndReason = TelemetryProvider.INSTANCE.createSpan(SPAN_NAME_PREFIX + "GetRuleMatches", textCheckingAttributes, (span) -> {
+    Map.Entry<List<CheckResults>, String> resAndReason;
+    try {
+      resAndReason = TelemetryProvider.INSTANCE.createSpan(SPAN_NAME_PREFIX + "GetRuleMatches", textCheckingAttributes, (span) -> {
         List<CheckResults> localRes;
         String localReason = null;
         try {
@@ -591,6 +677,12 @@ abstract class TextChecker {
         }
         return new AbstractMap.SimpleEntry(localRes, localReason);
       });
+    } finally {
+      // a check cancelled before it started never releases its ticket, a running one does when it ends:
+      if (ticket != null) {
+        ticket.abandon();
+      }
+    }
     res = resAndReason.getKey();
     incompleteResultReason = resAndReason.getValue();
 
@@ -632,23 +724,37 @@ abstract class TextChecker {
     }
 
     int compactMode = Integer.parseInt(params.getOrDefault("c", "0"));
-    String response = getResponse(aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
-      limits.getPremiumUid() == null, qParams.mode);
-    if (qParams.callback != null) {
-      // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
-      // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
-      response = qParams.callback + "(" + response + ");";
-    }
+    ResponseEncoding encoding = ResponseEncoding.negotiate(httpExchange.getRequestHeaders(), qParams.callback == null);
+    encoding.setHeaders(httpExchange.getResponseHeaders());
     String messageSent = "sent";
     String languageMessage = lang.getShortCodeWithCountryAndVariant();
+    long serializationStartNanos = System.nanoTime();
+    ResponseBuffer body = new ResponseBuffer(httpExchange, MAX_BUFFERED_RESPONSE_SIZE);
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      OutputStream out = encoding.wrap(body);
+      if (qParams.callback != null) {
+        // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
+        // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
+        out.write((qParams.callback + "(").getBytes(ENCODING));
+      }
+      writeResponse(out, encoding, aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
+        limits.getPremiumUid() == null, qParams.mode);
+      if (qParams.callback != null) {
+        out.write(");".getBytes(ENCODING));
+      }
+      out.close();
       ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
     } catch (IOException exception) {
       // the client is disconnected
       messageSent = "notSent: " + exception.getMessage();
+      body.abort();
+    } catch (RuntimeException exception) {
+      body.abort();
+      throw exception;
     }
+    long writeNanos = body.getWriteNanos();
+    CheckStageMetrics.observe(lang.getShortCode(), CheckStageMetrics.Stage.SERIALIZATION, System.nanoTime() - serializationStartNanos - writeNanos);
+    CheckStageMetrics.observe(lang.getShortCode(), CheckStageMetrics.Stage.RESPONSE_WRITING, writeNanos);
     if (motherTongue != null) {
       languageMessage += " (mother tongue: " + motherTongue.getShortCodeWithCountryAndVariant() + ")";
     }
@@ -769,9 +875,9 @@ abstract class TextChecker {
     return ruleValues;
   }
 
-  private List<String> getUserDictWords(UserLimits limits, List<String> groups) {
+  private UserDictCache.Entry getUserDictWords(UserLimits limits, List<String> groups) {
     DatabaseAccess db = DatabaseAccess.getInstance();
-    return db.getWords(limits, groups, RowBounds.NO_ROW_OFFSET, RowBounds.NO_ROW_LIMIT);
+    return db.getCachedWords(limits, groups);
   }
 
   private List<Rule> getUserRules(UserLimits limits, Language lang, List<String> groups) {
@@ -995,6 +1101,16 @@ abstract class TextChecker {
       this.inputLogging = inputLogging;
     }
 
+    /**
+     * These params without the query's rule selection: the enabled and disabled rules and categories,
+     * and whether premium and hidden rules are used. {@code enableTempOffRules} is kept, as it
+     * also switches the remote rules to regression test mode.
+     */
+    QueryParams withoutRuleSelection() {
+      return new QueryParams(altLanguages, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+        false, false, allowIncompleteResults, false, false, enableTempOffRules, mode, level, toneTags, callback, inputLogging);
+    }
+
     @Override
     public int hashCode() {
       return new HashCodeBuilder()
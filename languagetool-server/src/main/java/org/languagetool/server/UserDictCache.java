@@ -0,0 +1,187 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.JLanguageTool;
+import org.languagetool.rules.spelling.morfologik.MorfologikMultiSpeller;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the word lists of user dictionaries in memory, so checks don't need to read them from the
+ * database every time. Each user has a change counter that's increased whenever words are added or
+ * deleted, via the {@link UserDictInvalidationNotifier} so other servers see the change, too. Cached
+ * word lists loaded before the last change are reloaded. Each loaded word list gets a new version,
+ * which is passed on to {@link org.languagetool.UserConfig} so the compiled dictionary is cached as well.
+ * @since 6.4
+ */
+@Slf4j
+class UserDictCache {
+
+  // lost notifications (e.g. while a server restarts its subscription) cannot make words stale forever:
+  private static final long EXPIRE_MINUTES = 10;
+
+  private static final AtomicLong nextVersion = new AtomicLong();
+
+  private final long maxWords;
+  private final Cache<Key, Entry> cache;
+  // a counter outlives the cache entries loaded with it (they expire after write), so a
+  // counter that has expired can restart at 0 without making old entries look current:
+  private final Cache<Long, AtomicLong> changeCounters = CacheBuilder.newBuilder()
+    .expireAfterAccess(2 * EXPIRE_MINUTES, TimeUnit.MINUTES)
+    .build();
+  private final UserDictInvalidationNotifier notifier;
+
+  /**
+   * @param maxWords max. number of words in the cache, 0 disables caching
+   */
+  UserDictCache(long maxWords, UserDictInvalidationNotifier notifier) {
+    this.maxWords = maxWords;
+    this.cache = CacheBuilder.newBuilder()
+      .maximumWeight(Math.max(1, maxWords))
+      .weigher((Weigher<Key, Entry>) (k, v) -> v.words.size() + 1)
+      .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+      .recordStats()
+      .build();
+    this.notifier = notifier;
+    notifier.setListener(this::invalidate);
+  }
+
+  static UserDictCache create(HTTPServerConfig config) {
+    String notifierClass = config.getUserDictInvalidationNotifier();
+    UserDictInvalidationNotifier notifier;
+    if (notifierClass == null) {
+      notifier = new UserDictInvalidationNotifier.InProcess();
+    } else {
+      try {
+        notifier = (UserDictInvalidationNotifier) JLanguageTool.getClassBroker().forName(notifierClass).getConstructor().newInstance();
+      } catch (ReflectiveOperationException | ClassCastException e) {
+        throw new IllegalConfigurationException("Could not create userDictInvalidationNotifier '" + notifierClass + "': " + e);
+      }
+    }
+    UserDictCache userDictCache = new UserDictCache(config.getUserDictCacheMaxWords(), notifier);
+    if (config.getUserDictCacheMaxWords() > 0) {
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_user_dict_cache", userDictCache.cache);
+    }
+    return userDictCache;
+  }
+
+  /**
+   * Get the words of the given user and dictionaries, using {@code loader} if they're not cached or outdated.
+   */
+  Entry get(long userId, @Nullable List<String> groups, Supplier<List<String>> loader) {
+    if (maxWords <= 0) {
+      return new Entry(null, 0, loader.get());
+    }
+    Key key = new Key(userId, groups);
+    long changeCount = getChangeCounter(userId).get();
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && entry.changeCount == changeCount) {
+      return entry;
+    }
+    // changes during loading increase the counter, so a stale list will be reloaded next time:
+    Entry loaded = new Entry(nextVersion.incrementAndGet(), changeCount, Collections.unmodifiableList(loader.get()));
+    cache.put(key, loaded);
+    return loaded;
+  }
+
+  /**
+   * To be called after words have been added to or removed from a dictionary of the given user.
+   */
+  void wordsChanged(long userId) {
+    try {
+      notifier.publish(userId);
+    } catch (Exception e) {
+      log.warn("Could not publish dictionary change of user " + userId + ", invalidating only local cache", e);
+      invalidate(userId);
+    }
+  }
+
+  void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private void invalidate(long userId) {
+    getChangeCounter(userId).incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> key.userId == userId);
+    MorfologikMultiSpeller.invalidateUserDicts(userId);
+  }
+
+  private AtomicLong getChangeCounter(long userId) {
+    return changeCounters.asMap().computeIfAbsent(userId, k -> new AtomicLong());
+  }
+
+  static final class Entry {
+
+    private final Long version;
+    private final long changeCount;
+    private final List<String> words;
+
+    private Entry(@Nullable Long version, long changeCount, List<String> words) {
+      this.version = version;
+      this.changeCount = changeCount;
+      this.words = words;
+    }
+
+    /**
+     * A version that's unique for this word list, or {@code null} if caching is disabled.
+     */
+    @Nullable
+    Long getVersion() {
+      return version;
+    }
+
+    List<String> getWords() {
+      return words;
+    }
+  }
+
+  static final class Key {
+
+    private final long userId;
+    private final List<String> groups;
+
+    private Key(long userId, @Nullable List<String> groups) {
+      this.userId = userId;
+      this.groups = groups;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key other = (Key) o;
+      return userId == other.userId && Objects.equals(groups, other.groups);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(userId, groups);
+    }
+  }
+
+}
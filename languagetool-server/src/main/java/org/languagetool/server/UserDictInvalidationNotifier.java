@@ -0,0 +1,57 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Propagates changes of a user's dictionary to all servers that cache user dictionaries,
+ * see {@link HTTPServerConfig#getUserDictInvalidationNotifier()}. Implementations need a public
+ * no-argument constructor. The default implementation only notifies the local server.
+ * @since 6.4
+ */
+public interface UserDictInvalidationNotifier {
+
+  /**
+   * Called once at startup with the callback that invalidates the local cache. Implementations
+   * must call it for every change published by any server, including this one.
+   */
+  void setListener(LongConsumer listener);
+
+  /**
+   * Publish that the dictionary of the user with the given id has changed.
+   */
+  void publish(long userId);
+
+  class InProcess implements UserDictInvalidationNotifier {
+
+    private volatile LongConsumer listener = userId -> {};
+
+    @Override
+    public void setListener(LongConsumer listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void publish(long userId) {
+      listener.accept(userId);
+    }
+  }
+
+}
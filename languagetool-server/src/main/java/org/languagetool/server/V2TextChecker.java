@@ -18,6 +18,7 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.sun.net.httpserver.HttpExchange;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.*;
@@ -29,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
@@ -87,12 +89,15 @@ class V2TextChecker extends TextChecker {
   }
 
   @Override
-  protected String getResponse(AnnotatedText text, Language usedLang, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
-                               List<RuleMatch> hiddenMatches, String incompleteResultsReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) {
+  protected void writeResponse(OutputStream out, ResponseEncoding encoding, AnnotatedText text, Language usedLang, DetectedLanguage lang,
+                               Language motherTongue, List<CheckResults> matches, List<RuleMatch> hiddenMatches, String incompleteResultsReason,
+                               int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException {
     RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer(compactMode, usedLang);
     serializer.setRuleIdToConfidenceMap(ruleIdToConfidence);
-    return serializer.ruleMatchesToJson2(matches, hiddenMatches, text, CONTEXT_SIZE, lang, incompleteResultsReason,
-      showPremiumHint, mode);
+    try (JsonGenerator g = encoding.createGenerator(out)) {
+      serializer.ruleMatchesToJson2(g, matches, hiddenMatches, text, CONTEXT_SIZE, lang, incompleteResultsReason,
+        showPremiumHint, mode);
+    }
   }
 
   @NotNull
@@ -0,0 +1,224 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.ExampleSentence;
+import org.languagetool.rules.Rule;
+
+import java.util.*;
+
+/**
+ * Warms up the server in the background after start-up: for each language, sample sentences
+ * are checked in rounds until the check time per character has stabilized (i.e. the JIT
+ * compiler has caught up and lazily loaded resources are there), then the pipeline pool is
+ * filled for the given settings. The sample sentences are the examples of the language's rules.
+ * Until the warm-up has finished, {@link #isReady()} is {@code false}, which {@code /v2/readiness}
+ * reports so that a load balancer can hold back traffic.
+ * @since 6.4
+ */
+@Slf4j
+class WarmUp {
+
+  static final int MIN_ROUNDS = 3;
+  static final int MAX_ROUNDS = 20;
+  static final int SENTENCES_PER_ROUND = 20;
+  private static final double STABLE_CHANGE = 0.1;  // max. relative change of the time per character between two rounds
+  private static final List<String> FALLBACK_SENTENCES = Arrays.asList("LanguageTool", "This is a test.");
+
+  private final PipelinePool pipelinePool;
+  private final Map<Language, List<PipelineSettings>> settingsByLanguage;
+  private final int pipelinesPerSetting;
+  private final long maxMillis;
+
+  private volatile boolean ready;
+  private volatile Thread thread;
+
+  /**
+   * @param settingsByLanguage the settings to fill the pool for, per language - the first setting
+   *                           of a language that checks sentences is the one used to measure the check time
+   * @param pipelinesPerSetting how many pipelines to put into the pool per setting
+   * @param maxMillis the maximum time to spend on a language before moving on to the next one
+   */
+  WarmUp(PipelinePool pipelinePool, Map<Language, List<PipelineSettings>> settingsByLanguage, int pipelinesPerSetting, long maxMillis) {
+    this.pipelinePool = Objects.requireNonNull(pipelinePool);
+    this.settingsByLanguage = Objects.requireNonNull(settingsByLanguage);
+    this.pipelinesPerSetting = pipelinesPerSetting;
+    this.maxMillis = maxMillis;
+  }
+
+  /**
+   * Run the warm-up in a background thread.
+   */
+  void start() {
+    Thread t = new Thread(this::run, "lt-warm-up");
+    t.setDaemon(true);
+    thread = t;
+    t.start();
+  }
+
+  void stop() {
+    Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+    }
+  }
+
+  /**
+   * Whether the warm-up has finished. Also true if it failed, as the server can still handle
+   * requests then, they might just be slow at first.
+   */
+  boolean isReady() {
+    return ready;
+  }
+
+  void run() {
+    long startTime = System.currentTimeMillis();
+    log.info("Warming up " + settingsByLanguage.size() + " language(s)...");
+    try {
+      for (Map.Entry<Language, List<PipelineSettings>> entry : settingsByLanguage.entrySet()) {
+        if (Thread.currentThread().isInterrupted()) {
+          log.info("Warm-up interrupted");
+          return;
+        }
+        warmUp(entry.getKey(), entry.getValue());
+      }
+      log.info("Warm-up finished in " + (System.currentTimeMillis() - startTime) + "ms, server is ready");
+    } finally {
+      ready = true;
+      ServerMetricsCollector.getInstance().logReady(true);
+      thread = null;
+    }
+  }
+
+  private void warmUp(Language lang, List<PipelineSettings> settings) {
+    if (settings.isEmpty()) {
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    long deadline = startTime + maxMillis;
+    try {
+      PipelineSettings mainSetting = getMainSetting(settings);
+      Pipeline pipeline = pipelinePool.getPipeline(mainSetting);
+      List<String> sentences;
+      int rounds = 0;
+      double nanosPerChar = 0;
+      try {
+        sentences = getSampleSentences(pipeline);
+        // each round checks other sentences, so we don't just measure the result cache:
+        double prevNanosPerChar = -1;
+        for (int from = 0; from < sentences.size() && rounds < MAX_ROUNDS; from += SENTENCES_PER_ROUND) {
+          if (System.currentTimeMillis() > deadline || Thread.currentThread().isInterrupted()) {
+            break;
+          }
+          nanosPerChar = checkRound(pipeline, sentences.subList(from, Math.min(from + SENTENCES_PER_ROUND, sentences.size())));
+          rounds++;
+          if (rounds >= MIN_ROUNDS && isStable(prevNanosPerChar, nanosPerChar)) {
+            break;
+          }
+          prevNanosPerChar = nanosPerChar;
+        }
+      } finally {
+        pipelinePool.returnPipeline(mainSetting, pipeline);
+      }
+      fillPool(settings, sentences);
+      long millis = System.currentTimeMillis() - startTime;
+      log.info(String.format(Locale.ENGLISH, "Warm-up of %s finished in %dms, %d rounds, %.1fµs per character in the last round",
+        lang.getShortCodeWithCountryAndVariant(), millis, rounds, nanosPerChar / 1000));
+      ServerMetricsCollector.getInstance().logWarmUp(lang, millis);
+    } catch (Exception e) {
+      log.warn("Warm-up of " + lang.getShortCodeWithCountryAndVariant() + " failed after " +
+        (System.currentTimeMillis() - startTime) + "ms", e);
+    }
+  }
+
+  /**
+   * @return the check time in nanoseconds per character
+   */
+  private static double checkRound(Pipeline pipeline, List<String> sentences) throws Exception {
+    long chars = 0;
+    long startTime = System.nanoTime();
+    for (String sentence : sentences) {
+      pipeline.check(sentence);
+      chars += sentence.length();
+    }
+    return (double) (System.nanoTime() - startTime) / Math.max(1, chars);
+  }
+
+  /**
+   * Request the pipelines for each setting first and return them afterwards, so the pool
+   * keeps several pipelines per setting.
+   */
+  private void fillPool(List<PipelineSettings> settings, List<String> sentences) throws Exception {
+    for (PipelineSettings setting : settings) {
+      List<Pipeline> pipelines = new ArrayList<>();
+      try {
+        for (int i = 0; i < pipelinesPerSetting; i++) {
+          Pipeline p = pipelinePool.getPipeline(setting);
+          pipelines.add(p);
+          p.check(sentences.get(i % sentences.size()));
+        }
+      } finally {
+        for (Pipeline p : pipelines) {
+          pipelinePool.returnPipeline(setting, p);
+        }
+      }
+    }
+  }
+
+  /**
+   * The first setting that runs the sentence-level rules, as a pipeline for text-level rules only
+   * would not see most of the sample sentences' rules.
+   */
+  static PipelineSettings getMainSetting(List<PipelineSettings> settings) {
+    return settings.stream()
+      .filter(setting -> setting.query.mode != JLanguageTool.Mode.TEXTLEVEL_ONLY)
+      .findFirst()
+      .orElse(settings.get(0));
+  }
+
+  static boolean isStable(double prevNanosPerChar, double nanosPerChar) {
+    return prevNanosPerChar > 0 && Math.abs(nanosPerChar - prevNanosPerChar) <= STABLE_CHANGE * prevNanosPerChar;
+  }
+
+  /**
+   * The example sentences of the active rules, shuffled so that each round covers different rules.
+   */
+  static List<String> getSampleSentences(Pipeline pipeline) {
+    Set<String> sentences = new LinkedHashSet<>();
+    for (Rule rule : pipeline.getAllActiveRules()) {
+      for (ExampleSentence example : rule.getIncorrectExamples()) {
+        sentences.add(ExampleSentence.cleanMarkersInExample(example.getExample()));
+      }
+      for (ExampleSentence example : rule.getCorrectExamples()) {
+        sentences.add(ExampleSentence.cleanMarkersInExample(example.getExample()));
+      }
+    }
+    sentences.removeIf(s -> s.trim().isEmpty());
+    List<String> result = new ArrayList<>(sentences);
+    Collections.shuffle(result, new Random(0));
+    if (result.size() > MAX_ROUNDS * SENTENCES_PER_ROUND) {
+      result = new ArrayList<>(result.subList(0, MAX_ROUNDS * SENTENCES_PER_ROUND));
+    }
+    return result.isEmpty() ? FALLBACK_SENTENCES : result;
+  }
+
+}
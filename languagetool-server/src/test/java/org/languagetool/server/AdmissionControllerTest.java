@@ -0,0 +1,95 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import static org.junit.Assert.*;
+
+public class AdmissionControllerTest {
+
+  private final Language lang = Languages.getLanguageForShortCode("en");
+
+  @Test
+  public void testAdmitAndRelease() {
+    AdmissionController controller = new AdmissionController(1);
+    assertEquals(0, controller.getPredictedWaitMillis());
+    // the first request is always admitted, even if it's too long for its budget:
+    AdmissionController.Ticket first = controller.admit(lang, 1_000_000, 100);
+    assertEquals(1, controller.getPendingRequests());
+    assertTrue(controller.getPredictedWaitMillis() > 100);
+    try {
+      controller.admit(lang, 10, 100);
+      fail();
+    } catch (UnavailableException expected) {}
+    // no limit, no rejection:
+    AdmissionController.Ticket second = controller.admit(lang, 10, -1);
+    assertEquals(2, controller.getPendingRequests());
+    first.abandon();
+    first.abandon();
+    second.abandon();
+    assertEquals(0, controller.getPendingRequests());
+    assertEquals(0, controller.getPredictedWaitMillis());
+  }
+
+  @Test
+  public void testLongTextsAreShedFirst() {
+    AdmissionController controller = new AdmissionController(1);
+    long budget = 1000;
+    AdmissionController.Ticket pending = controller.admit(lang, 3000, budget);
+    long wait = controller.getPredictedWaitMillis();
+    assertTrue(wait > budget / 2 && wait < budget);
+    // a short text still fits into the budget:
+    controller.admit(lang, 20, budget).abandon();
+    // a long one only gets half of the budget for waiting:
+    try {
+      controller.admit(lang, AdmissionController.SHORT_TEXT_LENGTH + 1, budget);
+      fail();
+    } catch (UnavailableException expected) {}
+    pending.abandon();
+    controller.admit(lang, AdmissionController.SHORT_TEXT_LENGTH + 1, budget).abandon();
+  }
+
+  @Test
+  public void testSpeedIsLearned() {
+    AdmissionController controller = new AdmissionController(2);
+    double initialSpeed = controller.getCharsPerSecond(lang);
+    AdmissionController.Ticket ticket = controller.admit(lang, 10_000_000, -1);
+    ticket.started();
+    ticket.finished();
+    assertTrue(controller.getCharsPerSecond(lang) > initialSpeed);
+    assertEquals(0, controller.getPendingRequests());
+  }
+
+  @Test
+  public void testRunningCheckStaysPending() {
+    AdmissionController controller = new AdmissionController(1);
+    AdmissionController.Ticket ticket = controller.admit(lang, 1000, 100);
+    ticket.started();
+    // e.g. the request timed out, but the check thread is still busy:
+    ticket.abandon();
+    assertEquals(1, controller.getPendingRequests());
+    ticket.finished();
+    assertEquals(0, controller.getPendingRequests());
+    assertEquals(0, controller.getPredictedWaitMillis());
+  }
+
+}
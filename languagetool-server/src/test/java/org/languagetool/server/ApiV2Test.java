@@ -28,6 +28,7 @@ import org.languagetool.markup.AnnotatedText;
 import org.languagetool.rules.RuleMatch;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -89,8 +90,7 @@ public class ApiV2Test {
     protected void setHeaders(HttpExchange httpExchange) {
     }
     @Override
-    protected String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches, List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) {
-      return "";
+    protected void writeResponse(OutputStream out, ResponseEncoding encoding, AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches, List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) {
     }
     @NotNull
     @Override
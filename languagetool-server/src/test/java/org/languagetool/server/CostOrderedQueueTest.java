@@ -0,0 +1,100 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.tools.LtThreadPoolFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class CostOrderedQueueTest {
+
+  private final Language lang = Languages.getLanguageForShortCode("en");
+
+  @Test
+  public void testShortRequestOvertakesLongOnes() throws Exception {
+    ThreadPoolExecutor pool = newPool(10);
+    try {
+      CountDownLatch blocked = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      pool.execute(new CostOrderedQueue.Task<>(() -> {
+        blocked.countDown();
+        release.await();
+        return null;
+      }, 0));
+      assertTrue(blocked.await(10, TimeUnit.SECONDS));
+      // the only thread is busy, so these all wait in the queue:
+      AdmissionController controller = new AdmissionController(1);
+      List<String> started = Collections.synchronizedList(new ArrayList<>());
+      List<Future<?>> futures = new ArrayList<>();
+      futures.add(submit(pool, controller.admit(lang, 50_000, -1), "long1", started));
+      futures.add(submit(pool, controller.admit(lang, 50_000, -1), "long2", started));
+      futures.add(submit(pool, controller.admit(lang, 20, -1), "short", started));
+      release.countDown();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(Arrays.asList("short", "long1", "long2"), started);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCapacity() throws Exception {
+    ThreadPoolExecutor pool = newPool(1);
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      pool.execute(new CostOrderedQueue.Task<>(() -> release.await(10, TimeUnit.SECONDS), 0));
+      pool.execute(new CostOrderedQueue.Task<>(() -> null, 10));
+      assertEquals(0, pool.getQueue().remainingCapacity());
+      try {
+        pool.execute(new CostOrderedQueue.Task<>(() -> null, 1));
+        fail();
+      } catch (RejectedExecutionException expected) {}
+      release.countDown();
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private ThreadPoolExecutor newPool(int capacity) {
+    return LtThreadPoolFactory.createFixedThreadPoolExecutor("cost-ordered-queue-test", 1, 1,
+      new CostOrderedQueue(capacity), 60, true, (thread, throwable) -> {});
+  }
+
+  private Future<?> submit(ExecutorService pool, AdmissionController.Ticket ticket, String name, List<String> started) {
+    CostOrderedQueue.Task<Void> task = new CostOrderedQueue.Task<>(() -> {
+      started.add(name);
+      ticket.finished();
+      return null;
+    }, ticket.getCost());
+    pool.execute(task);
+    return task;
+  }
+
+}
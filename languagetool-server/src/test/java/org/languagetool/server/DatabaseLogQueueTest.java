@@ -0,0 +1,103 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DatabaseLogQueueTest {
+
+  @Test
+  public void testDropNewest() throws InterruptedException {
+    DatabaseLogQueue queue = new DatabaseLogQueue(3, DatabaseLogQueue.OverflowPolicy.DROP_NEWEST);
+    List<DatabaseLogEntry> entries = getEntries(5);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(queue.offer(entries.get(i)));
+    }
+    assertFalse(queue.offer(entries.get(3)));
+    assertEquals(3, queue.size());
+    assertEquals(entries.subList(0, 3), drain(queue, 10));
+    assertTrue(queue.offer(entries.get(4)));
+    assertEquals(Collections.singletonList(entries.get(4)), drain(queue, 10));
+  }
+
+  @Test
+  public void testDropOldest() throws InterruptedException {
+    DatabaseLogQueue queue = new DatabaseLogQueue(3, DatabaseLogQueue.OverflowPolicy.DROP_OLDEST);
+    List<DatabaseLogEntry> entries = getEntries(5);
+    for (DatabaseLogEntry entry : entries) {
+      queue.offer(entry);
+    }
+    assertEquals(3, queue.size());
+    assertEquals(entries.subList(2, 3), drain(queue, 1));
+    assertEquals(entries.subList(3, 5), drain(queue, 10));
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testSample() throws InterruptedException {
+    DatabaseLogQueue queue = new DatabaseLogQueue(10, DatabaseLogQueue.OverflowPolicy.SAMPLE);
+    List<DatabaseLogEntry> entries = getEntries(100);
+    for (DatabaseLogEntry entry : entries) {
+      queue.offer(entry);
+    }
+    List<DatabaseLogEntry> result = drain(queue, 100);
+    assertEquals(10, result.size());
+    assertEquals(10, new HashSet<>(result).size());
+    assertTrue(result.contains(entries.get(99)));  // the last entry can't have been replaced
+  }
+
+  @Test
+  public void testDrainWaits() throws InterruptedException {
+    DatabaseLogQueue queue = new DatabaseLogQueue(10, DatabaseLogQueue.OverflowPolicy.DROP_NEWEST);
+    List<DatabaseLogEntry> entries = getEntries(2);
+    queue.offer(entries.get(0));
+    List<DatabaseLogEntry> result = new ArrayList<>();
+    assertTrue(queue.drainTo(result, 2, 10, 50, TimeUnit.MILLISECONDS));  // timed out, but returns what's there
+    assertEquals(1, result.size());
+    Thread producer = new Thread(() -> {
+      queue.offer(entries.get(0));
+      queue.offer(entries.get(1));
+    });
+    producer.start();
+    result.clear();
+    assertFalse(queue.drainTo(result, 2, 10, 10, TimeUnit.SECONDS));
+    assertEquals(entries, result);
+    producer.join();
+  }
+
+  private List<DatabaseLogEntry> drain(DatabaseLogQueue queue, int maxEntries) throws InterruptedException {
+    List<DatabaseLogEntry> result = new ArrayList<>();
+    queue.drainTo(result, 0, maxEntries, 0, TimeUnit.MILLISECONDS);
+    return result;
+  }
+
+  private List<DatabaseLogEntry> getEntries(int count) {
+    List<DatabaseLogEntry> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(new DatabasePingLogEntry((long) i, (long) i));
+    }
+    return result;
+  }
+
+}
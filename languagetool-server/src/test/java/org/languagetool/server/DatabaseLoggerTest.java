@@ -0,0 +1,133 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.language.Demo;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class DatabaseLoggerTest {
+
+  private final Language lang = new Demo();
+
+  private DatabaseLogger logger;
+  private int oldWaitingTime;
+
+  @Before
+  public void setUp() {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTestTools.getDefaultPort());
+    config.setDatabaseDriver("org.hsqldb.jdbcDriver");
+    config.setDatabaseUrl("jdbc:hsqldb:mem:testDb_" + System.currentTimeMillis() + "_" + Math.random());
+    config.setDatabaseUsername("");
+    config.setDatabasePassword("");
+    DatabaseAccess.init(config);
+    oldWaitingTime = DatabaseLogger.SQL_BATCH_WAITING_TIME;
+    DatabaseLogger.SQL_BATCH_WAITING_TIME = 500;
+  }
+
+  @After
+  public void tearDown() {
+    if (logger != null) {
+      logger.disableLogging();
+      logger.dropTestTables();
+    }
+    DatabaseLogger.SQL_BATCH_WAITING_TIME = oldWaitingTime;
+    DatabaseAccess.getInstance().shutdownCompact();
+    DatabaseAccess.reset();
+  }
+
+  @Test
+  public void testBatchInsert() throws Exception {
+    startLogger(1000, DatabaseLogQueue.OverflowPolicy.DROP_NEWEST);
+    Configuration mybatisConfig = DatabaseAccess.getInstance().sqlSessionFactory.getConfiguration();
+    assertTrue(mybatisConfig.hasStatement(new DatabasePingLogEntry(1L, 1L).getBatchMappingIdentifier()));
+    for (int i = 0; i < 250; i++) {
+      logger.log(new DatabaseCheckLogEntry(1L, 2L, 3L, 100 + i, i % 5, lang, lang, 20, 4L, "ALL"));
+    }
+    for (int i = 0; i < 5; i++) {
+      logger.log(new DatabasePingLogEntry(2L, (long) i));
+    }
+    logger.flush();
+    assertEquals(250, count("check_log"));
+    assertEquals(5, count("pings"));
+    assertEquals(255, logger.getQueuedCount());
+    assertEquals(255, logger.getFlushedCount());
+    assertEquals(0, logger.getDroppedCount());
+  }
+
+  @Test
+  public void testQueueLimit() throws Exception {
+    startLogger(10, DatabaseLogQueue.OverflowPolicy.DROP_OLDEST);
+    // added much faster than the worker writes them:
+    for (int i = 0; i < 1000; i++) {
+      logger.log(new DatabasePingLogEntry(2L, (long) i));
+    }
+    logger.flush();
+    assertEquals(count("pings"), logger.getFlushedCount());
+    assertEquals(1000, logger.getFlushedCount() + logger.getDroppedCount());
+    assertEquals(1000, logger.getQueuedCount());  // with DROP_OLDEST, new entries always get in
+    assertTrue(logger.getDroppedCount() > 0);
+  }
+
+  @Test
+  public void testFlushPolicy() {
+    DatabaseLogger.FlushPolicy policy = new DatabaseLogger.FlushPolicy(10, 1000, 100, 10000);
+    assertEquals(10, policy.getBatchSize());
+    assertEquals(10000, policy.getWaitingTime());
+    policy.update(10, 50, false);  // falling behind
+    assertEquals(20, policy.getBatchSize());
+    assertEquals(5000, policy.getWaitingTime());
+    policy.update(20, 5, false);  // keeping up
+    assertEquals(20, policy.getBatchSize());
+    assertEquals(5000, policy.getWaitingTime());
+    policy.update(3, 0, true);  // quiet
+    assertEquals(10, policy.getBatchSize());
+    assertEquals(10000, policy.getWaitingTime());
+    for (int i = 0; i < 20; i++) {
+      policy.update(1000, 100_000, false);
+    }
+    assertEquals(1000, policy.getBatchSize());
+    assertEquals(100, policy.getWaitingTime());
+  }
+
+  private void startLogger(int queueSize, DatabaseLogQueue.OverflowPolicy overflowPolicy) {
+    logger = new DatabaseLogger();
+    logger.start(DatabaseAccess.getInstance().sqlSessionFactory, queueSize, overflowPolicy);
+    logger.createTestTables();
+  }
+
+  private long count(String table) throws Exception {
+    try (SqlSession session = DatabaseAccess.getInstance().sqlSessionFactory.openSession();
+         Statement statement = session.getConnection().createStatement();
+         ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+      assertTrue(result.next());
+      return result.getLong(1);
+    }
+  }
+
+}
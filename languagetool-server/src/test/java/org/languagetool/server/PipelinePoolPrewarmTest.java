@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.GlobalConfig;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.UserConfig;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.WordRepeatRule;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import static org.junit.Assert.*;
+
+public class PipelinePoolPrewarmTest {
+
+  private final Language lang = new Demo() {
+    @Override
+    public List<Rule> getRelevantRules(ResourceBundle messages, UserConfig userConfig, Language motherTongue, List<Language> altLanguages) {
+      return Collections.singletonList(new WordRepeatRule(messages, this));
+    }
+  };
+
+  @Test
+  public void testPipelinesHaveOwnRules() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTestTools.getDefaultPort());
+    config.setPipelineCaching(true);
+    config.setMaxPipelinePoolSize(10);
+    PipelinePool pool = new PipelinePool(config, null, false);
+    UserConfig userConfig = new UserConfig();
+    PipelineSettings allRules = new PipelineSettings(lang, null, new TextChecker.QueryParams(), new GlobalConfig(), userConfig);
+    pool.prewarmLanguages(Collections.singletonList(allRules));
+    // the prewarmed pipeline is in the pool:
+    Pipeline p1 = pool.getPipeline(allRules);
+    Pipeline p2 = pool.getPipeline(allRules);
+    assertNotSame(p1, p2);
+    // rules are not thread-safe, so each pipeline needs its own instances of them:
+    Rule rule = p1.getAllRules().stream().filter(r -> r instanceof WordRepeatRule).findFirst().get();
+    Rule otherRule = p2.getAllRules().stream().filter(r -> r.getFullId().equals(rule.getFullId())).findFirst().get();
+    assertNotSame(rule, otherRule);
+    TextChecker.QueryParams disabledParams = new TextChecker.QueryParams(Collections.emptyList(), Collections.emptyList(),
+      Collections.singletonList(rule.getId()), Collections.emptyList(), Collections.emptyList(), false, true,
+      false, false, false, false, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null);
+    PipelineSettings oneRuleDisabled = new PipelineSettings(lang, null, disabledParams, new GlobalConfig(), userConfig);
+    Pipeline p3 = pool.getPipeline(oneRuleDisabled);
+    assertTrue(p1.getAllActiveRules().contains(rule));
+    assertFalse(p3.getAllActiveRules().stream().anyMatch(r -> r.getId().equals(rule.getId())));
+    try {
+      p3.disableRule("FOO");
+      fail();
+    } catch (Pipeline.IllegalPipelineMutationException expected) {}
+    pool.returnPipeline(allRules, p1);
+    pool.returnPipeline(allRules, p2);
+    pool.returnPipeline(oneRuleDisabled, p3);
+  }
+
+  @Test
+  public void testPipelinesAreSharedByRuleSelections() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTestTools.getDefaultPort());
+    config.setPipelineCaching(true);
+    config.setMaxPipelinePoolSize(10);
+    PipelinePool pool = new PipelinePool(config, null, false);
+    UserConfig userConfig = new UserConfig();
+    PipelineSettings allRules = new PipelineSettings(lang, null, new TextChecker.QueryParams(), new GlobalConfig(), userConfig);
+    Pipeline p1 = pool.getPipeline(allRules);
+    String ruleId = "test_unification_with_negation";
+    assertTrue(hasMatchOf(p1, ruleId));
+    pool.returnPipeline(allRules, p1);
+    TextChecker.QueryParams disabledParams = new TextChecker.QueryParams(Collections.emptyList(), Collections.emptyList(),
+      Collections.singletonList(ruleId), Collections.emptyList(), Collections.emptyList(), false, true,
+      false, false, false, false, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null);
+    PipelineSettings oneRuleDisabled = new PipelineSettings(lang, null, disabledParams, new GlobalConfig(), userConfig);
+    // another rule selection re-uses the pipeline, with the query's rules disabled:
+    Pipeline p2 = pool.getPipeline(oneRuleDisabled);
+    assertSame(p1, p2);
+    assertFalse(hasMatchOf(p2, ruleId));
+    pool.returnPipeline(oneRuleDisabled, p2);
+    // returning the pipeline resets the rule selection:
+    Pipeline p3 = pool.getPipeline(allRules);
+    assertSame(p1, p3);
+    assertTrue(hasMatchOf(p3, ruleId));
+    pool.returnPipeline(allRules, p3);
+  }
+
+  private boolean hasMatchOf(Pipeline pipeline, String ruleId) throws IOException {
+    return pipeline.check("This is a test.").stream().anyMatch(match -> match.getRule().getId().equals(ruleId));
+  }
+
+
+}
@@ -18,12 +18,14 @@
  */
 package org.languagetool.server;
 
+import org.junit.Ignore;
 import org.junit.Test;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.fail;
 
@@ -149,6 +151,45 @@ public class RequestLimiterTest {
     assertOkayWithSkippingLimits(limiter, firstIp, params, firstHeader);
   }
 
+  @Test
+  @Ignore("for interactive use only")
+  public void testPerformance() throws InterruptedException {
+    // simulates 10k requests per second from 2000 clients for 10 seconds:
+    int requestsPerSecond = 10_000;
+    int seconds = 10;
+    RequestLimiter limiter = new RequestLimiter(1000, 1_000_000, 60, 2);
+    UserLimits limits = UserLimits.getDefaultLimits(config);
+    Map<String, String> params = new HashMap<>();
+    params.put("text", "This is a short test text.");
+    AtomicLong nanos = new AtomicLong();
+    AtomicLong rejected = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    long start = System.nanoTime();
+    for (int i = 0; i < requestsPerSecond * seconds; i++) {
+      long due = start + i * TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+      while (System.nanoTime() < due) {
+        Thread.yield();
+      }
+      int client = i % 2000;
+      executor.execute(() -> {
+        String ip = "10.0." + (client / 250) + "." + (client % 250);
+        Map<String, List<String>> header = Collections.singletonMap("User-Agent", Collections.singletonList("agent" + client % 3));
+        long callStart = System.nanoTime();
+        try {
+          limiter.checkAccess(ip, params, header, limits);
+        } catch (TooManyRequestsException e) {
+          rejected.incrementAndGet();
+        }
+        nanos.addAndGet(System.nanoTime() - callStart);
+      });
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+    long requests = (long) requestsPerSecond * seconds;
+    System.out.printf(Locale.ENGLISH, "%d requests in %.1fs, %.2fµs per checkAccess(), %d rejected%n",
+      requests, (System.nanoTime() - start) / 1e9, nanos.get() / 1000.0 / requests, rejected.get());
+  }
+
   private void assertOkay(RequestLimiter limiter, String ip, Map<String, String> params, Map<String, List<String>> header) {
     try {
       limiter.checkAccess(ip, params, header, UserLimits.getDefaultLimits(config));
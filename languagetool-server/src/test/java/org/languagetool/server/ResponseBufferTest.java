@@ -0,0 +1,113 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class ResponseBufferTest {
+
+  private HttpServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      int length = Integer.parseInt(exchange.getRequestURI().getQuery().replace("fail", ""));
+      boolean fail = exchange.getRequestURI().getQuery().startsWith("fail");
+      ResponseBuffer body = new ResponseBuffer(exchange, 100);
+      try {
+        body.write(new byte[length]);
+        if (fail) {
+          throw new IllegalStateException("serialization failed");
+        }
+        body.close();
+      } catch (IllegalStateException e) {
+        body.abort();
+        try {
+          exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
+        } catch (IOException ignored) {
+          // headers have been sent already
+        }
+      } finally {
+        exchange.close();
+      }
+    });
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testBufferedResponse() throws IOException {
+    HttpURLConnection conn = open("50");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("50", conn.getHeaderField("Content-Length"));
+    assertEquals(50, read(conn).length);
+  }
+
+  @Test
+  public void testChunkedResponse() throws IOException {
+    HttpURLConnection conn = open("500");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("chunked", conn.getHeaderField("Transfer-Encoding"));
+    assertEquals(500, read(conn).length);
+  }
+
+  @Test
+  public void testAbortBeforeSending() throws IOException {
+    assertEquals(500, open("fail50").getResponseCode());
+  }
+
+  @Test
+  public void testAbortWhileSending() throws IOException {
+    HttpURLConnection conn = open("fail500");
+    assertEquals(200, conn.getResponseCode());
+    try {
+      read(conn);
+      fail("an aborted response must not look complete");
+    } catch (IOException expected) {
+    }
+  }
+
+  private HttpURLConnection open(String query) throws IOException {
+    return (HttpURLConnection) new URL("http://localhost:" + server.getAddress().getPort() + "/?" + query).openConnection();
+  }
+
+  private byte[] read(HttpURLConnection conn) throws IOException {
+    try (InputStream in = conn.getInputStream()) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+}
@@ -0,0 +1,126 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.languagetool.*;
+import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tools.RuleMatchesAsJsonSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compares the size and the serialization CPU time of check responses with many matches for
+ * the response encodings: the old way of building a string first, and streamed JSON, Smile
+ * and CBOR, each uncompressed and with gzip and deflate.
+ * Not a unit test, for interactive use only.
+ */
+final class ResponseEncodingPerformanceTest {
+
+  private static final int SENTENCES = 2000;
+  private static final int MATCHES_PER_SENTENCE = 3;
+  private static final int RUNS = 20;
+
+  private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+  private void run() throws IOException {
+    Language lang = new Demo();
+    JLanguageTool lt = new JLanguageTool(lang);
+    Rule rule = new Rule() {
+      @Override
+      public String getId() {
+        return "PERF_TEST_RULE";
+      }
+      @Override
+      public String getDescription() {
+        return "A rule for testing the performance of response encodings";
+      }
+      @Override
+      public RuleMatch[] match(AnalyzedSentence sentence) {
+        return new RuleMatch[0];
+      }
+    };
+    StringBuilder sb = new StringBuilder();
+    List<RuleMatch> matches = new ArrayList<>();
+    for (int i = 0; i < SENTENCES; i++) {
+      String sentence = "This is sentence number " + i + " with a few more words in it. ";
+      AnalyzedSentence analyzedSentence = lt.getAnalyzedSentence(sentence);
+      for (int j = 0; j < MATCHES_PER_SENTENCE; j++) {
+        int from = sb.length() + j * 8;
+        RuleMatch match = new RuleMatch(rule, analyzedSentence, from, from + 4, "Possible error " + j + ", did you mean <suggestion>word" + j + "</suggestion>?");
+        match.setSentencePosition(j * 8, j * 8 + 4);
+        matches.add(match);
+      }
+      sb.append(sentence);
+    }
+    AnnotatedText text = new AnnotatedTextBuilder().addText(sb.toString()).build();
+    List<CheckResults> res = Collections.singletonList(new CheckResults(matches, Collections.emptyList()));
+    DetectedLanguage detectedLang = new DetectedLanguage(lang, lang);
+    RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer(0, lang);
+    System.out.println(matches.size() + " matches, text length " + text.getPlainText().length());
+
+    for (int i = 0; i < 2; i++) {   // the first round is a warm-up
+      System.out.println(i == 0 ? "=== warm-up ===" : "=== results ===");
+      long cpu = 0;
+      int bytes = 0;
+      for (int run = 0; run < RUNS; run++) {
+        long startTime = threadBean.getCurrentThreadCpuTime();
+        String json = serializer.ruleMatchesToJson2(res, Collections.emptyList(), text, TextChecker.CONTEXT_SIZE, detectedLang, null, false, null);
+        bytes = json.getBytes(StandardCharsets.UTF_8).length;
+        cpu += threadBean.getCurrentThreadCpuTime() - startTime;
+      }
+      print("JSON string (old)", bytes, cpu);
+      for (ResponseEncoding.Format format : ResponseEncoding.Format.values()) {
+        for (ResponseEncoding.Compression compression : ResponseEncoding.Compression.values()) {
+          ResponseEncoding encoding = new ResponseEncoding(format, compression);
+          cpu = 0;
+          for (int run = 0; run < RUNS; run++) {
+            ByteArrayOutputStream wire = new ByteArrayOutputStream();
+            long startTime = threadBean.getCurrentThreadCpuTime();
+            try (OutputStream out = encoding.wrap(wire); JsonGenerator g = encoding.createGenerator(out)) {
+              serializer.ruleMatchesToJson2(g, res, Collections.emptyList(), text, TextChecker.CONTEXT_SIZE, detectedLang, null, false, null);
+            }
+            cpu += threadBean.getCurrentThreadCpuTime() - startTime;
+            bytes = wire.size();
+          }
+          print(encoding.toString(), bytes, cpu);
+        }
+      }
+    }
+  }
+
+  private void print(String name, int bytes, long cpuNanos) {
+    System.out.printf(Locale.ENGLISH, "%-25s %10d bytes %8.2fms CPU%n", name, bytes, cpuNanos / 1_000_000.0 / RUNS);
+  }
+
+  public static void main(String[] args) throws IOException {
+    new ResponseEncodingPerformanceTest().run();
+  }
+
+}
@@ -0,0 +1,166 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.Headers;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.*;
+
+public class ResponseEncodingTest {
+
+  @Test
+  public void testParseQualities() {
+    Map<String, Float> qualities = ResponseEncoding.parseQualities("gzip;q=0.5, Deflate, br;q=0, *;q=foo");
+    assertEquals(0.5f, qualities.get("gzip"), 0.001);
+    assertEquals(1f, qualities.get("deflate"), 0.001);
+    assertEquals(0f, qualities.get("br"), 0.001);
+    assertEquals(0f, qualities.get("*"), 0.001);
+  }
+
+  @Test
+  public void testNegotiateCompression() {
+    assertEquals(ResponseEncoding.Compression.IDENTITY, negotiate(null, null).getCompression());
+    assertEquals(ResponseEncoding.Compression.GZIP, negotiate(null, "gzip, deflate").getCompression());
+    assertEquals(ResponseEncoding.Compression.DEFLATE, negotiate(null, "gzip;q=0.5, deflate").getCompression());
+    assertEquals(ResponseEncoding.Compression.DEFLATE, negotiate(null, "deflate").getCompression());
+    assertEquals(ResponseEncoding.Compression.GZIP, negotiate(null, "*").getCompression());
+    assertEquals(ResponseEncoding.Compression.DEFLATE, negotiate(null, "gzip;q=0, *").getCompression());
+    assertEquals(ResponseEncoding.Compression.IDENTITY, negotiate(null, "identity, br").getCompression());
+  }
+
+  @Test
+  public void testNegotiateFormat() {
+    assertEquals(ResponseEncoding.Format.JSON, negotiate(null, null).getFormat());
+    assertEquals(ResponseEncoding.Format.JSON, negotiate("text/html", null).getFormat());
+    assertEquals(ResponseEncoding.Format.JSON, negotiate("application/json, application/cbor;q=0.5", null).getFormat());
+    assertEquals(ResponseEncoding.Format.CBOR, negotiate("application/cbor, application/json;q=0.9", null).getFormat());
+    assertEquals(ResponseEncoding.Format.SMILE, negotiate("application/x-jackson-smile", null).getFormat());
+    Headers headers = new Headers();
+    headers.set("Accept", "application/cbor, application/x-jackson-smile");
+    assertEquals(ResponseEncoding.Format.JSON, ResponseEncoding.negotiate(headers, false).getFormat());
+  }
+
+  @Test
+  public void testSetHeaders() {
+    Headers headers = new Headers();
+    negotiate(null, "gzip").setHeaders(headers);
+    assertEquals("gzip", headers.getFirst("Content-Encoding"));
+    assertNull(headers.getFirst("Content-Type"));
+    headers = new Headers();
+    negotiate(null, null).setHeaders(headers);
+    assertNull(headers.getFirst("Content-Encoding"));
+  }
+
+  @Test
+  public void testCompressedJson() throws IOException {
+    assertEquals("{\"foo\":\"bar\"}", writeAndRead(negotiate(null, null)));
+    assertEquals("{\"foo\":\"bar\"}", writeAndRead(negotiate(null, "gzip")));
+    assertEquals("{\"foo\":\"bar\"}", writeAndRead(negotiate(null, "deflate")));
+  }
+
+  @Test
+  public void testBinaryFormats() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTestTools.getDefaultPort());
+    HTTPServer server = new HTTPServer(config);
+    try {
+      server.run();
+      JsonNode json = check(config.getPort(), null, new JsonFactory());
+      assertTrue(json.get("matches").size() > 0);
+      // compared as text, as the binary formats keep floats as floats:
+      assertEquals(json.toString(), check(config.getPort(), "application/x-jackson-smile", new SmileFactory()).toString());
+      assertEquals(json.toString(), check(config.getPort(), "application/cbor", new CBORFactory()).toString());
+    } finally {
+      server.stop();
+    }
+  }
+
+  private JsonNode check(int port, String accept, JsonFactory factory) throws IOException {
+    HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + port + "/v2/check").openConnection();
+    if (accept != null) {
+      conn.setRequestProperty("Accept", accept);
+    }
+    conn.setDoOutput(true);
+    try (Writer writer = new OutputStreamWriter(conn.getOutputStream(), StandardCharsets.UTF_8)) {
+      writer.write("language=xx&text=" + URLEncoder.encode("This is is a test.", "UTF-8"));
+    }
+    assertEquals(200, conn.getResponseCode());
+    assertEquals(accept != null ? accept : "application/json", conn.getContentType().replaceFirst(";.*", ""));
+    try (InputStream in = conn.getInputStream()) {
+      return new ObjectMapper(factory).readTree(in);
+    }
+  }
+
+  private String writeAndRead(ResponseEncoding encoding) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = encoding.wrap(bytes)) {
+      try (JsonGenerator g = encoding.createGenerator(out)) {
+        g.writeStartObject();
+        g.writeStringField("foo", "bar");
+        g.writeEndObject();
+      }
+    }
+    InputStream in = new ByteArrayInputStream(bytes.toByteArray());
+    if (encoding.getCompression() == ResponseEncoding.Compression.GZIP) {
+      in = new GZIPInputStream(in);
+    } else if (encoding.getCompression() == ResponseEncoding.Compression.DEFLATE) {
+      in = new InflaterInputStream(in);
+    }
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024];
+    int n;
+    while ((n = in.read(buffer)) > 0) {
+      result.write(buffer, 0, n);
+    }
+    return new String(result.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private ResponseEncoding negotiate(String accept, String acceptEncoding) {
+    Headers headers = new Headers();
+    if (accept != null) {
+      headers.set("Accept", accept);
+    }
+    if (acceptEncoding != null) {
+      headers.set("Accept-Encoding", acceptEncoding);
+    }
+    return ResponseEncoding.negotiate(headers, true);
+  }
+
+}
@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SlidingWindowCounterTest {
+
+  @Test
+  public void testWindow() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(1000);
+    long start = 1_000_000;
+    counter.add(start, 10);
+    counter.add(start + 500, 5);
+    assertEquals(2, counter.getRequests(start + 500));
+    assertEquals(15, counter.getSize(start + 500));
+    // the first request is out of the window, the second one still in it:
+    assertEquals(1, counter.getRequests(start + 1100));
+    assertEquals(5, counter.getSize(start + 1100));
+    assertFalse(counter.isIdle(start + 1100));
+    // a new round of the ring must not see the old values:
+    counter.add(start + 2000, 1);
+    assertEquals(1, counter.getRequests(start + 2000));
+    assertEquals(1, counter.getSize(start + 2000));
+    assertTrue(counter.isIdle(start + 5000));
+  }
+
+  @Test
+  public void testConcurrentAdds() throws InterruptedException {
+    SlidingWindowCounter counter = new SlidingWindowCounter(60_000);
+    long now = System.currentTimeMillis();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          counter.add(now, 2);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40_000, counter.getRequests(now));
+    assertEquals(80_000, counter.getSize(now));
+  }
+
+}
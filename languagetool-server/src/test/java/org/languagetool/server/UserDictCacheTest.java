@@ -0,0 +1,99 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class UserDictCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void testCacheAndInvalidation() {
+    UserDictCache cache = new UserDictCache(1000, new UserDictInvalidationNotifier.InProcess());
+    UserDictCache.Entry entry1 = cache.get(1, null, loader("foo"));
+    UserDictCache.Entry entry2 = cache.get(1, null, loader("foo", "bar"));
+    assertSame(entry1, entry2);
+    assertEquals(1, loads.get());
+    assertEquals(Collections.singletonList("foo"), entry2.getWords());
+    // other dictionaries and users are cached separately:
+    UserDictCache.Entry groupEntry = cache.get(1, Arrays.asList("group1"), loader("baz"));
+    UserDictCache.Entry otherUserEntry = cache.get(2, null, loader("qux"));
+    assertEquals(3, loads.get());
+    assertNotEquals(entry1.getVersion(), groupEntry.getVersion());
+
+    cache.wordsChanged(1);
+    UserDictCache.Entry entry3 = cache.get(1, null, loader("foo", "bar"));
+    assertEquals(Arrays.asList("foo", "bar"), entry3.getWords());
+    assertNotEquals(entry1.getVersion(), entry3.getVersion());
+    assertNotSame(groupEntry, cache.get(1, Arrays.asList("group1"), loader("baz")));
+    assertSame(otherUserEntry, cache.get(2, null, loader("qux")));
+    assertEquals(5, loads.get());
+  }
+
+  @Test
+  public void testNotifier() {
+    RecordingNotifier notifier = new RecordingNotifier();
+    UserDictCache cache = new UserDictCache(1000, notifier);
+    UserDictCache.Entry entry = cache.get(1, null, loader("foo"));
+    cache.wordsChanged(1);
+    assertEquals(Collections.singletonList(1L), notifier.published);
+    // not invalidated until the notification arrives:
+    assertSame(entry, cache.get(1, null, loader("foo")));
+    notifier.deliver();
+    assertNotSame(entry, cache.get(1, null, loader("foo")));
+  }
+
+  @Test
+  public void testDisabled() {
+    UserDictCache cache = new UserDictCache(0, new UserDictInvalidationNotifier.InProcess());
+    UserDictCache.Entry entry = cache.get(1, null, loader("foo"));
+    assertNull(entry.getVersion());
+    cache.get(1, null, loader("foo"));
+    assertEquals(2, loads.get());
+  }
+
+  private Supplier<List<String>> loader(String... words) {
+    return () -> {
+      loads.incrementAndGet();
+      return Arrays.asList(words);
+    };
+  }
+
+  private static class RecordingNotifier extends UserDictInvalidationNotifier.InProcess {
+    private final List<Long> published = new ArrayList<>();
+    @Override
+    public void publish(long userId) {
+      published.add(userId);
+    }
+    void deliver() {
+      published.forEach(super::publish);
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.GlobalConfig;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.UserConfig;
+import org.languagetool.language.Demo;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class WarmUpTest {
+
+  private final Language lang = new Demo();
+
+  @Test
+  public void testWarmUp() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTestTools.getDefaultPort());
+    config.setPipelineCaching(true);
+    config.setMaxPipelinePoolSize(10);
+    List<Pipeline> created = new ArrayList<>();
+    PipelinePool pool = new PipelinePool(config, null, false) {
+      @Override
+      Pipeline getPipeline(PipelineSettings settings) throws Exception {
+        Pipeline p = super.getPipeline(settings);
+        created.add(p);
+        return p;
+      }
+    };
+    PipelineSettings settings = new PipelineSettings(lang, null, new TextChecker.QueryParams(), new GlobalConfig(), new UserConfig());
+    Map<Language, List<PipelineSettings>> settingsByLanguage = new HashMap<>();
+    settingsByLanguage.put(lang, Collections.singletonList(settings));
+    WarmUp warmUp = new WarmUp(pool, settingsByLanguage, 2, 10_000);
+    assertFalse(warmUp.isReady());
+    warmUp.run();
+    assertTrue(warmUp.isReady());
+    // one pipeline to measure the check time, then two to fill the pool:
+    assertEquals(3, created.size());
+    assertEquals(2, new HashSet<>(created).size());
+    assertFalse(WarmUp.getSampleSentences(created.get(0)).isEmpty());
+  }
+
+  @Test
+  public void testGetMainSetting() {
+    PipelineSettings textLevel = getSettings(JLanguageTool.Mode.TEXTLEVEL_ONLY);
+    PipelineSettings sentenceLevel = getSettings(JLanguageTool.Mode.ALL_BUT_TEXTLEVEL_ONLY);
+    assertSame(sentenceLevel, WarmUp.getMainSetting(Arrays.asList(textLevel, sentenceLevel)));
+    assertSame(textLevel, WarmUp.getMainSetting(Collections.singletonList(textLevel)));
+  }
+
+  private PipelineSettings getSettings(JLanguageTool.Mode mode) {
+    TextChecker.QueryParams params = new TextChecker.QueryParams(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+      Collections.emptyList(), Collections.emptyList(), false, false, false, false, false, false, mode, JLanguageTool.Level.DEFAULT, null);
+    return new PipelineSettings(lang, null, params, new GlobalConfig(), new UserConfig());
+  }
+
+  @Test
+  public void testIsStable() {
+    assertFalse(WarmUp.isStable(-1, 100));
+    assertTrue(WarmUp.isStable(100, 95));
+    assertTrue(WarmUp.isStable(100, 110));
+    assertFalse(WarmUp.isStable(100, 50));
+    assertFalse(WarmUp.isStable(100, 150));
+  }
+
+}
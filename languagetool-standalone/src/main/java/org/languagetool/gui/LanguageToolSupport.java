@@ -72,6 +72,7 @@ class LanguageToolSupport {
   private final ResourceBundle messages;
   private final List<RuleMatch> ruleMatches;
   private final List<Span> documentSpans;
+  private final ParagraphMatchCache paragraphCache = new ParagraphMatchCache();
 
   private MultiThreadedJLanguageTool languageTool;
   private ScheduledExecutorService checkExecutor;
@@ -154,6 +155,8 @@ class LanguageToolSupport {
     Language language = languageTool.getLanguage();
     languageTool = new MultiThreadedJLanguageTool(language, config.getMotherTongue(), 
         new UserConfig(config.getConfigurableValues()));
+    languageTool.setCheckCancelledCallback(() -> check.get() != 0);
+    paragraphCache.invalidate();
     config.initStyleCategories(languageTool.getAllRules());
 
     Set<String> disabledRules = config.getDisabledRuleIds();
@@ -250,6 +253,9 @@ class LanguageToolSupport {
       //}
       languageTool = new MultiThreadedJLanguageTool(language, config.getMotherTongue(), 
           new UserConfig(config.getConfigurableValues()));
+      // stop checking outdated text as soon as a newer check has been scheduled:
+      languageTool.setCheckCancelledCallback(() -> check.get() != 0);
+      paragraphCache.invalidate();
       config.initStyleCategories(languageTool.getAllRules());
       languageTool.setCleanOverlappingMatches(false);
       Tools.configureFromRules(languageTool, config);
@@ -315,6 +321,7 @@ class LanguageToolSupport {
       @Override
       public void insertUpdate(DocumentEvent e) {
         mustDetectLanguage = config.getAutoDetect();
+        paragraphCache.textInserted(e.getOffset(), e.getLength());
         recalculateSpans(e.getOffset(), e.getLength(), false);
         if (backgroundCheckEnabled) {
           checkDelayed(null);
@@ -324,6 +331,7 @@ class LanguageToolSupport {
       @Override
       public void removeUpdate(DocumentEvent e) {
         mustDetectLanguage = config.getAutoDetect();
+        paragraphCache.textRemoved(e.getOffset(), e.getLength());
         recalculateSpans(e.getOffset(), e.getLength(), true);
         if (backgroundCheckEnabled) {
           checkDelayed(null);
@@ -446,6 +454,7 @@ class LanguageToolSupport {
       config.getDisabledRuleIds().add(ruleId);
     }
     languageTool.disableRule(ruleId);
+    paragraphCache.removeMatches(ruleId);
     updateHighlights(ruleId);
     fireEvent(LanguageToolEvent.Type.RULE_DISABLED, null);
   }
@@ -462,6 +471,7 @@ class LanguageToolSupport {
       config.getDisabledRuleIds().remove(ruleId);
     }
     languageTool.enableRule(ruleId);
+    paragraphCache.invalidate();
     fireEvent(LanguageToolEvent.Type.RULE_ENABLED, null);
     checkImmediately(null);
   }
@@ -730,23 +740,73 @@ class LanguageToolSupport {
       }
     }
 
+    // only paragraphs modified since the last check are checked, the visible ones first:
     long startTime = System.currentTimeMillis();
-    List<RuleMatch> matches = this.languageTool.check(this.textComponent.getText());
+    String text = getTextAndUpdateParagraphs();
+    int[] visibleRange = getVisibleRange();
+    boolean completed = paragraphCache.check(languageTool, text, visibleRange[0], visibleRange[1],
+      () -> check.get() != 0, () -> runOnEventDispatchThread(() -> {
+        if (check.get() == 0) {
+          updateHighlights(paragraphCache.getMatches());
+        }
+      }));
     long elapsedTime = System.currentTimeMillis() - startTime;
 
-    int v = check.get();
-    if (v == 0) {
-      if (!SwingUtilities.isEventDispatchThread()) {
-        SwingUtilities.invokeLater(() -> {
-          updateHighlights(matches);
-          fireEvent(LanguageToolEvent.Type.CHECKING_FINISHED, caller, elapsedTime);
-        });
-      } else {
-        updateHighlights(matches);
+    // if not completed, a newer check is pending and will update the highlights:
+    if (completed && check.get() == 0) {
+      runOnEventDispatchThread(() -> {
+        updateHighlights(paragraphCache.getMatches());
         fireEvent(LanguageToolEvent.Type.CHECKING_FINISHED, caller, elapsedTime);
+      });
+    }
+    return paragraphCache.getMatches();
+  }
+
+  private void runOnEventDispatchThread(Runnable runnable) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      runnable.run();
+    } else {
+      SwingUtilities.invokeLater(runnable);
+    }
+  }
+
+  // read the text while holding the document's lock, so it matches the events the paragraphs have been updated with:
+  private String getTextAndUpdateParagraphs() {
+    Document doc = textComponent.getDocument();
+    String[] text = new String[1];
+    doc.render(() -> {
+      try {
+        text[0] = doc.getText(0, doc.getLength());
+      } catch (BadLocationException e) {
+        throw new IllegalStateException(e);
+      }
+      paragraphCache.update(text[0]);
+    });
+    return text[0];
+  }
+
+  /**
+   * @return start and end position of the text that's currently visible
+   */
+  private int[] getVisibleRange() {
+    int[] range = new int[2];
+    Runnable getRange = () -> {
+      Rectangle rect = textComponent.getVisibleRect();
+      range[0] = textComponent.viewToModel(rect.getLocation());
+      range[1] = textComponent.viewToModel(new Point(rect.x + rect.width, rect.y + rect.height));
+    };
+    if (SwingUtilities.isEventDispatchThread()) {
+      getRange.run();
+    } else {
+      try {
+        SwingUtilities.invokeAndWait(getRange);
+      } catch (InterruptedException ex) {
+        //ignore
+      } catch (InvocationTargetException ex) {
+        throw new RuntimeException(ex);
       }
     }
-    return matches;
+    return range;
   }
 
   private void removeHighlights() {
@@ -0,0 +1,442 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.gui;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The rule matches of a text, kept per paragraph (i.e. per line, as the text area wraps lines),
+ * so that after an edit only the modified paragraphs need to be checked again. Edits are
+ * reported with {@link #textInserted(int, int)} and {@link #textRemoved(int, int)}, which mark
+ * the affected paragraphs as modified and shift the ones after them. Matches are stored relative
+ * to the start of their paragraph, so unchanged paragraphs keep their matches when text before
+ * them is edited.
+ * <p>Text-level rules can find matches that depend on text in other paragraphs, so they aren't
+ * run on the paragraphs but on the whole text, after the paragraphs have been checked. Their
+ * matches are kept separately and are replaced after each edit, once the whole text has been
+ * checked again.</p>
+ * <p>All methods are thread-safe.</p>
+ * @since 6.4
+ */
+class ParagraphMatchCache {
+
+  // consecutive paragraphs are checked in one call to JLanguageTool, up to this length:
+  static final int MAX_BATCH_LENGTH = 5000;
+
+  private final List<Paragraph> paragraphs = new ArrayList<>();
+
+  private boolean textLevelChecked;
+  private int textVersion;  // changed with each modification, to detect outdated text-level matches
+  private int updatedVersion = -1;  // the version of the text of the last call to update()
+
+  /**
+   * Called after text has been inserted into the document.
+   */
+  synchronized void textInserted(int offset, int length) {
+    if (length == 0) {
+      return;
+    }
+    if (paragraphs.isEmpty()) {
+      paragraphs.add(new Paragraph(0, 0));
+    }
+    int idx = getIndex(offset);
+    Paragraph para = paragraphs.get(idx);
+    para.length += length;
+    para.modified();
+    shift(idx + 1, length);
+    textModified();
+  }
+
+  /**
+   * Called after text has been removed from the document.
+   */
+  synchronized void textRemoved(int offset, int length) {
+    if (length == 0 || paragraphs.isEmpty()) {
+      return;
+    }
+    int firstIdx = getIndex(offset);
+    int lastIdx = getIndex(offset + length - 1);
+    Paragraph first = paragraphs.get(firstIdx);
+    first.length = paragraphs.get(lastIdx).getEnd() - first.start - length;
+    first.modified();
+    paragraphs.subList(firstIdx + 1, lastIdx + 1).clear();
+    shift(firstIdx + 1, -length);
+    textModified();
+  }
+
+  /**
+   * Mark all paragraphs as unchecked, e.g. because the language or the active rules have changed.
+   * They keep their matches until they have been checked again.
+   */
+  synchronized void invalidate() {
+    for (Paragraph para : paragraphs) {
+      para.checked = false;
+      para.version++;
+    }
+    textModified();
+  }
+
+  /**
+   * Remove the matches of a rule that has been disabled.
+   */
+  synchronized void removeMatches(String ruleId) {
+    for (Paragraph para : paragraphs) {
+      para.matches.removeIf(match -> match.match.getRule().getId().equals(ruleId));
+      para.textLevelMatches.removeIf(match -> match.match.getRule().getId().equals(ruleId));
+      para.version++;  // a check that is running might still find matches of the rule
+    }
+    textVersion++;
+  }
+
+  /**
+   * Split modified paragraphs (which may now contain line breaks or have lost their
+   * final line break) according to the current text. Must be called with the same
+   * text the document events have been reported for.
+   */
+  synchronized void update(String text) {
+    if (getLength() != text.length()) {
+      // shouldn't happen, but if events got lost, start from scratch:
+      paragraphs.clear();
+      textModified();
+      if (!text.isEmpty()) {
+        Paragraph para = new Paragraph(0, text.length());
+        para.modified = true;
+        paragraphs.add(para);
+      }
+    }
+    List<Paragraph> result = new ArrayList<>(paragraphs.size());
+    int i = 0;
+    while (i < paragraphs.size()) {
+      Paragraph para = paragraphs.get(i);
+      if (!para.modified) {
+        result.add(para);
+        i++;
+        continue;
+      }
+      int start = para.start;
+      int end = para.getEnd();
+      i++;
+      // the region to split needs to end with a line break (or the text):
+      while (i < paragraphs.size() && (paragraphs.get(i).modified || (end > start && text.charAt(end - 1) != '\n'))) {
+        end = paragraphs.get(i).getEnd();
+        i++;
+      }
+      int pos = start;
+      while (pos < end) {
+        int lineBreak = text.indexOf('\n', pos);
+        int paraEnd = lineBreak == -1 || lineBreak >= end ? end : lineBreak + 1;
+        result.add(new Paragraph(pos, paraEnd - pos));
+        pos = paraEnd;
+      }
+    }
+    paragraphs.clear();
+    paragraphs.addAll(result);
+    updatedVersion = textVersion;
+  }
+
+  /**
+   * Check the paragraphs that haven't been checked yet, starting with those that overlap
+   * the visible part of the text, and store their matches. Then run the text-level rules
+   * on the whole text, if it has changed since they last ran. {@link #update(String)} needs
+   * to be called with {@code text} first.
+   * @param visibleFrom start of the visible part of {@code text}
+   * @param visibleTo end of the visible part of {@code text}
+   * @param cancelled checked before each call to {@code lt} - if it returns {@code true}, the check
+   *                  is stopped, matches found so far are kept
+   * @param visibleChecked called when the visible paragraphs have been checked and there are other paragraphs
+   *                       or the whole text left to check, so the matches can be shown before the whole check
+   *                       has finished
+   * @return {@code false} if the check has been stopped
+   */
+  boolean check(JLanguageTool lt, String text, int visibleFrom, int visibleTo, BooleanSupplier cancelled, Runnable visibleChecked) throws IOException {
+    List<Batch> visible = new ArrayList<>();
+    List<Batch> invisible = new ArrayList<>();
+    for (Batch batch : getUncheckedBatches(text)) {
+      if (batch.start <= visibleTo && batch.end >= visibleFrom) {
+        visible.add(batch);
+      } else {
+        invisible.add(batch);
+      }
+    }
+    for (Batch batch : visible) {
+      if (!check(lt, batch, cancelled)) {
+        return false;
+      }
+    }
+    int version = getTextLevelVersion(lt);
+    if (!invisible.isEmpty() || version != -1) {
+      visibleChecked.run();
+    }
+    for (Batch batch : invisible) {
+      if (!check(lt, batch, cancelled)) {
+        return false;
+      }
+    }
+    if (version != -1) {
+      if (cancelled.getAsBoolean()) {
+        return false;
+      }
+      List<RuleMatch> matches = check(lt, text, JLanguageTool.Mode.TEXTLEVEL_ONLY);
+      if (cancelled.getAsBoolean()) {
+        return false;
+      }
+      setTextLevelMatches(version, matches);
+    }
+    return true;
+  }
+
+  private boolean check(JLanguageTool lt, Batch batch, BooleanSupplier cancelled) throws IOException {
+    if (cancelled.getAsBoolean()) {
+      return false;
+    }
+    List<RuleMatch> matches = check(lt, batch.text, JLanguageTool.Mode.ALL_BUT_TEXTLEVEL_ONLY);
+    // the check might have been cancelled in the middle, so the matches might be incomplete:
+    if (cancelled.getAsBoolean()) {
+      return false;
+    }
+    setMatches(batch, matches);
+    return true;
+  }
+
+  private static List<RuleMatch> check(JLanguageTool lt, String text, JLanguageTool.Mode mode) throws IOException {
+    return lt.check(new AnnotatedTextBuilder().addText(text).build(), true, JLanguageTool.ParagraphHandling.NORMAL,
+      null, mode, JLanguageTool.Level.DEFAULT);
+  }
+
+  /**
+   * @return the version of the text the text-level rules need to be run for, or {@code -1} if they don't
+   * need to be run, because they have already run on this version, because there are none, or because
+   * the text has been modified since the last call to {@link #update(String)}
+   */
+  private synchronized int getTextLevelVersion(JLanguageTool lt) {
+    if (textLevelChecked || updatedVersion != textVersion) {
+      return -1;
+    }
+    if (lt.getAllActiveRules().stream().noneMatch(rule -> rule instanceof TextLevelRule)) {
+      for (Paragraph para : paragraphs) {
+        para.textLevelMatches.clear();
+      }
+      textLevelChecked = true;
+      return -1;
+    }
+    return updatedVersion;
+  }
+
+  private synchronized List<Batch> getUncheckedBatches(String text) {
+    List<Batch> batches = new ArrayList<>();
+    Batch batch = null;
+    for (Paragraph para : paragraphs) {
+      if (para.checked || para.modified) {
+        batch = null;
+        continue;
+      }
+      if (batch == null || para.getEnd() - batch.start > MAX_BATCH_LENGTH) {
+        batch = new Batch(para.start);
+        batches.add(batch);
+      }
+      batch.add(para);
+    }
+    for (Batch b : batches) {
+      b.text = text.substring(b.start, b.end);
+    }
+    return batches;
+  }
+
+  private synchronized void setMatches(Batch batch, List<RuleMatch> matches) {
+    for (int i = 0; i < batch.paragraphs.size(); i++) {
+      Paragraph para = batch.paragraphs.get(i);
+      if (para.version != batch.versions.get(i)) {
+        continue;  // modified in the meantime, the result is outdated
+      }
+      // positions may have been shifted by edits in other paragraphs, so use those from when the text was taken:
+      int from = batch.offsets.get(i);
+      int to = from + para.length;
+      para.matches.clear();
+      for (RuleMatch match : matches) {
+        // the last paragraph also gets matches at the very end of the text:
+        if (match.getFromPos() >= from && (match.getFromPos() < to || i == batch.paragraphs.size() - 1)) {
+          para.matches.add(new CachedMatch(match, match.getFromPos() - from, match.getToPos() - from));
+        }
+      }
+      para.checked = true;
+    }
+  }
+
+  private synchronized void setTextLevelMatches(int version, List<RuleMatch> matches) {
+    if (version != textVersion) {
+      return;  // modified in the meantime, the result is outdated
+    }
+    for (Paragraph para : paragraphs) {
+      para.textLevelMatches.clear();
+    }
+    for (RuleMatch match : matches) {
+      Paragraph para = paragraphs.get(getIndex(match.getFromPos()));
+      para.textLevelMatches.add(new CachedMatch(match, match.getFromPos() - para.start, match.getToPos() - para.start));
+    }
+    textLevelChecked = true;
+  }
+
+  /**
+   * @return the matches of all paragraphs sorted by position, with positions in the current text - the matches of paragraphs
+   * that have been modified since they were checked are left out
+   */
+  synchronized List<RuleMatch> getMatches() {
+    List<RuleMatch> result = new ArrayList<>();
+    for (Paragraph para : paragraphs) {
+      if (para.modified) {
+        continue;
+      }
+      addMatches(para, para.matches, result);
+      addMatches(para, para.textLevelMatches, result);
+    }
+    result.sort(Comparator.comparingInt(RuleMatch::getFromPos));
+    return result;
+  }
+
+  private static void addMatches(Paragraph para, List<CachedMatch> matches, List<RuleMatch> result) {
+    for (CachedMatch cached : matches) {
+      RuleMatch match = new RuleMatch(cached.match);
+      match.setOffsetPosition(para.start + cached.fromPos, para.start + cached.toPos);
+      result.add(match);
+    }
+  }
+
+  /**
+   * @return whether all paragraphs and the whole text have been checked since they were last modified
+   */
+  synchronized boolean isChecked() {
+    if (!textLevelChecked) {
+      return false;
+    }
+    for (Paragraph para : paragraphs) {
+      if (!para.checked || para.modified) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  synchronized int getParagraphCount() {
+    return paragraphs.size();
+  }
+
+  private int getLength() {
+    return paragraphs.isEmpty() ? 0 : paragraphs.get(paragraphs.size() - 1).getEnd();
+  }
+
+  // index of the paragraph that contains offset, or of the last paragraph if offset is at the end of the text
+  private int getIndex(int offset) {
+    int low = 0;
+    int high = paragraphs.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (paragraphs.get(mid).start <= offset) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  private void textModified() {
+    textLevelChecked = false;
+    textVersion++;
+  }
+
+  private void shift(int fromIndex, int delta) {
+    for (int i = fromIndex; i < paragraphs.size(); i++) {
+      paragraphs.get(i).start += delta;
+    }
+  }
+
+  private static class Paragraph {
+
+    private final List<CachedMatch> matches = new ArrayList<>();
+    private final List<CachedMatch> textLevelMatches = new ArrayList<>();  // of the text-level rules run on the whole text
+
+    private int start;
+    private int length;
+    private boolean modified;  // text changed since the last call to update()
+    private boolean checked;
+    private int version;
+
+    private Paragraph(int start, int length) {
+      this.start = start;
+      this.length = length;
+    }
+
+    private int getEnd() {
+      return start + length;
+    }
+
+    private void modified() {
+      modified = true;
+      checked = false;
+      version++;
+      matches.clear();
+      textLevelMatches.clear();
+    }
+  }
+
+  private static class CachedMatch {
+
+    private final RuleMatch match;
+    private final int fromPos;  // relative to the start of the paragraph
+    private final int toPos;
+
+    private CachedMatch(RuleMatch match, int fromPos, int toPos) {
+      this.match = match;
+      this.fromPos = fromPos;
+      this.toPos = toPos;
+    }
+  }
+
+  private static class Batch {
+
+    private final int start;
+    private final List<Paragraph> paragraphs = new ArrayList<>();
+    private final List<Integer> versions = new ArrayList<>();
+    private final List<Integer> offsets = new ArrayList<>();  // relative to start
+    private int end;
+    private String text;
+
+    private Batch(int start) {
+      this.start = start;
+      this.end = start;
+    }
+
+    private void add(Paragraph para) {
+      paragraphs.add(para);
+      versions.add(para.version);
+      offsets.add(para.start - start);
+      end = para.getEnd();
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.gui;
+
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.MultiThreadedJLanguageTool;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measure how long it takes until the matches of the visible text are known again after
+ * a single-character edit in a large document, compared to checking the whole document
+ * (which is what the GUI did before {@link ParagraphMatchCache}).
+ * Not a unit test, for interactive use only.
+ */
+final class ParagraphMatchCachePerformanceTest {
+
+  private static final int PAGES = 200;
+  private static final int CHARS_PER_PAGE = 3000;
+  private static final int VISIBLE_CHARS = 3000;
+  private static final int EDITS = 200;
+  private static final String[] SENTENCES = {
+    "This is a test sentence. ", "Here is a a mistake. ", "It's a nice day, isn't it? ",
+    "The the quick brown fox jumps over the lazy dog. ", "This sentence contains an error in in it. ",
+    "LanguageTool checks your texts for for errors. ", "We went their yesterday. "
+  };
+
+  private void run(String langCode) throws IOException {
+    Language lang = Languages.getLanguageForShortCode(langCode);
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(lang);
+    Random rnd = new Random(42);
+    StringBuilder text = new StringBuilder();
+    while (text.length() < PAGES * CHARS_PER_PAGE) {
+      int sentences = 1 + rnd.nextInt(6);
+      for (int i = 0; i < sentences; i++) {
+        text.append(SENTENCES[rnd.nextInt(SENTENCES.length)]);
+      }
+      text.append('\n');
+    }
+    lt.check(text.toString());  // warm up
+    long startTime = System.nanoTime();
+    int fullMatches = lt.check(text.toString()).size();
+    long fullCheckNanos = System.nanoTime() - startTime;
+    System.out.printf("%s: %d chars, full check: %dms, %d matches%n", langCode, text.length(), fullCheckNanos / 1_000_000, fullMatches);
+
+    ParagraphMatchCache cache = new ParagraphMatchCache();
+    cache.textInserted(0, text.length());
+    startTime = System.nanoTime();
+    cache.update(text.toString());
+    cache.check(lt, text.toString(), 0, VISIBLE_CHARS, () -> false, () -> {});
+    System.out.printf("%s: initial check with %d paragraphs: %dms, %d matches%n", langCode, cache.getParagraphCount(),
+      (System.nanoTime() - startTime) / 1_000_000, cache.getMatches().size());
+
+    long[] visibleNanos = new long[EDITS];
+    long[] totalNanos = new long[EDITS];
+    for (int i = 0; i < EDITS; i++) {
+      int pos = rnd.nextInt(text.length());
+      long editStart = System.nanoTime();
+      if (i % 2 == 0) {
+        text.insert(pos, 'x');
+        cache.textInserted(pos, 1);
+      } else {
+        text.deleteCharAt(pos);
+        cache.textRemoved(pos, 1);
+      }
+      String s = text.toString();
+      cache.update(s);
+      int visibleFrom = Math.max(0, pos - VISIBLE_CHARS / 2);
+      long[] visibleDone = {0};
+      cache.check(lt, s, visibleFrom, visibleFrom + VISIBLE_CHARS, () -> false, () -> {
+        cache.getMatches();
+        visibleDone[0] = System.nanoTime();
+      });
+      cache.getMatches();
+      long end = System.nanoTime();
+      totalNanos[i] = end - editStart;
+      visibleNanos[i] = (visibleDone[0] == 0 ? end : visibleDone[0]) - editStart;
+    }
+    print(langCode + ": visible matches after edit", visibleNanos);
+    print(langCode + ": all matches after edit", totalNanos);
+  }
+
+  private void print(String label, long[] nanos) {
+    Arrays.sort(nanos);
+    System.out.printf("%s: avg %.1fms, median %.1fms, p99 %.1fms, max %.1fms%n", label,
+      Arrays.stream(nanos).sum() / (double) nanos.length / 1_000_000, nanos[nanos.length / 2] / 1_000_000.0,
+      nanos[nanos.length * 99 / 100] / 1_000_000.0, nanos[nanos.length - 1] / 1_000_000.0);
+  }
+
+  public static void main(String[] args) throws IOException {
+    ParagraphMatchCachePerformanceTest test = new ParagraphMatchCachePerformanceTest();
+    test.run(args.length > 0 ? args[0] : "en-US");
+  }
+
+}
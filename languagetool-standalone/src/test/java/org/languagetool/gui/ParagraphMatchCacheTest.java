@@ -0,0 +1,308 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.gui;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.JLanguageTool;
+import org.languagetool.RuleMatchListener;
+import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParagraphMatchCacheTest {
+
+  private final List<String> checkedTexts = new ArrayList<>();
+  private final List<String> textLevelCheckedTexts = new ArrayList<>();
+  private final JLanguageTool lt = new JLanguageTool(new Demo()) {
+    @Override
+    public List<RuleMatch> check(AnnotatedText text, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode, Level level) throws IOException {
+      (mode == Mode.TEXTLEVEL_ONLY ? textLevelCheckedTexts : checkedTexts).add(text.getPlainText());
+      return super.check(text, tokenizeText, paraMode, listener, mode, level);
+    }
+  };
+  private final ParagraphMatchCache cache = new ParagraphMatchCache();
+  private final StringBuilder text = new StringBuilder();
+
+  @Before
+  public void setUp() {
+    for (Rule rule : lt.getAllRules()) {
+      lt.disableRule(rule.getId());
+    }
+    lt.addRule(new FooRule());
+  }
+
+  @Test
+  public void testInitialCheck() throws IOException {
+    insert(0, "A foo here.\nNothing.\nfoo and foo.");
+    assertTrue(check());
+    assertEquals(1, checkedTexts.size());
+    assertEquals(3, cache.getParagraphCount());
+    assertMatches();
+  }
+
+  @Test
+  public void testOnlyModifiedParagraphIsChecked() throws IOException {
+    insert(0, "A foo here.\nNothing.\nfoo and foo.");
+    check();
+    checkedTexts.clear();
+    insert(2, "big ");
+    assertTrue(check());
+    assertEquals("[A big foo here.\n]", checkedTexts.toString());
+    assertMatches();
+    checkedTexts.clear();
+    remove(0, 6);
+    assertTrue(check());
+    assertEquals("[foo here.\n]", checkedTexts.toString());
+    assertMatches();
+  }
+
+  @Test
+  public void testLineBreaks() throws IOException {
+    insert(0, "A foo here.\nNothing.\nfoo and foo.");
+    check();
+    insert(text.indexOf(" and"), "\n");
+    check();
+    assertEquals(4, cache.getParagraphCount());
+    assertMatches();
+    // join two paragraphs:
+    remove(text.indexOf("\nNothing"), 1);
+    check();
+    assertEquals(3, cache.getParagraphCount());
+    assertMatches();
+    // remove a whole paragraph and parts of its neighbours:
+    remove(text.indexOf("here"), text.indexOf(" and") - text.indexOf("here"));
+    check();
+    assertEquals(1, cache.getParagraphCount());
+    assertMatches();
+    insert(text.length(), "\nfoo");
+    check();
+    assertMatches();
+    remove(0, text.length());
+    check();
+    assertEquals(0, cache.getParagraphCount());
+    assertMatches();
+  }
+
+  @Test
+  public void testVisibleParagraphsFirst() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < ParagraphMatchCache.MAX_BATCH_LENGTH * 3) {
+      sb.append("This is a foo sentence.\n");
+    }
+    insert(0, sb.toString());
+    check();
+    checkedTexts.clear();
+    int middle = text.length() / 2;
+    int lineStart = text.lastIndexOf("\n", middle) + 1;
+    insert(lineStart, "x");
+    insert(0, "y");
+    List<String> visibleChecked = new ArrayList<>();
+    cache.update(text.toString());
+    assertTrue(cache.check(lt, text.toString(), lineStart, lineStart + 10, () -> false, () -> visibleChecked.addAll(checkedTexts)));
+    assertEquals("[xThis is a foo sentence.\n]", visibleChecked.toString());
+    assertEquals("[xThis is a foo sentence.\n, yThis is a foo sentence.\n]", checkedTexts.toString());
+    assertMatches();
+  }
+
+  @Test
+  public void testCancel() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < ParagraphMatchCache.MAX_BATCH_LENGTH * 3) {
+      sb.append("This is a foo sentence.\n");
+    }
+    insert(0, sb.toString());
+    cache.update(text.toString());
+    assertFalse(cache.check(lt, text.toString(), 0, 0, () -> !checkedTexts.isEmpty(), () -> {}));
+    assertEquals(1, checkedTexts.size());
+    assertFalse(cache.isChecked());
+    assertTrue(check());
+    assertTrue(cache.isChecked());
+    assertMatches();
+  }
+
+  @Test
+  public void testEditWhileChecking() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < ParagraphMatchCache.MAX_BATCH_LENGTH * 3) {
+      sb.append("This is a foo sentence.\n");
+    }
+    insert(0, sb.toString());
+    cache.update(text.toString());
+    // the edit is in a paragraph that hasn't been checked yet, its result is dropped:
+    String oldText = text.toString();
+    assertTrue(cache.check(lt, oldText, oldText.length() - 10, oldText.length(), () -> false, () -> insert(0, "A ")));
+    assertFalse(cache.isChecked());
+    checkedTexts.clear();
+    assertTrue(check());
+    assertEquals("[A This is a foo sentence.\n]", checkedTexts.toString());
+    assertMatches();
+  }
+
+  @Test
+  public void testInvalidateAndRemoveMatches() throws IOException {
+    insert(0, "A foo here.\nNothing.");
+    check();
+    cache.invalidate();
+    assertFalse(cache.isChecked());
+    assertEquals(1, cache.getMatches().size());  // old matches are kept until checked again
+    checkedTexts.clear();
+    check();
+    assertEquals(1, checkedTexts.size());
+    cache.removeMatches(FooRule.ID);
+    assertTrue(cache.getMatches().isEmpty());
+  }
+
+  @Test
+  public void testTextLevelRules() throws IOException {
+    lt.addRule(new RepeatedFooRule());
+    insert(0, "A foo here.\nNothing.\nfoo and foo.");
+    assertTrue(check());
+    assertEquals(1, checkedTexts.size());
+    assertEquals("[" + text + "]", textLevelCheckedTexts.toString());
+    assertEquals("[FOO_RULE:2, FOO_RULE:21, REPEATED_FOO_RULE:21, FOO_RULE:29, REPEATED_FOO_RULE:29]", getMatches());
+    // the text-level rules see the whole text even if only one paragraph is modified:
+    checkedTexts.clear();
+    textLevelCheckedTexts.clear();
+    insert(text.indexOf("Nothing"), "foo ");
+    assertTrue(check());
+    assertEquals("[foo Nothing.\n]", checkedTexts.toString());
+    assertEquals("[" + text + "]", textLevelCheckedTexts.toString());
+    assertEquals("[FOO_RULE:2, FOO_RULE:12, REPEATED_FOO_RULE:12, FOO_RULE:25, REPEATED_FOO_RULE:25, FOO_RULE:33, REPEATED_FOO_RULE:33]", getMatches());
+    assertTrue(cache.isChecked());
+    // text-level matches are outdated after an edit, those of the modified paragraph are dropped until the next check:
+    textLevelCheckedTexts.clear();
+    remove(0, text.indexOf("\n") + 1);
+    assertFalse(cache.isChecked());
+    assertEquals("[FOO_RULE:0, REPEATED_FOO_RULE:0, FOO_RULE:13, REPEATED_FOO_RULE:13, FOO_RULE:21, REPEATED_FOO_RULE:21]", getMatches());
+    assertTrue(check());
+    assertEquals("[FOO_RULE:0, FOO_RULE:13, REPEATED_FOO_RULE:13, FOO_RULE:21, REPEATED_FOO_RULE:21]", getMatches());
+    assertEquals(1, textLevelCheckedTexts.size());
+    assertTrue(check());
+    assertEquals(1, textLevelCheckedTexts.size());
+    cache.removeMatches(RepeatedFooRule.ID);
+    assertEquals("[FOO_RULE:0, FOO_RULE:13, FOO_RULE:21]", getMatches());
+  }
+
+  private String getMatches() {
+    List<String> result = new ArrayList<>();
+    for (RuleMatch match : cache.getMatches()) {
+      result.add(match.getRule().getId() + ":" + match.getFromPos());
+    }
+    return result.toString();
+  }
+
+  private void insert(int offset, String s) {
+    text.insert(offset, s);
+    cache.textInserted(offset, s.length());
+  }
+
+  private void remove(int offset, int length) {
+    text.delete(offset, offset + length);
+    cache.textRemoved(offset, length);
+  }
+
+  private boolean check() throws IOException {
+    cache.update(text.toString());
+    return cache.check(lt, text.toString(), 0, 0, () -> false, () -> {});
+  }
+
+  // the matches need to be where a check of the complete text finds them:
+  private void assertMatches() {
+    List<String> expected = new ArrayList<>();
+    int pos = text.indexOf("foo");
+    while (pos != -1) {
+      expected.add(pos + "-" + (pos + 3));
+      pos = text.indexOf("foo", pos + 1);
+    }
+    List<String> actual = new ArrayList<>();
+    for (RuleMatch match : cache.getMatches()) {
+      actual.add(match.getFromPos() + "-" + match.getToPos());
+    }
+    assertEquals(expected, actual);
+  }
+
+  static class FooRule extends Rule {
+    static final String ID = "FOO_RULE";
+    @Override
+    public String getId() {
+      return ID;
+    }
+    @Override
+    public String getDescription() {
+      return "Finds 'foo'";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence sentence) {
+      List<RuleMatch> matches = new ArrayList<>();
+      for (AnalyzedTokenReadings token : sentence.getTokensWithoutWhitespace()) {
+        if (token.getToken().equals("foo")) {
+          matches.add(new RuleMatch(this, sentence, token.getStartPos(), token.getEndPos(), "Found 'foo'"));
+        }
+      }
+      return toRuleMatchArray(matches);
+    }
+  }
+
+  // finds all but the first 'foo' of the text:
+  static class RepeatedFooRule extends TextLevelRule {
+    static final String ID = "REPEATED_FOO_RULE";
+    @Override
+    public String getId() {
+      return ID;
+    }
+    @Override
+    public String getDescription() {
+      return "Finds repeated 'foo'";
+    }
+    @Override
+    public RuleMatch[] match(List<AnalyzedSentence> sentences) {
+      List<RuleMatch> matches = new ArrayList<>();
+      boolean found = false;
+      int pos = 0;
+      for (AnalyzedSentence sentence : sentences) {
+        for (AnalyzedTokenReadings token : sentence.getTokensWithoutWhitespace()) {
+          if (token.getToken().equals("foo")) {
+            if (found) {
+              matches.add(new RuleMatch(this, sentence, pos + token.getStartPos(), pos + token.getEndPos(), "Repeated 'foo'"));
+            }
+            found = true;
+          }
+        }
+        pos += sentence.getCorrectedTextLength();
+      }
+      return toRuleMatchArray(matches);
+    }
+    @Override
+    public int minToCheckParagraph() {
+      return -1;
+    }
+  }
+
+}
@@ -0,0 +1,118 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.ngrams;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.languagemodel.LanguageModel;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.rules.en.EnglishConfusionProbabilityRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the number of ngram lookups and the time {@link ConfusionProbabilityRule} needs with
+ * and without the per-sentence count cache and batch lookups, using an English ngram index.
+ * Not a unit test, for interactive use only.
+ */
+final class ConfusionProbabilityRulePerformanceTest {
+
+  private static final int RUNS = 3;
+
+  private void run(File ngramIndexDir, File textFile) throws IOException {
+    Language lang = Languages.getLanguageForShortCode("en-US");
+    JLanguageTool lt = new JLanguageTool(lang);
+    List<AnalyzedSentence> sentences = new ArrayList<>();
+    for (String line : Files.readAllLines(textFile.toPath(), StandardCharsets.UTF_8)) {
+      if (!line.trim().isEmpty()) {
+        sentences.addAll(lt.analyzeText(line));
+      }
+    }
+    try (CountingLanguageModel lm = new CountingLanguageModel(ngramIndexDir)) {
+      // hide that the model is a BaseLanguageModel, so the rule looks up every ngram on its own:
+      LanguageModel uncachedLm = new LanguageModel() {
+        @Override
+        public Probability getPseudoProbability(List<String> context) {
+          return lm.getPseudoProbability(context);
+        }
+        @Override
+        public void close() {
+        }
+      };
+      ConfusionProbabilityRule uncachedRule = new EnglishConfusionProbabilityRule(JLanguageTool.getMessageBundle(), uncachedLm, lang);
+      ConfusionProbabilityRule cachedRule = new EnglishConfusionProbabilityRule(JLanguageTool.getMessageBundle(), lm, lang);
+      for (int i = 0; i < RUNS; i++) {
+        run("uncached", uncachedRule, sentences, lm);
+        run("cached  ", cachedRule, sentences, lm);
+      }
+    }
+  }
+
+  private void run(String name, ConfusionProbabilityRule rule, List<AnalyzedSentence> sentences, CountingLanguageModel lm) {
+    lm.lookups = 0;
+    lm.batchLookups = 0;
+    lm.batches = 0;
+    int matches = 0;
+    long startTime = System.nanoTime();
+    for (AnalyzedSentence sentence : sentences) {
+      matches += rule.match(sentence).length;
+    }
+    long millis = (System.nanoTime() - startTime) / 1_000_000;
+    System.out.printf("%s: %d sentences, %d matches, %d ngram lookups (%d of them in %d batches), %dms%n",
+      name, sentences.size(), matches, lm.lookups, lm.batchLookups, lm.batches, millis);
+  }
+
+  static class CountingLanguageModel extends LuceneLanguageModel {
+    private long lookups;
+    private long batchLookups;
+    private long batches;
+    CountingLanguageModel(File topIndexDir) {
+      super(topIndexDir);
+    }
+    @Override
+    public long getCount(List<String> tokens) {
+      lookups++;
+      return super.getCount(tokens);
+    }
+    @Override
+    public long[] getCounts(List<List<String>> ngrams) {
+      lookups += ngrams.size();
+      batchLookups += ngrams.size();
+      batches++;
+      return super.getCounts(ngrams);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: " + ConfusionProbabilityRulePerformanceTest.class.getSimpleName() + " <ngramIndexDir> <textFile>");
+      System.out.println("  <ngramIndexDir> an English ngram index with the sub directories 1grams, 2grams, 3grams");
+      System.exit(1);
+    }
+    new ConfusionProbabilityRulePerformanceTest().run(new File(args[0]), new File(args[1]));
+  }
+
+}
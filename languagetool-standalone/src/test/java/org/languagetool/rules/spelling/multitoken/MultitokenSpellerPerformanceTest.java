@@ -0,0 +1,110 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.multitoken;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measure the latency of {@link MultitokenSpeller#getSuggestions(String)} for
+ * misspelled phrases from the English and Spanish phrase lists.
+ * Not a unit test, for interactive use only.
+ */
+final class MultitokenSpellerPerformanceTest {
+
+  private static final int LOOKUPS = 2000;
+  private static final int WARMUP_LOOKUPS = 200;
+
+  private void run(String langCode, String phraseFile) throws IOException {
+    Language lang = Languages.getLanguageForShortCode(langCode);
+    long startTime = System.currentTimeMillis();
+    MultitokenSpeller speller = lang.getMultitokenSpeller();
+    speller.getSuggestions("a b");
+    System.out.println(lang.getShortCodeWithCountryAndVariant() + ": speller initialized in " + (System.currentTimeMillis() - startTime) + "ms");
+    List<String> phrases = loadPhrases(lang, phraseFile);
+    Random rnd = new Random(42);
+    List<String> queries = new ArrayList<>();
+    for (int i = 0; i < WARMUP_LOOKUPS + LOOKUPS; i++) {
+      queries.add(misspell(phrases.get(rnd.nextInt(phrases.size())), rnd));
+    }
+    long[] nanos = new long[LOOKUPS];
+    int withSuggestions = 0;
+    for (int i = 0; i < queries.size(); i++) {
+      long lookupStart = System.nanoTime();
+      List<String> suggestions = speller.getSuggestions(queries.get(i));
+      if (i >= WARMUP_LOOKUPS) {
+        nanos[i - WARMUP_LOOKUPS] = System.nanoTime() - lookupStart;
+        if (!suggestions.isEmpty()) {
+          withSuggestions++;
+        }
+      }
+    }
+    Arrays.sort(nanos);
+    long total = Arrays.stream(nanos).sum();
+    System.out.printf("%s: %d lookups, %d with suggestions, avg %.3fms, median %.3fms, p99 %.3fms, max %.3fms%n",
+      langCode, LOOKUPS, withSuggestions, total / (double) LOOKUPS / 1_000_000, nanos[LOOKUPS / 2] / 1_000_000.0,
+      nanos[LOOKUPS * 99 / 100] / 1_000_000.0, nanos[LOOKUPS - 1] / 1_000_000.0);
+  }
+
+  private List<String> loadPhrases(Language lang, String phraseFile) throws IOException {
+    List<String> phrases = new ArrayList<>();
+    try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(phraseFile);
+         BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        for (String phrase : lang.prepareLineForSpeller(line.replaceFirst("#.*", "").trim())) {
+          if (phrase.contains(" ")) {
+            phrases.add(phrase);
+          }
+        }
+      }
+    }
+    return phrases;
+  }
+
+  // replace, delete or swap a character, but not the first one:
+  private String misspell(String phrase, Random rnd) {
+    StringBuilder sb = new StringBuilder(phrase);
+    int pos = 1 + rnd.nextInt(sb.length() - 2);
+    switch (rnd.nextInt(3)) {
+      case 0: sb.setCharAt(pos, (char) ('a' + rnd.nextInt(26))); break;
+      case 1: sb.deleteCharAt(pos); break;
+      default: char c = sb.charAt(pos); sb.setCharAt(pos, sb.charAt(pos + 1)); sb.setCharAt(pos + 1, c);
+    }
+    return sb.toString();
+  }
+
+  public static void main(String[] args) throws IOException {
+    MultitokenSpellerPerformanceTest test = new MultitokenSpellerPerformanceTest();
+    test.run("en-US", "/en/multiwords.txt");
+    test.run("es", "/es/multiwords.txt");
+  }
+
+}
@@ -0,0 +1,81 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Remembers how many sentences of the input have been completely handled, so that
+ * an interrupted run can continue from there.
+ * @since 6.4
+ */
+class Checkpoint {
+
+  private static final String POSITION_KEY = "position";
+  private static final long SAVE_INTERVAL_MILLIS = 10_000;
+
+  private final File file;
+  private long position;
+  private long lastSaveMillis;
+
+  Checkpoint(File file) throws IOException {
+    this.file = file;
+    if (file.exists()) {
+      Properties props = new Properties();
+      try (InputStream in = new FileInputStream(file)) {
+        props.load(in);
+      }
+      position = Long.parseLong(props.getProperty(POSITION_KEY, "0"));
+    }
+    lastSaveMillis = System.currentTimeMillis();
+  }
+
+  /**
+   * The number of sentences read from the input whose results have all been handled.
+   */
+  long getPosition() {
+    return position;
+  }
+
+  /**
+   * Set a new position, saved to the checkpoint file at most every few seconds.
+   */
+  void update(long position) throws IOException {
+    this.position = position;
+    if (System.currentTimeMillis() - lastSaveMillis >= SAVE_INTERVAL_MILLIS) {
+      save();
+    }
+  }
+
+  void save() throws IOException {
+    Properties props = new Properties();
+    props.setProperty(POSITION_KEY, String.valueOf(position));
+    File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+    try (OutputStream out = new FileOutputStream(tmpFile)) {
+      props.store(out, "sentences handled by " + SentenceSourceChecker.class.getSimpleName());
+    }
+    // so an interruption while writing doesn't destroy the checkpoint:
+    Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    lastSaveMillis = System.currentTimeMillis();
+  }
+
+}
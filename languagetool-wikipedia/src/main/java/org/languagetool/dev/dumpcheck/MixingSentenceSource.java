@@ -48,6 +48,8 @@ public class MixingSentenceSource extends SentenceSource {
       File file = new File(dumpFileName);
       if (file.getName().endsWith(".xml")) {
         sources.add(new WikipediaSentenceSource(new FileInputStream(dumpFileName), language, filter));
+      } else if (file.getName().endsWith(".xml.bz2")) {
+        sources.add(new ParallelWikipediaSentenceSource(file, language, filter, Runtime.getRuntime().availableProcessors(), true));
       } else if (file.getName().startsWith("tatoeba-")) {
         sources.add(new TatoebaSentenceSource(new FileInputStream(dumpFileName), language, filter));
       } else if (file.getName().endsWith(".txt")) {
@@ -56,7 +58,7 @@ public class MixingSentenceSource extends SentenceSource {
         sources.add(new CommonCrawlSentenceSource(new FileInputStream(dumpFileName), language, filter));
       } else {
         throw new RuntimeException("Could not find a source handler for " + dumpFileName +
-                " - Wikipedia files must be named '*.xml', Tatoeba files must be named 'tatoeba-*', CommonCrawl files '*.xz', plain text files '*.txt'");
+                " - Wikipedia files must be named '*.xml' or '*.xml.bz2', Tatoeba files must be named 'tatoeba-*', CommonCrawl files '*.xz', plain text files '*.txt'");
       }
     }
     return new MixingSentenceSource(sources, language);
@@ -0,0 +1,507 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.Language;
+import org.languagetool.dev.wikipedia.TextMapFilter;
+import org.languagetool.tokenizers.Tokenizer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Provides access to the sentences of a Wikipedia XML dump like {@link WikipediaSentenceSource}, but
+ * decompresses and parses the dump on several threads. This works best with the "multistream" dumps
+ * ({@code pages-articles-multistream.xml.bz2}), which consist of independent bzip2 streams of 100 pages
+ * each: the calling thread only splits the file at the stream headers, the worker threads decompress
+ * the streams, parse the pages and split them into sentences. For other {@code .bz2} files and
+ * uncompressed {@code .xml} files, the calling thread decompresses the dump and only the parsing
+ * happens in parallel. Only a limited number of tasks is in progress at any time, so reading the
+ * dump cannot run away from the consumer of the sentences.
+ * <p>In ordered mode, the sentences come in the same order as from {@link WikipediaSentenceSource},
+ * otherwise the pages of a task come as soon as the task is done.</p>
+ * <p>Call {@link #close()} to stop the worker threads if not all sentences are consumed.</p>
+ * @since 6.4
+ */
+public class ParallelWikipediaSentenceSource extends SentenceSource implements Closeable {
+
+  static final int PAGES_PER_TASK = 100;
+  // the first stream of a multistream dump only has the site info, so it's small:
+  static final int MAX_FIRST_STREAM_LENGTH = 1024 * 1024;
+  // the other streams have 100 pages, so this is only reached if the file has been split in another way:
+  static final int MAX_STREAM_LENGTH = 64 * 1024 * 1024;
+
+  private final Language language;
+  private final boolean ordered;
+  private final int maxPendingTasks;
+  private final Tokenizer sentenceTokenizer;
+  private final ThreadLocal<TextMapFilter> textFilters;
+  private final ThreadLocal<XMLInputFactory> xmlInputFactories = ThreadLocal.withInitial(XMLInputFactory::newInstance);
+  private final ExecutorService workers;
+  private final CompletionService<List<WikipediaPage>> completionService;
+  private final Deque<Future<List<WikipediaPage>>> pendingTasks = new ArrayDeque<>();
+  private final Deque<Sentence> sentences = new ArrayDeque<>();
+  private final TaskReader taskReader;
+
+  private int pending;
+  private boolean readerDone;
+  private int articleCount;
+
+  /**
+   * @param dump a {@code .bz2} or {@code .xml} Wikipedia dump
+   * @param threads number of worker threads
+   * @param ordered whether sentences are returned in the order of the dump
+   */
+  public ParallelWikipediaSentenceSource(File dump, Language language, @Nullable Pattern filter, int threads, boolean ordered) throws IOException {
+    this(dump, language, filter, threads, ordered, WikipediaSentenceSource::createTextFilter);
+  }
+
+  ParallelWikipediaSentenceSource(File dump, Language language, @Nullable Pattern filter, int threads, boolean ordered,
+                                  Supplier<TextMapFilter> textFilterSupplier) throws IOException {
+    super(language, filter);
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be > 0: " + threads);
+    }
+    this.language = language;
+    this.ordered = ordered;
+    this.maxPendingTasks = threads * 4;
+    this.sentenceTokenizer = language.getSentenceTokenizer();
+    this.textFilters = ThreadLocal.withInitial(textFilterSupplier);
+    this.taskReader = openTaskReader(dump);
+    workers = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "wikipedia-dump-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    completionService = new ExecutorCompletionService<>(workers);
+  }
+
+  /**
+   * Whether the dump is split into independently compressed streams, i.e. decompression happens in parallel.
+   */
+  boolean isMultistream() {
+    return taskReader instanceof StreamTaskReader;
+  }
+
+  @Override
+  public boolean hasNext() {
+    fillSentences();
+    return !sentences.isEmpty();
+  }
+
+  @Override
+  public Sentence next() {
+    fillSentences();
+    if (sentences.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return sentences.remove();
+  }
+
+  @Override
+  public String getSource() {
+    return "wikipedia";
+  }
+
+  @Override
+  public void close() throws IOException {
+    workers.shutdownNow();
+    pendingTasks.clear();
+    taskReader.close();
+  }
+
+  private TaskReader openTaskReader(File dump) throws IOException {
+    if (!dump.getName().endsWith(".bz2")) {
+      return new PageTaskReader(new FileInputStream(dump));
+    }
+    InputStream input = new FileInputStream(dump);
+    try {
+      StreamTaskReader reader = new StreamTaskReader(new StreamSplitter(input, MAX_STREAM_LENGTH));
+      if (reader.readFirstStream()) {
+        return reader;
+      }
+    } catch (IOException | RuntimeException e) {
+      input.close();
+      throw e;
+    }
+    input.close();
+    System.out.println("Not a multistream dump, decompressing " + dump + " on one thread");
+    return new PageTaskReader(new BZip2CompressorInputStream(new BufferedInputStream(new FileInputStream(dump)), true));
+  }
+
+  private void fillSentences() {
+    try {
+      while (sentences.isEmpty()) {
+        submitTasks();
+        if (pending == 0) {
+          return;
+        }
+        for (WikipediaPage page : takeResult()) {
+          articleCount++;
+          if (articleCount % 100 == 0) {
+            System.out.println("Article: " + articleCount);
+          }
+          for (String sentence : page.sentences) {
+            // an artificial ID, as in WikipediaSentenceSource:
+            String titleWithId = page.title + "/" + sentence.hashCode();
+            String url = "http://" + language.getShortCode() + ".wikipedia.org/wiki/" + titleWithId;
+            sentences.add(new Sentence(sentence, getSource(), titleWithId, url, articleCount));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void submitTasks() throws IOException {
+    while (!readerDone && pending < maxPendingTasks) {
+      Callable<List<WikipediaPage>> task = taskReader.nextTask();
+      if (task == null) {
+        readerDone = true;
+        taskReader.close();
+        workers.shutdown();
+        return;
+      }
+      if (ordered) {
+        pendingTasks.add(workers.submit(task));
+      } else {
+        completionService.submit(task);
+      }
+      pending++;
+    }
+  }
+
+  private List<WikipediaPage> takeResult() throws InterruptedException {
+    Future<List<WikipediaPage>> future = ordered ? pendingTasks.remove() : completionService.take();
+    pending--;
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  // called on the worker threads:
+  private List<WikipediaPage> parsePages(List<String> pages) {
+    List<WikipediaPage> result = new ArrayList<>(pages.size());
+    for (String page : pages) {
+      try {
+        result.add(parsePage(page));
+      } catch (XMLStreamException e) {
+        throw new RuntimeException("Could not parse page: " + page.substring(0, Math.min(500, page.length())), e);
+      }
+    }
+    return result;
+  }
+
+  private WikipediaPage parsePage(String page) throws XMLStreamException {
+    XMLStreamReader reader = xmlInputFactories.get().createXMLStreamReader(new StringReader(page));
+    String title = null;
+    String text = null;
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+          String elementName = reader.getLocalName();
+          if (elementName.equals("title")) {
+            title = reader.getElementText();
+          } else if (elementName.equals("text")) {
+            text = reader.getElementText();
+          }
+        }
+      }
+    } finally {
+      reader.close();
+    }
+    if (text == null || WikipediaSentenceSource.isRedirect(text)) {
+      return new WikipediaPage(title, Collections.emptyList());
+    }
+    try {
+      String plainText = textFilters.get().filter(text).getPlainText();
+      List<String> sentences = new ArrayList<>();
+      for (String sentence : sentenceTokenizer.tokenize(plainText)) {
+        if (acceptSentence(sentence)) {
+          sentences.add(sentence);
+        }
+      }
+      return new WikipediaPage(title, sentences);
+    } catch (Exception e) {
+      System.err.println("Could not extract text, skipping document: " + e + ", full stacktrace follows:");
+      e.printStackTrace();
+      return new WikipediaPage(title, Collections.emptyList());
+    }
+  }
+
+  /**
+   * Read up to {@code maxPages} {@code <page>} elements. In the dumps, their start and end tags are on lines of their own.
+   */
+  static List<String> readPages(BufferedReader reader, int maxPages) throws IOException {
+    List<String> pages = new ArrayList<>();
+    StringBuilder page = null;
+    String line;
+    while (pages.size() < maxPages && (line = reader.readLine()) != null) {
+      String trimmed = line.trim();
+      if (page == null) {
+        if (trimmed.equals("<page>")) {
+          page = new StringBuilder(line).append('\n');
+        }
+      } else {
+        page.append(line).append('\n');
+        if (trimmed.equals("</page>")) {
+          pages.add(page.toString());
+          page = null;
+        }
+      }
+    }
+    return pages;
+  }
+
+  private interface TaskReader extends Closeable {
+    /**
+     * @return a task that returns the parsed pages of the next part of the dump, or {@code null} at its end
+     */
+    @Nullable
+    Callable<List<WikipediaPage>> nextTask() throws IOException;
+  }
+
+  /**
+   * Each compressed stream of a multistream dump becomes a task.
+   */
+  private class StreamTaskReader implements TaskReader {
+
+    private final StreamSplitter splitter;
+    private byte[] firstStream;
+
+    StreamTaskReader(StreamSplitter splitter) {
+      this.splitter = splitter;
+    }
+
+    /**
+     * Find out if the dump is a multistream dump: the first stream is small, it only has the site info,
+     * and other streams follow it.
+     */
+    boolean readFirstStream() throws IOException {
+      try {
+        firstStream = splitter.nextStream(MAX_FIRST_STREAM_LENGTH);
+      } catch (StreamTooLongException e) {
+        return false;
+      }
+      return firstStream != null && splitter.hasNext() && isSiteInfo(firstStream);
+    }
+
+    private boolean isSiteInfo(byte[] stream) throws IOException {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+             new BZip2CompressorInputStream(new ByteArrayInputStream(stream), false), StandardCharsets.UTF_8))) {
+        boolean siteInfo = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String trimmed = line.trim();
+          if (trimmed.equals("<page>")) {
+            return false;
+          }
+          siteInfo |= trimmed.equals("</siteinfo>");
+        }
+        return siteInfo;
+      }
+    }
+
+    @Nullable
+    @Override
+    public Callable<List<WikipediaPage>> nextTask() throws IOException {
+      byte[] stream = firstStream != null ? firstStream : splitter.nextStream();
+      firstStream = null;
+      if (stream == null) {
+        return null;
+      }
+      return () -> {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+               new BZip2CompressorInputStream(new ByteArrayInputStream(stream), false), StandardCharsets.UTF_8))) {
+          return parsePages(readPages(reader, Integer.MAX_VALUE));
+        }
+      };
+    }
+
+    @Override
+    public void close() throws IOException {
+      splitter.close();
+    }
+  }
+
+  /**
+   * Pages of a single (decompressed) XML stream are grouped into tasks.
+   */
+  private class PageTaskReader implements TaskReader {
+
+    private final BufferedReader reader;
+
+    PageTaskReader(InputStream input) {
+      this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    @Override
+    public Callable<List<WikipediaPage>> nextTask() throws IOException {
+      List<String> pages = readPages(reader, PAGES_PER_TASK);
+      if (pages.isEmpty()) {
+        return null;
+      }
+      return () -> parsePages(pages);
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /**
+   * Splits a file of concatenated bzip2 streams at the stream headers, i.e. at the signature
+   * {@code BZh} + block size + magic number of the first block. The signature could also occur
+   * inside compressed data, but that's so unlikely that we ignore it.
+   */
+  static class StreamSplitter implements Closeable {
+
+    private static final byte[] BLOCK_MAGIC = {0x31, 0x41, 0x59, 0x26, 0x53, 0x59};
+    private static final int HEADER_LENGTH = 4 + BLOCK_MAGIC.length;
+
+    private final InputStream input;
+    private final int maxStreamLength;
+
+    private byte[] buffer = new byte[1024 * 1024];
+    private int length;
+    private int scanned;  // position up to which buffer has been searched for a header
+    private boolean eof;
+
+    StreamSplitter(InputStream input, int maxStreamLength) {
+      this.input = input;
+      this.maxStreamLength = maxStreamLength;
+    }
+
+    /**
+     * @return the next compressed stream, or {@code null} at the end of the input
+     * @throws StreamTooLongException if no stream header is found within {@code maxStreamLength} bytes
+     */
+    @Nullable
+    byte[] nextStream() throws IOException {
+      return nextStream(maxStreamLength);
+    }
+
+    /**
+     * @return the next compressed stream, or {@code null} at the end of the input
+     * @throws StreamTooLongException if no stream header is found within {@code maxLength} bytes
+     */
+    @Nullable
+    byte[] nextStream(int maxLength) throws IOException {
+      // buffer starts with the current stream's header, so search for the next one after it:
+      scanned = Math.max(scanned, 1);
+      while (true) {
+        int end = findHeader();
+        if (end == -1 && eof) {
+          end = length;
+        }
+        if (end > maxLength || end == -1 && length >= maxLength) {
+          throw new StreamTooLongException("No bzip2 stream header found in " + maxLength + " bytes");
+        }
+        if (end != -1) {
+          if (end == 0) {
+            return null;
+          }
+          byte[] stream = Arrays.copyOf(buffer, end);
+          System.arraycopy(buffer, end, buffer, 0, length - end);
+          length -= end;
+          scanned = 0;
+          return stream;
+        }
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = input.read(buffer, length, buffer.length - length);
+        if (read == -1) {
+          eof = true;
+        } else {
+          length += read;
+        }
+      }
+    }
+
+    /**
+     * @return whether there's input left after the last stream returned by {@link #nextStream()}
+     */
+    boolean hasNext() {
+      return length > 0 || !eof;
+    }
+
+    private int findHeader() {
+      int last = length - HEADER_LENGTH;
+      for (int i = scanned; i <= last; i++) {
+        if (buffer[i] == 'B' && buffer[i + 1] == 'Z' && buffer[i + 2] == 'h' && buffer[i + 3] >= '1' && buffer[i + 3] <= '9' && isBlockMagic(i + 4)) {
+          return i;
+        }
+      }
+      scanned = Math.max(scanned, last + 1);
+      return -1;
+    }
+
+    private boolean isBlockMagic(int pos) {
+      for (int i = 0; i < BLOCK_MAGIC.length; i++) {
+        if (buffer[pos + i] != BLOCK_MAGIC[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+
+  static class StreamTooLongException extends IOException {
+    StreamTooLongException(String message) {
+      super(message);
+    }
+  }
+
+  private static class WikipediaPage {
+    final String title;
+    final List<String> sentences;  // the accepted ones
+    WikipediaPage(String title, List<String> sentences) {
+      this.title = title;
+      this.sentences = sentences;
+    }
+  }
+
+}
@@ -0,0 +1,223 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.CheckResults;
+import org.languagetool.JLanguageTool;
+import org.languagetool.ToneTag;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Checks sentences on several threads. The calling thread reads the sentences and groups them
+ * into batches, worker threads check the batches, each one with its own {@link JLanguageTool},
+ * and the results are given to a {@link SentenceHandler} on the calling thread again - in input
+ * order or, if {@code ordered} is false, as soon as a batch is done. Only a limited number of
+ * batches is in progress at any time, so reading the input cannot run away from checking.
+ * @since 6.4
+ */
+class SentenceCheckPipeline {
+
+  interface SentenceHandler {
+    /**
+     * @param ruleMatches the matches, or {@code null} if the check failed and failures are skipped
+     */
+    void handle(Sentence sentence, @Nullable List<RuleMatch> ruleMatches);
+  }
+
+  private static final Set<ToneTag> ALL_TONE_TAGS = new HashSet<>(Arrays.asList(ToneTag.values()));
+
+  private final BlockingQueue<JLanguageTool> languageTools;
+  private final int batchSize;
+  private final boolean ordered;
+  private final boolean skipExceptions;
+  private final int maxPendingBatches;
+
+  private ExecutorService workers;
+  private ExecutorCompletionService<Batch> completionService;
+  private final Deque<Future<Batch>> pendingBatches = new ArrayDeque<>();
+  private final SortedMap<Long, Long> doneBatchEndPositions = new TreeMap<>();
+  private long nextBatchToCommit;
+  private long committedPosition;
+
+  /**
+   * @param languageTools one configured instance per worker thread
+   * @param skipExceptions whether to only print exceptions of a failed check instead of stopping
+   */
+  SentenceCheckPipeline(List<JLanguageTool> languageTools, int batchSize, boolean ordered, boolean skipExceptions) {
+    if (languageTools.isEmpty() || batchSize <= 0) {
+      throw new IllegalArgumentException("Need at least one JLanguageTool and a batch size > 0: " + languageTools.size() + ", " + batchSize);
+    }
+    this.languageTools = new ArrayBlockingQueue<>(languageTools.size(), false, languageTools);
+    this.batchSize = batchSize;
+    this.ordered = ordered;
+    this.skipExceptions = skipExceptions;
+    this.maxPendingBatches = languageTools.size() * 4;
+  }
+
+  /**
+   * Check all sentences of {@code source} and give them to {@code handler}. Exceptions thrown by the
+   * handler stop the run. The checkpoint, if any, is saved at the end in any case.
+   * @param sentencesToSkip the number of sentences from the input to ignore, e.g. because a previous run handled them already
+   * @param checkpoint where to save the number of sentences handled so far, or {@code null}
+   */
+  void run(Iterator<Sentence> source, long sentencesToSkip, SentenceHandler handler, @Nullable Checkpoint checkpoint) throws IOException {
+    int threads = languageTools.size();
+    workers = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "sentence-check-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    completionService = new ExecutorCompletionService<>(workers);
+    nextBatchToCommit = 0;
+    committedPosition = 0;
+    long position = 0;
+    long batchIndex = 0;
+    int pending = 0;
+    try {
+      List<Sentence> sentences = new ArrayList<>(batchSize);
+      while (source.hasNext()) {
+        Sentence sentence = source.next();
+        position++;
+        if (position <= sentencesToSkip) {
+          if (position % 5000 == 0) {
+            System.err.printf("%s sentences skipped...\n", NumberFormat.getNumberInstance(Locale.US).format(position));
+          }
+          committedPosition = position;
+          if (position == sentencesToSkip) {
+            System.err.println("Done skipping " + sentencesToSkip + " sentences.");
+          }
+          continue;
+        }
+        sentences.add(sentence);
+        if (sentences.size() == batchSize) {
+          if (pending == maxPendingBatches) {
+            handleNext(handler, checkpoint);
+            pending--;
+          }
+          submit(new Batch(batchIndex++, position, sentences));
+          pending++;
+          sentences = new ArrayList<>(batchSize);
+        }
+      }
+      if (!sentences.isEmpty()) {
+        submit(new Batch(batchIndex, position, sentences));
+        pending++;
+      }
+      while (pending > 0) {
+        handleNext(handler, checkpoint);
+        pending--;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      workers.shutdownNow();
+      pendingBatches.clear();
+      if (checkpoint != null) {
+        checkpoint.update(committedPosition);
+        checkpoint.save();
+      }
+    }
+  }
+
+  private void submit(Batch batch) {
+    if (ordered) {
+      pendingBatches.add(workers.submit(() -> check(batch)));
+    } else {
+      completionService.submit(() -> check(batch));
+    }
+  }
+
+  private void handleNext(SentenceHandler handler, @Nullable Checkpoint checkpoint) throws InterruptedException, IOException {
+    Future<Batch> future = ordered ? pendingBatches.remove() : completionService.take();
+    Batch batch;
+    try {
+      batch = future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+    for (int i = 0; i < batch.sentences.size(); i++) {
+      handler.handle(batch.sentences.get(i), batch.ruleMatches.get(i));
+    }
+    // batches may be done out of order, the checkpoint may only move over a gapless sequence of them:
+    doneBatchEndPositions.put(batch.index, batch.endPosition);
+    while (!doneBatchEndPositions.isEmpty() && doneBatchEndPositions.firstKey() == nextBatchToCommit) {
+      committedPosition = doneBatchEndPositions.remove(nextBatchToCommit);
+      nextBatchToCommit++;
+    }
+    if (checkpoint != null) {
+      checkpoint.update(committedPosition);
+    }
+  }
+
+  private Batch check(Batch batch) throws InterruptedException {
+    JLanguageTool lt = languageTools.take();
+    try {
+      for (Sentence sentence : batch.sentences) {
+        batch.ruleMatches.add(check(lt, sentence));
+      }
+      return batch;
+    } finally {
+      languageTools.put(lt);
+    }
+  }
+
+  @Nullable
+  private List<RuleMatch> check(JLanguageTool lt, Sentence sentence) {
+    try {
+      AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(sentence.getText()).build();
+      CheckResults results = lt.check2(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL, null,
+        JLanguageTool.Mode.ALL, JLanguageTool.Level.PICKY, ALL_TONE_TAGS, null);
+      return results.getRuleMatches();
+    } catch (Exception e) {
+      if (skipExceptions) {
+        e.printStackTrace();
+        return null;
+      }
+      throw new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(sentence.getText(), 250), e);
+    }
+  }
+
+  private static class Batch {
+    private final long index;
+    private final long endPosition;  // number of input sentences read up to and including this batch
+    private final List<Sentence> sentences;
+    private final List<List<RuleMatch>> ruleMatches;
+
+    Batch(long index, long endPosition, List<Sentence> sentences) {
+      this.index = index;
+      this.endPosition = endPosition;
+      this.sentences = sentences;
+      this.ruleMatches = new ArrayList<>(sentences.size());
+    }
+  }
+
+}
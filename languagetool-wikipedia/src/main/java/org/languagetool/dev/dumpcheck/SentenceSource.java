@@ -23,6 +23,7 @@ import org.languagetool.tokenizers.Tokenizer;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 /**
@@ -39,7 +40,7 @@ public abstract class SentenceSource implements Iterator<Sentence> {
   private final Tokenizer wordTokenizer;
   private final Pattern acceptPattern;
   
-  private int ignoreCount = 0;
+  private final AtomicInteger ignoreCount = new AtomicInteger();  // sub classes may call acceptSentence() on several threads
 
   SentenceSource(Language language) {
     this(language, null);
@@ -77,7 +78,7 @@ public abstract class SentenceSource implements Iterator<Sentence> {
     if (acceptPattern != null) {
       if (!acceptPattern.matcher(sentence).find()) {
         // useful speedup: we don't consider sentences that cannot match anyway
-        ignoreCount++;
+        ignoreCount.incrementAndGet();
         return false;
       }
     }
@@ -87,13 +88,13 @@ public abstract class SentenceSource implements Iterator<Sentence> {
     if (accept) {
       return true;
     } else {
-      ignoreCount++;
+      ignoreCount.incrementAndGet();
       return false;
     }
   }
   
   int getIgnoredCount() {
-    return ignoreCount;
+    return ignoreCount.get();
   }
   
   private int countTokens(String sentence) {
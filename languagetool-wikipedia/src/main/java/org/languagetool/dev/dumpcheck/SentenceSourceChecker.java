@@ -21,11 +21,8 @@ package org.languagetool.dev.dumpcheck;
 import org.apache.commons.cli.*;
 import org.apache.commons.lang3.StringUtils;
 import org.languagetool.*;
-import org.languagetool.markup.AnnotatedText;
-import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.CategoryId;
 import org.languagetool.rules.Rule;
-import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.File;
@@ -41,6 +38,9 @@ import java.util.regex.Pattern;
  */
 public class SentenceSourceChecker {
 
+  private int ruleMatchCount = 0;
+  private int sentenceCount = 0;
+
   private SentenceSourceChecker() {
     // no public constructor
   }
@@ -126,6 +126,16 @@ public class SentenceSourceChecker {
             .desc("Activate only rules from this XML file (e.g. 'grammar.xml')").build());
     options.addOption(Option.builder().longOpt("skip").hasArg()
             .desc("Skip this many sentences from input before actually checking sentences").build());
+    options.addOption(Option.builder().longOpt("checkpoint").argName("file").hasArg()
+            .desc("A file to regularly save the number of sentences handled so far to. If the file exists, " +
+                  "continue after the sentences it lists, ignoring --skip. Note that sentences handled after the " +
+                  "last save will be handled again.").build());
+    options.addOption(Option.builder().longOpt("threads").argName("number").hasArg()
+            .desc("number of sentences to check in parallel, each thread uses its own LanguageTool instance (default: 1)").build());
+    options.addOption(Option.builder().longOpt("batch-size").argName("number").hasArg()
+            .desc("number of sentences one thread checks in a row (default: 100)").build());
+    options.addOption(Option.builder().longOpt("unordered")
+            .desc("Handle results as soon as they are available instead of in input order (with --threads only)").build());
     options.addOption(Option.builder().longOpt("print-duration")
             .desc("Print the duration of analysis in milliseconds").build());
     options.addOption(Option.builder().longOpt("nerUrl").argName("url").hasArg()
@@ -161,7 +171,14 @@ public class SentenceSourceChecker {
     File remoteRules = options.hasOption("remoterules") ? new File(options.getOptionValue("remoterules")) : null;
     Pattern filter = options.hasOption("filter") ? Pattern.compile(options.getOptionValue("filter")) : null;
     String ruleSource = options.hasOption("rulesource") ? options.getOptionValue("rulesource") : null;
-    int sentencesToSkip = options.hasOption("skip") ? Integer.parseInt(options.getOptionValue("skip")) : 0;
+    long sentencesToSkip = options.hasOption("skip") ? Long.parseLong(options.getOptionValue("skip")) : 0;
+    int threads = Integer.parseInt(options.getOptionValue("threads", "1"));
+    int batchSize = Integer.parseInt(options.getOptionValue("batch-size", "100"));
+    Checkpoint checkpoint = options.hasOption("checkpoint") ? new Checkpoint(new File(options.getOptionValue("checkpoint"))) : null;
+    if (checkpoint != null && checkpoint.getPosition() > 0) {
+      System.out.println("Continuing after sentence " + checkpoint.getPosition() + " from checkpoint file " + options.getOptionValue("checkpoint"));
+      sentencesToSkip = checkpoint.getPosition();
+    }
     Language lang = Languages.getLanguageForShortCode(langCode);
     Language motherTongue = motherTongueCode != null ? Languages.getLanguageForShortCode(motherTongueCode) : null;
     GlobalConfig globalConfig = new GlobalConfig();
@@ -173,7 +190,9 @@ public class SentenceSourceChecker {
     if (options.hasOption("print-correct")) {
       System.out.println("In print-correct mode, will only print sentences for which no error is found.");
     }
-    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(lang, motherTongue, -1, globalConfig, null);
+    // with several threads, parallelizing the check of a single sentence doesn't pay off:
+    JLanguageTool lt = threads > 1 ? new JLanguageTool(lang, Collections.emptyList(), motherTongue, null, globalConfig, null)
+                                   : new MultiThreadedJLanguageTool(lang, motherTongue, -1, globalConfig, null);
     lt.setCleanOverlappingMatches(false);
     if (languageModelDir != null) {
       lt.activateLanguageModelRules(languageModelDir);
@@ -225,14 +244,19 @@ public class SentenceSourceChecker {
     System.out.println("Context size: " + contextSize);
     System.out.println("Error limit: " + (maxErrors > 0 ? maxErrors : "no limit"));
     System.out.println("Skip: " + sentencesToSkip);
+    System.out.println("Threads: " + threads);
+    List<JLanguageTool> languageTools = new ArrayList<>();
+    languageTools.add(lt);
+    for (int i = 1; i < threads; i++) {
+      JLanguageTool worker = createLanguageTool(lang, motherTongue, globalConfig, languageModelDir, remoteRules);
+      copyRuleSelection(lt, worker);
+      languageTools.add(worker);
+    }
     //System.out.println("Version: " + JLanguageTool.VERSION + " (" + JLanguageTool.BUILD_DATE + ")");
 
     ResultHandler resultHandler = null;
-    int ruleMatchCount = 0;
-    int sentenceCount = 0;
-    int skipCount = 0;
     int ignoredCount = 0;
-    boolean skipMessageShown = false;
+    boolean printCorrect = options.hasOption("print-correct");
     try {
       if (options.hasOption("csv"))  {
         resultHandler = new CSVHandler(maxSentences, maxErrors);
@@ -242,49 +266,33 @@ public class SentenceSourceChecker {
         resultHandler = new StdoutHandler(maxSentences, maxErrors, contextSize, options.hasOption("verbose"));
       }
       MixingSentenceSource mixingSource = MixingSentenceSource.create(Arrays.asList(fileNames), lang, filter);
-      while (mixingSource.hasNext()) {
-        Sentence sentence = mixingSource.next();
-        if (sentencesToSkip > 0 && skipCount < sentencesToSkip) {
-          if (skipCount % 5000 == 0) {
-            System.err.printf("%s sentences skipped...\n", NumberFormat.getNumberInstance(Locale.US).format(skipCount));
-          }
-          skipCount++;
-          continue;
-        } else if (sentencesToSkip > 0 && !skipMessageShown) {
-          System.err.println("Done skipping " + sentencesToSkip + " sentences.");
-          skipMessageShown = true;
+      ResultHandler finalResultHandler = resultHandler;
+      SentenceCheckPipeline pipeline = new SentenceCheckPipeline(languageTools, batchSize,
+        !options.hasOption("unordered"), options.hasOption("skip-exceptions"));
+      pipeline.run(mixingSource, sentencesToSkip, (sentence, ruleMatches) -> {
+        if (ruleMatches == null) {
+          return;  // check failed, exception has been printed
         }
-        try {
-          AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(sentence.getText()).build();
-          CheckResults matches = lt.check2(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL, null,
-            JLanguageTool.Mode.ALL, JLanguageTool.Level.PICKY, new HashSet<>(Arrays.asList(ToneTag.values())), null);
-          if (options.hasOption("print-correct")) {
-            if (matches.getRuleMatches().size() == 0) {
-              System.out.println(sentence.getText());
-            }
-          } else {
-            resultHandler.handleResult(sentence, matches.getRuleMatches(), lang);
-          }
-          sentenceCount++;
-          if (sentenceCount % 5000 == 0) {
-            System.err.printf("%s sentences checked...\n", NumberFormat.getNumberInstance(Locale.US).format(sentenceCount));
-          }
-          ruleMatchCount += matches.getRuleMatches().size();
-        } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
-          throw e;
-        } catch (Exception e) {
-          if (options.hasOption("skip-exceptions")) {
-            e.printStackTrace();
-          } else {
-            throw new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(sentence.getText(), 250), e);
+        if (printCorrect) {
+          if (ruleMatches.size() == 0) {
+            System.out.println(sentence.getText());
           }
+        } else {
+          finalResultHandler.handleResult(sentence, ruleMatches, lang);
         }
-      }
+        sentenceCount++;
+        if (sentenceCount % 5000 == 0) {
+          System.err.printf("%s sentences checked...\n", NumberFormat.getNumberInstance(Locale.US).format(sentenceCount));
+        }
+        ruleMatchCount += ruleMatches.size();
+      }, checkpoint);
       ignoredCount = mixingSource.getIgnoredCount();
     } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
       System.out.println(getClass().getSimpleName() + ": " + e);
     } finally {
-      lt.shutdown();
+      if (lt instanceof MultiThreadedJLanguageTool) {
+        ((MultiThreadedJLanguageTool) lt).shutdown();
+      }
       if (resultHandler != null) {
         System.out.printf(lang + ": %d total matches\n", ruleMatchCount);
         System.out.printf(lang + ": %d total sentences considered\n", sentenceCount);
@@ -304,6 +312,34 @@ public class SentenceSourceChecker {
     }
   }
 
+  private static JLanguageTool createLanguageTool(Language lang, Language motherTongue, GlobalConfig globalConfig,
+                                                 File languageModelDir, File remoteRules) throws IOException {
+    JLanguageTool lt = new JLanguageTool(lang, Collections.emptyList(), motherTongue, null, globalConfig, null);
+    lt.setCleanOverlappingMatches(false);
+    if (languageModelDir != null) {
+      lt.activateLanguageModelRules(languageModelDir);
+    }
+    lt.activateRemoteRules(remoteRules);
+    return lt;
+  }
+
+  /**
+   * Make exactly the rules active in {@code target} that are active in {@code source}.
+   */
+  private static void copyRuleSelection(JLanguageTool source, JLanguageTool target) {
+    Set<String> activeRuleIds = new HashSet<>();
+    for (Rule rule : source.getAllActiveRules()) {
+      activeRuleIds.add(rule.getFullId());
+    }
+    for (Rule rule : target.getAllRules()) {
+      if (activeRuleIds.contains(rule.getFullId())) {
+        target.enableRule(rule.getFullId());
+      } else {
+        target.disableRule(rule.getFullId());
+      }
+    }
+  }
+
   private static void enableOnlySpecifiedRules(String[] ruleIds, JLanguageTool lt) {
     for (Rule rule : lt.getAllRules()) {
       lt.disableRule(rule.getId());
@@ -20,36 +20,33 @@ package org.languagetool.dev.dumpcheck;
 
 import java.io.*;
 
-import org.apache.commons.compress.compressors.CompressorException;
-import org.apache.commons.compress.compressors.CompressorStreamFactory;
 import org.languagetool.Language;
 import org.languagetool.Languages;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-
 /**
  * Command line tool to extract sentences from a (optionally bz2-compressed) Wikipedia XML dump.
  * @since 2.6
  */
 class WikipediaSentenceExtractor {
 
-  private void extract(Language language, String xmlDumpPath, String outputFile) throws IOException, CompressorException {
-    try (FileInputStream fis = new FileInputStream(xmlDumpPath);
-         BufferedInputStream bis = new BufferedInputStream(fis);
-         FileWriter fw = new FileWriter(outputFile)) {
-      InputStream input;
-      if (xmlDumpPath.endsWith(".bz2")) {
-        input = new CompressorStreamFactory().createCompressorInputStream(bis);
-      } else if (xmlDumpPath.endsWith(".xml")) {
-        input = bis;
-      } else {
-        throw new IllegalArgumentException("Unknown file name, expected '.xml' or '.bz2': " + xmlDumpPath);
-      }
+  private void extract(Language language, String xmlDumpPath, String outputFile) throws IOException {
+    SentenceSource source;
+    Closeable input;
+    if (xmlDumpPath.endsWith(".bz2")) {
+      // decompresses multistream dumps on several threads:
+      ParallelWikipediaSentenceSource parallelSource = new ParallelWikipediaSentenceSource(new File(xmlDumpPath), language, null,
+        Runtime.getRuntime().availableProcessors(), true);
+      source = parallelSource;
+      input = parallelSource;
+    } else if (xmlDumpPath.endsWith(".xml")) {
+      InputStream xmlInput = new BufferedInputStream(new FileInputStream(xmlDumpPath));
+      source = new WikipediaSentenceSource(xmlInput, language);
+      input = xmlInput;
+    } else {
+      throw new IllegalArgumentException("Unknown file name, expected '.xml' or '.bz2': " + xmlDumpPath);
+    }
+    try (FileWriter fw = new FileWriter(outputFile)) {
       int sentenceCount = 0;
-      WikipediaSentenceSource source = new WikipediaSentenceSource(input, language);
       while (source.hasNext()) {
         String sentence = source.next().getText();
         if (skipSentence(sentence)) {
@@ -63,6 +60,8 @@ class WikipediaSentenceExtractor {
           System.err.println("Exporting sentence #" + sentenceCount + "...");
         }
       }
+    } finally {
+      input.close();
     }
   }
 
@@ -70,7 +69,7 @@ class WikipediaSentenceExtractor {
     return sentence.trim().length() == 0 || Character.isLowerCase(sentence.trim().charAt(0));
   }
 
-  public static void main(String[] args) throws IOException, CompressorException {
+  public static void main(String[] args) throws IOException {
     if (args.length != 3) {
       System.out.println("Usage: " + WikipediaSentenceExtractor.class.getSimpleName() + " <langCode> <wikipediaXmlDump> <output>");
       System.exit(1);
@@ -20,6 +20,7 @@ package org.languagetool.dev.dumpcheck;
 
 import org.languagetool.Language;
 import org.languagetool.dev.wikipedia.SwebleWikipediaTextFilter;
+import org.languagetool.dev.wikipedia.TextMapFilter;
 import org.languagetool.tokenizers.Tokenizer;
 
 import javax.xml.stream.XMLEventReader;
@@ -47,7 +48,7 @@ public class WikipediaSentenceSource extends SentenceSource {
   private static final boolean ONLY_ARTICLES = false;
   private static final String ARTICLE_NAMESPACE = "0";
 
-  private final SwebleWikipediaTextFilter textFilter = new SwebleWikipediaTextFilter();
+  private final TextMapFilter textFilter;
   private final XMLEventReader reader;
   private final Tokenizer sentenceTokenizer;
   private final List<WikipediaSentence> sentences;
@@ -63,8 +64,13 @@ public class WikipediaSentenceSource extends SentenceSource {
 
   /** @since 3.0 */
   WikipediaSentenceSource(InputStream xmlInput, Language language, Pattern filter) {
+    this(xmlInput, language, filter, createTextFilter());
+  }
+
+  /** @since 6.4 */
+  WikipediaSentenceSource(InputStream xmlInput, Language language, Pattern filter, TextMapFilter textFilter) {
     super(language, filter);
-    textFilter.enableMapping(false);  // improves performance
+    this.textFilter = textFilter;
     try {
       System.setProperty("jdk.xml.totalEntitySizeLimit", String.valueOf(Integer.MAX_VALUE));  // see https://github.com/dbpedia/extraction-framework/issues/487
       XMLInputFactory factory = XMLInputFactory.newInstance();
@@ -77,6 +83,16 @@ public class WikipediaSentenceSource extends SentenceSource {
     }
   }
 
+  static TextMapFilter createTextFilter() {
+    SwebleWikipediaTextFilter textFilter = new SwebleWikipediaTextFilter();
+    textFilter.enableMapping(false);  // improves performance
+    return textFilter;
+  }
+
+  static boolean isRedirect(String wikiText) {
+    return wikiText.trim().toLowerCase().startsWith("#redirect");
+  }
+
   @Override
   public boolean hasNext() {
     try {
@@ -148,7 +164,7 @@ public class WikipediaSentenceSource extends SentenceSource {
       event = reader.nextEvent();
     }
     try {
-      if (sb.toString().trim().toLowerCase().startsWith("#redirect")) {
+      if (isRedirect(sb.toString())) {
         redirectSkipCount++;
         return;
       }
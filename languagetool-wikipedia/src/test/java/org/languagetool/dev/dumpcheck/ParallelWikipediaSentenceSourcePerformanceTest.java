@@ -0,0 +1,111 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.dev.wikipedia.PlainTextMapping;
+import org.languagetool.dev.wikipedia.TextMapFilter;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Compare the sentences per second of {@link WikipediaSentenceSource} reading a bz2-compressed
+ * dump with those of {@link ParallelWikipediaSentenceSource}. Uses a generated multistream dump,
+ * or the dump given as the first argument. As the Sweble conversion is disabled in this version,
+ * a simple regex-based markup filter is used for both.
+ * Not a unit test, for interactive use only.
+ */
+final class ParallelWikipediaSentenceSourcePerformanceTest {
+
+  private static final int PAGES = 20_000;
+  private static final Pattern LINK = Pattern.compile("\\[\\[(?:[^|\\]]*\\|)?([^\\]]*)]]");
+  private static final Pattern TEMPLATE = Pattern.compile("\\{\\{[^}]*}}");
+  private static final TextMapFilter MARKUP_FILTER = text -> new PlainTextMapping(
+    TEMPLATE.matcher(LINK.matcher(text).replaceAll("$1")).replaceAll("").replace("'''", "").replace("''", ""), null);
+  private static final String[] SENTENCES = {
+    "The '''city''' is located on the [[River Thames|river]] near the coast.",
+    "It was founded in the 12th century by [[Monks|monks]] from {{lang|fr|Normandy}}.",
+    "Its population grew quickly during the [[Industrial Revolution]].",
+    "Today it is known for its ''university'' and its old [[Cathedral|cathedral]].",
+    "The climate is mild, with rainfall throughout the year.{{citation needed}}",
+  };
+
+  private void run(File dump, Language lang) throws IOException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    System.out.println("Dump: " + dump + " (" + dump.length() / 1024 + "KB), " + threads + " threads");
+    for (String name : new String[]{"WikipediaSentenceSource (warm-up)", "WikipediaSentenceSource"}) {
+      try (InputStream input = new BZip2CompressorInputStream(new BufferedInputStream(new FileInputStream(dump)), true)) {
+        measure(name, new WikipediaSentenceSource(input, lang, null, MARKUP_FILTER));
+      }
+    }
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(dump, lang, null, threads, true, () -> MARKUP_FILTER)) {
+      measure("ParallelWikipediaSentenceSource, ordered, multistream=" + source.isMultistream(), source);
+    }
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(dump, lang, null, threads, false, () -> MARKUP_FILTER)) {
+      measure("ParallelWikipediaSentenceSource, unordered, multistream=" + source.isMultistream(), source);
+    }
+  }
+
+  private void measure(String name, SentenceSource source) {
+    long startTime = System.nanoTime();
+    long sentences = 0;
+    while (source.hasNext()) {
+      source.next();
+      sentences++;
+    }
+    double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+    System.err.printf("%s: %d sentences in %.1fs, %.0f sentences/s%n", name, sentences, seconds, sentences / seconds);
+  }
+
+  private static File createDump() throws IOException {
+    Random rnd = new Random(42);
+    List<String> pages = new ArrayList<>();
+    for (int i = 1; i <= PAGES; i++) {
+      StringBuilder text = new StringBuilder();
+      int sentences = 5 + rnd.nextInt(40);
+      for (int j = 0; j < sentences; j++) {
+        text.append(SENTENCES[rnd.nextInt(SENTENCES.length)]).append(j % 5 == 4 ? "\n\n" : " ");
+      }
+      pages.add("  <page>\n    <title>Page " + i + "</title>\n    <ns>0</ns>\n    <id>" + i + "</id>\n" +
+        "    <revision>\n      <text xml:space=\"preserve\">" + text.toString().replace("&", "&amp;").replace("<", "&lt;") + "</text>\n" +
+        "    </revision>\n  </page>\n");
+    }
+    File dump = File.createTempFile("wikipedia-multistream", ".xml.bz2");
+    dump.deleteOnExit();
+    ParallelWikipediaSentenceSourceTest.writeMultistreamDump(dump, pages, ParallelWikipediaSentenceSource.PAGES_PER_TASK);
+    return dump;
+  }
+
+  public static void main(String[] args) throws IOException {
+    File dump = args.length > 0 ? new File(args[0]) : createDump();
+    Language lang = Languages.getLanguageForShortCode(args.length > 1 ? args[1] : "en-US");
+    new ParallelWikipediaSentenceSourcePerformanceTest().run(dump, lang);
+  }
+
+}
@@ -0,0 +1,218 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.Language;
+import org.languagetool.language.Demo;
+import org.languagetool.dev.wikipedia.PlainTextMapping;
+import org.languagetool.dev.wikipedia.TextMapFilter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParallelWikipediaSentenceSourceTest {
+
+  private static final TextMapFilter PLAIN_TEXT_FILTER = text -> new PlainTextMapping(text, null);
+
+  private final Language lang = new Demo();
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testMultistreamDump() throws IOException {
+    List<String> pages = createPages(350);
+    File dump = tempFolder.newFile("test-multistream.xml.bz2");
+    writeMultistreamDump(dump, pages, 100);
+    List<String> expected = getSentences(new WikipediaSentenceSource(
+      new ByteArrayInputStream(getXml(pages).getBytes(StandardCharsets.UTF_8)), lang, null, PLAIN_TEXT_FILTER));
+    assertEquals(315 * 2, expected.size());
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(dump, lang, null, 3, true, () -> PLAIN_TEXT_FILTER)) {
+      assertTrue(source.isMultistream());
+      assertEquals(expected, getSentences(source));
+    }
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(dump, lang, null, 3, false, () -> PLAIN_TEXT_FILTER)) {
+      // pages are numbered in the order they are returned, so ignore the number:
+      assertEquals(sortWithoutArticleCount(expected), sortWithoutArticleCount(getSentences(source)));
+    }
+  }
+
+  @Test
+  public void testSingleStreamAndXml() throws IOException {
+    List<String> pages = createPages(250);
+    String xml = getXml(pages);
+    List<String> expected = getSentences(new WikipediaSentenceSource(
+      new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), lang, null, PLAIN_TEXT_FILTER));
+    File xmlDump = tempFolder.newFile("test.xml");
+    Files.write(xmlDump.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(xmlDump, lang, null, 2, true, () -> PLAIN_TEXT_FILTER)) {
+      assertFalse(source.isMultistream());
+      assertEquals(expected, getSentences(source));
+    }
+    File bz2Dump = tempFolder.newFile("test.xml.bz2");
+    writeMultistreamDump(bz2Dump, pages, Integer.MAX_VALUE);
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(bz2Dump, lang, null, 2, true, () -> PLAIN_TEXT_FILTER)) {
+      assertFalse(source.isMultistream());
+      assertEquals(expected, getSentences(source));
+    }
+  }
+
+  @Test
+  public void testConcatenatedStreamsWithoutSiteInfoStream() throws IOException {
+    // e.g. compressed by a parallel bzip2, which splits the text anywhere, not at pages:
+    List<String> pages = createPages(250);
+    String xml = getXml(pages);
+    List<String> expected = getSentences(new WikipediaSentenceSource(
+      new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), lang, null, PLAIN_TEXT_FILTER));
+    File dump = tempFolder.newFile("test-concatenated.xml.bz2");
+    try (OutputStream out = new FileOutputStream(dump)) {
+      int split = xml.indexOf("<title>Page 100<");
+      out.write(compress(xml.substring(0, split)));
+      out.write(compress(xml.substring(split)));
+    }
+    try (ParallelWikipediaSentenceSource source = new ParallelWikipediaSentenceSource(dump, lang, null, 2, true, () -> PLAIN_TEXT_FILTER)) {
+      assertFalse(source.isMultistream());
+      assertEquals(expected, getSentences(source));
+    }
+  }
+
+  @Test
+  public void testStreamSplitter() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<byte[]> streams = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      byte[] stream = compress("Stream " + i + " " + String.join(" ", Collections.nCopies(i * 1000, "text")));
+      streams.add(stream);
+      out.write(stream);
+    }
+    ParallelWikipediaSentenceSource.StreamSplitter splitter = new ParallelWikipediaSentenceSource.StreamSplitter(
+      new ByteArrayInputStream(out.toByteArray()), 10_000);
+    for (byte[] stream : streams) {
+      assertTrue(splitter.hasNext());
+      assertArrayEquals(stream, splitter.nextStream());
+    }
+    assertFalse(splitter.hasNext());
+    assertNull(splitter.nextStream());
+    // no other stream header within the limit:
+    ParallelWikipediaSentenceSource.StreamSplitter smallSplitter = new ParallelWikipediaSentenceSource.StreamSplitter(
+      new ByteArrayInputStream(streams.get(4)), 10);
+    try {
+      smallSplitter.nextStream();
+      fail();
+    } catch (ParallelWikipediaSentenceSource.StreamTooLongException expected) {
+    }
+    // a smaller limit for a single stream:
+    ParallelWikipediaSentenceSource.StreamSplitter limitedSplitter = new ParallelWikipediaSentenceSource.StreamSplitter(
+      new ByteArrayInputStream(out.toByteArray()), 10_000);
+    assertArrayEquals(streams.get(0), limitedSplitter.nextStream(streams.get(0).length + 10));
+    try {
+      limitedSplitter.nextStream(10);
+      fail();
+    } catch (ParallelWikipediaSentenceSource.StreamTooLongException expected) {
+    }
+  }
+
+  private List<String> getSentences(SentenceSource source) {
+    List<String> result = new ArrayList<>();
+    while (source.hasNext()) {
+      Sentence sentence = source.next();
+      result.add(sentence.getText() + " | " + sentence.getTitle() + " | " + sentence.getUrl() + " | " + sentence.getArticleCount());
+    }
+    return result;
+  }
+
+  private List<String> sortWithoutArticleCount(List<String> sentences) {
+    List<String> result = new ArrayList<>();
+    for (String sentence : sentences) {
+      result.add(sentence.substring(0, sentence.lastIndexOf(" | ")));
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  // every 10th page is a redirect:
+  static List<String> createPages(int count) {
+    List<String> pages = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      String text = i % 10 == 0 ? "#REDIRECT [[Page " + (i - 1) + "]]"
+        : "This is the text of page " + i + ". It has two sentences &amp; an ampersand. Short.";
+      pages.add("  <page>\n" +
+        "    <title>Page " + i + "</title>\n" +
+        "    <ns>0</ns>\n" +
+        "    <id>" + i + "</id>\n" +
+        "    <revision>\n" +
+        "      <text xml:space=\"preserve\">" + text + "</text>\n" +
+        "    </revision>\n" +
+        "  </page>\n");
+    }
+    return pages;
+  }
+
+  static String getXml(List<String> pages) {
+    return getHeader() + String.join("", pages) + getFooter();
+  }
+
+  /**
+   * Write a dump like Wikipedia's multistream dumps: a stream with the header, streams
+   * of {@code pagesPerStream} pages, and a stream with the footer.
+   */
+  static void writeMultistreamDump(File file, List<String> pages, int pagesPerStream) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      if (pagesPerStream == Integer.MAX_VALUE) {
+        out.write(compress(getXml(pages)));
+        return;
+      }
+      out.write(compress(getHeader()));
+      for (int i = 0; i < pages.size(); i += pagesPerStream) {
+        out.write(compress(String.join("", pages.subList(i, Math.min(i + pagesPerStream, pages.size())))));
+      }
+      out.write(compress(getFooter()));
+    }
+  }
+
+  private static byte[] compress(String s) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (BZip2CompressorOutputStream bz2 = new BZip2CompressorOutputStream(out)) {
+      bz2.write(s.getBytes(StandardCharsets.UTF_8));
+    }
+    return out.toByteArray();
+  }
+
+  private static String getHeader() {
+    return "<mediawiki xmlns=\"http://www.mediawiki.org/xml/export-0.10/\" version=\"0.10\" xml:lang=\"xx\">\n" +
+      "  <siteinfo>\n" +
+      "    <sitename>Wikipedia</sitename>\n" +
+      "  </siteinfo>\n";
+  }
+
+  private static String getFooter() {
+    return "</mediawiki>\n";
+  }
+
+}
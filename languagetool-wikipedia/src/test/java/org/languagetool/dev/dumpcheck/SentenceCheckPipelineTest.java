@@ -0,0 +1,111 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2024 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SentenceCheckPipelineTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final Language lang = new Demo();
+
+  @Test
+  public void testOrderedAndUnordered() throws IOException {
+    List<Sentence> sentences = getSentences(25);
+    Map<String, String> expected = check(sentences, 1, 4, true);
+    assertTrue(expected.values().stream().anyMatch(matches -> !matches.isEmpty()));
+    Map<String, String> ordered = check(sentences, 3, 4, true);
+    assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(ordered.keySet()));
+    assertEquals(expected, ordered);
+    assertEquals(expected, check(sentences, 3, 2, false));
+  }
+
+  @Test
+  public void testCheckpoint() throws IOException {
+    List<Sentence> sentences = getSentences(30);
+    File file = new File(tempFolder.getRoot(), "checkpoint.properties");
+    SentenceCheckPipeline pipeline = new SentenceCheckPipeline(getLanguageTools(2), 5, true, false);
+    List<String> handled = new ArrayList<>();
+    try {
+      pipeline.run(sentences.iterator(), 0, (sentence, matches) -> {
+        if (handled.size() == 12) {
+          throw new DocumentLimitReachedException(12);
+        }
+        handled.add(sentence.getText());
+      }, new Checkpoint(file));
+      fail();
+    } catch (DocumentLimitReachedException expected) {}
+    // only complete batches count:
+    Checkpoint checkpoint = new Checkpoint(file);
+    assertEquals(10, checkpoint.getPosition());
+    List<String> resumed = new ArrayList<>();
+    pipeline.run(sentences.iterator(), checkpoint.getPosition(), (sentence, matches) -> resumed.add(sentence.getText()), checkpoint);
+    assertEquals(20, resumed.size());
+    assertEquals(sentences.get(10).getText(), resumed.get(0));
+    assertEquals(30, new Checkpoint(file).getPosition());
+  }
+
+  private Map<String, String> check(List<Sentence> sentences, int threads, int batchSize, boolean ordered) throws IOException {
+    Map<String, String> result = new LinkedHashMap<>();
+    SentenceCheckPipeline pipeline = new SentenceCheckPipeline(getLanguageTools(threads), batchSize, ordered, false);
+    pipeline.run(sentences.iterator(), 0, (sentence, matches) -> result.put(sentence.getText(), toString(matches)), null);
+    assertEquals(sentences.size(), result.size());
+    return result;
+  }
+
+  private String toString(List<RuleMatch> matches) {
+    StringBuilder sb = new StringBuilder();
+    for (RuleMatch match : matches) {
+      sb.append(match.getSpecificRuleId()).append('/').append(match.getFromPos()).append('-').append(match.getToPos()).append(' ');
+    }
+    return sb.toString();
+  }
+
+  private List<JLanguageTool> getLanguageTools(int count) {
+    List<JLanguageTool> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(new JLanguageTool(lang));
+    }
+    return result;
+  }
+
+  private List<Sentence> getSentences(int count) {
+    List<Sentence> sentences = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String text = i % 2 == 0 ? "This is my test number " + i + "." : "Here is another sentence, number " + i + ".";
+      sentences.add(new Sentence(text, "test", "title", null, i));
+    }
+    return sentences;
+  }
+
+}